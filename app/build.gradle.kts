@@ -32,11 +32,80 @@ android {
     buildFeatures {
         viewBinding = true
     }
+    androidResources {
+        // catalog_*.bin is memory-mapped, like the model
+        noCompress += "bin"
+    }
+    sourceSets {
+        getByName("main") {
+            assets.srcDir(layout.buildDirectory.dir("generated/catalog").get().asFile)
+            assets.srcDir(layout.buildDirectory.dir("generated/modelDigest").get().asFile)
+        }
+    }
+}
+
+// Compiles assets/prices_N.json + label_N.txt into catalog_N.bin (see
+// CatalogFile). The compiler is the app's own pure-Java CatalogCompiler,
+// built separately so it can run before the app itself is compiled.
+val catalogToolSources = listOf("CatalogCompiler", "CatalogFile", "PriceCatalog", "Money")
+    .map { "src/main/java/com/example/smartshopping/$it.java" }
+
+val compileCatalogTool by tasks.registering(JavaCompile::class) {
+    source(catalogToolSources)
+    classpath = files()
+    destinationDirectory.set(layout.buildDirectory.dir("catalogTool"))
+    sourceCompatibility = "1.8"
+    targetCompatibility = "1.8"
+    options.compilerArgs.add("-Xlint:-options")
+}
+
+val compileCatalog by tasks.registering(JavaExec::class) {
+    val assets = file("src/main/assets")
+    val out = layout.buildDirectory.dir("generated/catalog")
+    inputs.files(fileTree(assets) { include("prices_*.json", "label_*.txt") })
+    outputs.dir(out)
+    classpath(compileCatalogTool)
+    mainClass.set("com.example.smartshopping.CatalogCompiler")
+    args(assets.absolutePath, out.get().asFile.absolutePath)
+}
+
+// Writes <model>.sha256 for each assets/*.tflite, so the backend tuning
+// cache (BackendTuner.cacheKey) tells a retrained model from the old one
+// without hashing it at every app start.
+val modelDigests by tasks.registering {
+    val models = fileTree("src/main/assets") { include("*.tflite") }
+    val out = layout.buildDirectory.dir("generated/modelDigest")
+    inputs.files(models)
+    outputs.dir(out)
+    doLast {
+        val dir = out.get().asFile
+        dir.deleteRecursively()
+        dir.mkdirs()
+        models.forEach { model ->
+            val digest = java.security.MessageDigest.getInstance("SHA-256")
+            model.inputStream().use { input ->
+                val buf = ByteArray(1 shl 16)
+                while (true) {
+                    val n = input.read(buf)
+                    if (n < 0) break
+                    digest.update(buf, 0, n)
+                }
+            }
+            val hex = digest.digest().joinToString("") { "%02x".format(it) }
+            File(dir, model.name + ".sha256").writeText(hex + "\n")
+        }
+    }
+}
+
+tasks.named("preBuild") {
+    dependsOn(compileCatalog, modelDigests)
 }
 
 dependencies {
 
     implementation("org.tensorflow:tensorflow-lite:2.14.0")
+    implementation("org.tensorflow:tensorflow-lite-gpu:2.14.0")
+    implementation("org.tensorflow:tensorflow-lite-gpu-api:2.14.0")
     implementation("androidx.camera:camera-camera2:1.3.0")
     implementation("androidx.camera:camera-lifecycle:1.3.0")
     implementation("androidx.camera:camera-view:1.3.0")
@@ -0,0 +1,58 @@
+package com.example.smartshopping;
+
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.Future;
+import java.util.concurrent.FutureTask;
+
+/**
+ * Runs an expensive load at most once, on a background executor, and
+ * lets any number of callers pick up the result. A failed load is
+ * retried on the next {@link #start()}.
+ */
+public class AsyncLoader<T> {
+
+    private final Executor executor;
+    private final Callable<T> task;
+
+    private FutureTask<T> future;
+    private volatile boolean failed;
+
+    public AsyncLoader(Executor executor, Callable<T> task) {
+        this.executor = executor;
+        this.task = task;
+    }
+
+    /** Starts the load unless it is running or already succeeded. */
+    public synchronized Future<T> start() {
+        if (future == null || failed) {
+            failed = false;
+            future = new FutureTask<>(() -> {
+                try {
+                    return task.call();
+                } catch (Exception | Error e) {
+                    failed = true;
+                    throw e;
+                }
+            });
+            executor.execute(future);
+        }
+        return future;
+    }
+
+    /** Starts if needed and blocks until loaded. */
+    public T await() throws InterruptedException, ExecutionException {
+        return start().get();
+    }
+
+    /** @return the loaded value, or null if not (successfully) loaded yet */
+    public synchronized T getIfReady() {
+        if (future == null || !future.isDone() || failed) return null;
+        try {
+            return future.get();
+        } catch (Exception e) {
+            return null;
+        }
+    }
+}
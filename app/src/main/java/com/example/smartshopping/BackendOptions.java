@@ -0,0 +1,151 @@
+package com.example.smartshopping;
+
+/**
+ * How to build an {@link InferenceBackend}. Immutable; use {@link #builder()}.
+ */
+public final class BackendOptions {
+
+    public enum Accelerator { CPU, NNAPI, GPU }
+
+    private final Accelerator accelerator;
+    private final int threads;
+    private final boolean xnnpack;
+    private final boolean allowFp16;
+
+    private BackendOptions(Builder b) {
+        accelerator = b.accelerator;
+        threads = b.threads;
+        xnnpack = b.xnnpack;
+        allowFp16 = b.allowFp16;
+    }
+
+    /** CPU with XNNPACK, up to four threads. */
+    public static BackendOptions defaults() {
+        return builder()
+                .threads(Math.min(4, Runtime.getRuntime().availableProcessors()))
+                .build();
+    }
+
+    public static Builder builder() {
+        return new Builder();
+    }
+
+    public Builder toBuilder() {
+        return new Builder()
+                .accelerator(accelerator)
+                .threads(threads)
+                .xnnpack(xnnpack)
+                .allowFp16(allowFp16);
+    }
+
+    // ===== GETTERS =====
+
+    public Accelerator getAccelerator() {
+        return accelerator;
+    }
+
+    public int getThreads() {
+        return threads;
+    }
+
+    public boolean useXnnpack() {
+        return xnnpack;
+    }
+
+    public boolean allowFp16() {
+        return allowFp16;
+    }
+
+    public String describe() {
+        StringBuilder sb = new StringBuilder(accelerator.name());
+        if (accelerator == Accelerator.CPU) {
+            sb.append(" x").append(threads);
+            if (xnnpack) sb.append(" xnnpack");
+        }
+        if (allowFp16) sb.append(" fp16");
+        return sb.toString();
+    }
+
+    /** Compact form for persisting, read back by {@link #decode}. */
+    public String encode() {
+        return accelerator.name() + ";" + threads + ";"
+                + (xnnpack ? 1 : 0) + ";" + (allowFp16 ? 1 : 0);
+    }
+
+    /** @return null if {@code s} is null or not something {@link #encode} wrote */
+    public static BackendOptions decode(String s) {
+        if (s == null) return null;
+        String[] parts = s.split(";");
+        if (parts.length != 4) return null;
+        try {
+            return builder()
+                    .accelerator(Accelerator.valueOf(parts[0]))
+                    .threads(Integer.parseInt(parts[1]))
+                    .xnnpack("1".equals(parts[2]))
+                    .allowFp16("1".equals(parts[3]))
+                    .build();
+        } catch (IllegalArgumentException e) {
+            return null;
+        }
+    }
+
+    @Override
+    public String toString() {
+        return describe();
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) return true;
+        if (!(o instanceof BackendOptions)) return false;
+        BackendOptions other = (BackendOptions) o;
+        return accelerator == other.accelerator
+                && threads == other.threads
+                && xnnpack == other.xnnpack
+                && allowFp16 == other.allowFp16;
+    }
+
+    @Override
+    public int hashCode() {
+        int h = accelerator.hashCode();
+        h = 31 * h + threads;
+        h = 31 * h + (xnnpack ? 1 : 0);
+        h = 31 * h + (allowFp16 ? 1 : 0);
+        return h;
+    }
+
+    // ===== BUILDER =====
+
+    public static final class Builder {
+        private Accelerator accelerator = Accelerator.CPU;
+        private int threads = 1;
+        private boolean xnnpack = true;
+        private boolean allowFp16 = false;
+
+        public Builder accelerator(Accelerator accelerator) {
+            this.accelerator = accelerator;
+            return this;
+        }
+
+        /** CPU threads; also used by TFLite for ops a delegate rejects. */
+        public Builder threads(int threads) {
+            this.threads = Math.max(1, threads);
+            return this;
+        }
+
+        public Builder xnnpack(boolean xnnpack) {
+            this.xnnpack = xnnpack;
+            return this;
+        }
+
+        /** Let delegates run fp32 graphs in fp16. */
+        public Builder allowFp16(boolean allowFp16) {
+            this.allowFp16 = allowFp16;
+            return this;
+        }
+
+        public BackendOptions build() {
+            return new BackendOptions(this);
+        }
+    }
+}
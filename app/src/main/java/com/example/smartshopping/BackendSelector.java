@@ -0,0 +1,61 @@
+package com.example.smartshopping;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Opens a backend, stepping down to plainer configurations when a
+ * delegate refuses to initialise: requested -> same on CPU -> bare CPU
+ * without XNNPACK. Delegates fail in creative ways across SoCs (missing
+ * drivers, unsupported ops, native link errors), so everything thrown
+ * during creation counts as "try the next one".
+ */
+public class BackendSelector {
+
+    public interface Factory {
+        InferenceBackend create(BackendOptions options) throws Exception;
+    }
+
+    private final Factory factory;
+    private final List<String> failures = new ArrayList<>();
+
+    public BackendSelector(Factory factory) {
+        this.factory = factory;
+    }
+
+    /** Configurations tried for {@code requested}, in order. */
+    public static List<BackendOptions> fallbackChain(BackendOptions requested) {
+        List<BackendOptions> chain = new ArrayList<>();
+        chain.add(requested);
+
+        BackendOptions cpu = requested.toBuilder()
+                .accelerator(BackendOptions.Accelerator.CPU)
+                .build();
+        if (!chain.contains(cpu)) chain.add(cpu);
+
+        BackendOptions bare = cpu.toBuilder().xnnpack(false).build();
+        if (!chain.contains(bare)) chain.add(bare);
+
+        return chain;
+    }
+
+    public InferenceBackend open(BackendOptions requested) {
+        failures.clear();
+
+        for (BackendOptions options : fallbackChain(requested)) {
+            try {
+                return factory.create(options);
+            } catch (Exception | LinkageError e) {
+                failures.add(options.describe() + ": " + e);
+            }
+        }
+
+        throw new IllegalStateException(
+                "No inference backend could be created: " + failures);
+    }
+
+    /** Why each skipped configuration was rejected by the last {@link #open}. */
+    public List<String> getFailures() {
+        return failures;
+    }
+}
@@ -0,0 +1,161 @@
+package com.example.smartshopping;
+
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * One-off calibration: times every candidate backend on a sample input
+ * and picks the fastest. Candidates that fail to open are skipped.
+ */
+public class BackendTuner {
+
+    public static final int DEFAULT_WARMUP = 3;
+    public static final int DEFAULT_TIMED = 8;
+
+    private final BackendSelector.Factory factory;
+    private int warmupRuns = DEFAULT_WARMUP;
+    private int timedRuns = DEFAULT_TIMED;
+
+    public BackendTuner(BackendSelector.Factory factory) {
+        this.factory = factory;
+    }
+
+    public void setRuns(int warmup, int timed) {
+        warmupRuns = warmup;
+        timedRuns = Math.max(1, timed);
+    }
+
+    // ===== RESULT =====
+
+    public static class Result {
+        /** Median nanoseconds per inference, in the order tried. */
+        public final Map<BackendOptions, Long> medianNanos = new LinkedHashMap<>();
+        public final List<String> failures = new ArrayList<>();
+        public BackendOptions best;
+    }
+
+    // ===== CANDIDATES =====
+
+    /** GPU and NNAPI, then CPU+XNNPACK at 1, 2, 4 and all cores. */
+    public static List<BackendOptions> candidates(int cores) {
+        List<BackendOptions> list = new ArrayList<>();
+        int threads = Math.min(4, cores);
+
+        list.add(BackendOptions.builder()
+                .accelerator(BackendOptions.Accelerator.GPU)
+                .threads(threads)
+                .allowFp16(true)
+                .build());
+        list.add(BackendOptions.builder()
+                .accelerator(BackendOptions.Accelerator.NNAPI)
+                .threads(threads)
+                .allowFp16(true)
+                .build());
+
+        for (int t : new int[]{1, 2, 4, cores}) {
+            if (t > cores) continue;
+            BackendOptions cpu = BackendOptions.builder().threads(t).build();
+            if (!list.contains(cpu)) list.add(cpu);
+        }
+        return list;
+    }
+
+    // ===== TUNE =====
+
+    /**
+     * @throws IllegalStateException if no candidate could be opened
+     */
+    public Result tune(List<BackendOptions> candidates) {
+        Result result = new Result();
+        long bestNanos = Long.MAX_VALUE;
+
+        ByteBuffer input = null;
+        ByteBuffer output = null;
+
+        for (BackendOptions options : candidates) {
+            InferenceBackend backend;
+            try {
+                backend = factory.create(options);
+            } catch (Exception | LinkageError e) {
+                result.failures.add(options.describe() + ": " + e);
+                continue;
+            }
+
+            try {
+                if (input == null) {
+                    input = sampleInput(backend.getInputSpec());
+                    output = ByteBuffer.allocateDirect(backend.getOutputSpec().bytes())
+                            .order(ByteOrder.nativeOrder());
+                }
+
+                long median = time(backend, input, output);
+                result.medianNanos.put(options, median);
+
+                if (median < bestNanos) {
+                    bestNanos = median;
+                    result.best = options;
+                }
+            } catch (RuntimeException e) {
+                result.failures.add(options.describe() + ": " + e);
+            } finally {
+                backend.close();
+            }
+        }
+
+        if (result.best == null) {
+            throw new IllegalStateException("No backend could be tuned: " + result.failures);
+        }
+        return result;
+    }
+
+    private long time(InferenceBackend backend, ByteBuffer input, ByteBuffer output) {
+        for (int i = 0; i < warmupRuns; i++) {
+            output.rewind();
+            backend.run(input, output);
+        }
+
+        long[] samples = new long[timedRuns];
+        for (int i = 0; i < timedRuns; i++) {
+            output.rewind();
+            long start = System.nanoTime();
+            backend.run(input, output);
+            samples[i] = System.nanoTime() - start;
+        }
+
+        Arrays.sort(samples);
+        return samples[timedRuns / 2];
+    }
+
+    /** Mid-grey frame; conv latency doesn't depend on content. */
+    private static ByteBuffer sampleInput(TensorSpec spec) {
+        ByteBuffer input = ByteBuffer.allocateDirect(spec.bytes()).order(ByteOrder.nativeOrder());
+        int size = spec.dim(1);
+
+        PixelPacker packer = new PixelPacker(input, spec, size);
+        packer.begin();
+        for (int y = 0; y < size; y++) {
+            for (int x = 0; x < size; x++) packer.put(x, 114, 114, 114);
+            packer.endRow(size);
+        }
+        packer.end();
+        return input;
+    }
+
+    // ===== CACHE KEY =====
+
+    /**
+     * Cache key for a tuning result. Built from cheap metadata only, so a
+     * cached launch never reads the model: the device, its OS build
+     * fingerprint (a GPU driver or OS update re-tunes) and the model's
+     * digest, computed at build time.
+     */
+    public static String cacheKey(String manufacturer, String model, String buildFingerprint,
+                                  String modelDigest) {
+        return "v3/" + manufacturer + "/" + model + "/" + buildFingerprint + "/" + modelDigest;
+    }
+}
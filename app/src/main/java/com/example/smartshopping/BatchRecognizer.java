@@ -0,0 +1,272 @@
+package com.example.smartshopping;
+
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Recognition over a list of still frames, for shelf audits rather than
+ * live checkout. Two ways to keep the hardware busy, picked at
+ * {@link #open}:
+ *  - batched: one backend resized to batch N, N frames per run;
+ *  - pipelined: when the model only takes batch 1, several backends on
+ *    their own threads, each packing and running the next free frame.
+ *
+ * Results stream to the {@link Listener} as each frame finishes, so the
+ * caller can show progress or write a report without holding them all.
+ */
+public class BatchRecognizer {
+
+    public static final float DEFAULT_THRESHOLD = 0.4f;
+
+    /** The frames to run; {@link #pack} is called from several threads at once. */
+    public interface Frames {
+        int count();
+
+        /**
+         * Writes frame {@code index} into {@code input} (one image,
+         * laid out per {@code spec}) and sets up {@code letterbox} so
+         * boxes map back onto it.
+         */
+        void pack(int index, ByteBuffer input, TensorSpec spec, Letterbox letterbox)
+                throws Exception;
+    }
+
+    /**
+     * Called from worker threads, one call at a time, in completion order
+     * (not frame order).
+     */
+    public interface Listener {
+        /** {@code result} is reused: copy out what you need before returning. */
+        void onResult(Result result);
+
+        void onError(int index, Exception e);
+    }
+
+    /** One frame's detections after NMS, boxes in frame pixels, best first. */
+    public static class Result extends DetectionBuffer {
+        public int index;
+
+        Result(int capacity) {
+            super(capacity, null);
+        }
+    }
+
+    /** Throughput of one {@link #run}. */
+    public static class Stats {
+        public final int images;
+        public final int failed;
+        public final long wallNanos;
+
+        Stats(int images, int failed, long wallNanos) {
+            this.images = images;
+            this.failed = failed;
+            this.wallNanos = wallNanos;
+        }
+
+        public double imagesPerSecond() {
+            return wallNanos <= 0 ? 0 : images * 1e9 / wallNanos;
+        }
+
+        public String describe() {
+            return String.format(Locale.US, "%d images (%d failed) in %d ms: %.1f images/s",
+                    images, failed, wallNanos / 1_000_000, imagesPerSecond());
+        }
+    }
+
+    private final List<DetectorHead> heads;
+    private float threshold = DEFAULT_THRESHOLD;
+
+    public BatchRecognizer(List<DetectorHead> heads) {
+        if (heads.isEmpty()) throw new IllegalArgumentException("No heads");
+        this.heads = new ArrayList<>(heads);
+    }
+
+    /**
+     * Tries one backend resized to {@code batch}; if the model won't take
+     * it, falls back to up to {@code workers} batch-1 backends.
+     *
+     * @throws Exception if not even one backend opens
+     */
+    public static BatchRecognizer open(InferenceBackend.Opener opener, int numClasses,
+                                       int batch, int workers) throws Exception {
+        List<DetectorHead> heads = new ArrayList<>();
+
+        if (batch > 1) {
+            InferenceBackend b = opener.open();
+            try {
+                int size = b.getInputSpec().dim(1);
+                b.resizeInput(batch, size, size);
+                heads.add(new DetectorHead(b, numClasses));
+                return new BatchRecognizer(heads);
+            } catch (RuntimeException e) {
+                // fixed batch dimension: pipeline single images instead
+                b.close();
+            }
+        }
+
+        for (int i = 0; i < Math.max(1, workers); i++) {
+            try {
+                heads.add(new DetectorHead(opener.open(), numClasses));
+            } catch (Exception e) {
+                if (heads.isEmpty()) throw e;
+                break;   // out of memory or delegate slots: run with what we have
+            }
+        }
+        return new BatchRecognizer(heads);
+    }
+
+    public void setThreshold(float threshold) {
+        this.threshold = threshold;
+    }
+
+    public boolean isBatched() {
+        return heads.get(0).getBatchSize() > 1;
+    }
+
+    /** Frames in flight at once: the batch size, or the number of pipelined backends. */
+    public int getParallelism() {
+        return isBatched() ? heads.get(0).getBatchSize() : heads.size();
+    }
+
+    public String describe() {
+        return isBatched()
+                ? "batched x" + heads.get(0).getBatchSize()
+                : "pipelined on " + heads.size() + " backend(s)";
+    }
+
+    // ===== RUN =====
+
+    /** Runs every frame, streaming results to {@code listener}; returns when all are done. */
+    public Stats run(Frames frames, Listener listener) throws InterruptedException {
+        long start = System.nanoTime();
+        AtomicInteger next = new AtomicInteger();
+        AtomicInteger failed = new AtomicInteger();
+        Object callbackLock = new Object();
+
+        List<Thread> threads = new ArrayList<>();
+        for (int i = 0; i < heads.size(); i++) {
+            Worker w = new Worker(heads.get(i), frames, listener, next, failed, callbackLock);
+            Thread t = new Thread(w, "batch-" + i);
+            threads.add(t);
+            t.start();
+        }
+        try {
+            for (Thread t : threads) t.join();
+        } catch (InterruptedException e) {
+            for (Thread t : threads) t.interrupt();
+            throw e;
+        }
+
+        return new Stats(frames.count(), failed.get(), System.nanoTime() - start);
+    }
+
+    public void close() {
+        for (DetectorHead h : heads) h.close();
+    }
+
+    /** One backend's loop: claim the next {@code batch} frames, pack, run, report. */
+    private class Worker implements Runnable {
+        private final DetectorHead head;
+        private final Frames frames;
+        private final Listener listener;
+        private final AtomicInteger next;
+        private final AtomicInteger failed;
+        private final Object callbackLock;
+
+        private final ByteBuffer input;
+        private final ByteBuffer[] slots;
+        private final TensorSpec slotSpec;
+        private final Letterbox[] letterboxes;
+        private final boolean[] packed;
+        private final Result result;
+
+        Worker(DetectorHead head, Frames frames, Listener listener,
+               AtomicInteger next, AtomicInteger failed, Object callbackLock) {
+            this.head = head;
+            this.frames = frames;
+            this.listener = listener;
+            this.next = next;
+            this.failed = failed;
+            this.callbackLock = callbackLock;
+
+            TensorSpec spec = head.getInputSpec();
+            int n = head.getBatchSize();
+            int[] shape = spec.getShape();
+            shape[0] = 1;
+            slotSpec = new TensorSpec(shape, spec.getType(), spec.getScale(), spec.getZeroPoint());
+
+            input = ByteBuffer.allocateDirect(spec.bytes());
+            input.order(ByteOrder.nativeOrder());
+            slots = new ByteBuffer[n];
+            letterboxes = new Letterbox[n];
+            packed = new boolean[n];
+            for (int i = 0; i < n; i++) {
+                input.position(i * slotSpec.bytes());
+                input.limit((i + 1) * slotSpec.bytes());
+                slots[i] = input.slice().order(ByteOrder.nativeOrder());
+                input.clear();
+                letterboxes[i] = new Letterbox();
+            }
+            result = new Result(head.getMaxDetections());
+        }
+
+        @Override
+        public void run() {
+            int n = head.getBatchSize();
+            int total = frames.count();
+
+            while (!Thread.currentThread().isInterrupted()) {
+                int first = next.getAndAdd(n);
+                if (first >= total) return;
+                int filled = Math.min(n, total - first);
+
+                int ready = 0;
+                for (int i = 0; i < filled; i++) {
+                    packed[i] = false;
+                    try {
+                        slots[i].clear();
+                        frames.pack(first + i, slots[i], slotSpec, letterboxes[i]);
+                        packed[i] = true;
+                        ready++;
+                    } catch (Exception e) {
+                        fail(first + i, e);
+                    }
+                }
+                if (ready == 0) continue;
+
+                try {
+                    input.clear();
+                    head.infer(input);
+                } catch (RuntimeException e) {
+                    for (int i = 0; i < filled; i++) if (packed[i]) fail(first + i, e);
+                    continue;
+                }
+
+                for (int i = 0; i < filled; i++) {
+                    if (!packed[i]) continue;
+                    int kept = head.suppress(head.decode(i, threshold, letterboxes[i]));
+                    report(first + i, kept);
+                }
+            }
+        }
+
+        private void report(int index, int kept) {
+            synchronized (callbackLock) {
+                result.index = index;
+                head.collect(kept, result);
+                listener.onResult(result);
+            }
+        }
+
+        private void fail(int index, Exception e) {
+            failed.incrementAndGet();
+            synchronized (callbackLock) {
+                listener.onError(index, e);
+            }
+        }
+    }
+}
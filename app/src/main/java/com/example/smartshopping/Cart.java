@@ -0,0 +1,159 @@
+package com.example.smartshopping;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * The shopping cart: one {@link CartItem} line per product, in the order
+ * first added. Products are addressed by class ID (see
+ * {@link LabelResolver}), and an array from class ID to line position
+ * makes add-or-merge and lookup O(1) without hashing; the total is kept
+ * in exact sen (see {@link Money}) as lines change instead of being
+ * re-summed.
+ *
+ * Every change is reported to the {@link Listener} with the exact line
+ * position, so a RecyclerView adapter can animate that one row instead
+ * of rebinding the whole list.
+ *
+ * Not thread-safe; used from the main thread.
+ */
+public class Cart {
+
+    /** Line-level changes, positions as of right after the change. */
+    public interface Listener {
+        void onItemInserted(int position);
+
+        void onItemChanged(int position);
+
+        void onItemRemoved(int position);
+    }
+
+    private final List<CartItem> lines = new ArrayList<>();
+    // class ID -> line position + 1; 0 is not in the cart
+    private int[] index = new int[16];
+    private long totalSen;
+    private int totalQty;
+    private Listener listener;
+
+    public void setListener(Listener listener) {
+        this.listener = listener;
+    }
+
+    // ===== CHANGES =====
+
+    /**
+     * Adds {@code qty} of {@code product}, merging into its line if it is
+     * already in the cart.
+     * @return the line's position
+     */
+    public int add(Product product, int qty) {
+        if (qty <= 0) throw new IllegalArgumentException("qty " + qty);
+
+        int classId = product.getClassId();
+        int at = indexOf(classId);
+        if (at >= 0) {
+            CartItem line = lines.get(at);
+            line.increaseQty(qty);
+            account(line.getPrice(), qty);
+            if (listener != null) listener.onItemChanged(at);
+            return at;
+        }
+
+        CartItem line = new CartItem(product, qty);
+        int position = lines.size();
+        lines.add(line);
+        if (classId >= index.length) index = Arrays.copyOf(index, Math.max(classId + 1, index.length * 2));
+        index[classId] = position + 1;
+        account(line.getPrice(), qty);
+        if (listener != null) listener.onItemInserted(position);
+        return position;
+    }
+
+    /**
+     * Takes {@code qty} of class {@code classId}'s product out of the
+     * cart, dropping the line when none are left.
+     *
+     * @return false if the product is not in the cart
+     * @throws IllegalArgumentException if {@code qty} is more than the line holds
+     */
+    public boolean remove(int classId, int qty) {
+        int at = indexOf(classId);
+        if (at < 0) return false;
+
+        CartItem line = lines.get(at);
+        if (qty <= 0 || qty > line.getQty()) {
+            throw new IllegalArgumentException("qty " + qty + " of " + line.getQty());
+        }
+
+        account(line.getPrice(), -qty);
+        if (qty < line.getQty()) {
+            line.increaseQty(-qty);
+            if (listener != null) listener.onItemChanged(at);
+            return true;
+        }
+
+        lines.remove(at);
+        index[classId] = 0;
+        // lines after it moved up one
+        for (int i = at; i < lines.size(); i++) index[lines.get(i).getProduct().getClassId()] = i + 1;
+        if (listener != null) listener.onItemRemoved(at);
+        return true;
+    }
+
+    public void clear() {
+        for (int i = lines.size() - 1; i >= 0; i--) {
+            lines.remove(i);
+            if (listener != null) listener.onItemRemoved(i);
+        }
+        Arrays.fill(index, 0);
+        totalSen = 0;
+        totalQty = 0;
+    }
+
+    private void account(Money price, int qty) {
+        totalSen = Math.addExact(totalSen, Math.multiplyExact(price.getSen(), (long) qty));
+        totalQty += qty;
+    }
+
+    // ===== READ =====
+
+    /** Position of class {@code classId}'s line, or -1. */
+    public int indexOf(int classId) {
+        return classId >= 0 && classId < index.length ? index[classId] - 1 : -1;
+    }
+
+    /** Class {@code classId}'s line, or null. */
+    public CartItem find(int classId) {
+        int at = indexOf(classId);
+        return at < 0 ? null : lines.get(at);
+    }
+
+    public CartItem get(int position) {
+        return lines.get(position);
+    }
+
+    /** Number of lines (distinct products). */
+    public int size() {
+        return lines.size();
+    }
+
+    public boolean isEmpty() {
+        return lines.isEmpty();
+    }
+
+    /** Sum of every line's price times quantity. */
+    public Money getTotal() {
+        return Money.ofSen(totalSen);
+    }
+
+    /** {@link #getTotal} as raw sen, without the object. */
+    public long getTotalSen() {
+        return totalSen;
+    }
+
+    /** Units across all lines. */
+    public int getTotalQty() {
+        return totalQty;
+    }
+}
@@ -8,14 +8,33 @@ import android.widget.TextView;
 import androidx.annotation.NonNull;
 import androidx.recyclerview.widget.RecyclerView;
 
-import java.util.List;
+/**
+ * Rows of a {@link Cart}. Listens to it, so each add, merge or removal
+ * animates and rebinds just the one row it touched.
+ */
+public class CartAdapter extends RecyclerView.Adapter<CartAdapter.ViewHolder>
+        implements Cart.Listener {
 
-public class CartAdapter extends RecyclerView.Adapter<CartAdapter.ViewHolder> {
+    private final Cart cart;
 
-    private final List<CartItem> cart;
-
-    public CartAdapter(List<CartItem> cart) {
+    public CartAdapter(Cart cart) {
         this.cart = cart;
+        cart.setListener(this);
+    }
+
+    @Override
+    public void onItemInserted(int position) {
+        notifyItemInserted(position);
+    }
+
+    @Override
+    public void onItemChanged(int position) {
+        notifyItemChanged(position);
+    }
+
+    @Override
+    public void onItemRemoved(int position) {
+        notifyItemRemoved(position);
     }
 
     @NonNull
@@ -30,12 +49,12 @@ public class CartAdapter extends RecyclerView.Adapter<CartAdapter.ViewHolder> {
     public void onBindViewHolder(@NonNull ViewHolder holder, int position) {
         CartItem item = cart.get(position);
 
-        String name = item.getName() == null ? "" : item.getName();
-        holder.name.setText(name.replace("_", " ").toUpperCase());
-        holder.qty.setText("x" + item.getQty());
-        holder.price.setText(
-                "RM " + String.format("%.2f", item.getTotal())
-        );
+        // display name as resolved at model load; the layout capitalises it
+        holder.name.setText(item.getName());
+        // formatted into the holder's own buffers: nothing allocated per bind
+        holder.qty.setText(holder.qtyText, 0, formatQty(item.getQty(), holder.qtyText));
+        holder.price.setText(holder.priceText, 0,
+                Money.formatRinggit(item.getTotalSen(), holder.priceText));
     }
 
     @Override
@@ -43,8 +62,19 @@ public class CartAdapter extends RecyclerView.Adapter<CartAdapter.ViewHolder> {
         return cart.size();
     }
 
+    /** {@code "x12"} into {@code buf}; returns its length. */
+    static int formatQty(int qty, char[] buf) {
+        int digits = 1;
+        for (int v = qty; v >= 10; v /= 10) digits++;
+        buf[0] = 'x';
+        for (int i = digits, v = qty; i > 0; i--, v /= 10) buf[i] = (char) ('0' + v % 10);
+        return digits + 1;
+    }
+
     static class ViewHolder extends RecyclerView.ViewHolder {
         TextView name, qty, price;
+        final char[] qtyText = new char[11];
+        final char[] priceText = new char[Money.RINGGIT_CHARS];
 
         ViewHolder(View itemView) {
             super(itemView);
@@ -2,22 +2,26 @@ package com.example.smartshopping;
 
 public class CartItem {
 
-    private String name;
-    private float price;
+    private final Product product;
+    private final Money price;
     private int qty;
 
-    public CartItem(String name, float price, int qty) {
-        this.name = name;
-        this.price = price;
+    public CartItem(Product product, int qty) {
+        this.product = product;
+        this.price = product.getPrice();
         this.qty = qty;
     }
 
     // ---------- GETTERS ----------
+    public Product getProduct() {
+        return product;
+    }
+
     public String getName() {
-        return name;
+        return product.getDisplayName();
     }
 
-    public float getPrice() {
+    public Money getPrice() {
         return price;
     }
 
@@ -30,7 +34,12 @@ public class CartItem {
         this.qty += amount;
     }
 
-    public float getTotal() {
-        return price * qty;
+    public Money getTotal() {
+        return price.times(qty);
+    }
+
+    /** {@link #getTotal} as raw sen, without the object. */
+    public long getTotalSen() {
+        return Math.multiplyExact(price.getSen(), (long) qty);
     }
 }
@@ -0,0 +1,158 @@
+package com.example.smartshopping;
+
+import java.io.BufferedReader;
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.OutputStream;
+import java.io.RandomAccessFile;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Build-time writer for {@link CatalogFile}. The {@code compileCatalog}
+ * Gradle task runs {@link #main} over the assets, turning each
+ * {@code prices_N.json} and its {@code label_N.txt} into
+ * {@code catalog_N.bin}; the app never parses the JSON itself.
+ *
+ * Pure Java, so the task can compile it on its own, without the Android
+ * classpath.
+ */
+public final class CatalogCompiler {
+
+    private CatalogCompiler() {
+    }
+
+    /**
+     * {@code <assets dir> <output dir>}: compiles every
+     * {@code prices_N.json} in the assets, validates what it wrote, and
+     * warns about labels that name no product.
+     */
+    public static void main(String[] args) throws IOException {
+        if (args.length != 2) throw new IllegalArgumentException("usage: <assets dir> <output dir>");
+        File assets = new File(args[0]);
+        File outDir = new File(args[1]);
+        if (!outDir.isDirectory() && !outDir.mkdirs()) throw new IOException("Cannot create " + outDir);
+
+        File[] files = assets.listFiles();
+        if (files == null) throw new IOException("Not a directory: " + assets);
+        Arrays.sort(files);
+        for (File json : files) {
+            String name = json.getName();
+            if (!name.startsWith("prices_") || !name.endsWith(".json")) continue;
+            String suffix = name.substring("prices_".length(), name.length() - ".json".length());
+            compile(json, new File(assets, "label_" + suffix + ".txt"),
+                    new File(outDir, "catalog_" + suffix + ".bin"));
+        }
+    }
+
+    private static void compile(File json, File labelFile, File out) throws IOException {
+        PriceCatalog prices;
+        try {
+            prices = PriceCatalog.load(new FileInputStream(json));
+        } catch (IOException e) {
+            throw new IOException(json + ": " + e.getMessage(), e);
+        }
+        String[] labels = labelFile.exists() ? readLabels(new FileInputStream(labelFile)) : new String[0];
+        if (!labelFile.exists()) System.err.println("warning: no " + labelFile.getName() + " for " + json.getName());
+
+        try (OutputStream os = new FileOutputStream(out)) {
+            write(prices, labels, os);
+        }
+
+        CatalogFile written;
+        try (RandomAccessFile raf = new RandomAccessFile(out, "r")) {
+            written = CatalogFile.map(raf.getChannel(), 0, raf.length());
+            written.validate();
+        }
+        for (int i = 0; i < written.getLabelCount(); i++) {
+            if (written.productOfLabel(i) == CatalogFile.NOT_FOUND) {
+                System.err.println("warning: " + labelFile.getName() + ":" + (i + 1) + " \""
+                        + labels[i] + "\" has no price in " + json.getName());
+            }
+        }
+        System.out.println(out.getName() + ": " + written.size() + " products, "
+                + written.getLabelCount() + " labels, " + out.length() + " bytes");
+    }
+
+    /** Label file lines, trimmed, as {@code YoloV8Detector} reads them; closes {@code in}. */
+    static String[] readLabels(InputStream in) throws IOException {
+        List<String> labels = new ArrayList<>();
+        try (BufferedReader br = new BufferedReader(new InputStreamReader(in, StandardCharsets.UTF_8))) {
+            String line;
+            while ((line = br.readLine()) != null) labels.add(line.trim());
+        }
+        return labels.toArray(new String[0]);
+    }
+
+    // ===== WRITE =====
+
+    /** Writes {@code prices} and the model's {@code labels} in {@link CatalogFile}'s format. */
+    public static void write(PriceCatalog prices, String[] labels, OutputStream out) throws IOException {
+        int count = prices.size();
+        Integer[] order = new Integer[count];
+        for (int i = 0; i < count; i++) order[i] = i;
+        Arrays.sort(order, (a, b) -> prices.getKey(a).compareTo(prices.getKey(b)));
+        int[] rank = new int[count];
+        for (int i = 0; i < count; i++) rank[order[i]] = i;
+
+        // each distinct string once
+        ByteArrayOutputStream stringBytes = new ByteArrayOutputStream();
+        DataOutputStream strings = new DataOutputStream(stringBytes);
+        Map<String, Integer> offsets = new HashMap<>();
+
+        ByteArrayOutputStream body = new ByteArrayOutputStream();
+        DataOutputStream d = new DataOutputStream(body);
+        for (int id : order) {
+            d.writeInt(intern(prices.getKey(id), strings, offsets));
+            d.writeInt(intern(prices.getName(id), strings, offsets));
+            d.writeLong(prices.getPriceSen(id));
+        }
+        for (String label : labels) {
+            d.writeInt(intern(label, strings, offsets));
+            int product = prices.idOf(label);
+            if (product == PriceCatalog.NOT_FOUND) product = prices.idOf(CatalogFile.productKey(label));
+            d.writeInt(product == PriceCatalog.NOT_FOUND ? CatalogFile.NOT_FOUND : rank[product]);
+        }
+
+        long stringsOffset = CatalogFile.HEADER_BYTES + (long) body.size();
+        long length = stringsOffset + stringBytes.size();
+        if (length > Integer.MAX_VALUE) throw new IOException("Catalog too large: " + length + " bytes");
+
+        DataOutputStream header = new DataOutputStream(out);
+        header.writeInt(CatalogFile.MAGIC);
+        header.writeInt(CatalogFile.VERSION);
+        header.writeInt(count);
+        header.writeInt(labels.length);
+        header.writeInt(CatalogFile.HEADER_BYTES);
+        header.writeInt(CatalogFile.HEADER_BYTES + count * CatalogFile.RECORD_BYTES);
+        header.writeInt((int) stringsOffset);
+        header.writeInt((int) length);
+        body.writeTo(out);
+        stringBytes.writeTo(out);
+        out.flush();
+    }
+
+    private static int intern(String s, DataOutputStream strings, Map<String, Integer> offsets)
+            throws IOException {
+        Integer known = offsets.get(s);
+        if (known != null) return known;
+        if (s.length() > CatalogFile.MAX_STRING_CHARS) {
+            throw new IOException("String too long (" + s.length() + " chars): " + s.substring(0, 32) + "...");
+        }
+        int offset = strings.size();
+        strings.writeChar(s.length());
+        strings.writeChars(s);
+        offsets.put(s, offset);
+        return offset;
+    }
+}
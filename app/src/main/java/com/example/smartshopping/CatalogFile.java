@@ -0,0 +1,247 @@
+package com.example.smartshopping;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.FileChannel;
+import java.util.Locale;
+
+/**
+ * A price catalog precompiled by {@link CatalogCompiler} at build time
+ * ({@code catalog_*.bin} in the assets), read in place from a mapped
+ * buffer. Opening checks the header only, so startup costs the same for
+ * ten products or a million; a lookup binary-searches the key index and
+ * reads the record, parsing nothing and allocating nothing.
+ *
+ * <pre>
+ * header    32 bytes, big-endian ints:
+ *             MAGIC, VERSION, product count, label count,
+ *             records offset, labels offset, strings offset, file length
+ * records   16 bytes per product, sorted by key (String order):
+ *             int key, int name (string offsets), long price in sen
+ * labels     8 bytes per model class, in label file order:
+ *             int label (string offset), int product ID or -1
+ * strings   u16 length in chars, then that many UTF-16 chars
+ * </pre>
+ *
+ * Product IDs are record positions, i.e. key order; they are not the IDs
+ * {@link PriceCatalog} gives the same products.
+ *
+ * Reads are absolute, so any thread may use one instance.
+ */
+public final class CatalogFile {
+
+    public static final int NOT_FOUND = -1;
+
+    static final int MAGIC = 0x53535043;    // "SSPC"
+    static final int VERSION = 1;
+    static final int HEADER_BYTES = 32;
+    static final int RECORD_BYTES = 16;
+    static final int LABEL_BYTES = 8;
+    static final int MAX_STRING_CHARS = 0xFFFF;
+
+    private final ByteBuffer buf;
+    private final int count;
+    private final int labelCount;
+    private final int records;
+    private final int labels;
+    private final int strings;
+
+    private CatalogFile(ByteBuffer buf) throws IOException {
+        this.buf = buf;
+        if (buf.capacity() < HEADER_BYTES) throw new IOException("Not a price catalog: too short");
+        if (buf.getInt(0) != MAGIC) throw new IOException("Not a price catalog: bad magic");
+        if (buf.getInt(4) != VERSION) throw new IOException("Unsupported catalog version " + buf.getInt(4));
+
+        count = buf.getInt(8);
+        labelCount = buf.getInt(12);
+        records = buf.getInt(16);
+        labels = buf.getInt(20);
+        strings = buf.getInt(24);
+        int length = buf.getInt(28);
+
+        if (length != buf.capacity()) {
+            throw new IOException("Catalog is " + buf.capacity() + " bytes, header says " + length);
+        }
+        if (count < 0 || labelCount < 0 || records != HEADER_BYTES
+                || labels != records + (long) count * RECORD_BYTES
+                || strings != labels + (long) labelCount * LABEL_BYTES
+                || strings > length) {
+            throw new IOException("Corrupt catalog header");
+        }
+    }
+
+    // ===== OPEN =====
+
+    /** Reads a catalog in place from {@code buffer}'s remaining bytes. Checks the header only. */
+    public static CatalogFile wrap(ByteBuffer buffer) throws IOException {
+        return new CatalogFile(buffer.slice().order(ByteOrder.BIG_ENDIAN));
+    }
+
+    /**
+     * Maps {@code length} bytes of {@code channel} from {@code offset},
+     * e.g. an uncompressed asset's {@code AssetFileDescriptor} range.
+     * The mapping outlives the channel.
+     */
+    public static CatalogFile map(FileChannel channel, long offset, long length) throws IOException {
+        return wrap(channel.map(FileChannel.MapMode.READ_ONLY, offset, length));
+    }
+
+    /**
+     * Checks everything the header check doesn't: every string in
+     * bounds, keys strictly ascending, label products in range. Reads the
+     * whole file; meant for the build and tests, not app startup.
+     *
+     * @throws IOException naming the first problem found
+     */
+    public void validate() throws IOException {
+        int stringBytes = buf.capacity() - strings;
+        for (int id = 0; id < count; id++) {
+            int at = records + id * RECORD_BYTES;
+            checkString(buf.getInt(at), stringBytes, "key of product " + id);
+            checkString(buf.getInt(at + 4), stringBytes, "name of product " + id);
+            if (id > 0 && compareKeys(id - 1, id) >= 0) {
+                throw new IOException("Keys out of order at product " + id);
+            }
+        }
+        for (int i = 0; i < labelCount; i++) {
+            int at = labels + i * LABEL_BYTES;
+            checkString(buf.getInt(at), stringBytes, "label " + i);
+            int product = buf.getInt(at + 4);
+            if (product < NOT_FOUND || product >= count) {
+                throw new IOException("Label " + i + " points at product " + product + " of " + count);
+            }
+        }
+    }
+
+    private void checkString(int offset, int stringBytes, String what) throws IOException {
+        if (offset < 0 || offset > stringBytes - 2
+                || offset + 2 + 2L * buf.getChar(strings + offset) > stringBytes) {
+            throw new IOException("String out of bounds: " + what);
+        }
+    }
+
+    private int compareKeys(int a, int b) {
+        int pa = strings + buf.getInt(records + a * RECORD_BYTES);
+        int pb = strings + buf.getInt(records + b * RECORD_BYTES);
+        int na = buf.getChar(pa);
+        int nb = buf.getChar(pb);
+        for (int i = 0; i < Math.min(na, nb); i++) {
+            int c = buf.getChar(pa + 2 + 2 * i) - buf.getChar(pb + 2 + 2 * i);
+            if (c != 0) return c;
+        }
+        return na - nb;
+    }
+
+    // ===== LOOKUP =====
+
+    /** ID of product {@code key}, or {@link #NOT_FOUND}. No allocation. */
+    public int idOf(CharSequence key) {
+        int lo = 0;
+        int hi = count - 1;
+        while (lo <= hi) {
+            int mid = (lo + hi) >>> 1;
+            int c = compare(buf.getInt(records + mid * RECORD_BYTES), key);
+            if (c < 0) lo = mid + 1;
+            else if (c > 0) hi = mid - 1;
+            else return mid;
+        }
+        return NOT_FOUND;
+    }
+
+    /** Stored string at {@code offset} against {@code key}, in String order. */
+    private int compare(int offset, CharSequence key) {
+        int p = strings + offset;
+        int n = buf.getChar(p);
+        int m = key.length();
+        for (int i = 0; i < Math.min(n, m); i++) {
+            int c = buf.getChar(p + 2 + 2 * i) - key.charAt(i);
+            if (c != 0) return c;
+        }
+        return n - m;
+    }
+
+    public boolean contains(CharSequence key) {
+        return idOf(key) != NOT_FOUND;
+    }
+
+    /** Number of products; IDs run from 0 to this, exclusive. */
+    public int size() {
+        return count;
+    }
+
+    public String getKey(int id) {
+        return string(buf.getInt(record(id)));
+    }
+
+    /** Display name, e.g. "Mineral Water 1.5L". */
+    public String getName(int id) {
+        return string(buf.getInt(record(id) + 4));
+    }
+
+    public long getPriceSen(int id) {
+        return buf.getLong(record(id) + 8);
+    }
+
+    public Money getPrice(int id) {
+        return Money.ofSen(getPriceSen(id));
+    }
+
+    private int record(int id) {
+        if (id < 0 || id >= count) throw new IndexOutOfBoundsException("product " + id + " of " + count);
+        return records + id * RECORD_BYTES;
+    }
+
+    // ===== LABELS =====
+
+    /** Model classes, i.e. lines of the label file compiled in. */
+    public int getLabelCount() {
+        return labelCount;
+    }
+
+    public String getLabel(int classId) {
+        return string(buf.getInt(label(classId)));
+    }
+
+    /**
+     * Product class {@code classId}'s label names, or {@link #NOT_FOUND}:
+     * the label as a key, else its {@link #productKey}.
+     */
+    public int productOfLabel(int classId) {
+        return buf.getInt(label(classId) + 4);
+    }
+
+    /**
+     * The key style of the price files for a label: trimmed, lower case,
+     * spaces and hyphens as underscores ("Mineral Water" is
+     * "mineral_water").
+     */
+    public static String productKey(String label) {
+        String s = label.trim().toLowerCase(Locale.ROOT);
+        StringBuilder key = new StringBuilder(s.length());
+        for (int i = 0; i < s.length(); i++) {
+            char c = s.charAt(i);
+            if (Character.isWhitespace(c) || c == '-') {
+                // a run of separators is one underscore
+                if (key.length() == 0 || key.charAt(key.length() - 1) != '_') key.append('_');
+            } else {
+                key.append(c);
+            }
+        }
+        return key.toString();
+    }
+
+    private int label(int classId) {
+        if (classId < 0 || classId >= labelCount) {
+            throw new IndexOutOfBoundsException("class " + classId + " of " + labelCount);
+        }
+        return labels + classId * LABEL_BYTES;
+    }
+
+    private String string(int offset) {
+        int p = strings + offset;
+        char[] chars = new char[buf.getChar(p)];
+        for (int i = 0; i < chars.length; i++) chars[i] = buf.getChar(p + 2 + 2 * i);
+        return new String(chars);
+    }
+}
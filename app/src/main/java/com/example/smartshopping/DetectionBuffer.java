@@ -0,0 +1,145 @@
+package com.example.smartshopping;
+
+/**
+ * One frame's detections as parallel arrays: box corners in frame
+ * pixels, score and class ID, best first. Made once per pipeline slot
+ * and refilled every frame, then handed by reference from the detector
+ * to the tracker and the overlay, so a frame allocates no per-detection
+ * objects. Labels come from a shared table indexed by class ID.
+ *
+ * Not thread-safe; a buffer belongs to whichever stage holds its frame.
+ */
+public class DetectionBuffer {
+
+    public final float[] left;
+    public final float[] top;
+    public final float[] right;
+    public final float[] bottom;
+    public final float[] score;
+    public final int[] classId;
+    private final String[] labels;
+    private int count;
+
+    /** @param labels class ID to label, shared, not copied; null if the caller maps IDs itself */
+    public DetectionBuffer(int capacity, String[] labels) {
+        left = new float[capacity];
+        top = new float[capacity];
+        right = new float[capacity];
+        bottom = new float[capacity];
+        score = new float[capacity];
+        classId = new int[capacity];
+        this.labels = labels;
+    }
+
+    // ===== WRITE =====
+
+    public void clear() {
+        count = 0;
+    }
+
+    /** @return false (and nothing stored) once full */
+    public boolean add(float l, float t, float r, float b, float s, int cls) {
+        if (count == classId.length) return false;
+        int i = count++;
+        left[i] = l;
+        top[i] = t;
+        right[i] = r;
+        bottom[i] = b;
+        score[i] = s;
+        classId[i] = cls;
+        return true;
+    }
+
+    /** Replaces this buffer's contents with {@code other}'s, up to capacity. */
+    public void copyFrom(DetectionBuffer other) {
+        int n = Math.min(other.count, classId.length);
+        System.arraycopy(other.left, 0, left, 0, n);
+        System.arraycopy(other.top, 0, top, 0, n);
+        System.arraycopy(other.right, 0, right, 0, n);
+        System.arraycopy(other.bottom, 0, bottom, 0, n);
+        System.arraycopy(other.score, 0, score, 0, n);
+        System.arraycopy(other.classId, 0, classId, 0, n);
+        count = n;
+    }
+
+    // ===== READ =====
+
+    public int size() {
+        return count;
+    }
+
+    public boolean isEmpty() {
+        return count == 0;
+    }
+
+    public int capacity() {
+        return classId.length;
+    }
+
+    /** Label of entry {@code i}, or null without a label table. */
+    public String label(int i) {
+        return labels == null ? null : labels[classId[i]];
+    }
+
+    public String[] getLabels() {
+        return labels;
+    }
+
+    // ===== VIEW =====
+
+    /**
+     * Object-style access to one entry, for code that isn't on the hot
+     * path. Reads through to the buffer: valid until the buffer is
+     * refilled. {@link #moveTo} re-points a view without allocating.
+     */
+    public static final class View {
+        private DetectionBuffer buffer;
+        private int index;
+
+        public View moveTo(DetectionBuffer buffer, int index) {
+            if (index < 0 || index >= buffer.count) {
+                throw new IndexOutOfBoundsException(index + " of " + buffer.count);
+            }
+            this.buffer = buffer;
+            this.index = index;
+            return this;
+        }
+
+        public int getIndex() {
+            return index;
+        }
+
+        public float left() {
+            return buffer.left[index];
+        }
+
+        public float top() {
+            return buffer.top[index];
+        }
+
+        public float right() {
+            return buffer.right[index];
+        }
+
+        public float bottom() {
+            return buffer.bottom[index];
+        }
+
+        public float score() {
+            return buffer.score[index];
+        }
+
+        public int classId() {
+            return buffer.classId[index];
+        }
+
+        public String label() {
+            return buffer.label(index);
+        }
+    }
+
+    /** New view of entry {@code i}. */
+    public View get(int i) {
+        return new View().moveTo(this, i);
+    }
+}
@@ -0,0 +1,206 @@
+package com.example.smartshopping;
+
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.FloatBuffer;
+
+/**
+ * One input resolution of the detector: a backend plus the output
+ * buffers, decoder and NMS sized for it. Every dimension comes from the
+ * backend's tensors — input size from the input, anchor count and
+ * layout from the output — so a model exported at another resolution,
+ * or a backend resized with {@link InferenceBackend#resizeInput}, needs
+ * no constants patched.
+ *
+ * A backend resized to batch N runs N images per {@link #infer}; each
+ * image's slice of the output is then decoded on its own.
+ *
+ * Not thread-safe, like the backend it wraps.
+ */
+public class DetectorHead {
+
+    private final InferenceBackend backend;
+    private final TensorSpec inputSpec;
+    private final TensorSpec outputSpec;
+    private final int inputSize;
+    private final int batch;
+
+    // ===== OUTPUT =====
+    private final ByteBuffer output;
+    private final FloatBuffer outputFloats;   // float heads
+    private final float[] outputFlat;
+    private final byte[] outputBytes;         // uint8 / int8 heads
+
+    // ===== DECODE + NMS =====
+    private final YoloDecoder decoder;
+    private final NonMaxSuppression nms;
+    private int[] keep = new int[NonMaxSuppression.DEFAULT_MAX_DETECTIONS];
+
+    private long lastInferenceNanos;
+
+    /**
+     * @param numClasses class count from the label file; the output must
+     *                   have {@code 4 + numClasses} channels on one axis
+     * @throws IllegalStateException if the output shape doesn't fit
+     */
+    public DetectorHead(InferenceBackend backend, int numClasses) {
+        this.backend = backend;
+
+        // [1, height, width, 3]; float32, or uint8/int8 for integer models
+        inputSpec = backend.getInputSpec();
+        batch = inputSpec.dim(0);
+        inputSize = inputSpec.dim(1);
+
+        // [B, 4 + C, N] from the stock export, [B, N, 4 + C] if transposed
+        outputSpec = backend.getOutputSpec();
+        int channels = 4 + numClasses;
+        boolean transposed;
+        int numBoxes;
+        if (outputSpec.rank() == 3 && outputSpec.dim(1) == channels) {
+            transposed = false;
+            numBoxes = outputSpec.dim(2);
+        } else if (outputSpec.rank() == 3 && outputSpec.dim(2) == channels) {
+            transposed = true;
+            numBoxes = outputSpec.dim(1);
+        } else {
+            throw new IllegalStateException("Output " + outputSpec
+                    + " has no axis of 4 + " + numClasses + " channels;"
+                    + " label file and model disagree");
+        }
+
+        output = ByteBuffer.allocateDirect(outputSpec.bytes());
+        output.order(ByteOrder.nativeOrder());
+
+        // one image's worth; batched outputs are decoded slice by slice
+        int perImage = outputSpec.elements() / batch;
+        if (outputSpec.isQuantized()) {
+            outputFloats = null;
+            outputFlat = null;
+            outputBytes = new byte[perImage];
+        } else {
+            outputFloats = output.asFloatBuffer();
+            outputFlat = new float[perImage];
+            outputBytes = null;
+        }
+
+        decoder = new YoloDecoder(numBoxes, numClasses, transposed);
+        nms = new NonMaxSuppression(numBoxes);
+    }
+
+    // ===== TUNING =====
+
+    public void setIouThreshold(float iou) {
+        nms.setIouThreshold(iou);
+    }
+
+    public void setMaxDetections(int max) {
+        nms.setMaxDetections(max);
+        keep = new int[max];
+    }
+
+    public float getIouThreshold() {
+        return nms.getIouThreshold();
+    }
+
+    public int getMaxDetections() {
+        return nms.getMaxDetections();
+    }
+
+    // ===== RUN =====
+
+    /** Runs the backend on {@code input}, which must match {@link #getInputSpec}; all images of a batch at once. */
+    public void infer(ByteBuffer input) {
+        long start = System.nanoTime();
+        output.rewind();
+        backend.run(input, output);
+        lastInferenceNanos = System.nanoTime() - start;
+    }
+
+    /**
+     * Decodes the last {@link #infer} into {@link #getDecoder}'s arrays,
+     * boxes mapped through {@code letterbox}.
+     * @return number of candidates at or above {@code threshold}
+     */
+    public int decode(float threshold, Letterbox letterbox) {
+        return decode(0, threshold, letterbox);
+    }
+
+    /** Same, for image {@code image} of a batch. */
+    public int decode(int image, float threshold, Letterbox letterbox) {
+        if (outputBytes != null) {
+            output.position(image * outputBytes.length);
+            output.get(outputBytes);
+            return decoder.decode(outputBytes, outputSpec, threshold, letterbox);
+        }
+        outputFloats.position(image * outputFlat.length);
+        outputFloats.get(outputFlat);
+        return decoder.decode(outputFlat, threshold, letterbox);
+    }
+
+    /**
+     * NMS over the last {@link #decode}'s {@code count} candidates.
+     * @return number kept; their candidate indices are in {@link #getKeep}, best first
+     */
+    public int suppress(int count) {
+        return nms.run(decoder.left, decoder.top, decoder.right, decoder.bottom,
+                decoder.score, decoder.classId, count, keep);
+    }
+
+    /**
+     * Copies the {@code kept} detections of the last {@link #suppress}
+     * into {@code out}, best first, replacing what it held.
+     * @return number copied: {@code kept}, or fewer if {@code out} is full
+     */
+    public int collect(int kept, DetectionBuffer out) {
+        out.clear();
+        for (int k = 0; k < kept; k++) {
+            int i = keep[k];
+            if (!out.add(decoder.left[i], decoder.top[i], decoder.right[i], decoder.bottom[i],
+                    decoder.score[i], decoder.classId[i])) break;
+        }
+        return out.size();
+    }
+
+    // ===== READ =====
+
+    public InferenceBackend getBackend() {
+        return backend;
+    }
+
+    public TensorSpec getInputSpec() {
+        return inputSpec;
+    }
+
+    public TensorSpec getOutputSpec() {
+        return outputSpec;
+    }
+
+    public int getInputSize() {
+        return inputSize;
+    }
+
+    /** Images per {@link #infer}. */
+    public int getBatchSize() {
+        return batch;
+    }
+
+    public int getNumBoxes() {
+        return decoder.getNumBoxes();
+    }
+
+    public YoloDecoder getDecoder() {
+        return decoder;
+    }
+
+    public int[] getKeep() {
+        return keep;
+    }
+
+    public long getLastInferenceNanos() {
+        return lastInferenceNanos;
+    }
+
+    public void close() {
+        backend.close();
+    }
+}
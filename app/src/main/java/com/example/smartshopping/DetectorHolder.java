@@ -0,0 +1,77 @@
+package com.example.smartshopping;
+
+import android.content.Context;
+import android.os.Process;
+import android.os.SystemClock;
+import android.util.Log;
+
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+/**
+ * Process-wide detector. Splash kicks off the load (model map, backend
+ * tuning, one warm-up inference) so it overlaps the spoken intro;
+ * MainActivity picks up the same instance.
+ */
+public final class DetectorHolder {
+
+    private static final String TAG = "COLD_START";
+
+    /** Cheap first pass; see {@link ResolutionPolicy}. */
+    private static final int COARSE_INPUT_SIZE = 320;
+
+    /** Upper bound on concurrent inferences; see {@link InterpreterPool}. */
+    private static final int MAX_WORKERS = 4;
+
+    private static AsyncLoader<YoloV8Detector> loader;
+
+    // ===== COLD-START METRICS (ms since process start) =====
+    private static volatile long modelReadyMs = -1;
+    private static volatile long firstDetectionMs = -1;
+
+    private DetectorHolder() {}
+
+    /** Starts loading if nobody has yet. Safe to call from the UI thread. */
+    public static synchronized Future<YoloV8Detector> preload(Context context) {
+        if (loader == null) {
+            Context app = context.getApplicationContext();
+            loader = new AsyncLoader<>(
+                    Executors.newSingleThreadExecutor(),
+                    () -> load(app));
+        }
+        return loader.start();
+    }
+
+    private static YoloV8Detector load(Context app) throws Exception {
+        YoloV8Detector detector =
+                YoloV8Detector.createTuned(app, new PrefsTuningCache(app));
+        detector.setWorkers(detector.suggestedWorkers(MAX_WORKERS));
+        detector.enableCoarsePass(COARSE_INPUT_SIZE);
+        detector.warmUp();
+
+        modelReadyMs = sinceProcessStart();
+        Log.i(TAG, "Detector ready after " + modelReadyMs + " ms on "
+                + detector.getBackendName());
+        return detector;
+    }
+
+    /** Call after the first camera frame has been through the detector. */
+    public static void markFirstDetection() {
+        if (firstDetectionMs >= 0) return;
+        firstDetectionMs = sinceProcessStart();
+        Log.i(TAG, "First detection after " + firstDetectionMs + " ms"
+                + " (model ready at " + modelReadyMs + " ms)");
+    }
+
+    public static long getModelReadyMs() {
+        return modelReadyMs;
+    }
+
+    public static long getFirstDetectionMs() {
+        return firstDetectionMs;
+    }
+
+    private static long sinceProcessStart() {
+        return SystemClock.elapsedRealtime() - Process.getStartElapsedRealtime();
+    }
+}
@@ -0,0 +1,55 @@
+package com.example.smartshopping;
+
+import java.nio.ByteBuffer;
+
+/**
+ * Cheap scene-change signal: mean absolute luma difference between this
+ * frame and the last one, over a fixed grid of Y-plane samples. A few
+ * hundred byte reads per frame, no allocation.
+ */
+public class FrameDifference {
+
+    public static final int DEFAULT_GRID = 16;
+
+    private final int grid;
+    private final int[] previous;
+    private boolean primed;
+
+    public FrameDifference() {
+        this(DEFAULT_GRID);
+    }
+
+    public FrameDifference(int grid) {
+        this.grid = grid;
+        previous = new int[grid * grid];
+    }
+
+    /** Next {@link #update} reports a full change. */
+    public void reset() {
+        primed = false;
+    }
+
+    /**
+     * @return mean absolute difference in [0, 1]; 1 for the first frame
+     */
+    public float update(ByteBuffer yPlane, int rowStride, int pixelStride, int width, int height) {
+        long sum = 0;
+        int i = 0;
+
+        for (int gy = 0; gy < grid; gy++) {
+            int row = ((2 * gy + 1) * height / (2 * grid)) * rowStride;
+            for (int gx = 0; gx < grid; gx++, i++) {
+                int col = ((2 * gx + 1) * width / (2 * grid)) * pixelStride;
+                int luma = yPlane.get(row + col) & 0xFF;
+                sum += Math.abs(luma - previous[i]);
+                previous[i] = luma;
+            }
+        }
+
+        if (!primed) {
+            primed = true;
+            return 1f;
+        }
+        return sum / (255f * previous.length);
+    }
+}
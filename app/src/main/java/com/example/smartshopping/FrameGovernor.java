@@ -0,0 +1,195 @@
+package com.example.smartshopping;
+
+import java.util.Locale;
+
+/**
+ * Decides which camera frames are worth analysing.
+ *
+ * Runs at {@code maxFps} while the scene is changing; once the same class
+ * has been stable for {@link #setStableAfterMs} the rate ramps down to
+ * {@code minFps}. A frame-difference spike snaps straight back to full
+ * rate. On top of that the rate is capped by thermal status and by the
+ * measured inference latency, so the detector never runs at more than
+ * {@link #setMaxDutyCycle} of wall time.
+ *
+ * Fed from several threads (camera, infer, post, main), hence synchronized.
+ */
+public class FrameGovernor {
+
+    // mirror android.os.PowerManager.THERMAL_STATUS_*
+    public static final int THERMAL_NONE = 0;
+    public static final int THERMAL_LIGHT = 1;
+    public static final int THERMAL_MODERATE = 2;
+    public static final int THERMAL_SEVERE = 3;
+
+    /** {@link #onClass} argument for a frame with nothing in it. */
+    public static final int NO_CLASS = -1;
+
+    public static final float DEFAULT_MIN_FPS = 2f;
+    public static final float DEFAULT_MAX_FPS = 15f;
+
+    private final float minFps;
+    private final float maxFps;
+
+    // ===== TUNING =====
+    private float sceneChangeThreshold = 0.08f;
+    private long stableAfterMs = 1500;
+    private long rampMs = 2000;
+    private float maxDutyCycle = 0.6f;
+    private float latencySmoothing = 0.2f;
+
+    // ===== STATE =====
+    private int stableClass = NO_CLASS;
+    private long stableSinceNanos;
+    private boolean forceNext = true;
+    private long lastProcessedNanos;
+    private double inferEwmaNanos;
+    private int thermalStatus = THERMAL_NONE;
+    private float lastDifference;
+
+    // ===== STATS =====
+    private long processed, throttled, sceneChanges;
+
+    public FrameGovernor() {
+        this(DEFAULT_MIN_FPS, DEFAULT_MAX_FPS);
+    }
+
+    public FrameGovernor(float minFps, float maxFps) {
+        if (minFps <= 0 || maxFps < minFps) {
+            throw new IllegalArgumentException("bad fps range " + minFps + ".." + maxFps);
+        }
+        this.minFps = minFps;
+        this.maxFps = maxFps;
+    }
+
+    public synchronized void setSceneChangeThreshold(float threshold) {
+        sceneChangeThreshold = threshold;
+    }
+
+    /** How long a class must hold before the rate starts dropping. */
+    public synchronized void setStableAfterMs(long ms) {
+        stableAfterMs = ms;
+    }
+
+    /** Time to go from max to min fps once stable. */
+    public synchronized void setRampMs(long ms) {
+        rampMs = ms;
+    }
+
+    public synchronized void setMaxDutyCycle(float duty) {
+        maxDutyCycle = duty;
+    }
+
+    // ===== INPUTS =====
+
+    /**
+     * Camera thread, every frame.
+     * @param difference from {@link FrameDifference}, 0..1
+     */
+    public synchronized void onFrameDifference(float difference, long nowNanos) {
+        lastDifference = difference;
+        if (difference >= sceneChangeThreshold) {
+            sceneChanges++;
+            stableSinceNanos = nowNanos;
+            forceNext = true;
+        }
+    }
+
+    /** Post thread: top class of an analysed frame, {@link #NO_CLASS} if none. */
+    public synchronized void onClass(int classId, long nowNanos) {
+        if (classId == NO_CLASS || classId != stableClass) {
+            stableClass = classId;
+            stableSinceNanos = nowNanos;
+        }
+    }
+
+    /** Infer thread: interpreter time of the last frame. */
+    public synchronized void onInferenceNanos(long nanos) {
+        inferEwmaNanos = inferEwmaNanos == 0
+                ? nanos
+                : inferEwmaNanos + latencySmoothing * (nanos - inferEwmaNanos);
+    }
+
+    /** One of the {@code THERMAL_*} levels (higher is hotter). */
+    public synchronized void onThermalStatus(int status) {
+        thermalStatus = status;
+    }
+
+    // ===== DECISION =====
+
+    /**
+     * Camera thread: true if this frame should be analysed. A frame is
+     * let through once a full target interval has passed (less a small
+     * tolerance for camera jitter).
+     */
+    public synchronized boolean shouldProcess(long nowNanos) {
+        if (!forceNext) {
+            long interval = (long) (1e9 / getTargetFps(nowNanos));
+            if (nowNanos - lastProcessedNanos < interval - interval / 8) {
+                throttled++;
+                return false;
+            }
+        }
+        forceNext = false;
+        lastProcessedNanos = nowNanos;
+        processed++;
+        return true;
+    }
+
+    public synchronized float getTargetFps(long nowNanos) {
+        float fps = maxFps;
+
+        // settle down while the same item sits in view
+        if (stableClass != NO_CLASS) {
+            long stableMs = (nowNanos - stableSinceNanos) / 1_000_000L;
+            if (stableMs > stableAfterMs) {
+                float t = Math.min(1f, (stableMs - stableAfterMs) / (float) rampMs);
+                fps = maxFps - (maxFps - minFps) * t;
+            }
+        }
+
+        if (thermalStatus >= THERMAL_SEVERE) {
+            fps = minFps;
+        } else if (thermalStatus >= THERMAL_MODERATE) {
+            fps = Math.min(fps, maxFps / 2f);
+        } else if (thermalStatus >= THERMAL_LIGHT) {
+            fps = Math.min(fps, maxFps * 0.75f);
+        }
+
+        if (inferEwmaNanos > 0) {
+            fps = Math.min(fps, (float) (maxDutyCycle * 1e9 / inferEwmaNanos));
+        }
+
+        return Math.max(minFps, Math.min(maxFps, fps));
+    }
+
+    // ===== STATS =====
+
+    public synchronized long getProcessed() {
+        return processed;
+    }
+
+    public synchronized long getThrottled() {
+        return throttled;
+    }
+
+    public synchronized long getSceneChanges() {
+        return sceneChanges;
+    }
+
+    public float getMinFps() {
+        return minFps;
+    }
+
+    public float getMaxFps() {
+        return maxFps;
+    }
+
+    public synchronized String describe(long nowNanos) {
+        return String.format(Locale.US,
+                "governor %.1f fps (%.0f..%.0f) | processed %d, throttled %d, scene changes %d"
+                        + " | diff %.3f, thermal %d, infer %.1f ms",
+                getTargetFps(nowNanos), minFps, maxFps, processed, throttled, sceneChanges,
+                lastDifference, thermalStatus, inferEwmaNanos / 1e6);
+    }
+}
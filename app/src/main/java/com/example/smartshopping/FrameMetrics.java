@@ -0,0 +1,110 @@
+package com.example.smartshopping;
+
+import java.io.IOException;
+import java.util.Locale;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Per-frame hot path metrics: one {@link LatencyHistogram} per stage plus
+ * frame counters. Everything is allocated up front so recording costs a
+ * few atomic adds; formatting only happens in {@link #dump}.
+ */
+public class FrameMetrics {
+
+    public enum Stage {
+        /** YUV -> rotated, letterboxed, packed tensor (one fused pass) */
+        PREPROCESS,
+        INFER,
+        DECODE,
+        NMS,
+        /** kept indices -> Detection objects */
+        RESULTS,
+        STABILITY,
+        /** camera frame in -> stability verdict out */
+        END_TO_END
+    }
+
+    public enum Counter {
+        ANALYZED,
+        PROCESSED,
+        /** served by the tracker, detector skipped */
+        TRACKED,
+        /** rate-limited by the frame governor */
+        THROTTLED,
+        /** no free pipeline slot, frame never converted */
+        DROPPED,
+        SKIPPED_SPEAKING,
+        /** a confirm / quantity / remove dialog was open */
+        SKIPPED_AWAITING
+    }
+
+    private static final Stage[] STAGES = Stage.values();
+    private static final Counter[] COUNTERS = Counter.values();
+    private static final double[] PERCENTILES = {50, 95, 99};
+
+    private final LatencyHistogram[] histograms = new LatencyHistogram[STAGES.length];
+    private final AtomicLongArray counters = new AtomicLongArray(COUNTERS.length);
+
+    public FrameMetrics() {
+        for (int i = 0; i < histograms.length; i++) histograms[i] = new LatencyHistogram();
+    }
+
+    // ===== RECORD =====
+
+    public void record(Stage stage, long nanos) {
+        histograms[stage.ordinal()].record(nanos);
+    }
+
+    public void count(Counter counter) {
+        counters.incrementAndGet(counter.ordinal());
+    }
+
+    public void reset() {
+        for (LatencyHistogram h : histograms) h.reset();
+        for (int i = 0; i < COUNTERS.length; i++) counters.set(i, 0);
+    }
+
+    // ===== READ =====
+
+    public LatencyHistogram histogram(Stage stage) {
+        return histograms[stage.ordinal()];
+    }
+
+    public long get(Counter counter) {
+        return counters.get(counter.ordinal());
+    }
+
+    /** One line per stage (count, mean, p50/p95/p99, max in ms) then the counters. */
+    public void dump(Appendable out) throws IOException {
+        out.append(String.format(Locale.US, "%-11s %7s %8s %8s %8s %8s %8s%n",
+                "stage", "n", "mean", "p50", "p95", "p99", "max"));
+
+        for (Stage s : STAGES) {
+            LatencyHistogram h = histograms[s.ordinal()];
+            if (h.getCount() == 0) continue;
+
+            out.append(String.format(Locale.US, "%-11s %7d %8.2f",
+                    s.name().toLowerCase(Locale.US), h.getCount(), h.getMeanMicros() / 1000.0));
+            for (double p : PERCENTILES) {
+                out.append(String.format(Locale.US, " %8.2f", h.percentileMicros(p) / 1000.0));
+            }
+            out.append(String.format(Locale.US, " %8.2f%n", h.getMaxMicros() / 1000.0));
+        }
+
+        for (Counter c : COUNTERS) {
+            out.append(String.format(Locale.US, "%s=%d ",
+                    c.name().toLowerCase(Locale.US), counters.get(c.ordinal())));
+        }
+        out.append(String.format(Locale.US, "%n"));
+    }
+
+    public String dump() {
+        StringBuilder sb = new StringBuilder();
+        try {
+            dump(sb);
+        } catch (IOException e) {
+            // StringBuilder never throws
+        }
+        return sb.toString();
+    }
+}
@@ -0,0 +1,439 @@
+package com.example.smartshopping;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Three-stage frame pipeline so conversion, inference and post-processing
+ * of consecutive frames overlap, with inference spread over a pool of
+ * workers (one interpreter each):
+ *
+ * <pre>
+ *   camera thread            work-stealing pool          post thread
+ *   acquire + preprocess -> [pending] -> infer(worker) -> [reorder] -> postprocess -> release
+ * </pre>
+ *
+ * Work items are a fixed set made up front and recycled. At most
+ * {@code workers} frames wait for inference; a newer frame displaces the
+ * oldest (drop-oldest), and if no item is free the camera frame is
+ * dropped at the source. Drops are counted, never blocked on.
+ *
+ * Workers finish out of order, so results are released to the post
+ * thread in sequence order: a finished frame waits only while an older
+ * one is still pending or inferring.
+ *
+ * The pending deque and the reorder list share one lock. With a single
+ * inference thread the stages were joined by lock-free single-slot
+ * drop-oldest SPSC hand-offs instead; they cannot serve several
+ * consumers, nor hold the finished frames that wait for an older one.
+ * The lock covers a few field updates per frame, so the price is a
+ * possible short wait next to inference times in milliseconds.
+ */
+public class FramePipeline<W extends FramePipeline.Item> {
+
+    /** Base for work items; carries the frame's sequence number. */
+    public static class Item {
+        long sequence;
+
+        public long getSequence() {
+            return sequence;
+        }
+    }
+
+    public interface Factory<W> {
+        W create();
+    }
+
+    public interface Stage<W> {
+        void process(W item) throws Exception;
+    }
+
+    /** Inference stage; {@code worker} (0 until workers) picks the caller's interpreter. */
+    public interface WorkerStage<W> {
+        void process(int worker, W item) throws Exception;
+    }
+
+    private static final long POLL_NANOS = 50_000_000L;
+    private static final long IDLE = Long.MAX_VALUE;
+
+    private final int workers;
+    private final WorkerStage<W> infer;
+    private final Stage<W> postprocess;
+    private final Runnable inferTask = this::inferOne;
+
+    private final ConcurrentLinkedQueue<W> free = new ConcurrentLinkedQueue<>();
+
+    // ===== GUARDED BY lock =====
+    private final Object lock = new Object();
+    private final ArrayDeque<W> pending;          // ascending sequence
+    private final long[] inferring;               // per worker, IDLE when free
+    private final ArrayList<W> done;              // finished, ascending sequence
+    private long nextSequence;
+    private int session;                          // bumped by stop()
+
+    private volatile boolean running;
+    private ExecutorService pool;
+    private Thread postThread;
+
+    // ===== STATS =====
+    private final AtomicLong submitted = new AtomicLong();
+    private final AtomicLong completed = new AtomicLong();
+    private final AtomicLong droppedAtSource = new AtomicLong();
+    private final AtomicLong droppedBeforeInfer = new AtomicLong();
+    private final AtomicLong failed = new AtomicLong();
+    private final AtomicLong reordered = new AtomicLong();
+    private final StageTimer preTimer = new StageTimer();
+    private final StageTimer inferTimer = new StageTimer();
+    private final StageTimer postTimer = new StageTimer();
+    private volatile long startNanos;
+
+    /** Single inference worker. */
+    public FramePipeline(int items, Factory<W> factory, Stage<W> infer, Stage<W> postprocess) {
+        this(items, factory, 1, (worker, item) -> infer.process(item), postprocess);
+    }
+
+    /**
+     * @param items   work items in circulation; allow a couple more than
+     *                {@code workers} so the camera can fill the next one
+     * @param workers concurrent inferences, one per interpreter
+     */
+    public FramePipeline(int items, Factory<W> factory, int workers,
+                         WorkerStage<W> infer, Stage<W> postprocess) {
+        if (workers < 1) throw new IllegalArgumentException("workers " + workers);
+        this.workers = workers;
+        this.infer = infer;
+        this.postprocess = postprocess;
+
+        pending = new ArrayDeque<>(workers + 1);
+        inferring = new long[workers];
+        Arrays.fill(inferring, IDLE);
+        done = new ArrayList<>(items);
+        for (int i = 0; i < items; i++) free.add(factory.create());
+    }
+
+    // ===== LIFECYCLE =====
+
+    public synchronized void start() {
+        if (running) return;
+        running = true;
+        startNanos = System.nanoTime();
+
+        pool = Executors.newWorkStealingPool(workers);
+        postThread = new Thread(this::postLoop, "pipeline-post");
+        postThread.start();
+    }
+
+    /**
+     * Stops the threads. Inferences still running after a short wait
+     * finish on their own; their results are recycled, never delivered
+     * to a later {@link #start()}.
+     */
+    public synchronized void stop() {
+        running = false;
+        synchronized (lock) {
+            session++;
+        }
+        if (pool != null) {
+            pool.shutdown();
+            try {
+                pool.awaitTermination(1, TimeUnit.SECONDS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+        join(postThread);
+        pool = null;
+        postThread = null;
+
+        discardPending();
+        synchronized (lock) {
+            for (W item : done) free.add(item);
+            done.clear();
+        }
+    }
+
+    public boolean isRunning() {
+        return running;
+    }
+
+    public int getWorkers() {
+        return workers;
+    }
+
+    /**
+     * Returns frames still waiting for inference to the free pool, e.g.
+     * when the scanner pauses; frames already inside a stage finish
+     * normally.
+     */
+    public void discardPending() {
+        synchronized (lock) {
+            W item;
+            while ((item = pending.pollFirst()) != null) free.add(item);
+            lock.notifyAll();
+        }
+    }
+
+    // ===== CAMERA SIDE (single producer) =====
+
+    /**
+     * Preprocesses a frame into a free work item and queues it for
+     * inference. Call from the camera thread only.
+     *
+     * @return false if the frame was dropped (no free item, or not running)
+     */
+    public boolean submit(Stage<W> preprocess) {
+        if (!running) return false;
+
+        W item = free.poll();
+        if (item == null) {
+            droppedAtSource.incrementAndGet();
+            return false;
+        }
+
+        long t0 = System.nanoTime();
+        try {
+            preprocess.process(item);
+        } catch (Exception e) {
+            failed.incrementAndGet();
+            free.add(item);
+            return false;
+        }
+        preTimer.add(System.nanoTime() - t0);
+
+        W displaced = null;
+        synchronized (lock) {
+            item.sequence = nextSequence++;
+            pending.addLast(item);
+            if (pending.size() > workers) {
+                displaced = pending.pollFirst();
+                lock.notifyAll();   // the oldest outstanding frame just went away
+            }
+        }
+        submitted.incrementAndGet();
+
+        if (displaced != null) {
+            droppedBeforeInfer.incrementAndGet();
+            free.add(displaced);
+        }
+
+        ExecutorService p = pool;
+        try {
+            if (p != null) p.execute(inferTask);
+        } catch (RejectedExecutionException e) {
+            // stopping; stop() recycles whatever is still pending
+        }
+        return true;
+    }
+
+    // ===== WORKERS =====
+
+    /** One pool task: the oldest pending frame on a free worker, if any is left. */
+    private void inferOne() {
+        W item;
+        int worker;
+        int claimed;
+        synchronized (lock) {
+            if (pending.isEmpty()) return;  // displaced or discarded meanwhile
+            // worker first: waiting releases the lock, and a frame taken out
+            // of pending must already show in inferring or reordering breaks
+            worker = freeWorker();
+            if (worker < 0) {
+                // interrupted: this task's frame goes back rather than sit unclaimed
+                item = pending.pollFirst();
+                if (item != null) {
+                    droppedBeforeInfer.incrementAndGet();
+                    free.add(item);
+                }
+                lock.notifyAll();
+                return;
+            }
+            item = pending.pollFirst();
+            if (item == null) return;
+            inferring[worker] = item.sequence;
+            claimed = session;
+        }
+
+        long t0 = System.nanoTime();
+        boolean ok;
+        try {
+            infer.process(worker, item);
+            ok = true;
+        } catch (Exception e) {
+            ok = false;
+        }
+
+        boolean stale;
+        synchronized (lock) {
+            inferring[worker] = IDLE;
+            // outlived stop(): the frame belongs to a session that is over
+            stale = claimed != session;
+            if (ok && !stale) insertDone(item);
+            lock.notifyAll();
+        }
+
+        if (!ok) {
+            failed.incrementAndGet();
+            free.add(item);
+        } else if (stale) {
+            free.add(item);
+        } else {
+            inferTimer.add(System.nanoTime() - t0);
+        }
+    }
+
+    /**
+     * Pool parallelism equals {@code workers}, so one is normally free;
+     * waits just in case. Call holding the lock.
+     *
+     * @return the worker, or -1 if interrupted while waiting
+     */
+    private int freeWorker() {
+        while (true) {
+            for (int i = 0; i < workers; i++) if (inferring[i] == IDLE) return i;
+            try {
+                lock.wait();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return -1;
+            }
+        }
+    }
+
+    private void insertDone(W item) {
+        int i = done.size();
+        while (i > 0 && done.get(i - 1).sequence > item.sequence) i--;
+        if (i < done.size()) reordered.incrementAndGet();
+        done.add(i, item);
+    }
+
+    /** Sequence of the oldest frame still pending or inferring, or IDLE. */
+    private long oldestOutstanding() {
+        long oldest = pending.isEmpty() ? IDLE : pending.peekFirst().sequence;
+        for (long s : inferring) if (s < oldest) oldest = s;
+        return oldest;
+    }
+
+    /** Next finished frame in sequence order; null on timeout. */
+    private W takeInOrder(long timeoutNanos) {
+        long deadline = System.nanoTime() + timeoutNanos;
+        synchronized (lock) {
+            while (true) {
+                if (!done.isEmpty() && done.get(0).sequence < oldestOutstanding()) {
+                    return done.remove(0);
+                }
+                long left = deadline - System.nanoTime();
+                if (left <= 0 || !running) return null;
+                try {
+                    lock.wait(left / 1_000_000L, (int) (left % 1_000_000L));
+                } catch (InterruptedException e) {
+                    return null;
+                }
+            }
+        }
+    }
+
+    private void postLoop() {
+        while (running) {
+            W item = takeInOrder(POLL_NANOS);
+            if (item == null) continue;
+
+            long t0 = System.nanoTime();
+            try {
+                postprocess.process(item);
+            } catch (Exception e) {
+                failed.incrementAndGet();
+                free.add(item);
+                continue;
+            }
+            postTimer.add(System.nanoTime() - t0);
+            completed.incrementAndGet();
+            free.add(item);
+        }
+    }
+
+    private static void join(Thread t) {
+        if (t == null) return;
+        try {
+            t.join(1000);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    // ===== STATS =====
+
+    /** Running total + count; written by one thread, read by any. */
+    static final class StageTimer {
+        private final AtomicLong totalNanos = new AtomicLong();
+        private final AtomicLong count = new AtomicLong();
+
+        void add(long nanos) {
+            totalNanos.addAndGet(nanos);
+            count.incrementAndGet();
+        }
+
+        double meanMs() {
+            long n = count.get();
+            return n == 0 ? 0 : totalNanos.get() / (n * 1e6);
+        }
+    }
+
+    public long getSubmitted() {
+        return submitted.get();
+    }
+
+    public long getCompleted() {
+        return completed.get();
+    }
+
+    public long getDroppedAtSource() {
+        return droppedAtSource.get();
+    }
+
+    public long getDroppedBeforeInfer() {
+        return droppedBeforeInfer.get();
+    }
+
+    /** Frames that finished ahead of an older one and waited for it. */
+    public long getReordered() {
+        return reordered.get();
+    }
+
+    public long getFailed() {
+        return failed.get();
+    }
+
+    public double getMeanPreprocessMs() {
+        return preTimer.meanMs();
+    }
+
+    public double getMeanInferMs() {
+        return inferTimer.meanMs();
+    }
+
+    public double getMeanPostprocessMs() {
+        return postTimer.meanMs();
+    }
+
+    /** Completed frames per second since {@link #start()}. */
+    public double getThroughputFps() {
+        double seconds = (System.nanoTime() - startNanos) / 1e9;
+        return seconds <= 0 ? 0 : completed.get() / seconds;
+    }
+
+    public String describe() {
+        return String.format(java.util.Locale.US,
+                "%.1f fps on %d worker(s) | pre %.1f ms, infer %.1f ms, post %.1f ms | "
+                        + "dropped src %d, pre-infer %d | reordered %d | failed %d",
+                getThroughputFps(), workers, getMeanPreprocessMs(), getMeanInferMs(),
+                getMeanPostprocessMs(), getDroppedAtSource(),
+                getDroppedBeforeInfer(), getReordered(), getFailed());
+    }
+}
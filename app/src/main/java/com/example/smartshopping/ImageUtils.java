@@ -1,67 +1,55 @@
 package com.example.smartshopping;
 
-import android.graphics.*;
 import androidx.camera.core.ImageProxy;
 
-import java.io.ByteArrayOutputStream;
-import java.nio.ByteBuffer;
-
 public class ImageUtils {
 
-    public static Bitmap imageToBitmap(ImageProxy image) {
-        try {
-            ImageProxy.PlaneProxy[] planes = image.getPlanes();
-            ByteBuffer yBuffer = planes[0].getBuffer();
-            ByteBuffer uBuffer = planes[1].getBuffer();
-            ByteBuffer vBuffer = planes[2].getBuffer();
-
-            int ySize = yBuffer.remaining();
-            int uSize = uBuffer.remaining();
-            int vSize = vBuffer.remaining();
-
-            byte[] nv21 = new byte[ySize + uSize + vSize];
-
-            yBuffer.get(nv21, 0, ySize);
-            vBuffer.get(nv21, ySize, vSize);
-            uBuffer.get(nv21, ySize + vSize, uSize);
-
-            YuvImage yuvImage = new YuvImage(
-                    nv21,
-                    ImageFormat.NV21,
-                    image.getWidth(),
-                    image.getHeight(),
-                    null
-            );
-
-            ByteArrayOutputStream out = new ByteArrayOutputStream();
-            yuvImage.compressToJpeg(
-                    new Rect(0, 0, image.getWidth(), image.getHeight()),
-                    90,
-                    out
-            );
-
-            byte[] bytes = out.toByteArray();
-            return BitmapFactory.decodeByteArray(bytes, 0, bytes.length);
+    /**
+     * Writes the {x, y, w, h} region of the upright frame (see
+     * {@link RoiController}; the whole frame when there is no item to crop
+     * around) into {@code converter}'s input buffer, rotated to upright
+     * and letterboxed. No intermediate Bitmap or JPEG.
+     */
+    public static void toModelInput(ImageProxy image, YuvConverter converter, int[] crop) {
+        ImageProxy.PlaneProxy[] planes = image.getPlanes();
+
+        converter.convert(
+                planes[0].getBuffer(),
+                planes[0].getRowStride(),
+                planes[0].getPixelStride(),
+                planes[1].getBuffer(),
+                planes[2].getBuffer(),
+                planes[1].getRowStride(),
+                planes[1].getPixelStride(),
+                image.getWidth(),
+                image.getHeight(),
+                image.getImageInfo().getRotationDegrees(),
+                crop[0], crop[1], crop[2], crop[3]
+        );
+    }
 
-        } catch (Exception e) {
-            return null;
-        }
+    /** Frame width once rotated upright. */
+    public static int uprightWidth(ImageProxy image) {
+        return image.getImageInfo().getRotationDegrees() % 180 == 0
+                ? image.getWidth() : image.getHeight();
     }
 
-    public static Bitmap rotateBitmap(Bitmap src, int degrees) {
-        if (src == null || degrees == 0) return src;
+    /** Frame height once rotated upright. */
+    public static int uprightHeight(ImageProxy image) {
+        return image.getImageInfo().getRotationDegrees() % 180 == 0
+                ? image.getHeight() : image.getWidth();
+    }
 
-        Matrix matrix = new Matrix();
-        matrix.postRotate(degrees);
+    /** Luma change since the previous frame fed to {@code difference}. */
+    public static float lumaDifference(ImageProxy image, FrameDifference difference) {
+        ImageProxy.PlaneProxy y = image.getPlanes()[0];
 
-        return Bitmap.createBitmap(
-                src,
-                0,
-                0,
-                src.getWidth(),
-                src.getHeight(),
-                matrix,
-                true
+        return difference.update(
+                y.getBuffer(),
+                y.getRowStride(),
+                y.getPixelStride(),
+                image.getWidth(),
+                image.getHeight()
         );
     }
 }
@@ -0,0 +1,37 @@
+package com.example.smartshopping;
+
+import java.nio.ByteBuffer;
+
+/**
+ * One ready-to-run model instance. Not thread-safe: one caller at a time,
+ * like the TFLite interpreter it usually wraps.
+ */
+public interface InferenceBackend {
+
+    /** Opens one more backend on the same model, at its exported shape. */
+    interface Opener {
+        InferenceBackend open() throws Exception;
+    }
+
+    /** Short description for logs, e.g. "GPU fp16" or "CPU x4 xnnpack". */
+    String getName();
+
+    /** e.g. [1, 640, 640, 3] float32, or uint8 for a quantised model */
+    TensorSpec getInputSpec();
+
+    /** e.g. [1, 19, 5376] */
+    TensorSpec getOutputSpec();
+
+    /**
+     * Reshapes the input to [batch, height, width, 3] and re-plans the
+     * graph; both specs change, so read them again. Throws if the model
+     * has an op that can't take the new shape. Slow (delegates
+     * re-prepare), so do it once per backend, not per frame.
+     */
+    void resizeInput(int batch, int height, int width);
+
+    /** Reads the whole of {@code input}, fills {@code output}. */
+    void run(ByteBuffer input, ByteBuffer output);
+
+    void close();
+}
@@ -0,0 +1,182 @@
+package com.example.smartshopping;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Interpreters for concurrent live inference. Each {@link Lane} is one
+ * worker's own set: a full-resolution head and, once enabled, a coarse
+ * one, each with its own preallocated I/O buffers. All interpreters are
+ * opened on the same memory-mapped model, so extra lanes cost their
+ * tensor arenas but not another copy of the weights.
+ *
+ * A lane is used by one thread at a time; {@link FramePipeline} hands
+ * each worker index to one inference at a time. Growing the pool is slow
+ * (interpreters are built) and must not race with inference.
+ */
+public class InterpreterPool {
+
+    /** One worker's interpreters. */
+    public static final class Lane {
+        private final DetectorHead fine;
+        private DetectorHead coarse;
+        private DetectorHead last;
+
+        Lane(DetectorHead fine) {
+            this.fine = fine;
+            last = fine;
+        }
+
+        public DetectorHead getFine() {
+            return fine;
+        }
+
+        /** Null until {@link InterpreterPool#enableCoarse} succeeds. */
+        public DetectorHead getCoarse() {
+            return coarse;
+        }
+
+        /** Head for input size {@code size}; remembered as {@link #getLast}. */
+        public DetectorHead head(int size) {
+            if (size == fine.getInputSize()) last = fine;
+            else if (coarse != null && size == coarse.getInputSize()) last = coarse;
+            else throw new IllegalArgumentException("No pass at input size " + size);
+            return last;
+        }
+
+        /** Head of the last {@link #head} call. */
+        public DetectorHead getLast() {
+            return last;
+        }
+
+        void close() {
+            fine.close();
+            if (coarse != null) coarse.close();
+        }
+    }
+
+    private final InferenceBackend.Opener opener;
+    private final int numClasses;
+    private final List<Lane> lanes = new ArrayList<>();
+    private int coarseSize;
+    private float iou = NonMaxSuppression.DEFAULT_IOU;
+    private int maxDetections = NonMaxSuppression.DEFAULT_MAX_DETECTIONS;
+
+    /** Opens the first lane; throws if that fails. */
+    public InterpreterPool(InferenceBackend.Opener opener, int numClasses) throws Exception {
+        this.opener = opener;
+        this.numClasses = numClasses;
+        lanes.add(new Lane(open(0)));
+    }
+
+    /**
+     * Workers worth running: cores divided by each interpreter's threads,
+     * capped at {@code max}. Accelerators get one, since interpreters
+     * would only queue for the same GPU or NPU.
+     */
+    public static int suggestedWorkers(int cores, int threadsPerInterpreter,
+                                       boolean accelerated, int max) {
+        if (accelerated) return 1;
+        return Math.max(1, Math.min(max, cores / Math.max(1, threadsPerInterpreter)));
+    }
+
+    // ===== SETUP =====
+
+    /**
+     * Opens lanes until there are {@code count}. Stops early when the
+     * device won't give another interpreter (memory, delegate slots).
+     * @return lanes now open
+     */
+    public int grow(int count) {
+        while (lanes.size() < count) {
+            DetectorHead fine = null;
+            try {
+                fine = open(0);
+                Lane lane = new Lane(fine);
+                if (coarseSize > 0) lane.coarse = open(coarseSize);
+                lanes.add(lane);
+            } catch (Exception | LinkageError e) {
+                if (fine != null) fine.close();
+                break;
+            }
+        }
+        return lanes.size();
+    }
+
+    /**
+     * Adds a coarse head of {@code size} to every lane. All or nothing:
+     * if any lane can't have one, none keep theirs.
+     */
+    public boolean enableCoarse(int size) {
+        if (size <= 0 || size >= lanes.get(0).fine.getInputSize()) return false;
+
+        List<DetectorHead> opened = new ArrayList<>();
+        try {
+            for (int i = 0; i < lanes.size(); i++) opened.add(open(size));
+        } catch (Exception | LinkageError e) {
+            for (DetectorHead h : opened) h.close();
+            return false;
+        }
+
+        for (int i = 0; i < lanes.size(); i++) {
+            Lane lane = lanes.get(i);
+            if (lane.coarse != null) lane.coarse.close();
+            lane.coarse = opened.get(i);
+            lane.last = lane.fine;
+        }
+        coarseSize = size;
+        return true;
+    }
+
+    /** Opens one head, resized to {@code size} unless 0. */
+    private DetectorHead open(int size) throws Exception {
+        InferenceBackend backend = opener.open();
+        try {
+            if (size > 0) backend.resizeInput(1, size, size);
+            DetectorHead head = new DetectorHead(backend, numClasses);
+            head.setIouThreshold(iou);
+            head.setMaxDetections(maxDetections);
+            return head;
+        } catch (RuntimeException e) {
+            backend.close();
+            throw e;
+        }
+    }
+
+    // ===== TUNING (all lanes) =====
+
+    public void setIouThreshold(float iou) {
+        this.iou = iou;
+        for (Lane lane : lanes) {
+            lane.fine.setIouThreshold(iou);
+            if (lane.coarse != null) lane.coarse.setIouThreshold(iou);
+        }
+    }
+
+    public void setMaxDetections(int max) {
+        maxDetections = max;
+        for (Lane lane : lanes) {
+            lane.fine.setMaxDetections(max);
+            if (lane.coarse != null) lane.coarse.setMaxDetections(max);
+        }
+    }
+
+    // ===== READ =====
+
+    public Lane lane(int worker) {
+        return lanes.get(worker);
+    }
+
+    public int size() {
+        return lanes.size();
+    }
+
+    /** Input size of the coarse heads, or 0 without them. */
+    public int getCoarseSize() {
+        return coarseSize;
+    }
+
+    public void close() {
+        for (Lane lane : lanes) lane.close();
+    }
+}
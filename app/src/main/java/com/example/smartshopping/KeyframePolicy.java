@@ -0,0 +1,66 @@
+package com.example.smartshopping;
+
+/**
+ * Decides, per analysed camera frame, whether the detector has to run or
+ * the tracker can carry the last result. The detector runs every
+ * {@code interval}-th frame, and on every frame while the best track is
+ * weaker than {@code minConfidence} (including when nothing is tracked).
+ *
+ * {@link #isKeyframe} is called from the camera thread, {@link #onTracked}
+ * from whichever thread owns the tracker.
+ */
+public class KeyframePolicy {
+
+    public static final int DEFAULT_INTERVAL = 4;
+    public static final float DEFAULT_MIN_CONFIDENCE = 0.5f;
+
+    private final int interval;
+    private final float minConfidence;
+
+    private volatile float confidence;
+    private int sinceKeyframe;          // camera thread only
+    private long keyframes, tracked;
+
+    public KeyframePolicy() {
+        this(DEFAULT_INTERVAL, DEFAULT_MIN_CONFIDENCE);
+    }
+
+    public KeyframePolicy(int interval, float minConfidence) {
+        if (interval < 1) throw new IllegalArgumentException("interval " + interval);
+        this.interval = interval;
+        this.minConfidence = minConfidence;
+    }
+
+    public boolean isKeyframe() {
+        if (++sinceKeyframe >= interval || confidence < minConfidence) {
+            sinceKeyframe = 0;
+            keyframes++;
+            return true;
+        }
+        tracked++;
+        return false;
+    }
+
+    /** Best track confidence after a keyframe, 0 when nothing is tracked. */
+    public void onTracked(float bestConfidence) {
+        confidence = bestConfidence;
+    }
+
+    /** Forget the current track, e.g. after the dialog resets. */
+    public void reset() {
+        confidence = 0f;
+    }
+
+    public int getInterval() {
+        return interval;
+    }
+
+    public long getKeyframes() {
+        return keyframes;
+    }
+
+    /** Frames served by the tracker instead of the detector. */
+    public long getTracked() {
+        return tracked;
+    }
+}
@@ -0,0 +1,89 @@
+package com.example.smartshopping;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Maps the detector's class IDs to {@link Product}s, once, at model load.
+ *
+ * Labels come from the model's label file and keys from the price file,
+ * and the two don't always agree ("mineral water" against
+ * "mineral_water"). Each label is tried as a key as is, then as
+ * {@link CatalogFile#productKey}. A catalog compiled against the same
+ * label file already holds that answer per class and is used directly;
+ * if its labels differ from the model's, that is reported and the
+ * labels are looked up instead. Every class left without a product is
+ * reported too, rather than failing silently on every scan.
+ *
+ * Immutable; {@link #get} is an array read.
+ */
+public final class LabelResolver {
+
+    private final Product[] products;
+    private final List<String> mismatches;
+
+    private LabelResolver(Product[] products, List<String> mismatches) {
+        this.products = products;
+        this.mismatches = Collections.unmodifiableList(mismatches);
+    }
+
+    /** Resolves each of the model's {@code labels}, indexed by class ID, against {@code catalog}. */
+    public static LabelResolver resolve(String[] labels, CatalogFile catalog) {
+        Product[] products = new Product[labels.length];
+        List<String> mismatches = new ArrayList<>();
+
+        if (catalog.getLabelCount() != labels.length) {
+            mismatches.add("Model has " + labels.length + " classes, catalog was compiled for "
+                    + catalog.getLabelCount());
+        }
+        for (int classId = 0; classId < labels.length; classId++) {
+            String label = labels[classId];
+            int id;
+            if (classId < catalog.getLabelCount() && catalog.getLabel(classId).equals(label)) {
+                id = catalog.productOfLabel(classId);
+            } else {
+                if (classId < catalog.getLabelCount()) {
+                    mismatches.add("Class " + classId + " is \"" + label + "\" in the model but \""
+                            + catalog.getLabel(classId) + "\" in the catalog");
+                }
+                id = lookup(catalog, label);
+            }
+
+            if (id == CatalogFile.NOT_FOUND) {
+                mismatches.add("Class " + classId + " \"" + label + "\" has no product (nor \""
+                        + CatalogFile.productKey(label) + "\")");
+                continue;
+            }
+            String sku = catalog.getKey(id);
+            products[classId] = new Product(classId, sku, catalog.getName(id),
+                    sku.replace('_', ' '), catalog.getPrice(id));
+        }
+        return new LabelResolver(products, mismatches);
+    }
+
+    /** Product {@code label} names in {@code catalog}, by the same rule as {@link CatalogCompiler}. */
+    private static int lookup(CatalogFile catalog, String label) {
+        int id = catalog.idOf(label);
+        return id != CatalogFile.NOT_FOUND ? id : catalog.idOf(CatalogFile.productKey(label));
+    }
+
+    /** Product for {@code classId}, or null if it has none (or isn't a class). */
+    public Product get(int classId) {
+        return classId >= 0 && classId < products.length ? products[classId] : null;
+    }
+
+    public boolean isSellable(int classId) {
+        return get(classId) != null;
+    }
+
+    /** Number of model classes. */
+    public int size() {
+        return products.length;
+    }
+
+    /** What didn't line up, one line each; empty if everything resolved. */
+    public List<String> getMismatches() {
+        return mismatches;
+    }
+}
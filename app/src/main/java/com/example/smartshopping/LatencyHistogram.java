@@ -0,0 +1,105 @@
+package com.example.smartshopping;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Fixed-bucket latency histogram in microseconds, HDR style: exact below
+ * 32 us, then 16 linear sub-buckets per power of two, so any reported
+ * percentile is within 1/16 (6.25%) of the true value. Buckets are
+ * allocated once; {@link #record} never allocates and is safe to call
+ * from one writer while others read.
+ */
+public class LatencyHistogram {
+
+    private static final int SUB_BITS = 4;
+    private static final int SUB = 1 << SUB_BITS;          // 16
+    private static final int LINEAR = 2 * SUB;              // exact below 32 us
+    private static final int MAX_EXP = 36;                  // ~19 h, plenty
+    static final int BUCKETS = LINEAR + (MAX_EXP - SUB_BITS) * SUB;
+
+    private final AtomicLongArray counts = new AtomicLongArray(BUCKETS);
+    private final AtomicLong count = new AtomicLong();
+    private final AtomicLong totalMicros = new AtomicLong();
+    private final AtomicLong maxMicros = new AtomicLong();
+
+    // ===== RECORD =====
+
+    public void record(long nanos) {
+        recordMicros(nanos < 0 ? 0 : nanos / 1000L);
+    }
+
+    public void recordMicros(long micros) {
+        counts.incrementAndGet(bucket(micros));
+        count.incrementAndGet();
+        totalMicros.addAndGet(micros);
+
+        long max;
+        while (micros > (max = maxMicros.get())) {
+            if (maxMicros.compareAndSet(max, micros)) break;
+        }
+    }
+
+    public void reset() {
+        for (int i = 0; i < BUCKETS; i++) counts.set(i, 0);
+        count.set(0);
+        totalMicros.set(0);
+        maxMicros.set(0);
+    }
+
+    // ===== BUCKETS =====
+
+    static int bucket(long micros) {
+        if (micros < LINEAR) return (int) Math.max(0, micros);
+
+        int exp = 63 - Long.numberOfLeadingZeros(micros);
+        if (exp > MAX_EXP) return BUCKETS - 1;
+
+        int top = (int) (micros >>> (exp - SUB_BITS));       // [16, 32)
+        return LINEAR + (exp - SUB_BITS - 1) * SUB + (top - SUB);
+    }
+
+    /** Largest value that lands in {@code bucket}. */
+    static long upperBound(int bucket) {
+        if (bucket < LINEAR) return bucket;
+
+        int exp = (bucket - LINEAR) / SUB + SUB_BITS + 1;
+        long top = (bucket - LINEAR) % SUB + SUB;
+        return ((top + 1) << (exp - SUB_BITS)) - 1;
+    }
+
+    // ===== READ =====
+
+    public long getCount() {
+        return count.get();
+    }
+
+    public long getMaxMicros() {
+        return maxMicros.get();
+    }
+
+    public double getMeanMicros() {
+        long n = count.get();
+        return n == 0 ? 0 : (double) totalMicros.get() / n;
+    }
+
+    /**
+     * @param percentile 0..100
+     * @return upper bound of the bucket holding that rank, capped at the
+     *         max seen; 0 when empty
+     */
+    public long percentileMicros(double percentile) {
+        long n = count.get();
+        if (n == 0) return 0;
+
+        long rank = (long) Math.ceil(percentile / 100.0 * n);
+        if (rank < 1) rank = 1;
+
+        long seen = 0;
+        for (int i = 0; i < BUCKETS; i++) {
+            seen += counts.get(i);
+            if (seen >= rank) return Math.min(upperBound(i), maxMicros.get());
+        }
+        return maxMicros.get();
+    }
+}
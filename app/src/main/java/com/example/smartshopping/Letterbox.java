@@ -0,0 +1,134 @@
+package com.example.smartshopping;
+
+/**
+ * Geometry of the last frame packed into the model input. Maps the
+ * normalised box coordinates the model returns back onto the upright
+ * (already rotated) camera frame, including when only a crop of that
+ * frame was fed to the model.
+ */
+public class Letterbox {
+
+    private int srcWidth;
+    private int srcHeight;
+    private int inputSize;
+
+    // crop origin and full upright frame, for ROI inference
+    private int offsetX;
+    private int offsetY;
+    private int frameWidth;
+    private int frameHeight;
+
+    private float scaleX = 1f;
+    private float scaleY = 1f;
+    private float padX;
+    private float padY;
+
+    // ===== SETUP =====
+
+    /** Aspect-preserving fit, padded equally on both sides. */
+    public void fit(int srcW, int srcH, int size) {
+        fitCrop(srcW, srcH, 0, 0, srcW, srcH, size);
+    }
+
+    /**
+     * Aspect-preserving fit of the {@code cropW x cropH} region at
+     * ({@code cropX}, {@code cropY}) of a {@code frameW x frameH} frame.
+     * Mapped boxes still come out in full-frame pixels.
+     */
+    public void fitCrop(int frameW, int frameH, int cropX, int cropY,
+                        int cropW, int cropH, int size) {
+        float scale = Math.min(size / (float) cropW, size / (float) cropH);
+        set(cropW, cropH, size, scale, scale,
+                (size - Math.round(cropW * scale)) / 2,
+                (size - Math.round(cropH * scale)) / 2);
+        setCrop(frameW, frameH, cropX, cropY);
+    }
+
+    /** Plain stretch to a square input, as {@code createScaledBitmap} does. */
+    public void stretch(int srcW, int srcH, int size) {
+        set(srcW, srcH, size, size / (float) srcW, size / (float) srcH, 0, 0);
+        setCrop(srcW, srcH, 0, 0);
+    }
+
+    private void setCrop(int frameW, int frameH, int x, int y) {
+        frameWidth = frameW;
+        frameHeight = frameH;
+        offsetX = x;
+        offsetY = y;
+    }
+
+    private void set(int srcW, int srcH, int size,
+                     float sx, float sy, float px, float py) {
+        srcWidth = srcW;
+        srcHeight = srcH;
+        inputSize = size;
+        scaleX = sx;
+        scaleY = sy;
+        padX = px;
+        padY = py;
+    }
+
+    // ===== MAPPING =====
+
+    /** Normalised model x (0..1) to frame pixels. */
+    public float toFrameX(float normX) {
+        return (normX * inputSize - padX) / scaleX + offsetX;
+    }
+
+    /** Normalised model y (0..1) to frame pixels. */
+    public float toFrameY(float normY) {
+        return (normY * inputSize - padY) / scaleY + offsetY;
+    }
+
+    // ===== GETTERS =====
+
+    /** True when only part of the frame was fed to the model. */
+    public boolean isCropped() {
+        return srcWidth != frameWidth || srcHeight != frameHeight;
+    }
+
+    public int getFrameWidth() {
+        return frameWidth;
+    }
+
+    public int getFrameHeight() {
+        return frameHeight;
+    }
+
+    public int getOffsetX() {
+        return offsetX;
+    }
+
+    public int getOffsetY() {
+        return offsetY;
+    }
+
+    /** Width of the region fed to the model (the crop, or the whole frame). */
+    public int getSrcWidth() {
+        return srcWidth;
+    }
+
+    public int getSrcHeight() {
+        return srcHeight;
+    }
+
+    public int getInputSize() {
+        return inputSize;
+    }
+
+    public float getScaleX() {
+        return scaleX;
+    }
+
+    public float getScaleY() {
+        return scaleY;
+    }
+
+    public float getPadX() {
+        return padX;
+    }
+
+    public float getPadY() {
+        return padY;
+    }
+}
@@ -3,10 +3,14 @@ package com.example.smartshopping;
 import android.Manifest;
 import android.content.Intent;
 import android.content.pm.PackageManager;
-import android.graphics.Bitmap;
+import android.content.res.AssetFileDescriptor;
+import android.os.BatteryManager;
+import android.os.Build;
 import android.os.Bundle;
 import android.os.Handler;
 import android.os.Looper;
+import android.os.PowerManager;
+import android.os.SystemClock;
 import android.speech.RecognitionListener;
 import android.speech.RecognizerIntent;
 import android.speech.SpeechRecognizer;
@@ -14,6 +18,7 @@ import android.speech.tts.TextToSpeech;
 import android.util.Log;
 import android.view.View;
 import android.widget.TextView;
+import android.widget.Toast;
 
 import androidx.appcompat.app.AppCompatActivity;
 import androidx.camera.core.*;
@@ -27,13 +32,15 @@ import androidx.recyclerview.widget.RecyclerView;
 import com.google.android.material.button.MaterialButton;
 import com.google.common.util.concurrent.ListenableFuture;
 
-import org.json.JSONObject;
-
-import java.io.InputStream;
-import java.nio.charset.StandardCharsets;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileWriter;
+import java.io.IOException;
 import java.util.*;
 import java.util.concurrent.ExecutorService;
 import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicBoolean;
 import java.util.regex.Matcher;
 import java.util.regex.Pattern;
 
@@ -46,18 +53,28 @@ public class MainActivity extends AppCompatActivity {
     private MaterialButton btnScan, btnYes, btnNo, btnTotal;
     private MaterialButton qty1, qty2, qty3, qty4, qty5, qty6, qty7, qty8,qty9, qty10;
     private PreviewView previewView;
+    private OverlayView overlayView;
     private RecyclerView cartRecycler;
 
     // ================= CORE =================
     private ExecutorService cameraExecutor;
-    private YoloV8Detector detector;
+    private volatile YoloV8Detector detector;
+    private volatile FramePipeline<ScanFrame> pipeline;
+    private final FrameMetrics metrics = new FrameMetrics();
+    private ScannerMode scannerMode;
+    private final FrameGovernor governor = new FrameGovernor();
+    private PowerManager.OnThermalStatusChangedListener thermalListener;    // API 29+
+    private final FrameDifference frameDifference = new FrameDifference();   // camera thread
+    private ImageAnalysis analysis;
+    private ImageAnalysis.Analyzer analyzer;
     private TextToSpeech tts;
     private SpeechRecognizer speechRecognizer;
     private final Handler handler = new Handler(Looper.getMainLooper());
 
     // ================= CART =================
-    private final List<CartItem> cart = new ArrayList<>();
+    private final Cart cart = new Cart();
     private CartAdapter cartAdapter;
+    private final char[] totalChars = new char[Money.RINGGIT_CHARS];     // main thread
 
     // ================= STATE =================
     private boolean isScanning = false;
@@ -71,18 +88,29 @@ public class MainActivity extends AppCompatActivity {
 
     private boolean isSpeaking = false;
 
-    private String pendingItem = null;
-    private float pendingPrice = 0f;
+    // class ID of the product being added or removed
+    private static final int NO_PRODUCT = -1;
+    private int pendingClass = NO_PRODUCT;
     private int pendingQty = -1;
     private int pendingRemoveQty = -1;
 
     // ================= STABILITY =================
-    private String lastLabel = null;
-    private long stableStart = 0;
     private static final long VERIFY_TIME = 5000;
+    private volatile StabilityTracker stability;
+    private final ObjectTracker tracker = new ObjectTracker(16);        // post thread
+    private final KeyframePolicy keyframes = new KeyframePolicy();
+    private final RoiController roi = new RoiController();
+    private final int[] roiRect = new int[4];                           // camera thread
+    private int overlayWidth, overlayHeight;                            // post thread
+    private volatile ResolutionPolicy resolution;
+    // set by the main thread, served by the post thread, which owns the tracker
+    private final AtomicBoolean trackingReset = new AtomicBoolean();
 
     // ================= PRICES =================
-    private final Map<String, Float> PRICE_DB = new HashMap<>();
+    // loaded off the main thread; until then every product reads as unknown
+    private volatile CatalogFile catalog;
+    // class ID -> product, built with the detector; null until then
+    private volatile LabelResolver products;
 
     // =========================================================
     // LIFECYCLE
@@ -97,23 +125,53 @@ public class MainActivity extends AppCompatActivity {
         setupCart();
         setupTTS();
         setupSpeech();
-        loadPricesFromJson();
 
         statusCalibrating();
 
         cameraExecutor = Executors.newSingleThreadExecutor();
+        cameraExecutor.execute(this::loadCatalog);
+        setupScannerMode();
 
-        try {
-            detector = new YoloV8Detector(this);
-        } catch (Exception e) {
-            setStatus("Model failed", R.drawable.status_dot_red);
-            return;
-        }
+        // normally already loading since Splash; this just waits for it
+        Future<YoloV8Detector> pending = DetectorHolder.preload(this);
+        cameraExecutor.execute(() -> {
+            try {
+                YoloV8Detector d = pending.get();
+                d.setMetrics(metrics);
+                stability = new StabilityTracker(d.getNumClasses(), VERIFY_TIME);
+                resolution = new ResolutionPolicy(d.getCoarseSize(), d.getInputSize());
+                // a frame per worker in flight, plus room for the camera and post stages
+                pipeline = new FramePipeline<>(d.getWorkers() + 3,
+                        () -> new ScanFrame(d),
+                        d.getWorkers(),
+                        this::inferFrame,
+                        this::onFrameResult);
+                CatalogFile prices = catalog;
+                if (prices != null) {
+                    LabelResolver resolved = LabelResolver.resolve(d.getLabels(), prices);
+                    for (String problem : resolved.getMismatches()) Log.w("PRICE_DB", problem);
+                    products = resolved;
+                }
+                detector = d;
+                runOnUiThread(() -> {
+                    overlayView.attach(d.getLabels(), d.getMaxDetections());
+                    setStatus("Ready (" + d.getBackendName() + ")",
+                            R.drawable.status_dot_green);
+                });
+            } catch (Exception e) {
+                Log.e("YOLO", "Detector init failed", e);
+                runOnUiThread(() -> setStatus("Model failed", R.drawable.status_dot_red));
+            }
+        });
 
         btnScan.setOnClickListener(v -> startScan());
         btnYes.setOnClickListener(v -> onYesPressed());
         btnNo.setOnClickListener(v -> onNoPressed());
         btnTotal.setOnClickListener(v -> speakTotal());
+        statusText.setOnLongClickListener(v -> {
+            dumpMetrics();
+            return true;
+        });
 
         setupQuantityButtons();
         checkCameraPermission();
@@ -148,21 +206,22 @@ public class MainActivity extends AppCompatActivity {
     // PRICE LOADING
     // =========================================================
 
-    private void loadPricesFromJson() {
+    // camera executor, before the detector wait
+    private void loadCatalog() {
+        long start = SystemClock.elapsedRealtime();
         try {
-            InputStream is = getAssets().open("prices_4.json");
-            byte[] buffer = new byte[is.available()];
-            is.read(buffer);
-            is.close();
-
-            JSONObject root = new JSONObject(new String(buffer, StandardCharsets.UTF_8));
-            Iterator<String> keys = root.keys();
-
-            while (keys.hasNext()) {
-                String key = keys.next();
-                PRICE_DB.put(key, (float) root.getJSONObject(key).getDouble("price"));
+            // compiled from prices_4.json at build time, stored uncompressed
+            AssetFileDescriptor afd = getAssets().openFd("catalog_4.bin");
+            CatalogFile loaded;
+            try (FileInputStream fis = new FileInputStream(afd.getFileDescriptor())) {
+                loaded = CatalogFile.map(fis.getChannel(), afd.getStartOffset(), afd.getDeclaredLength());
+            } finally {
+                afd.close();
             }
-        } catch (Exception e) {
+            catalog = loaded;
+            Log.i("PRICE_DB", loaded.size() + " products in "
+                    + (SystemClock.elapsedRealtime() - start) + " ms");
+        } catch (IOException e) {
             Log.e("PRICE_DB", "Failed to load prices", e);
         }
     }
@@ -173,10 +232,15 @@ public class MainActivity extends AppCompatActivity {
 
     private void startScan() {
         if (isScanning) return;
+        if (detector == null) {
+            speak("Still calibrating. Please wait.");
+            return;
+        }
         isScanning = true;
 
         runOnUiThread(() -> scannerText.setText("SCANNING..."));
         speak("Scanning");
+        pipeline.start();
 
         ListenableFuture<ProcessCameraProvider> future =
                 ProcessCameraProvider.getInstance(this);
@@ -188,67 +252,32 @@ public class MainActivity extends AppCompatActivity {
                 Preview preview = new Preview.Builder().build();
                 preview.setSurfaceProvider(previewView.getSurfaceProvider());
 
-                ImageAnalysis analysis =
+                analysis =
                         new ImageAnalysis.Builder()
                                 .setBackpressureStrategy(ImageAnalysis.STRATEGY_KEEP_ONLY_LATEST)
                                 .build();
 
-                analysis.setAnalyzer(cameraExecutor, image -> {
-
-                    Bitmap bitmap = ImageUtils.rotateBitmap(
-                            ImageUtils.imageToBitmap(image),
-                            image.getImageInfo().getRotationDegrees());
-
-                    if (bitmap == null || isSpeaking ||
-                            awaitingConfirmation || awaitingQuantity ||
-                            awaitingQtyConfirm || awaitingRemoveItem ||
-                            awaitingRemoveQuantity || awaitingRemoveConfirm) {
-                        image.close();
-                        return;
-                    }
-
-                    List<YoloV8Detector.Detection> detections = detector.detect(bitmap);
-
-                    if (!detections.isEmpty()) {
-                        String label = detections.get(0).label;
-
-                        if (!PRICE_DB.containsKey(label)) {
-                            resetStability();
-                        } else {
-                            long now = System.currentTimeMillis();
-
-                            if (label.equals(lastLabel)) {
-                                if (stableStart == 0) {
-                                    stableStart = now;
-                                    runOnUiThread(() -> scannerText.setText("VERIFYING ITEM..."));
-                                    speak("Verifying item");
-                                }
-
-                                if (now - stableStart >= VERIFY_TIME) {
-                                    awaitingConfirmation = true;
-                                    pendingItem = label;
-                                    pendingPrice = PRICE_DB.get(label);
-                                    String pendingPriceF = String.format("%.2f", PRICE_DB.get(label));
-                                    stopListening();
-
-                                    runOnUiThread(() ->
-                                            scannerText.setText(
-                                                    label.replace("_", " ").toUpperCase()
-                                                            + "\nRM " + pendingPriceF));
-
-                                    speak(label.replace("_", " ")
-                                            + " costs "
-                                            + pendingPriceF
-                                            + " ringgit. Do you want to add to the cart?");
-                                }
-                            } else {
-                                lastLabel = label;
-                                stableStart = 0;
-                            }
-                        }
+                // convert here, then infer / post-process overlap on the pipeline threads
+                analyzer = image -> {
+                    metrics.count(FrameMetrics.Counter.ANALYZED);
+                    long now = System.nanoTime();
+                    governor.onFrameDifference(
+                            ImageUtils.lumaDifference(image, frameDifference), now);
+
+                    // frames already queued when the scanner paused
+                    if (isSpeaking) {
+                        metrics.count(FrameMetrics.Counter.SKIPPED_SPEAKING);
+                    } else if (isAwaitingAnswer()) {
+                        metrics.count(FrameMetrics.Counter.SKIPPED_AWAITING);
+                    } else if (!governor.shouldProcess(now)) {
+                        metrics.count(FrameMetrics.Counter.THROTTLED);
+                    } else if (!pipeline.submit(
+                            frame -> preprocessFrame(frame, image, keyframes.isKeyframe()))) {
+                        metrics.count(FrameMetrics.Counter.DROPPED);
                     }
                     image.close();
-                });
+                };
+                if (scannerMode.isActive()) analysis.setAnalyzer(cameraExecutor, analyzer);
 
                 provider.bindToLifecycle(
                         this,
@@ -263,9 +292,266 @@ public class MainActivity extends AppCompatActivity {
         }, ContextCompat.getMainExecutor(this));
     }
 
+    // ===== SCANNER MODE =====
+
+    private void setupScannerMode() {
+        BatteryManager battery = (BatteryManager) getSystemService(BATTERY_SERVICE);
+
+        scannerMode = new ScannerMode(new ScannerMode.Probe() {
+            @Override
+            public long elapsedMillis() {
+                return SystemClock.elapsedRealtime();
+            }
+
+            @Override
+            public long cpuMillis() {
+                return android.os.Process.getElapsedCpuTime();
+            }
+
+            @Override
+            public long chargeMicroAmpHours() {
+                return battery == null ? Long.MIN_VALUE
+                        : battery.getLongProperty(BatteryManager.BATTERY_PROPERTY_CHARGE_COUNTER);
+            }
+        });
+        scannerMode.setListener(this::onScannerModeChanged);
+
+        if (Build.VERSION.SDK_INT >= Build.VERSION_CODES.Q) {
+            PowerManager power = (PowerManager) getSystemService(POWER_SERVICE);
+            if (power != null) {
+                governor.onThermalStatus(power.getCurrentThermalStatus());
+                thermalListener = governor::onThermalStatus;
+                power.addThermalStatusListener(thermalListener);
+            }
+        }
+    }
+
+    /** Call whenever isSpeaking or an awaiting* flag may have changed. */
+    private void syncScannerMode() {
+        handler.post(() -> scannerMode.setBlocked(isScanBlocked()));
+    }
+
+    // main thread
+    private void onScannerModeChanged(ScannerMode.Mode mode) {
+        if (analysis == null) return;
+
+        if (mode == ScannerMode.Mode.PAUSED) {
+            // no frames delivered, nothing converted or inferred until resumed
+            analysis.clearAnalyzer();
+            if (pipeline != null) pipeline.discardPending();
+            overlayView.setActive(false);
+            // resume on the full frame, not a crop around whatever was last seen;
+            // tracks stay, since speech pauses mid-verification too
+            roi.reset();
+        } else {
+            // pipeline threads and buffers stayed up, so the next frame is warm
+            overlayView.setActive(true);
+            analysis.setAnalyzer(cameraExecutor, analyzer);
+        }
+    }
+
+    // ===== PIPELINE STAGES =====
+
+    /**
+     * One in-flight camera frame: its own input buffers (full and, if the
+     * model takes it, coarse resolution) plus the detections, written by
+     * the detector and read in place by the tracker.
+     * Non-keyframes skip conversion and inference: their detections are
+     * the tracked boxes predicted to the frame's time, for the overlay,
+     * and they advance the stability clock on the tracked result.
+     */
+    private static class ScanFrame extends FramePipeline.Item {
+        final YuvConverter fine;
+        final YuvConverter coarse;
+        YuvConverter converter;
+        boolean keyframe;
+        long startNanos;
+
+        final DetectionBuffer detections;
+
+        ScanFrame(YoloV8Detector d) {
+            fine = new YuvConverter(d.getInputSpec());
+            coarse = d.getCoarseSize() > 0
+                    ? new YuvConverter(d.getInputSpec(d.getCoarseSize()))
+                    : null;
+            converter = fine;
+            detections = d.newBuffer();
+        }
+    }
+
+    private boolean isAwaitingAnswer() {
+        return awaitingConfirmation || awaitingQuantity ||
+                awaitingQtyConfirm || awaitingRemoveItem ||
+                awaitingRemoveQuantity || awaitingRemoveConfirm;
+    }
+
+    private boolean isScanBlocked() {
+        return isSpeaking || isAwaitingAnswer();
+    }
+
+    // camera thread
+    private void preprocessFrame(ScanFrame frame, ImageProxy image, boolean keyframe) {
+        frame.startNanos = System.nanoTime();
+        frame.keyframe = keyframe;
+        if (!keyframe) return;
+
+        // crop around the last item once there is one, full frame otherwise
+        roi.next(ImageUtils.uprightWidth(image), ImageUtils.uprightHeight(image), roiRect);
+        frame.converter = resolution.next() == frame.fine.getInputSize() ? frame.fine : frame.coarse;
+        ImageUtils.toModelInput(image, frame.converter, roiRect);
+        metrics.record(FrameMetrics.Stage.PREPROCESS, System.nanoTime() - frame.startNanos);
+    }
+
+    // inference pool, one call per worker at a time
+    private void inferFrame(int worker, ScanFrame frame) {
+        if (!frame.keyframe) return;
+
+        int size = frame.converter.getInputSize();
+        detector.detect(worker, size, frame.converter.getInput(),
+                frame.converter.getLetterbox(), frame.detections);
+        DetectorHolder.markFirstDetection();
+        governor.onInferenceNanos(detector.getLastInferenceNanos(worker));
+        resolution.onResult(size, detector.getLastTopScore(worker));
+    }
+
+    // post thread
+    private void onFrameResult(ScanFrame frame) {
+        if (frame.getSequence() % 100 == 99) {
+            Log.d("PIPELINE", pipeline.describe());
+        }
+
+        if (trackingReset.getAndSet(false)) resetTracking();
+
+        long t0 = System.nanoTime();
+
+        if (frame.keyframe) {
+            tracker.update(frame.detections, frame.startNanos);
+            Letterbox lb = frame.converter.getLetterbox();
+            overlayWidth = lb.getFrameWidth();
+            overlayHeight = lb.getFrameHeight();
+        } else {
+            // no detector run: move the tracked boxes on instead
+            tracker.predict(frame.startNanos, frame.detections);
+        }
+        if (overlayWidth > 0) overlayView.show(frame.detections, overlayWidth, overlayHeight);
+        ObjectTracker.Track best = tracker.best();
+        if (frame.keyframe) {
+            keyframes.onTracked(best == null ? 0f
+                    : best.getConfidence(tracker.getConfirmHits()));
+
+            if (best != null && best.getMisses() == 0) {
+                roi.onResult(best.left(), best.top(), best.right(), best.bottom());
+            } else {
+                roi.onMiss();
+            }
+        }
+
+        int classId = best == null ? FrameGovernor.NO_CLASS : best.getClassId();
+        if (!isScanBlocked()) governor.onClass(classId, t0);
+        updateStability(best);
+        long end = System.nanoTime();
+
+        metrics.record(FrameMetrics.Stage.STABILITY, end - t0);
+        if (frame.keyframe) {
+            metrics.record(FrameMetrics.Stage.END_TO_END, end - frame.startNanos);
+            metrics.count(FrameMetrics.Counter.PROCESSED);
+        } else {
+            metrics.count(FrameMetrics.Counter.TRACKED);
+        }
+    }
+
+    private void updateStability(ObjectTracker.Track best) {
+        // state may have changed while the frame was in flight
+        if (isScanBlocked()) return;
+
+        long now = System.currentTimeMillis();
+        StabilityTracker.Event event;
+
+        // unknown products vote the same as an empty frame
+        LabelResolver resolved = products;
+        if (best == null || resolved == null || !resolved.isSellable(best.getClassId())) {
+            event = stability.observeNothing(now);
+        } else {
+            event = stability.observe(best.getId(), best.getClassId(),
+                    best.getConfidence(tracker.getConfirmHits()),
+                    best.left(), best.top(), best.right(), best.bottom(), now);
+        }
+
+        if (event == StabilityTracker.Event.STARTED) {
+            runOnUiThread(() -> scannerText.setText("VERIFYING ITEM..."));
+            speak("Verifying item");
+        } else if (event == StabilityTracker.Event.CONFIRMED) {
+            // may land on an empty frame; the voted class is what was verified
+            offerItem(stability.getCandidate());
+        }
+    }
+
+    private void offerItem(int classId) {
+        Product product = products.get(classId);
+        awaitingConfirmation = true;
+        pendingClass = classId;
+        String pendingPriceF = product.getPrice().toString();
+        stopListening();
+
+        runOnUiThread(() ->
+                scannerText.setText(
+                        product.getDisplayName()
+                                + "\nRM " + pendingPriceF));
+
+        speak(product.getSpokenName()
+                + " costs "
+                + pendingPriceF
+                + " ringgit. Do you want to add to the cart?");
+    }
+
+    // ===== METRICS =====
+
+    /** Long-press on the status line: p50/p95/p99 per stage to logcat and files/frame_metrics.txt. */
+    private void dumpMetrics() {
+        String report = metrics.dump();
+        if (pipeline != null) report += pipeline.describe() + "\n";
+        report += scannerMode.describe() + "\n";
+        report += governor.describe(System.nanoTime()) + "\n";
+        report += "keyframes " + keyframes.getKeyframes()
+                + ", tracked " + keyframes.getTracked() + "\n";
+        report += "roi cropped " + roi.getCropped() + ", full " + roi.getFullFrames()
+                + ", fallbacks " + roi.getFallbacks() + "\n";
+        if (resolution != null) report += resolution.describe() + "\n";
+
+        for (String line : report.split("\n")) Log.i("METRICS", line);
+
+        final String text = report;
+        cameraExecutor.execute(() -> {
+            try (FileWriter out = new FileWriter(new File(getFilesDir(), "frame_metrics.txt"))) {
+                out.write(text);
+            } catch (IOException e) {
+                Log.w("METRICS", "Could not write metrics file", e);
+            }
+        });
+        Toast.makeText(this, "Metrics dumped", Toast.LENGTH_SHORT).show();
+    }
+
     private void resetStability() {
-        lastLabel = null;
-        stableStart = 0;
+        if (stability != null) stability.reset();
+    }
+
+    /**
+     * Drops the tracks, and everything trusting them, before the next
+     * frame is handled, so an item just added or cancelled can't coast
+     * back into the stability vote.
+     */
+    private void requestTrackingReset() {
+        // the camera thread crops the next frame before the post thread gets here
+        roi.reset();
+        trackingReset.set(true);
+    }
+
+    // post thread
+    private void resetTracking() {
+        tracker.clear();
+        keyframes.reset();
+        roi.reset();
+        if (resolution != null) resolution.reset();
     }
 
     // =========================================================
@@ -284,9 +570,9 @@ public class MainActivity extends AppCompatActivity {
         }
 
         if (awaitingQtyConfirm) {
-            addItemToCart(pendingItem, pendingPrice, pendingQty);
+            addItemToCart(pendingClass, pendingQty);
             hideQtyPanel();
-            speak("Added " + pendingQty + " " + pendingItem.replace("_", " "));
+            speak("Added " + pendingQty + " " + products.get(pendingClass).getSpokenName());
             runOnUiThread(() -> scannerText.setText("ADDED x" + pendingQty));
             clearPending();
             return;
@@ -314,7 +600,7 @@ public class MainActivity extends AppCompatActivity {
         awaitingRemoveItem = false;
         awaitingRemoveQuantity = false;
         awaitingRemoveConfirm = false;
-        pendingItem = null;
+        pendingClass = NO_PRODUCT;
         pendingQty = -1;
         pendingRemoveQty = -1;
         hideQtyPanel();
@@ -326,17 +612,9 @@ public class MainActivity extends AppCompatActivity {
     // CART OPS
     // =========================================================
 
-    private void addItemToCart(String item, float price, int qty) {
-        for (CartItem c : cart) {
-            if (c.getName().equals(item)) {
-                c.increaseQty(qty);
-                cartAdapter.notifyDataSetChanged();
-                updateTotal();
-                return;
-            }
-        }
-        cart.add(new CartItem(item, price, qty));
-        cartAdapter.notifyDataSetChanged();
+    private void addItemToCart(int classId, int qty) {
+        int position = cart.add(products.get(classId), qty);
+        cartRecycler.scrollToPosition(position);
         updateTotal();
     }
 
@@ -348,69 +626,57 @@ public class MainActivity extends AppCompatActivity {
         awaitingRemoveQuantity = false;
         awaitingRemoveConfirm = false;
 
-        pendingItem = null;
+        pendingClass = NO_PRODUCT;
         pendingQty = -1;
         pendingRemoveQty = -1;
 
         hideQtyPanel();
+        requestTrackingReset();
+        syncScannerMode();
     }
 
 
     private void performRemove() {
-        for (CartItem c : cart) {
-
-            if (c.getName().equals(pendingItem)) {
-
-                int availableQty = c.getQty();
-
-                //  USER ASKED TOO MUCH
-                if (pendingRemoveQty > availableQty) {
-                    speak("You only have " + availableQty + " "
-                            + c.getName().replace("_", " ")
-                            + " in your cart. Please choose a smaller amount.");
+        CartItem c = cart.find(pendingClass);
+        if (c == null) {
+            speak("Item not found.");
+            resetToIdle();
+            return;
+        }
 
-                    // go back to quantity selection
-                    awaitingRemoveConfirm = false;
-                    awaitingRemoveQuantity = true;
-                    showQtyPanel();
-                    return;
-                }
+        int availableQty = c.getQty();
 
-                // ✅ VALID REMOVAL
-                if (pendingRemoveQty == availableQty) {
-                    cart.remove(c);
-                } else {
-                    c.increaseQty(-pendingRemoveQty);
-                }
+        //  USER ASKED TOO MUCH
+        if (pendingRemoveQty > availableQty) {
+            speak("You only have " + availableQty + " "
+                    + c.getProduct().getSpokenName()
+                    + " in your cart. Please choose a smaller amount.");
 
-                cartAdapter.notifyDataSetChanged();
-                updateTotal();
+            // go back to quantity selection
+            awaitingRemoveConfirm = false;
+            awaitingRemoveQuantity = true;
+            showQtyPanel();
+            return;
+        }
 
-                speak("Removed " + pendingRemoveQty + " "
-                        + c.getName().replace("_", " "));
+        // ✅ VALID REMOVAL
+        cart.remove(pendingClass, pendingRemoveQty);
+        updateTotal();
 
-                resetToIdle();
-                return;
-            }
-        }
+        speak("Removed " + pendingRemoveQty + " "
+                + c.getProduct().getSpokenName());
 
-        speak("Item not found.");
         resetToIdle();
     }
 
 
 
     private void speakTotal() {
-        float total = 0f;
-        for (CartItem c : cart) total += c.getTotal();
-        final float finalTotal = total;
+        final String total = cart.getTotal().toString();
 
-        speak("Your total is " +
-                String.format(Locale.US, "%.2f", finalTotal) + " ringgit");
+        speak("Your total is " + total + " ringgit");
 
-        runOnUiThread(() ->
-                scannerText.setText("TOTAL\nRM " +
-                        String.format(Locale.US, "%.2f", finalTotal)));
+        runOnUiThread(() -> scannerText.setText("TOTAL\nRM " + total));
     }
 
     private void readCart() {
@@ -420,9 +686,10 @@ public class MainActivity extends AppCompatActivity {
         }
 
         StringBuilder sb = new StringBuilder("You have ");
-        for (CartItem c : cart) {
+        for (int i = 0; i < cart.size(); i++) {
+            CartItem c = cart.get(i);
             sb.append(c.getQty()).append(" ")
-                    .append(c.getName().replace("_", " "))
+                    .append(c.getProduct().getSpokenName())
                     .append(", ");
         }
         speak(sb.toString());
@@ -481,9 +748,10 @@ public class MainActivity extends AppCompatActivity {
                 }
 
                 if (awaitingRemoveItem) {
-                    for (CartItem c : cart) {
-                        if (cmd.contains(c.getName().replace("_", " "))) {
-                            pendingItem = c.getName();
+                    for (int i = 0; i < cart.size(); i++) {
+                        CartItem c = cart.get(i);
+                        if (cmd.contains(c.getProduct().getSpokenName())) {
+                            pendingClass = c.getProduct().getClassId();
                             awaitingRemoveItem = false;
                             awaitingRemoveQuantity = true;
                             showQtyPanel();
@@ -503,7 +771,7 @@ public class MainActivity extends AppCompatActivity {
                         awaitingRemoveConfirm = true;
                         hideQtyPanel();
                         speak("Remove " + qty + " "
-                                + pendingItem.replace("_", " ")
+                                + products.get(pendingClass).getSpokenName()
                                 + ". Say yes to confirm.");
                     } else {
                         speak("Please say the number of items to remove.");
@@ -602,6 +870,7 @@ public class MainActivity extends AppCompatActivity {
         btnNo = findViewById(R.id.btnNo);
         btnTotal = findViewById(R.id.btnTotal);
         previewView = findViewById(R.id.previewView);
+        overlayView = findViewById(R.id.overlayView);
         cartRecycler = findViewById(R.id.cartRecycler);
 
         qtyPanel = findViewById(R.id.qtyPanel);
@@ -635,7 +904,7 @@ public class MainActivity extends AppCompatActivity {
                 awaitingRemoveConfirm = true;
                 hideQtyPanel();
                 speak("Remove " + qty + " "
-                        + pendingItem.replace("_", " ")
+                        + products.get(pendingClass).getSpokenName()
                         + ". Say yes to confirm.");
             }
         };
@@ -660,9 +929,7 @@ public class MainActivity extends AppCompatActivity {
     }
 
     private void updateTotal() {
-        float sum = 0f;
-        for (CartItem c : cart) sum += c.getTotal();
-        totalText.setText("RM " + String.format(Locale.US, "%.2f", sum));
+        totalText.setText(totalChars, 0, Money.formatRinggit(cart.getTotalSen(), totalChars));
     }
 
     private void setStatus(String text, int dotDrawable) {
@@ -687,11 +954,13 @@ public class MainActivity extends AppCompatActivity {
 
         isSpeaking = true;
         statusProcessing();
+        syncScannerMode();
 
         tts.speak(text, TextToSpeech.QUEUE_FLUSH, null, UUID.randomUUID().toString());
 
         handler.postDelayed(() -> {
             isSpeaking = false;
+            syncScannerMode();
             statusListening();
             startListening();
         }, 4500);
@@ -707,9 +976,15 @@ public class MainActivity extends AppCompatActivity {
 
     @Override
     protected void onDestroy() {
+        if (thermalListener != null && Build.VERSION.SDK_INT >= Build.VERSION_CODES.Q) {
+            // held by the system service; would keep this activity alive
+            PowerManager power = (PowerManager) getSystemService(POWER_SERVICE);
+            if (power != null) power.removeThermalStatusListener(thermalListener);
+        }
         if (speechRecognizer != null) speechRecognizer.destroy();
         if (tts != null) tts.shutdown();
         cameraExecutor.shutdown();
+        if (pipeline != null) pipeline.stop();
         super.onDestroy();
     }
 }
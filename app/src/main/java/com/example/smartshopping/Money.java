@@ -0,0 +1,182 @@
+package com.example.smartshopping;
+
+/**
+ * An amount of ringgit, held exactly as a {@code long} count of sen.
+ *
+ * Prices are parsed straight from their decimal text, so 0.10 is ten sen
+ * and stays ten sen however many are added up; floats would drift. The
+ * static {@code sen} helpers work on the raw {@code long} for paths that
+ * should not allocate: {@link Cart}'s running total and the cart rows'
+ * text, which is formatted into a reused char buffer rather than through
+ * {@code String.format}.
+ */
+public final class Money implements Comparable<Money> {
+
+    public static final Money ZERO = new Money(0);
+
+    /** Longest {@link #format} output: sign, 17 ringgit digits, point, 2 sen digits. */
+    public static final int MAX_CHARS = 21;
+
+    /** Longest {@link #formatRinggit} output. */
+    public static final int RINGGIT_CHARS = MAX_CHARS + 3;
+
+    private final long sen;
+
+    private Money(long sen) {
+        this.sen = sen;
+    }
+
+    public static Money ofSen(long sen) {
+        return sen == 0 ? ZERO : new Money(sen);
+    }
+
+    /**
+     * Parses a plain decimal such as {@code "12"}, {@code "12.5"} or
+     * {@code "-0.05"}.
+     *
+     * @throws NumberFormatException on anything else, including more than
+     *         two decimals: a price that isn't whole sen is a data error
+     */
+    public static Money parse(String text) {
+        return ofSen(parseSen(text));
+    }
+
+    // ===== ARITHMETIC =====
+
+    /** @throws ArithmeticException on overflow, as for all arithmetic here */
+    public Money plus(Money other) {
+        return ofSen(Math.addExact(sen, other.sen));
+    }
+
+    public Money minus(Money other) {
+        return ofSen(Math.subtractExact(sen, other.sen));
+    }
+
+    public Money times(int qty) {
+        return ofSen(Math.multiplyExact(sen, (long) qty));
+    }
+
+    public long getSen() {
+        return sen;
+    }
+
+    public boolean isZero() {
+        return sen == 0;
+    }
+
+    @Override
+    public int compareTo(Money other) {
+        return Long.compare(sen, other.sen);
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        return o instanceof Money && ((Money) o).sen == sen;
+    }
+
+    @Override
+    public int hashCode() {
+        return Long.hashCode(sen);
+    }
+
+    /** {@code "12.50"}, no currency. */
+    @Override
+    public String toString() {
+        char[] buf = new char[MAX_CHARS];
+        return new String(buf, 0, format(sen, buf, 0));
+    }
+
+    // ===== ON RAW SEN =====
+
+    /** {@link #parse}, without the object; takes any char sequence, e.g. a reused builder. */
+    public static long parseSen(CharSequence text) {
+        int n = text.length();
+        int i = 0;
+        boolean negative = false;
+        if (n > 0 && (text.charAt(0) == '-' || text.charAt(0) == '+')) {
+            negative = text.charAt(0) == '-';
+            i++;
+        }
+
+        long ringgit = 0;
+        int digits = 0;
+        for (; i < n && text.charAt(i) != '.'; i++, digits++) {
+            ringgit = Math.addExact(Math.multiplyExact(ringgit, 10L), digit(text, i));
+        }
+
+        long sen = 0;
+        int decimals = 0;
+        if (i < n) {
+            for (i++; i < n; i++, decimals++) {
+                if (decimals == 2) throw new NumberFormatException("Not whole sen: " + text);
+                sen = sen * 10 + digit(text, i);
+            }
+            if (decimals == 1) sen *= 10;
+        }
+        if (digits + decimals == 0) throw new NumberFormatException("No digits: \"" + text + "\"");
+
+        long total = Math.addExact(Math.multiplyExact(ringgit, 100L), sen);
+        return negative ? -total : total;
+    }
+
+    private static int digit(CharSequence text, int i) {
+        char c = text.charAt(i);
+        if (c < '0' || c > '9') throw new NumberFormatException("Bad amount: \"" + text + "\"");
+        return c - '0';
+    }
+
+    /**
+     * Writes {@code sen} as {@code "-1234.05"} into {@code buf} at
+     * {@code offset}; needs up to {@link #MAX_CHARS} free. No allocation.
+     *
+     * @return number of chars written
+     */
+    public static int format(long sen, char[] buf, int offset) {
+        // work in negatives so Long.MIN_VALUE needs no special case
+        long v = sen < 0 ? sen : -sen;
+        int end = offset + length(sen);
+        int p = end;
+        buf[--p] = (char) ('0' - (v % 10));
+        v /= 10;
+        buf[--p] = (char) ('0' - (v % 10));
+        v /= 10;
+        buf[--p] = '.';
+        do {
+            buf[--p] = (char) ('0' - (v % 10));
+            v /= 10;
+        } while (v != 0);
+        if (sen < 0) buf[--p] = '-';
+        return end - offset;
+    }
+
+    /** {@link #format} with the currency: {@code "RM 12.50"} into {@code buf} from 0. */
+    public static int formatRinggit(long sen, char[] buf) {
+        buf[0] = 'R';
+        buf[1] = 'M';
+        buf[2] = ' ';
+        return 3 + format(sen, buf, 3);
+    }
+
+    /** Appends {@code sen} as {@link #format} would; no allocation once {@code out} has room. */
+    public static StringBuilder append(long sen, StringBuilder out) {
+        long v = sen < 0 ? sen : -sen;
+        int cents = (int) -(v % 100);
+        if (sen < 0) out.append('-');
+        return out.append(-(v / 100))
+                .append('.')
+                .append((char) ('0' + cents / 10))
+                .append((char) ('0' + cents % 10));
+    }
+
+    /** Chars {@link #format} writes for {@code sen}. */
+    static int length(long sen) {
+        long v = sen < 0 ? sen : -sen;
+        v /= 100;
+        int n = 4;      // one ringgit digit, point, two sen digits
+        while (v <= -10) {
+            v /= 10;
+            n++;
+        }
+        return sen < 0 ? n + 1 : n;
+    }
+}
@@ -0,0 +1,104 @@
+package com.example.smartshopping;
+
+/**
+ * Class-aware greedy NMS over primitive arrays.
+ *
+ * Candidates are popped from a max-heap by score, so only as many are
+ * ordered as it takes to fill {@code maxDetections}; the rest of the
+ * 5k anchors are never sorted. Kept indices come out highest score first.
+ */
+public class NonMaxSuppression {
+
+    public static final float DEFAULT_IOU = 0.45f;
+    public static final int DEFAULT_MAX_DETECTIONS = 10;
+
+    private float iouThreshold = DEFAULT_IOU;
+    private int maxDetections = DEFAULT_MAX_DETECTIONS;
+
+    private final int[] heap;
+
+    public NonMaxSuppression(int capacity) {
+        heap = new int[capacity];
+    }
+
+    public void setIouThreshold(float iouThreshold) {
+        this.iouThreshold = iouThreshold;
+    }
+
+    public void setMaxDetections(int maxDetections) {
+        this.maxDetections = maxDetections;
+    }
+
+    public float getIouThreshold() {
+        return iouThreshold;
+    }
+
+    public int getMaxDetections() {
+        return maxDetections;
+    }
+
+    /**
+     * @param count number of valid candidates in the arrays
+     * @param keep  receives kept candidate indices, best first; needs
+     *              room for {@code maxDetections}
+     * @return number of indices written to {@code keep}
+     */
+    public int run(
+            float[] left, float[] top, float[] right, float[] bottom,
+            float[] scores, int[] classes, int count, int[] keep
+    ) {
+        for (int i = 0; i < count; i++) heap[i] = i;
+        for (int i = count / 2 - 1; i >= 0; i--) siftDown(scores, i, count);
+
+        int size = count;
+        int kept = 0;
+
+        while (size > 0 && kept < maxDetections) {
+            int best = heap[0];
+            heap[0] = heap[--size];
+            siftDown(scores, 0, size);
+
+            boolean suppressed = false;
+            for (int k = 0; k < kept; k++) {
+                int j = keep[k];
+                if (classes[j] != classes[best]) continue;
+                if (iou(left, top, right, bottom, best, j) > iouThreshold) {
+                    suppressed = true;
+                    break;
+                }
+            }
+
+            if (!suppressed) keep[kept++] = best;
+        }
+
+        return kept;
+    }
+
+    // ===== HELPERS =====
+
+    static float iou(float[] l, float[] t, float[] r, float[] b, int i, int j) {
+        float iw = Math.min(r[i], r[j]) - Math.max(l[i], l[j]);
+        float ih = Math.min(b[i], b[j]) - Math.max(t[i], t[j]);
+        if (iw <= 0f || ih <= 0f) return 0f;
+
+        float inter = iw * ih;
+        float union = (r[i] - l[i]) * (b[i] - t[i])
+                + (r[j] - l[j]) * (b[j] - t[j]) - inter;
+        return union <= 0f ? 0f : inter / union;
+    }
+
+    private void siftDown(float[] scores, int i, int size) {
+        int item = heap[i];
+        float s = scores[item];
+
+        while (true) {
+            int child = 2 * i + 1;
+            if (child >= size) break;
+            if (child + 1 < size && scores[heap[child + 1]] > scores[heap[child]]) child++;
+            if (scores[heap[child]] <= s) break;
+            heap[i] = heap[child];
+            i = child;
+        }
+        heap[i] = item;
+    }
+}
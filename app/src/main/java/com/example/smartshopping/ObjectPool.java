@@ -0,0 +1,44 @@
+package com.example.smartshopping;
+
+import java.util.ArrayList;
+
+/**
+ * Frame-scoped pool: {@link #recycleAll()} at the start of a frame, then
+ * {@link #obtain()} hands back the same instances as last frame. Only
+ * grows when a frame needs more objects than any frame before it.
+ */
+public class ObjectPool<T> {
+
+    public interface Factory<T> {
+        T create();
+    }
+
+    private final Factory<T> factory;
+    private final ArrayList<T> items = new ArrayList<>();
+    private int used = 0;
+
+    public ObjectPool(Factory<T> factory) {
+        this.factory = factory;
+    }
+
+    public T obtain() {
+        if (used == items.size()) {
+            items.add(factory.create());
+        }
+        return items.get(used++);
+    }
+
+    /** Everything obtained so far becomes free again. */
+    public void recycleAll() {
+        used = 0;
+    }
+
+    public int inUse() {
+        return used;
+    }
+
+    /** Total instances ever created. */
+    public int capacity() {
+        return items.size();
+    }
+}
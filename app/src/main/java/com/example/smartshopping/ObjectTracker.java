@@ -0,0 +1,318 @@
+package com.example.smartshopping;
+
+/**
+ * Carries detections forward between keyframes so the detector does not
+ * have to run on every frame.
+ *
+ * Each track keeps its box and a constant-velocity estimate of its
+ * centre. On {@link #update} every track is predicted to the frame time,
+ * then matched greedily to same-class detections by IoU; matches refresh
+ * box and velocity, unmatched tracks coast on their prediction until they
+ * have missed {@link #setMaxMisses} keyframes, unmatched detections start
+ * new tracks. Track IDs are stable for as long as the object is followed.
+ *
+ * Tracks are preallocated; not thread-safe, keep it on one thread.
+ */
+public class ObjectTracker {
+
+    public static final int NO_TRACK = -1;
+
+    // beyond this a gap is a pause, not motion; hold the box instead
+    private static final float MAX_PREDICT_MS = 300f;
+
+    public static final class Track {
+        int id;
+        int classId;
+        float left, top, right, bottom;
+        float vx, vy;            // centre velocity, px per ms
+        float score;
+        int hits, misses;
+        long lastNanos;
+
+        public int getId() {
+            return id;
+        }
+
+        public int getClassId() {
+            return classId;
+        }
+
+        public float left() {
+            return left;
+        }
+
+        public float top() {
+            return top;
+        }
+
+        public float right() {
+            return right;
+        }
+
+        public float bottom() {
+            return bottom;
+        }
+
+        public float getScore() {
+            return score;
+        }
+
+        public int getHits() {
+            return hits;
+        }
+
+        public int getMisses() {
+            return misses;
+        }
+
+        /**
+         * Detection score, discounted while the track is young and for
+         * every keyframe it has missed.
+         */
+        public float getConfidence(int confirmHits) {
+            float age = Math.min(1f, hits / (float) confirmHits);
+            return score * age / (1 + misses);
+        }
+
+        /** Box extrapolated to {@code nowNanos}: l, t, r, b. */
+        public void predict(long nowNanos, float[] out) {
+            float dtMs = Math.min(MAX_PREDICT_MS, (nowNanos - lastNanos) / 1e6f);
+            float dx = vx * dtMs;
+            float dy = vy * dtMs;
+            out[0] = left + dx;
+            out[1] = top + dy;
+            out[2] = right + dx;
+            out[3] = bottom + dy;
+        }
+    }
+
+    private final Track[] tracks;
+    private int count;
+    private int nextId = 1;
+
+    // ===== TUNING =====
+    private float minIou = 0.3f;
+    private int maxMisses = 3;
+    private int confirmHits = 3;
+    private float velocitySmoothing = 0.5f;
+
+    // ===== SCRATCH =====
+    private final float[] predL, predT, predR, predB;
+    private final int[] trackMatch;
+    private boolean[] detMatched = new boolean[0];
+    private final float[] box = new float[4];
+
+    public ObjectTracker(int capacity) {
+        tracks = new Track[capacity];
+        for (int i = 0; i < capacity; i++) tracks[i] = new Track();
+
+        predL = new float[capacity];
+        predT = new float[capacity];
+        predR = new float[capacity];
+        predB = new float[capacity];
+        trackMatch = new int[capacity];
+    }
+
+    /** Minimum IoU between prediction and detection to continue a track. */
+    public void setMinIou(float minIou) {
+        this.minIou = minIou;
+    }
+
+    /** Keyframes a track may go unmatched before it is dropped. */
+    public void setMaxMisses(int maxMisses) {
+        this.maxMisses = maxMisses;
+    }
+
+    /** Hits before a track counts at full confidence. */
+    public void setConfirmHits(int confirmHits) {
+        this.confirmHits = confirmHits;
+    }
+
+    public int getConfirmHits() {
+        return confirmHits;
+    }
+
+    // ===== UPDATE =====
+
+    /** Feeds one keyframe's detections, as filled by the detector. */
+    public void update(DetectionBuffer detections, long nowNanos) {
+        update(detections.left, detections.top, detections.right, detections.bottom,
+                detections.score, detections.classId, detections.size(), nowNanos);
+    }
+
+    /**
+     * Feeds one keyframe's detections (frame pixels).
+     *
+     * @param count number of valid detections in the arrays
+     */
+    public void update(float[] left, float[] top, float[] right, float[] bottom,
+                       float[] scores, int[] classes, int count, long nowNanos) {
+        if (detMatched.length < count) detMatched = new boolean[count];
+        for (int d = 0; d < count; d++) detMatched[d] = false;
+
+        for (int t = 0; t < this.count; t++) {
+            tracks[t].predict(nowNanos, box);
+            predL[t] = box[0];
+            predT[t] = box[1];
+            predR[t] = box[2];
+            predB[t] = box[3];
+            trackMatch[t] = -1;
+        }
+
+        associate(left, top, right, bottom, classes, count);
+
+        // matched: refresh; unmatched: coast on the prediction
+        for (int t = 0; t < this.count; t++) {
+            Track tr = tracks[t];
+            int d = trackMatch[t];
+
+            if (d >= 0) {
+                float dtMs = (nowNanos - tr.lastNanos) / 1e6f;
+                if (dtMs > 0 && dtMs <= MAX_PREDICT_MS) {
+                    float vx = ((left[d] + right[d]) - (tr.left + tr.right)) / (2 * dtMs);
+                    float vy = ((top[d] + bottom[d]) - (tr.top + tr.bottom)) / (2 * dtMs);
+                    tr.vx += velocitySmoothing * (vx - tr.vx);
+                    tr.vy += velocitySmoothing * (vy - tr.vy);
+                } else {
+                    tr.vx = 0;
+                    tr.vy = 0;
+                }
+                set(tr, left[d], top[d], right[d], bottom[d]);
+                tr.score = scores[d];
+                tr.hits++;
+                tr.misses = 0;
+            } else {
+                set(tr, predL[t], predT[t], predR[t], predB[t]);
+                tr.misses++;
+            }
+            tr.lastNanos = nowNanos;
+        }
+
+        // drop lost tracks (swap-remove, walk backwards)
+        for (int t = this.count - 1; t >= 0; t--) {
+            if (tracks[t].misses > maxMisses) remove(t);
+        }
+
+        // new tracks for what nobody claimed
+        for (int d = 0; d < count && this.count < tracks.length; d++) {
+            if (detMatched[d]) continue;
+
+            Track tr = tracks[this.count++];
+            tr.id = nextId++;
+            tr.classId = classes[d];
+            set(tr, left[d], top[d], right[d], bottom[d]);
+            tr.vx = 0;
+            tr.vy = 0;
+            tr.score = scores[d];
+            tr.hits = 1;
+            tr.misses = 0;
+            tr.lastNanos = nowNanos;
+        }
+    }
+
+    /** Greedy: repeatedly take the best remaining same-class pair. */
+    private void associate(float[] left, float[] top, float[] right, float[] bottom,
+                           int[] classes, int count) {
+        while (true) {
+            float best = minIou;
+            int bestT = -1, bestD = -1;
+
+            for (int t = 0; t < this.count; t++) {
+                if (trackMatch[t] >= 0) continue;
+                for (int d = 0; d < count; d++) {
+                    if (detMatched[d] || classes[d] != tracks[t].classId) continue;
+
+                    float iou = iou(predL[t], predT[t], predR[t], predB[t],
+                            left[d], top[d], right[d], bottom[d]);
+                    if (iou >= best) {
+                        best = iou;
+                        bestT = t;
+                        bestD = d;
+                    }
+                }
+            }
+
+            if (bestT < 0) return;
+            trackMatch[bestT] = bestD;
+            detMatched[bestD] = true;
+        }
+    }
+
+    public void clear() {
+        count = 0;
+    }
+
+    // ===== READ =====
+
+    public int getTrackCount() {
+        return count;
+    }
+
+    public Track getTrack(int i) {
+        return tracks[i];
+    }
+
+    /**
+     * Boxes of the tracks the last keyframe matched, extrapolated to
+     * {@code nowNanos}, into {@code out} (cleared first, track order):
+     * what the overlay shows between keyframes. Tracks are not changed.
+     *
+     * @return number of boxes
+     */
+    public int predict(long nowNanos, DetectionBuffer out) {
+        out.clear();
+        for (int t = 0; t < count; t++) {
+            Track tr = tracks[t];
+            if (tr.misses > 0) continue;
+            tr.predict(nowNanos, box);
+            if (!out.add(box[0], box[1], box[2], box[3], tr.score, tr.classId)) break;
+        }
+        return out.size();
+    }
+
+    /** Most confident live track, or null. */
+    public Track best() {
+        Track best = null;
+        float bestConf = 0f;
+        for (int t = 0; t < count; t++) {
+            float c = tracks[t].getConfidence(confirmHits);
+            if (c > bestConf) {
+                bestConf = c;
+                best = tracks[t];
+            }
+        }
+        return best;
+    }
+
+    // ===== HELPERS =====
+
+    private static void set(Track tr, float l, float t, float r, float b) {
+        tr.left = l;
+        tr.top = t;
+        tr.right = r;
+        tr.bottom = b;
+    }
+
+    private void remove(int t) {
+        Track gone = tracks[t];
+        tracks[t] = tracks[--count];
+        tracks[count] = gone;
+        // keep per-slot scratch aligned with the swapped track
+        predL[t] = predL[count];
+        predT[t] = predT[count];
+        predR[t] = predR[count];
+        predB[t] = predB[count];
+        trackMatch[t] = trackMatch[count];
+    }
+
+    static float iou(float l1, float t1, float r1, float b1,
+                     float l2, float t2, float r2, float b2) {
+        float iw = Math.min(r1, r2) - Math.max(l1, l2);
+        float ih = Math.min(b1, b2) - Math.max(t1, t2);
+        if (iw <= 0f || ih <= 0f) return 0f;
+
+        float inter = iw * ih;
+        float union = (r1 - l1) * (b1 - t1) + (r2 - l2) * (b2 - t2) - inter;
+        return union <= 0f ? 0f : inter / union;
+    }
+}
@@ -0,0 +1,152 @@
+package com.example.smartshopping;
+
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * Hands detections from the pipeline's post thread to the UI thread for
+ * {@link OverlayView}, without locks and without allocating per frame.
+ *
+ * Three {@link DetectionBuffer}s rotate: the producer fills its back
+ * buffer and swaps it into a one-slot handoff; the UI thread swaps its
+ * front buffer for whatever is in the handoff when that is newer. Each
+ * side only ever touches the buffer it holds, so neither waits and a
+ * frame in progress is never drawn half-written. Frames the UI doesn't
+ * get to in time are overwritten, not queued.
+ *
+ * {@link #publish} reports whether the boxes changed, so the view is
+ * only invalidated when there is something new to draw.
+ */
+public class OverlayBoxes {
+
+    /** Boxes moving less than this (frame pixels) count as unchanged. */
+    public static final float DEFAULT_TOLERANCE = 1f;
+
+    private static final class Slot {
+        final DetectionBuffer detections;
+        int frameWidth;
+        int frameHeight;
+        // read by the UI thread while deciding whether to swap
+        volatile long version;
+
+        Slot(int capacity, String[] labels) {
+            detections = new DetectionBuffer(capacity, labels);
+        }
+    }
+
+    private final AtomicReference<Slot> handoff;
+    private float tolerance = DEFAULT_TOLERANCE;
+
+    // ===== PRODUCER SIDE =====
+    private Slot back;
+    private final DetectionBuffer last;
+    private int lastWidth, lastHeight;
+    private long published;
+
+    // ===== UI SIDE =====
+    private Slot front;
+    private int viewWidth, viewHeight;
+    private long mapped = -1;
+    public final float[] left, top, right, bottom;
+
+    public OverlayBoxes(int capacity, String[] labels) {
+        back = new Slot(capacity, labels);
+        front = new Slot(capacity, labels);
+        handoff = new AtomicReference<>(new Slot(capacity, labels));
+        last = new DetectionBuffer(capacity, labels);
+        left = new float[capacity];
+        top = new float[capacity];
+        right = new float[capacity];
+        bottom = new float[capacity];
+    }
+
+    public void setTolerance(float pixels) {
+        tolerance = pixels;
+    }
+
+    // ===== PRODUCER =====
+
+    /**
+     * Offers one frame's detections ({@code frameWidth x frameHeight}
+     * pixels). Copies them; {@code detections} may be reused at once.
+     *
+     * @return true if they differ from the last published set and the
+     *         view should be invalidated
+     */
+    public boolean publish(DetectionBuffer detections, int frameWidth, int frameHeight) {
+        if (frameWidth == lastWidth && frameHeight == lastHeight && published > 0
+                && same(detections, last, tolerance)) {
+            return false;
+        }
+        last.copyFrom(detections);
+        lastWidth = frameWidth;
+        lastHeight = frameHeight;
+
+        back.detections.copyFrom(detections);
+        back.frameWidth = frameWidth;
+        back.frameHeight = frameHeight;
+        back.version = ++published;
+        back = handoff.getAndSet(back);
+        return true;
+    }
+
+    /** Same classes in the same order, every box within {@code tolerance}. */
+    static boolean same(DetectionBuffer a, DetectionBuffer b, float tolerance) {
+        if (a.size() != b.size()) return false;
+        for (int i = 0; i < a.size(); i++) {
+            if (a.classId[i] != b.classId[i]
+                    || Math.abs(a.left[i] - b.left[i]) > tolerance
+                    || Math.abs(a.top[i] - b.top[i]) > tolerance
+                    || Math.abs(a.right[i] - b.right[i]) > tolerance
+                    || Math.abs(a.bottom[i] - b.bottom[i]) > tolerance) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    // ===== UI =====
+
+    /**
+     * Takes the newest published frame, if any, and maps its boxes into
+     * {@link #left}..{@link #bottom} for a {@code viewWidth x viewHeight}
+     * view showing the frame centre-cropped (PreviewView's FILL_CENTER).
+     * Boxes are only rescaled when the frame or the view size changed.
+     */
+    public void latch(int viewWidth, int viewHeight) {
+        Slot offered = handoff.get();
+        if (offered.version > front.version) {
+            front = handoff.getAndSet(front);
+        }
+        if (front.version == mapped && viewWidth == this.viewWidth
+                && viewHeight == this.viewHeight) {
+            return;
+        }
+        this.viewWidth = viewWidth;
+        this.viewHeight = viewHeight;
+        mapped = front.version;
+
+        DetectionBuffer d = front.detections;
+        if (d.isEmpty() || front.frameWidth <= 0 || front.frameHeight <= 0) return;
+
+        float scale = Math.max(viewWidth / (float) front.frameWidth,
+                viewHeight / (float) front.frameHeight);
+        float dx = (viewWidth - front.frameWidth * scale) / 2f;
+        float dy = (viewHeight - front.frameHeight * scale) / 2f;
+        for (int i = 0; i < d.size(); i++) {
+            left[i] = d.left[i] * scale + dx;
+            top[i] = d.top[i] * scale + dy;
+            right[i] = d.right[i] * scale + dx;
+            bottom[i] = d.bottom[i] * scale + dy;
+        }
+    }
+
+    /** The latched frame's detections, in frame pixels; UI thread only. */
+    public DetectionBuffer getFront() {
+        return front.detections;
+    }
+
+    /** Frames published so far (changed sets only); producer thread. */
+    public long getPublished() {
+        return published;
+    }
+}
@@ -3,50 +3,114 @@ package com.example.smartshopping;
 import android.content.Context;
 import android.graphics.*;
 import android.util.AttributeSet;
+import android.util.TypedValue;
 import android.view.View;
 
-import java.util.ArrayList;
-import java.util.List;
-
+/**
+ * Draws the live detections over the camera preview: a box per item and
+ * a "label 87%" tag above it.
+ *
+ * {@link #show} takes detections from the pipeline thread through
+ * {@link OverlayBoxes}, so the UI thread never waits on it, and only
+ * invalidates when the boxes changed. Nothing is allocated per frame:
+ * boxes are scaled once per new set into preallocated arrays, label and
+ * percentage widths are measured once, paints are built once.
+ */
 public class OverlayView extends View {
 
-    private final Paint paint = new Paint();
-    private final List<RectF> boxes = new ArrayList<>();
+    private static final String[] PERCENT = new String[101];
+
+    static {
+        for (int i = 0; i <= 100; i++) PERCENT[i] = i + "%";
+    }
+
+    private final Paint boxPaint = new Paint();
+    private final Paint tagPaint = new Paint();
+    private final Paint textPaint = new Paint(Paint.ANTI_ALIAS_FLAG);
+    private final float textHeight;
+    private final float textDescent;
+    private final float tagPadding;
+    private final float spaceWidth;
+    private final float[] percentWidths = new float[PERCENT.length];
+
+    private volatile OverlayBoxes boxes;
+    private float[] labelWidths;
+    private volatile boolean active = true;
 
     public OverlayView(Context context, AttributeSet attrs) {
         super(context, attrs);
-        paint.setColor(Color.GREEN);
-        paint.setStyle(Paint.Style.STROKE);
-        paint.setStrokeWidth(6f);
-    }
+        boxPaint.setColor(Color.GREEN);
+        boxPaint.setStyle(Paint.Style.STROKE);
+        boxPaint.setStrokeWidth(6f);
 
-    public void setBoxes(List<RectF> newBoxes, int imgW, int imgH) {
-        boxes.clear();
+        tagPaint.setColor(Color.GREEN);
+        tagPaint.setStyle(Paint.Style.FILL);
 
-        float scaleX = getWidth() / (float) imgW;
-        float scaleY = getHeight() / (float) imgH;
+        textPaint.setColor(Color.BLACK);
+        textPaint.setTextSize(TypedValue.applyDimension(TypedValue.COMPLEX_UNIT_SP, 14,
+                getResources().getDisplayMetrics()));
 
-        for (RectF b : newBoxes) {
-            boxes.add(new RectF(
-                    b.left * scaleX,
-                    b.top * scaleY,
-                    b.right * scaleX,
-                    b.bottom * scaleY
-            ));
-        }
-        invalidate();
+        Paint.FontMetrics fm = textPaint.getFontMetrics();
+        textHeight = fm.descent - fm.ascent;
+        textDescent = fm.descent;
+        tagPadding = textHeight / 6f;
+        spaceWidth = textPaint.measureText(" ");
+        for (int i = 0; i < PERCENT.length; i++) percentWidths[i] = textPaint.measureText(PERCENT[i]);
     }
 
-    public void clear() {
-        boxes.clear();
+    /**
+     * Sets the label table and the most boxes per frame; call once the
+     * detector is loaded. Main thread.
+     */
+    public void attach(String[] labels, int maxDetections) {
+        float[] widths = new float[labels.length];
+        for (int i = 0; i < labels.length; i++) widths[i] = textPaint.measureText(labels[i]);
+        labelWidths = widths;
+        boxes = new OverlayBoxes(maxDetections, labels);
+    }
+
+    /**
+     * Shows one frame's detections, {@code frameWidth x frameHeight}
+     * upright frame pixels. Any single thread; {@code detections} is
+     * copied and may be reused at once.
+     */
+    public void show(DetectionBuffer detections, int frameWidth, int frameHeight) {
+        OverlayBoxes b = boxes;
+        if (b == null || !active) return;
+        if (b.publish(detections, frameWidth, frameHeight)) postInvalidateOnAnimation();
+    }
+
+    /** Hides the boxes (and ignores {@link #show}) while inactive. Main thread. */
+    public void setActive(boolean active) {
+        if (this.active == active) return;
+        this.active = active;
         invalidate();
     }
 
     @Override
     protected void onDraw(Canvas canvas) {
         super.onDraw(canvas);
-        for (RectF b : boxes) {
-            canvas.drawRect(b, paint);
+        OverlayBoxes b = boxes;
+        if (b == null || !active) return;
+
+        b.latch(getWidth(), getHeight());
+        DetectionBuffer d = b.getFront();
+        for (int i = 0; i < d.size(); i++) {
+            canvas.drawRect(b.left[i], b.top[i], b.right[i], b.bottom[i], boxPaint);
+
+            int pct = Math.max(0, Math.min(100, Math.round(d.score[i] * 100)));
+            float labelWidth = labelWidths[d.classId[i]];
+            float width = labelWidth + spaceWidth + percentWidths[pct] + 2 * tagPadding;
+
+            // above the box, or just inside it at the top edge
+            float tagBottom = b.top[i] >= textHeight ? b.top[i] : b.top[i] + textHeight;
+            float x = b.left[i];
+            canvas.drawRect(x, tagBottom - textHeight, x + width, tagBottom, tagPaint);
+
+            float baseline = tagBottom - textDescent;
+            canvas.drawText(d.label(i), x + tagPadding, baseline, textPaint);
+            canvas.drawText(PERCENT[pct], x + tagPadding + labelWidth + spaceWidth,
+                    baseline, textPaint);
         }
     }
 }
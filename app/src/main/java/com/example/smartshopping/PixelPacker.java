@@ -0,0 +1,78 @@
+package com.example.smartshopping;
+
+import java.nio.ByteBuffer;
+import java.nio.FloatBuffer;
+
+/**
+ * Writes 8-bit RGB pixels into a model input buffer in whatever the
+ * input tensor expects: normalised floats, or uint8/int8 straight from
+ * a 256-entry table, with no float math per pixel on the quantised path.
+ *
+ * Usage per frame: {@link #begin()}, then {@link #put} and
+ * {@link #endRow} per row, then {@link #end()}.
+ */
+public class PixelPacker {
+
+    private static final float[] NORM = new float[256];
+
+    static {
+        for (int i = 0; i < 256; i++) NORM[i] = i / 255f;
+    }
+
+    private final ByteBuffer target;
+    private final FloatBuffer floats;
+    private final boolean quantized;
+    private final byte[] lut;
+    private final float[] rowF;
+    private final byte[] rowB;
+
+    public PixelPacker(ByteBuffer target, TensorSpec spec, int rowPixels) {
+        this.target = target;
+        quantized = spec.isQuantized();
+
+        if (quantized) {
+            floats = null;
+            rowF = null;
+            rowB = new byte[rowPixels * 3];
+            lut = new byte[256];
+            for (int i = 0; i < 256; i++) lut[i] = (byte) spec.quantize(NORM[i]);
+        } else {
+            floats = target.asFloatBuffer();
+            rowF = new float[rowPixels * 3];
+            rowB = null;
+            lut = null;
+        }
+    }
+
+    public boolean isQuantized() {
+        return quantized;
+    }
+
+    public void begin() {
+        if (quantized) target.clear();
+        else floats.clear();
+    }
+
+    /** Pixel {@code x} of the current row; channels must be 0..255. */
+    public void put(int x, int r, int g, int b) {
+        int o = x * 3;
+        if (quantized) {
+            rowB[o] = lut[r];
+            rowB[o + 1] = lut[g];
+            rowB[o + 2] = lut[b];
+        } else {
+            rowF[o] = NORM[r];
+            rowF[o + 1] = NORM[g];
+            rowF[o + 2] = NORM[b];
+        }
+    }
+
+    public void endRow(int pixels) {
+        if (quantized) target.put(rowB, 0, pixels * 3);
+        else floats.put(rowF, 0, pixels * 3);
+    }
+
+    public void end() {
+        target.rewind();
+    }
+}
@@ -0,0 +1,27 @@
+package com.example.smartshopping;
+
+import android.content.Context;
+import android.content.SharedPreferences;
+
+/** {@link TuningCache} in SharedPreferences; survives restarts, not reinstalls. */
+public class PrefsTuningCache implements TuningCache {
+
+    private static final String PREFS = "backend_tuning";
+
+    private final SharedPreferences prefs;
+
+    public PrefsTuningCache(Context context) {
+        prefs = context.getApplicationContext()
+                .getSharedPreferences(PREFS, Context.MODE_PRIVATE);
+    }
+
+    @Override
+    public BackendOptions load(String key) {
+        return BackendOptions.decode(prefs.getString(key, null));
+    }
+
+    @Override
+    public void store(String key, BackendOptions options) {
+        prefs.edit().putString(key, options.encode()).apply();
+    }
+}
@@ -0,0 +1,363 @@
+package com.example.smartshopping;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.Reader;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+
+/**
+ * Products and prices from a {@code prices_*.json} asset:
+ * <pre>
+ * { "mineral_water": { "name": "Mineral Water 1.5L", "price": 2.00 }, ... }
+ * </pre>
+ *
+ * The file is read as a stream, one token at a time, with no JSON tree
+ * in between. Products get dense IDs in order of first appearance and
+ * live in parallel arrays (key, display name, price in sen); an
+ * open-addressing hash table maps keys to IDs. A lookup hashes the key once and compares
+ * chars, allocating nothing, and a 50k-SKU catalog costs its strings
+ * plus a few arrays rather than a map of boxed values.
+ *
+ * Immutable once loaded, so any thread may read it.
+ */
+public final class PriceCatalog {
+
+    public static final int NOT_FOUND = -1;
+
+    private final String[] keys;
+    private final String[] names;
+    private final long[] priceSen;
+    private final int[] hashes;
+
+    // slot -> id + 1; 0 is empty. Power-of-two size, at most half full.
+    private final int[] table;
+    private final int mask;
+
+    /**
+     * Indexes the first {@code count} entries, in place. A key seen again
+     * overwrites its first entry's name and price, keeping its ID.
+     */
+    private PriceCatalog(String[] keys, String[] names, long[] priceSen, int count) {
+        int size = Integer.highestOneBit(Math.max(2, count) * 2 - 1) << 1;
+        table = new int[size];
+        mask = size - 1;
+        int[] hashes = new int[count];
+
+        int n = 0;
+        for (int i = 0; i < count; i++) {
+            int h = keys[i].hashCode();
+            int slot = mix(h) & mask;
+            int existing = NOT_FOUND;
+            for (; table[slot] != 0; slot = (slot + 1) & mask) {
+                int id = table[slot] - 1;
+                if (hashes[id] == h && keys[id].equals(keys[i])) {
+                    existing = id;
+                    break;
+                }
+            }
+            if (existing != NOT_FOUND) {
+                names[existing] = names[i];
+                priceSen[existing] = priceSen[i];
+                continue;
+            }
+            keys[n] = keys[i];
+            names[n] = names[i];
+            priceSen[n] = priceSen[i];
+            hashes[n] = h;
+            table[slot] = ++n;
+        }
+
+        this.keys = Arrays.copyOf(keys, n);
+        this.names = Arrays.copyOf(names, n);
+        this.priceSen = Arrays.copyOf(priceSen, n);
+        this.hashes = Arrays.copyOf(hashes, n);
+    }
+
+    // ===== LOAD =====
+
+    /** Reads a catalog from UTF-8 JSON and closes {@code in}. Call off the main thread. */
+    public static PriceCatalog load(InputStream in) throws IOException {
+        try (Reader reader = new InputStreamReader(in, StandardCharsets.UTF_8)) {
+            return parse(reader);
+        }
+    }
+
+    /**
+     * Reads a catalog from {@code in} (not closed). A key that appears
+     * twice keeps its last entry; fields other than {@code name} and
+     * {@code price} are skipped; a missing name falls back to the key.
+     *
+     * @throws IOException on malformed JSON, or a product without a price
+     */
+    public static PriceCatalog parse(Reader in) throws IOException {
+        JsonStream json = new JsonStream(in);
+        StringBuilder token = new StringBuilder(32);
+
+        String[] keys = new String[64];
+        String[] names = new String[64];
+        long[] prices = new long[64];
+        int count = 0;
+
+        json.expect('{');
+        if (!json.consumeIf('}')) {
+            do {
+                String key = json.readString(token).toString();
+                json.expect(':');
+                json.expect('{');
+
+                String name = null;
+                long price = 0;
+                boolean priced = false;
+                if (!json.consumeIf('}')) {
+                    do {
+                        json.readString(token);
+                        json.expect(':');
+                        if (equals(token, "name")) {
+                            name = json.readString(token).toString();
+                        } else if (equals(token, "price")) {
+                            try {
+                                price = Money.parseSen(json.readScalar(token));
+                            } catch (NumberFormatException | ArithmeticException e) {
+                                throw json.error("Bad price for \"" + key + "\": " + e.getMessage());
+                            }
+                            priced = true;
+                        } else {
+                            json.skipValue();
+                        }
+                    } while (json.consumeIf(','));
+                    json.expect('}');
+                }
+                if (!priced) throw json.error("No price for \"" + key + "\"");
+
+                if (count == keys.length) {
+                    keys = Arrays.copyOf(keys, count * 2);
+                    names = Arrays.copyOf(names, count * 2);
+                    prices = Arrays.copyOf(prices, count * 2);
+                }
+                keys[count] = key;
+                names[count] = name == null ? key : name;
+                prices[count] = price;
+                count++;
+            } while (json.consumeIf(','));
+            json.expect('}');
+        }
+        json.expectEnd();
+
+        return new PriceCatalog(keys, names, prices, count);
+    }
+
+    private static boolean equals(StringBuilder a, String b) {
+        if (a.length() != b.length()) return false;
+        for (int i = 0; i < b.length(); i++) if (a.charAt(i) != b.charAt(i)) return false;
+        return true;
+    }
+
+    // ===== LOOKUP =====
+
+    /** ID of product {@code key}, or {@link #NOT_FOUND}. No allocation. */
+    public int idOf(CharSequence key) {
+        int h = key instanceof String ? key.hashCode() : hash(key);
+        for (int slot = mix(h) & mask; ; slot = (slot + 1) & mask) {
+            int entry = table[slot];
+            if (entry == 0) return NOT_FOUND;
+            int id = entry - 1;
+            if (hashes[id] == h && keys[id].contentEquals(key)) return id;
+        }
+    }
+
+    public boolean contains(CharSequence key) {
+        return idOf(key) != NOT_FOUND;
+    }
+
+    /** Number of products; IDs run from 0 to this, exclusive. */
+    public int size() {
+        return keys.length;
+    }
+
+    public String getKey(int id) {
+        return keys[id];
+    }
+
+    /** Display name from the file, e.g. "Mineral Water 1.5L". */
+    public String getName(int id) {
+        return names[id];
+    }
+
+    public long getPriceSen(int id) {
+        return priceSen[id];
+    }
+
+    public Money getPrice(int id) {
+        return Money.ofSen(priceSen[id]);
+    }
+
+    /** Same as {@link String#hashCode}, for any char sequence. */
+    private static int hash(CharSequence s) {
+        int h = 0;
+        for (int i = 0; i < s.length(); i++) h = 31 * h + s.charAt(i);
+        return h;
+    }
+
+    /** Spreads String hashes, whose low bits cluster for similar keys. */
+    private static int mix(int h) {
+        h *= 0x9E3779B9;
+        return h ^ (h >>> 16);
+    }
+
+    // ===== TOKENIZER =====
+
+    /** Just enough of a pull tokenizer for the catalog: strings, scalars, skipped values. */
+    private static final class JsonStream {
+        private final Reader in;
+        private final char[] buf = new char[8192];
+        private int pos, limit;
+        private long offset;
+
+        JsonStream(Reader in) {
+            this.in = in;
+        }
+
+        private int peek() throws IOException {
+            if (pos == limit) {
+                offset += limit;
+                limit = in.read(buf, 0, buf.length);
+                pos = 0;
+                if (limit <= 0) {
+                    limit = 0;
+                    return -1;
+                }
+            }
+            return buf[pos];
+        }
+
+        private int next() throws IOException {
+            int c = peek();
+            if (c >= 0) pos++;
+            return c;
+        }
+
+        private int peekToken() throws IOException {
+            int c = peek();
+            while (c == ' ' || c == '\n' || c == '\r' || c == '\t') {
+                pos++;
+                c = peek();
+            }
+            return c;
+        }
+
+        void expect(char c) throws IOException {
+            int got = peekToken();
+            if (got != c) throw error("Expected '" + c + "' but found " + describe(got));
+            pos++;
+        }
+
+        boolean consumeIf(char c) throws IOException {
+            if (peekToken() != c) return false;
+            pos++;
+            return true;
+        }
+
+        void expectEnd() throws IOException {
+            int c = peekToken();
+            if (c != -1) throw error("Trailing " + describe(c));
+        }
+
+        /** Reads a string into {@code out} (cleared first). */
+        StringBuilder readString(StringBuilder out) throws IOException {
+            expect('"');
+            out.setLength(0);
+            while (true) {
+                int c = next();
+                if (c == -1) throw error("Unterminated string");
+                if (c == '"') return out;
+                if (c != '\\') {
+                    out.append((char) c);
+                    continue;
+                }
+                int e = next();
+                switch (e) {
+                    case '"': case '\\': case '/': out.append((char) e); break;
+                    case 'b': out.append('\b'); break;
+                    case 'f': out.append('\f'); break;
+                    case 'n': out.append('\n'); break;
+                    case 'r': out.append('\r'); break;
+                    case 't': out.append('\t'); break;
+                    case 'u':
+                        int v = 0;
+                        for (int i = 0; i < 4; i++) {
+                            int d = Character.digit(next(), 16);
+                            if (d < 0) throw error("Bad \\u escape");
+                            v = v * 16 + d;
+                        }
+                        out.append((char) v);
+                        break;
+                    default:
+                        throw error("Bad escape " + describe(e));
+                }
+            }
+        }
+
+        /** A number or string value, as its text, into {@code out}. */
+        StringBuilder readScalar(StringBuilder out) throws IOException {
+            int c = peekToken();
+            if (c == '"') return readString(out);
+            out.setLength(0);
+            while (c == '-' || c == '+' || c == '.' || c == 'e' || c == 'E' || (c >= '0' && c <= '9')) {
+                out.append((char) c);
+                pos++;
+                c = peek();
+            }
+            if (out.length() == 0) throw error("Expected a number but found " + describe(c));
+            return out;
+        }
+
+        void skipValue() throws IOException {
+            int c = peekToken();
+            if (c == '"') {
+                skipString();
+            } else if (c == '{' || c == '[') {
+                char close = c == '{' ? '}' : ']';
+                pos++;
+                if (consumeIf(close)) return;
+                do {
+                    if (close == '}') {
+                        skipString();
+                        expect(':');
+                    }
+                    skipValue();
+                } while (consumeIf(','));
+                expect(close);
+            } else {
+                // number, true, false, null
+                int length = 0;
+                while (c != -1 && c != ',' && c != '}' && c != ']'
+                        && c != ' ' && c != '\n' && c != '\r' && c != '\t') {
+                    pos++;
+                    length++;
+                    c = peek();
+                }
+                if (length == 0) throw error("Expected a value but found " + describe(c));
+            }
+        }
+
+        private void skipString() throws IOException {
+            expect('"');
+            while (true) {
+                int c = next();
+                if (c == -1) throw error("Unterminated string");
+                if (c == '"') return;
+                if (c == '\\') next();
+            }
+        }
+
+        IOException error(String message) {
+            return new IOException(message + " at char " + (offset + pos));
+        }
+
+        private static String describe(int c) {
+            return c == -1 ? "end of input" : "'" + (char) c + "'";
+        }
+    }
+}
@@ -2,5 +2,5 @@ package com.example.smartshopping;
 
 public class PriceItem {
     public String name;
-    public float price;
+    public Money price;
 }
@@ -0,0 +1,52 @@
+package com.example.smartshopping;
+
+/**
+ * What one model class sells as: resolved once by {@link LabelResolver}
+ * and then passed around by class ID, so the scan, cart and speech paths
+ * never look a label up or reformat it.
+ */
+public final class Product {
+
+    private final int classId;
+    private final String sku;
+    private final String displayName;
+    private final String spokenName;
+    private final Money price;
+
+    public Product(int classId, String sku, String displayName, String spokenName, Money price) {
+        this.classId = classId;
+        this.sku = sku;
+        this.displayName = displayName;
+        this.spokenName = spokenName;
+        this.price = price;
+    }
+
+    /** Model class this product is detected as. */
+    public int getClassId() {
+        return classId;
+    }
+
+    /** Catalog key, e.g. "mineral_water". */
+    public String getSku() {
+        return sku;
+    }
+
+    /** For the screen, e.g. "Mineral Water 1.5L". */
+    public String getDisplayName() {
+        return displayName;
+    }
+
+    /** For text-to-speech and matching voice commands, e.g. "mineral water". */
+    public String getSpokenName() {
+        return spokenName;
+    }
+
+    public Money getPrice() {
+        return price;
+    }
+
+    @Override
+    public String toString() {
+        return classId + ":" + sku;
+    }
+}
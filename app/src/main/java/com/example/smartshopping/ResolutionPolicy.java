@@ -0,0 +1,122 @@
+package com.example.smartshopping;
+
+/**
+ * Picks the input resolution for the next keyframe: a cheap coarse pass
+ * by default, the model's full resolution only when the coarse pass is
+ * unsure.
+ *
+ * A coarse result is ambiguous when its best anchor score lands in
+ * {@code [low, high)}: something is there, but not clearly enough to
+ * name. The next {@link #setHoldKeyframes} keyframes then run fine.
+ * Below {@code low} there is nothing worth a closer look, at or above
+ * {@code high} the coarse pass already knows. A fine pass that sees
+ * nothing drops straight back to coarse.
+ *
+ * {@link #next} runs on the camera thread, {@link #onResult} on the
+ * inference workers.
+ */
+public class ResolutionPolicy {
+
+    private final int coarseSize;
+    private final int fineSize;
+
+    private float low = 0.25f;
+    private float high = 0.6f;
+    private int holdKeyframes = 3;
+
+    private int fineLeft;
+
+    // ===== STATS =====
+    private long coarseRuns, fineRuns, escalations;
+
+    /** @param coarseSize 0 (or equal to {@code fineSize}) to always run fine */
+    public ResolutionPolicy(int coarseSize, int fineSize) {
+        if (coarseSize > fineSize) {
+            throw new IllegalArgumentException("coarse " + coarseSize + " > fine " + fineSize);
+        }
+        this.coarseSize = coarseSize <= 0 ? fineSize : coarseSize;
+        this.fineSize = fineSize;
+    }
+
+    /** Coarse scores in {@code [low, high)} escalate to the fine pass. */
+    public synchronized void setAmbiguousBand(float low, float high) {
+        if (low > high) throw new IllegalArgumentException("low " + low + " > high " + high);
+        this.low = low;
+        this.high = high;
+    }
+
+    /** Fine keyframes run after one ambiguous coarse result. */
+    public synchronized void setHoldKeyframes(int keyframes) {
+        holdKeyframes = keyframes;
+    }
+
+    // ===== CAMERA SIDE =====
+
+    /** Input size for the next keyframe. */
+    public synchronized int next() {
+        if (coarseSize == fineSize || fineLeft > 0) {
+            fineRuns++;
+            return fineSize;
+        }
+        coarseRuns++;
+        return coarseSize;
+    }
+
+    // ===== RESULT SIDE =====
+
+    /**
+     * @param size     input size the keyframe ran at
+     * @param topScore best anchor score, thresholded or not
+     */
+    public synchronized void onResult(int size, float topScore) {
+        if (coarseSize == fineSize) return;
+
+        if (size == coarseSize) {
+            if (topScore >= low && topScore < high) {
+                if (fineLeft == 0) escalations++;
+                fineLeft = holdKeyframes;
+            }
+        } else if (topScore < low) {
+            fineLeft = 0;
+        } else if (fineLeft > 0) {
+            fineLeft--;
+        }
+    }
+
+    public synchronized void reset() {
+        fineLeft = 0;
+    }
+
+    // ===== READ =====
+
+    public int getCoarseSize() {
+        return coarseSize;
+    }
+
+    public int getFineSize() {
+        return fineSize;
+    }
+
+    public synchronized boolean isEscalated() {
+        return fineLeft > 0;
+    }
+
+    public synchronized long getCoarseRuns() {
+        return coarseRuns;
+    }
+
+    public synchronized long getFineRuns() {
+        return fineRuns;
+    }
+
+    /** Times an ambiguous coarse result switched to the fine pass. */
+    public synchronized long getEscalations() {
+        return escalations;
+    }
+
+    public synchronized String describe() {
+        return "Resolution " + coarseSize + "/" + fineSize
+                + ": coarse=" + coarseRuns + " fine=" + fineRuns
+                + " escalations=" + escalations;
+    }
+}
@@ -0,0 +1,127 @@
+package com.example.smartshopping;
+
+/**
+ * Chooses the region of the upright frame to feed the detector. Once an
+ * item is found, later frames are cropped to a square around its last
+ * box plus a margin, so the item fills more of the model input. Falls
+ * back to the full frame when the item is missed for more than
+ * {@link #setMaxMisses} frames, or when the crop would cover most of the
+ * frame anyway.
+ *
+ * {@link #next} runs on the camera thread, {@link #onResult} on the
+ * post-processing thread.
+ */
+public class RoiController {
+
+    private float margin = 0.5f;
+    private float minFraction = 0.35f;
+    private float maxFraction = 0.85f;
+    private int maxMisses = 1;
+
+    // last box in frame pixels
+    private boolean hasBox;
+    private float left, top, right, bottom;
+    private int misses;
+
+    // ===== STATS =====
+    private long cropped, full, fallbacks;
+
+    /** Extra context around the box, as a fraction of its larger side on each edge. */
+    public synchronized void setMargin(float margin) {
+        this.margin = margin;
+    }
+
+    /**
+     * Crops never go below {@code min} or above {@code max} of the frame's
+     * shorter side; above {@code max} the full frame is used instead.
+     */
+    public synchronized void setCropLimits(float min, float max) {
+        minFraction = min;
+        maxFraction = max;
+    }
+
+    public synchronized void setMaxMisses(int maxMisses) {
+        this.maxMisses = maxMisses;
+    }
+
+    // ===== CAMERA SIDE =====
+
+    /**
+     * @param out receives {x, y, w, h} in upright frame pixels
+     * @return true for a crop, false for the full frame ({@code out} then
+     *         holds the full frame)
+     */
+    public synchronized boolean next(int frameW, int frameH, int[] out) {
+        int shorter = Math.min(frameW, frameH);
+
+        if (hasBox) {
+            float w = right - left;
+            float h = bottom - top;
+            float side = Math.max(w, h) * (1 + 2 * margin);
+            side = Math.max(side, minFraction * shorter);
+
+            if (side <= maxFraction * shorter) {
+                int s = Math.round(side);
+                int x = Math.round((left + right - s) / 2f);
+                int y = Math.round((top + bottom - s) / 2f);
+
+                // slide back inside the frame rather than shrink
+                out[0] = Math.max(0, Math.min(x, frameW - s));
+                out[1] = Math.max(0, Math.min(y, frameH - s));
+                out[2] = s;
+                out[3] = s;
+                cropped++;
+                return true;
+            }
+        }
+
+        out[0] = 0;
+        out[1] = 0;
+        out[2] = frameW;
+        out[3] = frameH;
+        full++;
+        return false;
+    }
+
+    // ===== RESULT SIDE =====
+
+    /** The item's box in frame pixels from the last analysed frame. */
+    public synchronized void onResult(float l, float t, float r, float b) {
+        hasBox = true;
+        left = l;
+        top = t;
+        right = r;
+        bottom = b;
+        misses = 0;
+    }
+
+    /** Nothing found in the last analysed frame. */
+    public synchronized void onMiss() {
+        if (hasBox && ++misses > maxMisses) {
+            hasBox = false;
+            fallbacks++;
+        }
+    }
+
+    public synchronized void reset() {
+        hasBox = false;
+        misses = 0;
+    }
+
+    public synchronized boolean hasRoi() {
+        return hasBox;
+    }
+
+    public synchronized long getCropped() {
+        return cropped;
+    }
+
+    public synchronized long getFullFrames() {
+        return full;
+    }
+
+    /** Times a lost item sent the scanner back to full frames. */
+    public synchronized long getFallbacks() {
+        return fallbacks;
+    }
+}
@@ -0,0 +1,137 @@
+package com.example.smartshopping;
+
+import java.util.Locale;
+
+/**
+ * Active / paused switch for the scanner, driven by the conversation
+ * state: paused while the app is speaking or waiting on an answer.
+ * Listeners do the actual camera work (detach the analyzer, drop queued
+ * frames); this class only decides and keeps per-mode wall time, CPU
+ * time and battery charge so the savings show up in the metrics dump.
+ */
+public class ScannerMode {
+
+    public enum Mode { ACTIVE, PAUSED }
+
+    public interface Listener {
+        void onModeChanged(Mode mode);
+    }
+
+    /** Process-wide counters sampled at each transition. */
+    public interface Probe {
+        long elapsedMillis();
+
+        long cpuMillis();
+
+        /** Remaining battery charge in uAh, or {@link Long#MIN_VALUE} if unsupported. */
+        long chargeMicroAmpHours();
+    }
+
+    private static final Mode[] MODES = Mode.values();
+
+    private final Probe probe;
+    private Listener listener;
+    private Mode mode = Mode.ACTIVE;
+
+    // ===== COUNTERS (per mode) =====
+    private final long[] wallMs = new long[MODES.length];
+    private final long[] cpuMs = new long[MODES.length];
+    private final long[] chargeUah = new long[MODES.length];
+    private final int[] entries = new int[MODES.length];
+    private long markWall, markCpu, markCharge;
+
+    public ScannerMode(Probe probe) {
+        this.probe = probe;
+        mark();
+        entries[mode.ordinal()]++;
+    }
+
+    public synchronized void setListener(Listener listener) {
+        this.listener = listener;
+    }
+
+    public synchronized Mode getMode() {
+        return mode;
+    }
+
+    public synchronized boolean isActive() {
+        return mode == Mode.ACTIVE;
+    }
+
+    /**
+     * @param blocked true while speaking or any confirmation is pending
+     * @return true if the mode changed
+     */
+    public boolean setBlocked(boolean blocked) {
+        Mode next = blocked ? Mode.PAUSED : Mode.ACTIVE;
+        Listener l;
+
+        synchronized (this) {
+            if (next == mode) return false;
+            accumulate();
+            mode = next;
+            entries[next.ordinal()]++;
+            l = listener;
+        }
+
+        if (l != null) l.onModeChanged(next);
+        return true;
+    }
+
+    // ===== COUNTERS =====
+
+    private void mark() {
+        markWall = probe.elapsedMillis();
+        markCpu = probe.cpuMillis();
+        markCharge = probe.chargeMicroAmpHours();
+    }
+
+    /** Books the interval since the last mark against the current mode. */
+    private void accumulate() {
+        long wall = markWall, cpu = markCpu, charge = markCharge;
+        mark();
+
+        int m = mode.ordinal();
+        wallMs[m] += markWall - wall;
+        cpuMs[m] += markCpu - cpu;
+        if (charge != Long.MIN_VALUE && markCharge != Long.MIN_VALUE) {
+            chargeUah[m] += charge - markCharge;
+        }
+    }
+
+    public synchronized long getWallMillis(Mode m) {
+        accumulate();
+        return wallMs[m.ordinal()];
+    }
+
+    public synchronized long getCpuMillis(Mode m) {
+        accumulate();
+        return cpuMs[m.ordinal()];
+    }
+
+    /** Battery charge drawn while in {@code m}; 0 if the device has no counter. */
+    public synchronized long getChargeMicroAmpHours(Mode m) {
+        accumulate();
+        return chargeUah[m.ordinal()];
+    }
+
+    /** Times {@code m} was entered, counting the initial active mode. */
+    public synchronized int getEntries(Mode m) {
+        return entries[m.ordinal()];
+    }
+
+    public synchronized String describe() {
+        accumulate();
+
+        StringBuilder sb = new StringBuilder();
+        for (Mode m : MODES) {
+            int i = m.ordinal();
+            if (sb.length() > 0) sb.append(" | ");
+            sb.append(String.format(Locale.US, "%s %.1f s, cpu %.0f%%, %d uAh, %dx",
+                    m.name().toLowerCase(Locale.US), wallMs[i] / 1000.0,
+                    wallMs[i] == 0 ? 0.0 : 100.0 * cpuMs[i] / wallMs[i],
+                    chargeUah[i], entries[i]));
+        }
+        return sb.toString();
+    }
+}
@@ -41,6 +41,9 @@ public class SplashActivity extends AppCompatActivity {
 
         btnStart.setOnClickListener(v -> startApp());
 
+        // load + warm the model while the intro is spoken
+        DetectorHolder.preload(this);
+
         setupSpeechRecognizer();
         setupTTS(); // 🔥 TTS FIRST, speak inside callback
     }
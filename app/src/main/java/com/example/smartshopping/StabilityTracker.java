@@ -0,0 +1,316 @@
+package com.example.smartshopping;
+
+/**
+ * Decides when an item has been in view long enough to offer it.
+ *
+ * Keeps the last {@code capacity} observations (class, score, box, time)
+ * in a ring buffer. Each frame every class gets a vote: the sum of its
+ * scores, each decayed by age with a half-life of {@link #setHalfLifeMs}.
+ * Frames with nothing worth offering vote for "nothing". The leading
+ * class's share of all votes is its confidence.
+ *
+ * Hysteresis keeps one flickering frame from restarting the clock:
+ * verification starts when a class reaches {@code enter} confidence and
+ * only stops if it falls below {@code exit}. It confirms after the
+ * verify window, or sooner once confidence stays above the early-accept
+ * level for {@code earlyAcceptMs}.
+ *
+ * Observations from {@link ObjectTracker} carry the track ID. A new ID
+ * that stays best for {@link #setTrackSwitch} observations in a row is a
+ * different object, even of the same class, so the window starts over
+ * rather than counting both as one stable item. A spurious box that
+ * leads for a frame or two only votes, like any other flicker.
+ *
+ * Updated from the post-processing thread, reset from the UI thread.
+ */
+public class StabilityTracker {
+
+    public enum Event {
+        /** nothing new to tell the user */
+        NONE,
+        /** a class took the lead: verification (re)started */
+        STARTED,
+        /** held for the whole verify window, or accepted early */
+        CONFIRMED
+    }
+
+    public static final int NOTHING = -1;
+    /** Track ID for observations not tied to a track; never restarts the window. */
+    public static final int NO_TRACK = -1;
+    public static final int DEFAULT_CAPACITY = 32;
+
+    private final long verifyMs;
+    private final float[] votes;
+
+    // ===== RING =====
+    private final int[] ringClass;
+    private final float[] ringScore;
+    private final float[] ringL, ringT, ringR, ringB;
+    private final long[] ringMs;
+    private int head, size;
+
+    // ===== TUNING =====
+    private float halfLifeMs = 1000f;
+    private float enter = 0.6f;
+    private float exit = 0.4f;
+    private float nothingWeight = 0.5f;
+    private float earlyAcceptConfidence = 0.9f;
+    private long earlyAcceptMs = 1500;
+    private int minObservations = 2;
+    private int trackSwitch = 3;
+
+    // ===== STATE =====
+    private int candidate = NOTHING;
+    private int trackId = NO_TRACK;
+    private int challenger = NO_TRACK;
+    private int challengerRun;
+    private long startMs;
+    private boolean confirmed;
+    private float confidence;
+    private float total;
+    private long highSinceMs = -1;
+
+    public StabilityTracker(int numClasses, long verifyMs) {
+        this(numClasses, verifyMs, DEFAULT_CAPACITY);
+    }
+
+    public StabilityTracker(int numClasses, long verifyMs, int capacity) {
+        this.verifyMs = verifyMs;
+        votes = new float[numClasses];
+
+        ringClass = new int[capacity];
+        ringScore = new float[capacity];
+        ringL = new float[capacity];
+        ringT = new float[capacity];
+        ringR = new float[capacity];
+        ringB = new float[capacity];
+        ringMs = new long[capacity];
+    }
+
+    // ===== TUNING =====
+
+    public synchronized void setHalfLifeMs(long halfLifeMs) {
+        this.halfLifeMs = halfLifeMs;
+    }
+
+    /** Start verifying at {@code enter}, give up below {@code exit}. */
+    public synchronized void setThresholds(float enter, float exit) {
+        if (exit > enter) throw new IllegalArgumentException("exit " + exit + " > enter " + enter);
+        this.enter = enter;
+        this.exit = exit;
+    }
+
+    /** Weight of an empty frame against a detection's score. */
+    public synchronized void setNothingWeight(float weight) {
+        nothingWeight = weight;
+    }
+
+    /**
+     * Confirm before the verify window once confidence has stayed at or
+     * above {@code confidence} for {@code minMs}. A confidence above 1
+     * turns early accept off.
+     */
+    public synchronized void setEarlyAccept(float confidence, long minMs) {
+        earlyAcceptConfidence = confidence;
+        earlyAcceptMs = minMs;
+    }
+
+    /**
+     * Observations in a row a new track ID must lead before the window
+     * starts over for it.
+     */
+    public synchronized void setTrackSwitch(int observations) {
+        if (observations < 1) throw new IllegalArgumentException("observations " + observations);
+        trackSwitch = observations;
+    }
+
+    // ===== OBSERVE =====
+
+    /** One frame's best detection or track, box in frame pixels. */
+    public synchronized Event observe(int classId, float score,
+                                      float left, float top, float right, float bottom,
+                                      long nowMs) {
+        push(classId, score, left, top, right, bottom, nowMs);
+        return decide(nowMs);
+    }
+
+    /**
+     * One frame's best track. Once a track ID other than the one being
+     * followed has led {@link #setTrackSwitch} times in a row, the window
+     * starts fresh for it, as after {@link #reset}.
+     */
+    public synchronized Event observe(int trackId, int classId, float score,
+                                      float left, float top, float right, float bottom,
+                                      long nowMs) {
+        if (trackId == NO_TRACK || trackId == this.trackId) {
+            challenger = NO_TRACK;
+        } else if (this.trackId == NO_TRACK) {
+            this.trackId = trackId;
+        } else {
+            if (trackId != challenger) {
+                challenger = trackId;
+                challengerRun = 0;
+            }
+            if (++challengerRun >= trackSwitch) {
+                reset();
+                this.trackId = trackId;
+            }
+        }
+        return observe(classId, score, left, top, right, bottom, nowMs);
+    }
+
+    /** A frame with nothing to offer. */
+    public synchronized Event observeNothing(long nowMs) {
+        push(NOTHING, nothingWeight, 0, 0, 0, 0, nowMs);
+        return decide(nowMs);
+    }
+
+    private void push(int classId, float score, float l, float t, float r, float b, long nowMs) {
+        int i = head;
+        ringClass[i] = classId;
+        ringScore[i] = score;
+        ringL[i] = l;
+        ringT[i] = t;
+        ringR[i] = r;
+        ringB[i] = b;
+        ringMs[i] = nowMs;
+
+        head = (head + 1) % ringClass.length;
+        if (size < ringClass.length) size++;
+    }
+
+    private Event decide(long nowMs) {
+        int leader = tally(nowMs);
+        float leaderConf = confidence;
+        float candidateConf = candidate == NOTHING ? 0f : share(candidate);
+
+        if (confirmed) return Event.NONE;
+
+        // a different class clearly took over, or nothing was verifying yet
+        if (leader != NOTHING && leader != candidate && leaderConf >= enter
+                && count(leader) >= minObservations) {
+            candidate = leader;
+            startMs = nowMs;
+            highSinceMs = -1;
+            confidence = leaderConf;
+            return Event.STARTED;
+        }
+
+        if (candidate == NOTHING) return Event.NONE;
+
+        confidence = candidateConf;
+        if (candidateConf < exit) {
+            candidate = NOTHING;
+            highSinceMs = -1;
+            return Event.NONE;
+        }
+
+        if (candidateConf >= earlyAcceptConfidence) {
+            if (highSinceMs < 0) highSinceMs = nowMs;
+        } else {
+            highSinceMs = -1;
+        }
+
+        boolean early = highSinceMs >= 0 && nowMs - highSinceMs >= earlyAcceptMs;
+        if (early || nowMs - startMs >= verifyMs) {
+            confirmed = true;
+            return Event.CONFIRMED;
+        }
+        return Event.NONE;
+    }
+
+    /** Refills {@link #votes}; @return leading class (or NOTHING), confidence in {@link #confidence}. */
+    private int tally(long nowMs) {
+        for (int c = 0; c < votes.length; c++) votes[c] = 0f;
+        float nothing = 0f;
+
+        for (int k = 0; k < size; k++) {
+            float w = ringScore[k] * (float) Math.pow(0.5, (nowMs - ringMs[k]) / halfLifeMs);
+            int c = ringClass[k];
+            if (c == NOTHING) nothing += w;
+            else votes[c] += w;
+        }
+
+        int leader = NOTHING;
+        float best = nothing;
+        total = nothing;
+        for (int c = 0; c < votes.length; c++) {
+            total += votes[c];
+            if (votes[c] > best) {
+                best = votes[c];
+                leader = c;
+            }
+        }
+
+        confidence = total <= 0f ? 0f : best / total;
+        return leader;
+    }
+
+    private float share(int classId) {
+        return total <= 0f ? 0f : votes[classId] / total;
+    }
+
+    private int count(int classId) {
+        int n = 0;
+        for (int k = 0; k < size; k++) if (ringClass[k] == classId) n++;
+        return n;
+    }
+
+    public synchronized void reset() {
+        head = 0;
+        size = 0;
+        candidate = NOTHING;
+        trackId = NO_TRACK;
+        challenger = NO_TRACK;
+        challengerRun = 0;
+        confirmed = false;
+        confidence = 0f;
+        highSinceMs = -1;
+    }
+
+    // ===== READ =====
+
+    /** Class being verified, or {@link #NOTHING}. */
+    public synchronized int getCandidate() {
+        return candidate;
+    }
+
+    /** Candidate's (or, when idle, the leader's) share of the votes. */
+    public synchronized float getConfidence() {
+        return confidence;
+    }
+
+    public synchronized boolean isVerifying() {
+        return candidate != NOTHING && !confirmed;
+    }
+
+    public long getVerifyMs() {
+        return verifyMs;
+    }
+
+    /**
+     * Score-weighted mean box of the candidate's observations in the ring.
+     * @return false if there is no candidate
+     */
+    public synchronized boolean getCandidateBox(float[] out) {
+        if (candidate == NOTHING) return false;
+
+        float l = 0, t = 0, r = 0, b = 0, w = 0;
+        for (int k = 0; k < size; k++) {
+            if (ringClass[k] != candidate) continue;
+            float s = ringScore[k];
+            l += ringL[k] * s;
+            t += ringT[k] * s;
+            r += ringR[k] * s;
+            b += ringB[k] * s;
+            w += s;
+        }
+        if (w <= 0f) return false;
+
+        out[0] = l / w;
+        out[1] = t / w;
+        out[2] = r / w;
+        out[3] = b / w;
+        return true;
+    }
+}
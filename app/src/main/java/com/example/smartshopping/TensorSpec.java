@@ -0,0 +1,99 @@
+package com.example.smartshopping;
+
+/**
+ * Shape, element type and quantisation of one model tensor. Real value
+ * of a quantised element is {@code scale * (raw - zeroPoint)}.
+ */
+public final class TensorSpec {
+
+    public enum Type {
+        FLOAT32(4), UINT8(1), INT8(1);
+
+        public final int bytes;
+
+        Type(int bytes) {
+            this.bytes = bytes;
+        }
+    }
+
+    private final int[] shape;
+    private final Type type;
+    private final float scale;
+    private final int zeroPoint;
+
+    public TensorSpec(int[] shape, Type type, float scale, int zeroPoint) {
+        this.shape = shape.clone();
+        this.type = type;
+        this.scale = scale;
+        this.zeroPoint = zeroPoint;
+    }
+
+    public static TensorSpec float32(int... shape) {
+        return new TensorSpec(shape, Type.FLOAT32, 0f, 0);
+    }
+
+    // ===== GETTERS =====
+
+    public int[] getShape() {
+        return shape.clone();
+    }
+
+    public int dim(int i) {
+        return shape[i];
+    }
+
+    public Type getType() {
+        return type;
+    }
+
+    public boolean isQuantized() {
+        return type != Type.FLOAT32;
+    }
+
+    public float getScale() {
+        return scale;
+    }
+
+    public int getZeroPoint() {
+        return zeroPoint;
+    }
+
+    public int elements() {
+        int n = 1;
+        for (int d : shape) n *= d;
+        return n;
+    }
+
+    public int bytes() {
+        return elements() * type.bytes;
+    }
+
+    public int rank() {
+        return shape.length;
+    }
+
+    /** e.g. "[1, 19, 5376] FLOAT32" */
+    @Override
+    public String toString() {
+        return java.util.Arrays.toString(shape) + " " + type;
+    }
+
+    // ===== QUANTISATION =====
+
+    /** Raw stored byte read back as the integer it encodes. */
+    public int raw(byte b) {
+        return type == Type.INT8 ? b : b & 0xFF;
+    }
+
+    public float dequantize(int raw) {
+        return scale * (raw - zeroPoint);
+    }
+
+    /** Nearest representable raw value, clamped to the type's range. */
+    public int quantize(float value) {
+        int q = Math.round(value / scale) + zeroPoint;
+        int lo = type == Type.INT8 ? -128 : 0;
+        int hi = type == Type.INT8 ? 127 : 255;
+        return q < lo ? lo : (q > hi ? hi : q);
+    }
+}
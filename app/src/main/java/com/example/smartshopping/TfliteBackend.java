@@ -0,0 +1,120 @@
+package com.example.smartshopping;
+
+import org.tensorflow.lite.Delegate;
+import org.tensorflow.lite.Interpreter;
+import org.tensorflow.lite.Tensor;
+import org.tensorflow.lite.gpu.CompatibilityList;
+import org.tensorflow.lite.gpu.GpuDelegate;
+import org.tensorflow.lite.nnapi.NnApiDelegate;
+
+import java.nio.ByteBuffer;
+
+/** {@link InferenceBackend} on a TFLite {@link Interpreter}. */
+public class TfliteBackend implements InferenceBackend {
+
+    private final Interpreter interpreter;
+    private final Delegate delegate;
+    private final String name;
+
+    public TfliteBackend(ByteBuffer model, BackendOptions options) {
+        Interpreter.Options opts = new Interpreter.Options();
+        opts.setNumThreads(options.getThreads());
+        opts.setUseXNNPACK(options.useXnnpack());
+        opts.setAllowFp16PrecisionForFp32(options.allowFp16());
+
+        delegate = createDelegate(options);
+        if (delegate != null) opts.addDelegate(delegate);
+
+        try {
+            interpreter = new Interpreter(model, opts);
+        } catch (RuntimeException e) {
+            closeDelegate();
+            throw e;
+        }
+        name = options.describe();
+    }
+
+    private static Delegate createDelegate(BackendOptions options) {
+        switch (options.getAccelerator()) {
+            case GPU: {
+                CompatibilityList compat = new CompatibilityList();
+                try {
+                    if (!compat.isDelegateSupportedOnThisDevice()) {
+                        throw new IllegalStateException("GPU delegate not supported on this device");
+                    }
+                } finally {
+                    compat.close();
+                }
+                GpuDelegate.Options gpu = new GpuDelegate.Options();
+                gpu.setPrecisionLossAllowed(options.allowFp16());
+                return new GpuDelegate(gpu);
+            }
+            case NNAPI: {
+                NnApiDelegate.Options nnapi = new NnApiDelegate.Options();
+                nnapi.setAllowFp16(options.allowFp16());
+                return new NnApiDelegate(nnapi);
+            }
+            default:
+                return null;
+        }
+    }
+
+    @Override
+    public String getName() {
+        return name;
+    }
+
+    @Override
+    public TensorSpec getInputSpec() {
+        return spec(interpreter.getInputTensor(0));
+    }
+
+    @Override
+    public TensorSpec getOutputSpec() {
+        return spec(interpreter.getOutputTensor(0));
+    }
+
+    private static TensorSpec spec(Tensor tensor) {
+        TensorSpec.Type type;
+        switch (tensor.dataType()) {
+            case FLOAT32:
+                type = TensorSpec.Type.FLOAT32;
+                break;
+            case UINT8:
+                type = TensorSpec.Type.UINT8;
+                break;
+            case INT8:
+                type = TensorSpec.Type.INT8;
+                break;
+            default:
+                throw new IllegalArgumentException(
+                        "Unsupported tensor type " + tensor.dataType());
+        }
+        Tensor.QuantizationParams q = tensor.quantizationParams();
+        return new TensorSpec(tensor.shape(), type, q.getScale(), q.getZeroPoint());
+    }
+
+    @Override
+    public void resizeInput(int batch, int height, int width) {
+        interpreter.resizeInput(0, new int[]{batch, height, width, 3});
+        interpreter.allocateTensors();
+    }
+
+    @Override
+    public void run(ByteBuffer input, ByteBuffer output) {
+        interpreter.run(input, output);
+    }
+
+    @Override
+    public void close() {
+        interpreter.close();
+        closeDelegate();
+    }
+
+    private void closeDelegate() {
+        if (delegate == null) return;
+        try {
+            delegate.close();
+        } catch (Exception ignored) {}
+    }
+}
@@ -0,0 +1,10 @@
+package com.example.smartshopping;
+
+/** Remembers the tuned backend per device + model. */
+public interface TuningCache {
+
+    /** @return the stored choice, or null if this key was never tuned */
+    BackendOptions load(String key);
+
+    void store(String key, BackendOptions options);
+}
@@ -0,0 +1,247 @@
+package com.example.smartshopping;
+
+/**
+ * Decodes a flat YOLOv8 head output into box candidates in frame pixels.
+ *
+ * Accepts either layout the exporters produce:
+ *  - channels-first {@code [4 + C, N]} (the default TFLite export), or
+ *  - transposed {@code [N, 4 + C]}.
+ *
+ * Channels-first is reduced class row by class row so every pass walks
+ * contiguous memory; box geometry is only read for anchors that clear
+ * the threshold. Candidates land in reusable parallel arrays.
+ */
+public class YoloDecoder {
+
+    private final int numBoxes;
+    private final int numClasses;
+    private final boolean transposed;
+
+    // per-anchor running max (channels-first only)
+    private final float[] bestScore;
+    private final int[] bestRaw;
+    private final int[] bestClass;
+
+    // ===== CANDIDATES =====
+    public final float[] left;
+    public final float[] top;
+    public final float[] right;
+    public final float[] bottom;
+    public final float[] score;
+    public final int[] classId;
+    private int count;
+    private float topScore;
+
+    public YoloDecoder(int numBoxes, int numClasses, boolean transposed) {
+        this.numBoxes = numBoxes;
+        this.numClasses = numClasses;
+        this.transposed = transposed;
+
+        bestScore = transposed ? null : new float[numBoxes];
+        bestRaw = transposed ? null : new int[numBoxes];
+        bestClass = transposed ? null : new int[numBoxes];
+
+        left = new float[numBoxes];
+        top = new float[numBoxes];
+        right = new float[numBoxes];
+        bottom = new float[numBoxes];
+        score = new float[numBoxes];
+        classId = new int[numBoxes];
+    }
+
+    public int getNumBoxes() {
+        return numBoxes;
+    }
+
+    public int getNumClasses() {
+        return numClasses;
+    }
+
+    public boolean isTransposed() {
+        return transposed;
+    }
+
+    /** Number of candidates written by the last {@link #decode}. */
+    public int getCount() {
+        return count;
+    }
+
+    /**
+     * Best class score over every anchor in the last {@link #decode},
+     * including those below the threshold. Tells "nothing there" apart
+     * from "something, but unsure".
+     */
+    public float getTopScore() {
+        return topScore;
+    }
+
+    // ===== DECODE =====
+
+    /** @return number of candidates at or above {@code threshold} */
+    public int decode(float[] out, float threshold, Letterbox letterbox) {
+        count = transposed
+                ? decodeTransposed(out, threshold, letterbox)
+                : decodeChannelsFirst(out, threshold, letterbox);
+        return count;
+    }
+
+    private int decodeChannelsFirst(float[] out, float threshold, Letterbox lb) {
+        final int n = numBoxes;
+
+        // class 0 seeds the running max, remaining rows sweep contiguously
+        System.arraycopy(out, 4 * n, bestScore, 0, n);
+        java.util.Arrays.fill(bestClass, 0);
+
+        for (int c = 1; c < numClasses; c++) {
+            int row = (4 + c) * n;
+            for (int i = 0; i < n; i++) {
+                float s = out[row + i];
+                if (s > bestScore[i]) {
+                    bestScore[i] = s;
+                    bestClass[i] = c;
+                }
+            }
+        }
+
+        int k = 0;
+        float top = 0f;
+        for (int i = 0; i < n; i++) {
+            float s = bestScore[i];
+            if (s > top) top = s;
+            if (s < threshold) continue;
+
+            emit(k++, out[i], out[n + i], out[2 * n + i], out[3 * n + i],
+                    s, bestClass[i], lb);
+        }
+        topScore = top;
+        return k;
+    }
+
+    private int decodeTransposed(float[] out, float threshold, Letterbox lb) {
+        final int stride = 4 + numClasses;
+
+        int k = 0;
+        float top = 0f;
+        for (int i = 0, base = 0; i < numBoxes; i++, base += stride) {
+            int best = 0;
+            float s = out[base + 4];
+            for (int c = 1; c < numClasses; c++) {
+                float v = out[base + 4 + c];
+                if (v > s) {
+                    s = v;
+                    best = c;
+                }
+            }
+            if (s > top) top = s;
+            if (s < threshold) continue;
+
+            emit(k++, out[base], out[base + 1], out[base + 2], out[base + 3],
+                    s, best, lb);
+        }
+        topScore = top;
+        return k;
+    }
+
+    // ===== QUANTISED =====
+
+    /**
+     * Same as {@link #decode(float[], float, Letterbox)} for a uint8/int8
+     * head. Scores are compared as raw integers against a pre-quantised
+     * threshold; only anchors that pass get dequantised.
+     */
+    public int decode(byte[] out, TensorSpec spec, float threshold, Letterbox letterbox) {
+        int rawThreshold = rawThreshold(spec, threshold);
+        count = transposed
+                ? decodeTransposed(out, spec, rawThreshold, letterbox)
+                : decodeChannelsFirst(out, spec, rawThreshold, letterbox);
+        return count;
+    }
+
+    /** Smallest raw value whose real value is >= {@code threshold}. */
+    static int rawThreshold(TensorSpec spec, float threshold) {
+        int r = (int) Math.ceil(threshold / spec.getScale() + spec.getZeroPoint());
+        while (spec.dequantize(r - 1) >= threshold) r--;
+        while (spec.dequantize(r) < threshold) r++;
+        return r;
+    }
+
+    private int decodeChannelsFirst(byte[] out, TensorSpec spec, int rawThreshold, Letterbox lb) {
+        final int n = numBoxes;
+
+        int row0 = 4 * n;
+        for (int i = 0; i < n; i++) {
+            bestRaw[i] = spec.raw(out[row0 + i]);
+            bestClass[i] = 0;
+        }
+
+        for (int c = 1; c < numClasses; c++) {
+            int row = (4 + c) * n;
+            for (int i = 0; i < n; i++) {
+                int s = spec.raw(out[row + i]);
+                if (s > bestRaw[i]) {
+                    bestRaw[i] = s;
+                    bestClass[i] = c;
+                }
+            }
+        }
+
+        int k = 0;
+        int top = Integer.MIN_VALUE;
+        for (int i = 0; i < n; i++) {
+            int s = bestRaw[i];
+            if (s > top) top = s;
+            if (s < rawThreshold) continue;
+
+            emit(k++,
+                    spec.dequantize(spec.raw(out[i])),
+                    spec.dequantize(spec.raw(out[n + i])),
+                    spec.dequantize(spec.raw(out[2 * n + i])),
+                    spec.dequantize(spec.raw(out[3 * n + i])),
+                    spec.dequantize(s), bestClass[i], lb);
+        }
+        topScore = n == 0 ? 0f : spec.dequantize(top);
+        return k;
+    }
+
+    private int decodeTransposed(byte[] out, TensorSpec spec, int rawThreshold, Letterbox lb) {
+        final int stride = 4 + numClasses;
+
+        int k = 0;
+        int top = Integer.MIN_VALUE;
+        for (int i = 0, base = 0; i < numBoxes; i++, base += stride) {
+            int best = 0;
+            int s = spec.raw(out[base + 4]);
+            for (int c = 1; c < numClasses; c++) {
+                int v = spec.raw(out[base + 4 + c]);
+                if (v > s) {
+                    s = v;
+                    best = c;
+                }
+            }
+            if (s > top) top = s;
+            if (s < rawThreshold) continue;
+
+            emit(k++,
+                    spec.dequantize(spec.raw(out[base])),
+                    spec.dequantize(spec.raw(out[base + 1])),
+                    spec.dequantize(spec.raw(out[base + 2])),
+                    spec.dequantize(spec.raw(out[base + 3])),
+                    spec.dequantize(s), best, lb);
+        }
+        topScore = numBoxes == 0 ? 0f : spec.dequantize(top);
+        return k;
+    }
+
+    private void emit(int k, float cx, float cy, float w, float h,
+                      float s, int c, Letterbox lb) {
+        float hw = w / 2f;
+        float hh = h / 2f;
+
+        left[k]    = lb.toFrameX(cx - hw);
+        top[k]     = lb.toFrameY(cy - hh);
+        right[k]   = lb.toFrameX(cx + hw);
+        bottom[k]  = lb.toFrameY(cy + hh);
+        score[k]   = s;
+        classId[k] = c;
+    }
+}
@@ -132,11 +132,14 @@
 package com.example.smartshopping;
 
 import android.content.Context;
+import android.content.pm.PackageInfo;
 import android.content.res.AssetFileDescriptor;
 import android.graphics.Bitmap;
+import android.graphics.Canvas;
+import android.graphics.Paint;
+import android.graphics.Rect;
 import android.graphics.RectF;
-
-import org.tensorflow.lite.Interpreter;
+import android.os.Build;
 
 import java.io.*;
 import java.nio.*;
@@ -146,46 +149,261 @@ import java.util.*;
 public class YoloV8Detector {
 
     // ===== MODEL CONFIG =====
-    private static final int INPUT_SIZE = 640;
-    private static final int NUM_BOXES = 5376;     // ✅ correct
-    private static final int NUM_CLASSES = 15;     // ✅ correct
+    private static final String MODEL_FILE = "best_model_4_float16.tflite";
     private static final float CONF_THRESH = 0.4f;
 
-    private final Interpreter interpreter;
+    private final BackendSelector.Factory factory;
+    private final BackendOptions options;
     private final List<String> labels;
+    private final String[] labelTable;
+
+    // ===== INTERPRETERS =====
+    // one lane per inference worker; each lane: the model as exported
+    // (fine) and, optionally, a second interpreter resized down (coarse)
+    private final InterpreterPool interpreters;
+    private final DetectorHead fine;
+
+    // ===== BITMAP PATH =====
+    private final int inputSize;
+    private Bitmap scaled;
+    private Canvas scaleCanvas;
+    private Rect scaleDst;
+    private final Paint scalePaint = new Paint(Paint.FILTER_BITMAP_FLAG);
+    private int[] pixels;
+    private final ByteBuffer input;
+    private final PixelPacker bitmapPacker;
+    private final Letterbox bitmapLetterbox = new Letterbox();
+
+    // ===== BATCH =====
+    private static final int BATCH_SIZE = 4;
+    private BatchRecognizer batch;
+
+    // ===== RESULT RECYCLING (per lane) =====
+    private boolean recycleResults = false;
+    private final List<LaneOutput> outputs = new ArrayList<>();
+
+    // ===== METRICS =====
+    private FrameMetrics metrics;                   // null until setMetrics
+
+    /** A lane's reusable results and timings; touched only by that lane's worker. */
+    private static final class LaneOutput {
+        DetectionBuffer buffer;
+        final List<Detection> results = new ArrayList<>();
+        final ObjectPool<Detection> pool = new ObjectPool<>(() -> {
+            Detection d = new Detection();
+            d.box = new RectF();
+            return d;
+        });
+        long lastInferenceNanos;
+    }
 
     // ===== RESULT CLASS =====
     public static class Detection {
         public RectF box;
         public String label;
+        public int classId;
         public float score;
     }
 
     // ===== CONSTRUCTOR =====
     public YoloV8Detector(Context context) throws Exception {
-        interpreter = new Interpreter(loadModel(context));
+        this(context, BackendOptions.defaults());
+    }
+
+    public YoloV8Detector(Context context, BackendOptions options) throws Exception {
+        this(context, loadModel(context), options);
+    }
+
+    private YoloV8Detector(Context context, MappedByteBuffer model,
+                           BackendOptions options) throws Exception {
+        factory = o -> new TfliteBackend(model, o);
+        this.options = options;
+
         labels = loadLabels(context);
+        labelTable = labels.toArray(new String[0]);
 
-        // DEBUG: Verify model and labels
         android.util.Log.d("YOLO_TEST",
-                "Model loaded successfully. Labels count = " + labels.size());
+                "Model loaded successfully. Labels = " + labels);
+
+        // sizes, anchor count and layout all come from the tensors
+        interpreters = new InterpreterPool(this::openBackend, labels.size());
+        outputs.add(new LaneOutput());
+        fine = interpreters.lane(0).getFine();
+        inputSize = fine.getInputSize();
+
+        android.util.Log.d("YOLO_TEST", "Input " + fine.getInputSpec()
+                + ", output " + fine.getOutputSpec()
+                + " (" + fine.getNumBoxes() + " anchors)");
+
+        input = ByteBuffer.allocateDirect(fine.getInputSpec().bytes());
+        input.order(ByteOrder.nativeOrder());
+        bitmapPacker = new PixelPacker(input, fine.getInputSpec(), inputSize);
+    }
+
+    /** The requested backend, or the nearest one that opens on this device. */
+    private InferenceBackend openBackend() {
+        BackendSelector selector = new BackendSelector(factory);
+        InferenceBackend backend = selector.open(options);
+
+        for (String failure : selector.getFailures()) {
+            android.util.Log.w("YOLO_BACKEND", "Fell back from " + failure);
+        }
+        android.util.Log.d("YOLO_BACKEND", "Using " + backend.getName());
+        return backend;
+    }
+
+    // ===== WORKERS =====
+
+    /**
+     * Opens interpreters so {@code workers} frames can be inferred at once
+     * (see {@link FramePipeline}); each worker then passes its index to
+     * {@link #detect(int, int, ByteBuffer, Letterbox)}. Slow: call from
+     * the loader thread, before any worker runs.
+     *
+     * @return workers actually available, at least 1
+     */
+    public int setWorkers(int workers) {
+        int n = interpreters.grow(workers);
+        while (outputs.size() < n) outputs.add(new LaneOutput());
+        android.util.Log.d("YOLO_BACKEND", n + " inference worker(s)");
+        return n;
+    }
+
+    public int getWorkers() {
+        return interpreters.size();
+    }
+
+    /** {@link InterpreterPool#suggestedWorkers} for the options this detector runs with. */
+    public int suggestedWorkers(int max) {
+        return InterpreterPool.suggestedWorkers(Runtime.getRuntime().availableProcessors(),
+                options.getThreads(), options.getAccelerator() != BackendOptions.Accelerator.CPU, max);
+    }
+
+    // ===== COARSE PASS =====
+
+    /**
+     * Opens a second interpreter per worker on the same model, resized to
+     * {@code size} x {@code size}, for {@link ResolutionPolicy}'s cheap
+     * pass. Both stay resident, so switching per keyframe costs nothing;
+     * one interpreter resized back and forth would re-plan (and on GPU
+     * re-compile) on every switch. Slow: call from the loader thread.
+     *
+     * @return false if the model won't take that size; the detector then
+     *         keeps running at full resolution only
+     */
+    public boolean enableCoarsePass(int size) {
+        boolean ok = interpreters.enableCoarse(size);
+        if (ok) {
+            DetectorHead coarse = interpreters.lane(0).getCoarse();
+            android.util.Log.d("YOLO_BACKEND", "Coarse pass " + coarse.getInputSpec()
+                    + " (" + coarse.getNumBoxes() + " anchors)");
+        } else {
+            android.util.Log.w("YOLO_BACKEND", "No coarse pass at " + size);
+        }
+        return ok;
+    }
+
+    /** Input size of the coarse pass, or 0 without one. */
+    public int getCoarseSize() {
+        return interpreters.getCoarseSize();
+    }
 
-        for (String label : labels) {
-            android.util.Log.d("YOLO_LABEL", label);
+    /**
+     * When on, {@link #detect} reuses one result list and pooled
+     * {@link Detection}s, so a frame allocates nothing once warmed up.
+     * Results are then only valid until the next call.
+     */
+    public void setRecycleResults(boolean recycle) {
+        recycleResults = recycle;
+    }
+
+    /** Same-class boxes overlapping more than this are merged. */
+    public void setIouThreshold(float iou) {
+        interpreters.setIouThreshold(iou);
+    }
+
+    /** Upper bound on boxes returned per frame, best first. */
+    public void setMaxDetections(int max) {
+        interpreters.setMaxDetections(max);
+    }
+
+    public int getMaxDetections() {
+        return fine.getMaxDetections();
+    }
+
+    /** Per-stage timings (infer, decode, NMS, results) go here when set. */
+    public void setMetrics(FrameMetrics metrics) {
+        this.metrics = metrics;
+    }
+
+    /** Interpreter time of the last {@link #detect} call. */
+    public long getLastInferenceNanos() {
+        return getLastInferenceNanos(0);
+    }
+
+    /** Same, for {@code worker}'s last call. */
+    public long getLastInferenceNanos(int worker) {
+        return outputs.get(worker).lastInferenceNanos;
+    }
+
+    // ===== AUTO-TUNED =====
+
+    /**
+     * Detector on the fastest backend for this device. The first launch
+     * with a given model benchmarks every candidate (slow, call off the
+     * UI thread); later launches read the cached choice.
+     */
+    public static YoloV8Detector createTuned(Context context, TuningCache cache)
+            throws Exception {
+        MappedByteBuffer model = loadModel(context);
+        String key = BackendTuner.cacheKey(Build.MANUFACTURER, Build.MODEL,
+                Build.FINGERPRINT, modelDigest(context));
+
+        BackendOptions options = cache.load(key);
+
+        if (options == null) {
+            BackendTuner.Result result =
+                    new BackendTuner(o -> new TfliteBackend(model, o))
+                            .tune(BackendTuner.candidates(
+                                    Runtime.getRuntime().availableProcessors()));
+
+            for (Map.Entry<BackendOptions, Long> e : result.medianNanos.entrySet()) {
+                android.util.Log.d("YOLO_TUNE",
+                        e.getKey().describe() + ": " + e.getValue() / 1_000_000 + " ms");
+            }
+            for (String failure : result.failures) {
+                android.util.Log.w("YOLO_TUNE", "Skipped " + failure);
+            }
+
+            options = result.best;
+            cache.store(key, options);
         }
 
-        if (labels.size() != NUM_CLASSES) {
-            throw new RuntimeException(
-                    "Label count (" + labels.size() +
-                            ") does not match NUM_CLASSES (" + NUM_CLASSES + ")"
-            );
+        return new YoloV8Detector(context, model, options);
+    }
+
+    /**
+     * The model's SHA-256, from the sidecar the {@code modelDigests}
+     * Gradle task writes at build time. Without one, the install time,
+     * so at worst every update or reinstall re-tunes.
+     */
+    private static String modelDigest(Context context) throws Exception {
+        try (BufferedReader br = new BufferedReader(
+                new InputStreamReader(context.getAssets().open(MODEL_FILE + ".sha256")))) {
+            String line = br.readLine();
+            if (line != null && !line.trim().isEmpty()) return line.trim();
+        } catch (IOException e) {
+            // built without the task
         }
+        PackageInfo info = context.getPackageManager()
+                .getPackageInfo(context.getPackageName(), 0);
+        return "installed-" + info.lastUpdateTime;
     }
 
     // ===== LOAD MODEL =====
-    private MappedByteBuffer loadModel(Context context) throws Exception {
+    private static MappedByteBuffer loadModel(Context context) throws Exception {
         AssetFileDescriptor afd =
-                context.getAssets().openFd("best_model_4_float16.tflite");
+                context.getAssets().openFd(MODEL_FILE);
 
         FileInputStream fis = new FileInputStream(afd.getFileDescriptor());
         FileChannel channel = fis.getChannel();
@@ -213,90 +431,288 @@ public class YoloV8Detector {
     }
 
     // ===== DETECT =====
+
+    /** Full input size, as exported. */
+    public int getInputSize() {
+        return inputSize;
+    }
+
+    /** What {@link YuvConverter} must produce for this model. */
+    public TensorSpec getInputSpec() {
+        return fine.getInputSpec();
+    }
+
+    /** Input spec of the pass at {@code size}: the fine one or the coarse one. */
+    public TensorSpec getInputSpec(int size) {
+        InterpreterPool.Lane lane = interpreters.lane(0);
+        if (size == inputSize) return lane.getFine().getInputSpec();
+        if (lane.getCoarse() != null && size == getCoarseSize()) return lane.getCoarse().getInputSpec();
+        throw new IllegalArgumentException("No pass at input size " + size);
+    }
+
+    public int getNumClasses() {
+        return labels.size();
+    }
+
+    public String getLabel(int classId) {
+        return labels.get(classId);
+    }
+
+    /** Class ID to label, for {@link DetectionBuffer}s; do not modify. */
+    public String[] getLabels() {
+        return labelTable;
+    }
+
+    /** A buffer sized for this detector's results, to pass to {@link #detect(int, int, ByteBuffer, Letterbox, DetectionBuffer)}. */
+    public DetectionBuffer newBuffer() {
+        return new DetectionBuffer(getMaxDetections(), labelTable);
+    }
+
+    public String getBackendName() {
+        return fine.getBackend().getName();
+    }
+
+    public void close() {
+        interpreters.close();
+        if (batch != null) batch.close();
+    }
+
+    /** One throwaway inference per interpreter so the first real frame doesn't pay for lazy init. */
+    public void warmUp() {
+        ByteBuffer blank = null;
+        for (int i = 0; i < interpreters.size(); i++) {
+            InterpreterPool.Lane lane = interpreters.lane(i);
+            lane.getFine().infer(input);
+            if (lane.getCoarse() != null) {
+                if (blank == null) {
+                    blank = ByteBuffer.allocateDirect(lane.getCoarse().getInputSpec().bytes());
+                    blank.order(ByteOrder.nativeOrder());
+                }
+                lane.getCoarse().infer(blank);
+            }
+        }
+    }
+
     public List<Detection> detect(Bitmap bitmap) {
 
-        Bitmap resized =
-                Bitmap.createScaledBitmap(bitmap, INPUT_SIZE, INPUT_SIZE, true);
+        // only the Bitmap path needs these; camera frames go through YuvConverter
+        if (scaled == null) {
+            scaled = Bitmap.createBitmap(inputSize, inputSize, Bitmap.Config.ARGB_8888);
+            scaleCanvas = new Canvas(scaled);
+            scaleDst = new Rect(0, 0, inputSize, inputSize);
+            pixels = new int[inputSize * inputSize];
+        }
 
-        // ✅ Get input tensor shape dynamically
-        int[] inputShape = interpreter.getInputTensor(0).shape();
-        // [1, height, width, 3]
+        scaleCanvas.drawBitmap(bitmap, null, scaleDst, scalePaint);
+        scaled.getPixels(pixels, 0, inputSize, 0, 0, inputSize, inputSize);
+        pack(pixels, inputSize, bitmapPacker);
 
-        int height = inputShape[1];
-        int width  = inputShape[2];
+        bitmapLetterbox.stretch(bitmap.getWidth(), bitmap.getHeight(), inputSize);
 
-        int inputSize = height * width * 3;
+        return detect(input, bitmapLetterbox);
+    }
 
-        ByteBuffer input =
-                ByteBuffer.allocateDirect(inputSize * 4); // FLOAT32 = 4 bytes
-        input.order(ByteOrder.nativeOrder());
+    private static void pack(int[] pixels, int size, PixelPacker packer) {
+        packer.begin();
+        for (int y = 0, i = 0; y < size; y++) {
+            for (int x = 0; x < size; x++, i++) {
+                int p = pixels[i];
+                packer.put(x, (p >> 16) & 0xFF, (p >> 8) & 0xFF, p & 0xFF);
+            }
+            packer.endRow(size);
+        }
+        packer.end();
+    }
 
-        int[] pixels = new int[width * height];
-        resized.getPixels(pixels, 0, width, 0, 0, width, height);
+    // ===== BATCH =====
 
-        for (int p : pixels) {
-            input.putFloat(((p >> 16) & 0xFF) / 255f);
-            input.putFloat(((p >> 8) & 0xFF) / 255f);
-            input.putFloat((p & 0xFF) / 255f);
+    public interface BatchListener {
+        /** From a worker thread, one call at a time, in completion order. */
+        void onResult(int index, List<Detection> detections);
+
+        void onError(int index, Exception e);
+    }
+
+    /**
+     * Runs every image in {@code images}, for audits of stills rather
+     * than live frames; {@link #detect(Bitmap)} is unaffected. Frames go
+     * through a batch-{@value #BATCH_SIZE} tensor if the model takes one,
+     * otherwise through several interpreters in parallel. Blocks until
+     * done; call off the UI thread.
+     */
+    public BatchRecognizer.Stats detectBatch(List<Bitmap> images, BatchListener listener)
+            throws Exception {
+        if (batch == null) {
+            int cores = Runtime.getRuntime().availableProcessors();
+            batch = BatchRecognizer.open(() -> new BackendSelector(factory).open(options),
+                    labels.size(), BATCH_SIZE, Math.max(1, cores / options.getThreads()));
+            batch.setThreshold(CONF_THRESH);
+            android.util.Log.d("YOLO_BATCH", "Batch mode " + batch.describe());
         }
 
-        float[][][] output =
-                new float[1][4 + NUM_CLASSES][NUM_BOXES];
+        BatchRecognizer.Stats stats = batch.run(new BatchRecognizer.Frames() {
+            @Override
+            public int count() {
+                return images.size();
+            }
 
-        long startTime = System.nanoTime();
+            @Override
+            public void pack(int index, ByteBuffer input, TensorSpec spec, Letterbox letterbox) {
+                Bitmap src = images.get(index);
+                int size = spec.dim(1);
+                Bitmap scaled = Bitmap.createScaledBitmap(src, size, size, true);
+                int[] px = new int[size * size];
+                scaled.getPixels(px, 0, size, 0, 0, size, size);
+                if (scaled != src) scaled.recycle();
+
+                YoloV8Detector.pack(px, size, new PixelPacker(input, spec, size));
+                letterbox.stretch(src.getWidth(), src.getHeight(), size);
+            }
+        }, new BatchRecognizer.Listener() {
+            @Override
+            public void onResult(BatchRecognizer.Result r) {
+                List<Detection> list = new ArrayList<>(r.size());
+                for (int k = 0; k < r.size(); k++) {
+                    Detection d = new Detection();
+                    d.box = new RectF(r.left[k], r.top[k], r.right[k], r.bottom[k]);
+                    d.classId = r.classId[k];
+                    d.label = labelTable[d.classId];
+                    d.score = r.score[k];
+                    list.add(d);
+                }
+                listener.onResult(r.index, list);
+            }
+
+            @Override
+            public void onError(int index, Exception e) {
+                listener.onError(index, e);
+            }
+        });
+
+        android.util.Log.i("YOLO_BATCH", stats.describe());
+        return stats;
+    }
+
+    /**
+     * Runs on an input already packed by {@link YuvConverter}; boxes are
+     * mapped back through {@code letterbox} onto the upright frame.
+     */
+    public List<Detection> detect(ByteBuffer input, Letterbox letterbox) {
+        return detect(0, inputSize, input, letterbox);
+    }
 
-        interpreter.run(input, output);
+    /**
+     * Same, at input size {@code size}: the full size or
+     * {@link #getCoarseSize}. {@code input} must have been packed for
+     * {@link #getInputSpec(int)} of that size.
+     */
+    public List<Detection> detect(int size, ByteBuffer input, Letterbox letterbox) {
+        return detect(0, size, input, letterbox);
+    }
+
+    /**
+     * Same, on {@code worker}'s own interpreters (0 until
+     * {@link #setWorkers}). Workers may run concurrently; each must only
+     * be used by one thread at a time, and recycled results are per worker.
+     */
+    public List<Detection> detect(int worker, int size, ByteBuffer input, Letterbox letterbox) {
+        LaneOutput out = outputs.get(worker);
+        if (out.buffer == null || out.buffer.capacity() < getMaxDetections()) {
+            out.buffer = newBuffer();
+        }
+        detect(worker, size, input, letterbox, out.buffer);
+        return toDetections(out.buffer, out);
+    }
+
+    /**
+     * Same, into {@code detections} instead of {@link Detection} objects:
+     * the frame loop's path, allocation-free. The buffer is cleared first;
+     * results beyond its capacity are dropped, lowest scores first.
+     *
+     * @return number of detections
+     */
+    public int detect(int worker, int size, ByteBuffer input, Letterbox letterbox,
+                      DetectionBuffer detections) {
+        DetectorHead head = interpreters.lane(worker).head(size);
+        LaneOutput out = outputs.get(worker);
+
+        long startTime = System.nanoTime();
+        head.infer(input);
 
         long endTime = System.nanoTime();
-        long inferenceTimeMs = (endTime - startTime) / 1_000_000;
+        out.lastInferenceNanos = endTime - startTime;
+        if (metrics != null) metrics.record(FrameMetrics.Stage.INFER, out.lastInferenceNanos);
 
+        return parseOutput(head, letterbox, detections);
+    }
 
-        return parseOutput(output, bitmap.getWidth(), bitmap.getHeight());
+    /**
+     * Best anchor score of the last {@link #detect}, including anchors
+     * below the confidence threshold; feeds {@link ResolutionPolicy}.
+     */
+    public float getLastTopScore() {
+        return getLastTopScore(0);
     }
 
+    /** Same, for {@code worker}'s last call. */
+    public float getLastTopScore(int worker) {
+        return interpreters.lane(worker).getLast().getDecoder().getTopScore();
+    }
 
-    // ===== PARSE OUTPUT =====
-    private List<Detection> parseOutput(
-            float[][][] out,
-            int imgW,
-            int imgH
-    ) {
+    /** Input size the last {@link #detect} ran at. */
+    public int getLastInputSize() {
+        return interpreters.lane(0).getLast().getInputSize();
+    }
 
-        List<Detection> results = new ArrayList<>();
 
-        for (int i = 0; i < NUM_BOXES; i++) {
+    // ===== PARSE OUTPUT =====
+    private int parseOutput(DetectorHead head, Letterbox letterbox, DetectionBuffer detections) {
 
-            float cx = out[0][0][i];
-            float cy = out[0][1][i];
-            float w  = out[0][2][i];
-            float h  = out[0][3][i];
+        long t0 = System.nanoTime();
+        int count = head.decode(CONF_THRESH, letterbox);
+        long t1 = System.nanoTime();
 
-            int bestClass = -1;
-            float bestScore = 0f;
+        int kept = head.suppress(count);
+        long t2 = System.nanoTime();
 
-            for (int c = 0; c < NUM_CLASSES; c++) {
-                float score = out[0][4 + c][i];
-                if (score > bestScore) {
-                    bestScore = score;
-                    bestClass = c;
-                }
-            }
+        int n = head.collect(kept, detections);
 
-            if (bestScore < CONF_THRESH) continue;
+        if (metrics != null) {
+            metrics.record(FrameMetrics.Stage.DECODE, t1 - t0);
+            metrics.record(FrameMetrics.Stage.NMS, t2 - t1);
+            metrics.record(FrameMetrics.Stage.RESULTS, System.nanoTime() - t2);
+        }
+        return n;
+    }
 
-            float left   = (cx - w / 2f) * imgW;
-            float top    = (cy - h / 2f) * imgH;
-            float right  = (cx + w / 2f) * imgW;
-            float bottom = (cy + h / 2f) * imgH;
+    /** {@code detections} as objects, for callers of the {@code List} API. */
+    private List<Detection> toDetections(DetectionBuffer detections, LaneOutput out) {
+        List<Detection> results;
+        if (recycleResults) {
+            results = out.results;
+            results.clear();
+            out.pool.recycleAll();
+        } else {
+            results = new ArrayList<>(detections.size());
+        }
 
-            Detection d = new Detection();
-            d.box = new RectF(left, top, right, bottom);
-            d.label = labels.get(bestClass);
-            d.score = bestScore;
+        for (int i = 0; i < detections.size(); i++) {
+            Detection d;
+            if (recycleResults) {
+                d = out.pool.obtain();
+                d.box.set(detections.left[i], detections.top[i],
+                        detections.right[i], detections.bottom[i]);
+            } else {
+                d = new Detection();
+                d.box = new RectF(detections.left[i], detections.top[i],
+                        detections.right[i], detections.bottom[i]);
+            }
+            d.label = detections.label(i);
+            d.classId = detections.classId[i];
+            d.score = detections.score[i];
 
             results.add(d);
         }
-
         return results;
     }
 }
@@ -0,0 +1,200 @@
+package com.example.smartshopping;
+
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+
+/**
+ * Converts YUV_420_888 planes straight into the detector's input tensor:
+ * rotated, letterboxed RGB written into one reusable direct buffer, as
+ * normalised floats or quantised bytes depending on the model. Replaces
+ * the NV21 -> JPEG -> Bitmap -> rotate -> scale chain. Can feed just a
+ * region of the frame (ROI inference) in the same pass.
+ *
+ * Plain Java on purpose, so it can be fed synthetic planes on the JVM.
+ */
+public class YuvConverter {
+
+    // YOLO letterbox grey
+    private static final int PAD_VALUE = 114;
+
+    private final int inputSize;
+    private final ByteBuffer input;
+    private final PixelPacker packer;
+    private final Letterbox letterbox = new Letterbox();
+
+    // ===== SAMPLING TABLES (rebuilt only when geometry changes) =====
+    private final int[] colY, colUv, rowY, rowUv;
+    private int lastW = -1, lastH = -1, lastRotation = -1;
+    private int lastYRow = -1, lastYPixel = -1, lastUvRow = -1, lastUvPixel = -1;
+    private int lastCropX = -1, lastCropY = -1, lastCropW = -1, lastCropH = -1;
+
+    /** Float input, {@code inputSize} square. */
+    public YuvConverter(int inputSize) {
+        this(TensorSpec.float32(1, inputSize, inputSize, 3));
+    }
+
+    /** @param inputSpec model input, [1, size, size, 3] float32, uint8 or int8 */
+    public YuvConverter(TensorSpec inputSpec) {
+        inputSize = inputSpec.dim(1);
+
+        input = ByteBuffer.allocateDirect(inputSpec.bytes());
+        input.order(ByteOrder.nativeOrder());
+        packer = new PixelPacker(input, inputSpec, inputSize);
+
+        colY = new int[inputSize];
+        colUv = new int[inputSize];
+        rowY = new int[inputSize];
+        rowUv = new int[inputSize];
+    }
+
+    // ===== GETTERS =====
+
+    public int getInputSize() {
+        return inputSize;
+    }
+
+    /** Model input written by the last {@link #convert} call. */
+    public ByteBuffer getInput() {
+        return input;
+    }
+
+    /** Geometry of the last converted frame, for mapping boxes back. */
+    public Letterbox getLetterbox() {
+        return letterbox;
+    }
+
+    // ===== CONVERT =====
+
+    /**
+     * @param width           sensor width of the Y plane
+     * @param height          sensor height of the Y plane
+     * @param rotationDegrees clockwise rotation to make the frame upright
+     */
+    public void convert(
+            ByteBuffer yPlane, int yRowStride, int yPixelStride,
+            ByteBuffer uPlane, ByteBuffer vPlane, int uvRowStride, int uvPixelStride,
+            int width, int height, int rotationDegrees
+    ) {
+        boolean swap = rotationDegrees % 180 != 0;
+        convert(yPlane, yRowStride, yPixelStride, uPlane, vPlane, uvRowStride, uvPixelStride,
+                width, height, rotationDegrees,
+                0, 0, swap ? height : width, swap ? width : height);
+    }
+
+    /**
+     * Converts only the {@code cropW x cropH} region at ({@code cropX},
+     * {@code cropY}) of the upright frame; {@link #getLetterbox()} still
+     * maps back to full-frame pixels.
+     */
+    public void convert(
+            ByteBuffer yPlane, int yRowStride, int yPixelStride,
+            ByteBuffer uPlane, ByteBuffer vPlane, int uvRowStride, int uvPixelStride,
+            int width, int height, int rotationDegrees,
+            int cropX, int cropY, int cropW, int cropH
+    ) {
+        int rotation = ((rotationDegrees % 360) + 360) % 360;
+
+        if (width != lastW || height != lastH || rotation != lastRotation
+                || yRowStride != lastYRow || yPixelStride != lastYPixel
+                || uvRowStride != lastUvRow || uvPixelStride != lastUvPixel
+                || cropX != lastCropX || cropY != lastCropY
+                || cropW != lastCropW || cropH != lastCropH) {
+            buildTables(yRowStride, yPixelStride, uvRowStride, uvPixelStride,
+                    width, height, rotation, cropX, cropY, cropW, cropH);
+        }
+
+        packer.begin();
+
+        for (int dy = 0; dy < inputSize; dy++) {
+            int ry = rowY[dy];
+            int ruv = rowUv[dy];
+
+            for (int dx = 0; dx < inputSize; dx++) {
+                int cy = colY[dx];
+
+                if (ry < 0 || cy < 0) {
+                    packer.put(dx, PAD_VALUE, PAD_VALUE, PAD_VALUE);
+                    continue;
+                }
+
+                int uvOffset = ruv + colUv[dx];
+                int y = yPlane.get(ry + cy) & 0xFF;
+                int u = (uPlane.get(uvOffset) & 0xFF) - 128;
+                int v = (vPlane.get(uvOffset) & 0xFF) - 128;
+
+                // BT.601 full range, 16.16 fixed point
+                int r = y + ((91881 * v) >> 16);
+                int g = y - ((22554 * u + 46802 * v) >> 16);
+                int b = y + ((116130 * u) >> 16);
+
+                packer.put(dx,
+                        r < 0 ? 0 : (r > 255 ? 255 : r),
+                        g < 0 ? 0 : (g > 255 ? 255 : g),
+                        b < 0 ? 0 : (b > 255 ? 255 : b));
+            }
+            packer.endRow(inputSize);
+        }
+
+        packer.end();
+    }
+
+    // ===== TABLES =====
+
+    private void buildTables(
+            int yRowStride, int yPixelStride, int uvRowStride, int uvPixelStride,
+            int width, int height, int rotation,
+            int cropX, int cropY, int cropW, int cropH
+    ) {
+        // 90/270: output columns walk sensor rows and vice versa
+        boolean swap = rotation == 90 || rotation == 270;
+        boolean flipCol = rotation == 90 || rotation == 180;
+        boolean flipRow = rotation == 180 || rotation == 270;
+
+        int upW = swap ? height : width;
+        int upH = swap ? width : height;
+        letterbox.fitCrop(upW, upH, cropX, cropY, cropW, cropH, inputSize);
+
+        fillTable(colY, colUv, upW, cropX, cropW,
+                letterbox.getScaleX(), (int) letterbox.getPadX(), flipCol,
+                swap ? yRowStride : yPixelStride, swap ? uvRowStride : uvPixelStride);
+        fillTable(rowY, rowUv, upH, cropY, cropH,
+                letterbox.getScaleY(), (int) letterbox.getPadY(), flipRow,
+                swap ? yPixelStride : yRowStride, swap ? uvPixelStride : uvRowStride);
+
+        lastW = width;
+        lastH = height;
+        lastRotation = rotation;
+        lastYRow = yRowStride;
+        lastYPixel = yPixelStride;
+        lastUvRow = uvRowStride;
+        lastUvPixel = uvPixelStride;
+        lastCropX = cropX;
+        lastCropY = cropY;
+        lastCropW = cropW;
+        lastCropH = cropH;
+    }
+
+    /**
+     * Per output column (or row): plane offset contribution, -1 for padding.
+     * Samples the upright span [{@code start}, {@code start + span}) of {@code extent}.
+     */
+    private void fillTable(int[] yTable, int[] uvTable, int extent, int start, int span,
+                           float scale, int pad, boolean flip, int yStride, int uvStride) {
+        int scaled = Math.round(span * scale);
+
+        for (int d = 0; d < inputSize; d++) {
+            if (d < pad || d >= pad + scaled) {
+                yTable[d] = -1;
+                uvTable[d] = -1;
+                continue;
+            }
+
+            int s = start + (int) ((d - pad + 0.5f) / scale);
+            if (s > start + span - 1) s = start + span - 1;
+            if (flip) s = extent - 1 - s;
+
+            yTable[d] = s * yStride;
+            uvTable[d] = (s >> 1) * uvStride;
+        }
+    }
+}
@@ -0,0 +1,64 @@
+package com.example.smartshopping;
+
+import org.junit.Test;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.Assert.*;
+
+public class AsyncLoaderTest {
+
+    @Test
+    public void loadsOnce_forManyCallers() throws Exception {
+        AtomicInteger loads = new AtomicInteger();
+        CountDownLatch release = new CountDownLatch(1);
+        ExecutorService executor = Executors.newSingleThreadExecutor();
+
+        AsyncLoader<Object> loader = new AsyncLoader<>(executor, () -> {
+            loads.incrementAndGet();
+            release.await();
+            return new Object();
+        });
+
+        loader.start();
+        loader.start();
+        assertNull(loader.getIfReady());
+
+        release.countDown();
+        Object a = loader.await();
+        Object b = loader.start().get(1, TimeUnit.SECONDS);
+
+        assertSame(a, b);
+        assertSame(a, loader.getIfReady());
+        assertEquals(1, loads.get());
+        executor.shutdown();
+    }
+
+    @Test
+    public void failure_isRetriedOnNextStart() throws Exception {
+        AtomicInteger attempts = new AtomicInteger();
+        ExecutorService executor = Executors.newSingleThreadExecutor();
+
+        AsyncLoader<String> loader = new AsyncLoader<>(executor, () -> {
+            if (attempts.incrementAndGet() == 1) throw new IllegalStateException("no model");
+            return "ok";
+        });
+
+        try {
+            loader.await();
+            fail("first load should fail");
+        } catch (ExecutionException expected) {
+            assertTrue(expected.getCause() instanceof IllegalStateException);
+        }
+        assertNull(loader.getIfReady());
+
+        assertEquals("ok", loader.await());
+        assertEquals(2, attempts.get());
+        executor.shutdown();
+    }
+}
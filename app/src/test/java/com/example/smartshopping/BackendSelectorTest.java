@@ -0,0 +1,99 @@
+package com.example.smartshopping;
+
+import org.junit.Test;
+
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.Assert.*;
+
+public class BackendSelectorTest {
+
+    private static final BackendOptions GPU = BackendOptions.builder()
+            .accelerator(BackendOptions.Accelerator.GPU)
+            .threads(4)
+            .allowFp16(true)
+            .build();
+
+    @Test
+    public void fallbackChain_stepsDownToBareCpu() {
+        List<BackendOptions> chain = BackendSelector.fallbackChain(GPU);
+
+        assertEquals(3, chain.size());
+        assertEquals(GPU, chain.get(0));
+        assertEquals(BackendOptions.Accelerator.CPU, chain.get(1).getAccelerator());
+        assertTrue(chain.get(1).useXnnpack());
+        assertEquals(4, chain.get(1).getThreads());
+        assertFalse(chain.get(2).useXnnpack());
+    }
+
+    @Test
+    public void fallbackChain_noDuplicatesForPlainCpu() {
+        BackendOptions cpu = BackendOptions.builder().threads(2).xnnpack(false).build();
+        assertEquals(1, BackendSelector.fallbackChain(cpu).size());
+    }
+
+    @Test
+    public void delegateFailure_fallsBackToCpu() {
+        List<String> attempted = new ArrayList<>();
+        BackendSelector selector = new BackendSelector(o -> {
+            attempted.add(o.describe());
+            if (o.getAccelerator() != BackendOptions.Accelerator.CPU) {
+                throw new IllegalArgumentException("delegate init failed");
+            }
+            return FakeBackend.empty(o.describe());
+        });
+
+        InferenceBackend backend = selector.open(GPU);
+
+        assertEquals("CPU x4 xnnpack fp16", backend.getName());
+        assertEquals(2, attempted.size());
+        assertEquals(1, selector.getFailures().size());
+        assertTrue(selector.getFailures().get(0).startsWith("GPU fp16"));
+    }
+
+    @Test
+    public void nativeLinkError_countsAsFailure() {
+        BackendSelector selector = new BackendSelector(o -> {
+            if (o.useXnnpack()) throw new UnsatisfiedLinkError("no xnnpack");
+            return FakeBackend.empty(o.describe());
+        });
+
+        assertEquals("CPU x1",
+                selector.open(BackendOptions.builder().build()).getName());
+    }
+
+    @Test(expected = IllegalStateException.class)
+    public void allFail_throws() {
+        new BackendSelector(o -> {
+            throw new RuntimeException("nope");
+        }).open(GPU);
+    }
+
+    @Test
+    public void fakeBackend_runsLikeAnInterpreter() {
+        float[] canned = new float[]{1f, 2f, 3f};
+        FakeBackend backend = new FakeBackend("cpu", new int[]{1, 2, 2, 3},
+                new int[]{1, 3, 1}, canned, 0);
+
+        ByteBuffer out = ByteBuffer.allocateDirect(12).order(ByteOrder.nativeOrder());
+        backend.run(ByteBuffer.allocateDirect(48), out);
+
+        assertEquals(1, backend.runs);
+        assertEquals(3f, out.asFloatBuffer().get(2), 0f);
+    }
+
+    @Test
+    public void options_equalityAndDescribe() {
+        BackendOptions a = BackendOptions.builder().threads(2).build();
+        BackendOptions b = a.toBuilder().build();
+
+        assertEquals(a, b);
+        assertEquals(a.hashCode(), b.hashCode());
+        assertEquals("CPU x2 xnnpack", a.describe());
+        assertEquals("NNAPI", a.toBuilder()
+                .accelerator(BackendOptions.Accelerator.NNAPI).build().describe());
+    }
+}
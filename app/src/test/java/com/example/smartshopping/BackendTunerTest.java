@@ -0,0 +1,107 @@
+package com.example.smartshopping;
+
+import org.junit.Test;
+
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.Assert.*;
+
+public class BackendTunerTest {
+
+    /** Backend whose per-run latency depends on the options it was built with. */
+    private static InferenceBackend timed(BackendOptions o, long runMicros) {
+        return new FakeBackend(o.describe(), new int[]{1, 8, 8, 3}, new int[]{1, 6, 4},
+                new float[24], runMicros * 1000);
+    }
+
+    @Test
+    public void picksFastestAndSkipsBroken() {
+        BackendOptions gpu = BackendOptions.builder()
+                .accelerator(BackendOptions.Accelerator.GPU).build();
+        BackendOptions cpu1 = BackendOptions.builder().threads(1).build();
+        BackendOptions cpu4 = BackendOptions.builder().threads(4).build();
+
+        BackendTuner tuner = new BackendTuner(o -> {
+            if (o.getAccelerator() == BackendOptions.Accelerator.GPU) {
+                throw new IllegalArgumentException("no GPU");
+            }
+            return timed(o, o.getThreads() == 4 ? 200 : 2000);
+        });
+        tuner.setRuns(1, 3);
+
+        BackendTuner.Result result = tuner.tune(Arrays.asList(gpu, cpu1, cpu4));
+
+        assertEquals(cpu4, result.best);
+        assertEquals(2, result.medianNanos.size());
+        assertEquals(1, result.failures.size());
+        assertTrue(result.medianNanos.get(cpu4) < result.medianNanos.get(cpu1));
+    }
+
+    @Test
+    public void closesEveryBackend() {
+        Map<String, FakeBackend> made = new HashMap<>();
+        BackendTuner tuner = new BackendTuner(o -> {
+            FakeBackend b = FakeBackend.empty(o.describe());
+            made.put(o.describe(), b);
+            return b;
+        });
+        tuner.setRuns(0, 2);
+        tuner.tune(BackendTuner.candidates(2));
+
+        assertFalse(made.isEmpty());
+        for (FakeBackend b : made.values()) {
+            assertTrue(b.closed);
+            assertEquals(2, b.runs);
+        }
+    }
+
+    @Test(expected = IllegalStateException.class)
+    public void nothingOpens_throws() {
+        new BackendTuner(o -> {
+            throw new RuntimeException("broken");
+        }).tune(BackendTuner.candidates(4));
+    }
+
+    @Test
+    public void candidates_coverDelegatesAndThreadCounts() {
+        List<BackendOptions> c = BackendTuner.candidates(8);
+
+        assertEquals(BackendOptions.Accelerator.GPU, c.get(0).getAccelerator());
+        assertEquals(BackendOptions.Accelerator.NNAPI, c.get(1).getAccelerator());
+        // CPU x1, x2, x4, x8
+        assertEquals(6, c.size());
+        assertEquals(4, BackendTuner.candidates(2).size());
+    }
+
+    @Test
+    public void cache_roundTripsOptions() {
+        BackendOptions o = BackendOptions.builder()
+                .accelerator(BackendOptions.Accelerator.NNAPI)
+                .threads(3)
+                .xnnpack(false)
+                .allowFp16(true)
+                .build();
+
+        assertEquals(o, BackendOptions.decode(o.encode()));
+        assertNull(BackendOptions.decode(null));
+        assertNull(BackendOptions.decode("TPU;1;1;1"));
+        assertNull(BackendOptions.decode("garbage"));
+    }
+
+    @Test
+    public void cacheKey_changesWithBuildAndModel() {
+        String fingerprint = "acme/a1:14/UP1A/1:user";
+        String digest = "9f86d081884c7d659a2feaa0c55ad015a3bf4f1b2b0b822cd15d6c15b0f00a08";
+        String key = BackendTuner.cacheKey("Acme", "A1", fingerprint, digest);
+
+        assertEquals(key, BackendTuner.cacheKey("Acme", "A1", fingerprint, digest));
+        assertFalse(key.equals(BackendTuner.cacheKey("Acme", "A2", fingerprint, digest)));
+        assertFalse(key.equals(BackendTuner.cacheKey("Acme", "A1", "acme/a1:14/UP1A/2:user", digest)));
+        // a retrained model of the same size and app version still re-tunes
+        assertFalse(key.equals(BackendTuner.cacheKey("Acme", "A1", fingerprint,
+                "60303ae22b998861bce3b28f33eec1be758a213c86c93c076dbe9f558c11c752")));
+    }
+}
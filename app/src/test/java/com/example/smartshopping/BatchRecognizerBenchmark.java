@@ -0,0 +1,116 @@
+package com.example.smartshopping;
+
+import org.junit.Test;
+
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Locale;
+
+import static org.junit.Assert.*;
+
+/**
+ * Images/second over recorded 5376-anchor output tensors: one image at a
+ * time, batch-4 tensors, and four pipelined backends. Each run costs a
+ * fixed 8 ms plus 4 ms per image, roughly what the GPU delegate shows:
+ * batching amortises the fixed part, pipelining overlaps everything.
+ *
+ * Wall-clock throughput is printed only. The assertions use the time
+ * the backends model per run, which is exact, so they hold on a busy
+ * host too.
+ */
+public class BatchRecognizerBenchmark {
+
+    private static final int SIZE = 512;
+    private static final int CLASSES = 15;
+    private static final int IMAGES = 64;
+    private static final long OVERHEAD_NANOS = 8_000_000;
+    private static final long PER_IMAGE_NANOS = 4_000_000;
+
+    private static final float[][] RECORDED = ReplayBackend.record(8, CLASSES, 5376);
+
+    /** One configuration's run: calls made and modelled accelerator time. */
+    private static final class Outcome {
+        int runs;
+        long totalBusyNanos;
+        /** Busiest backend's modelled time: the run's length with backends in parallel. */
+        long spanNanos;
+    }
+
+    private static Outcome run(String name, boolean batchable, int batch, int workers)
+            throws Exception {
+        List<ReplayBackend> backends = Collections.synchronizedList(new ArrayList<>());
+        BatchRecognizer r = BatchRecognizer.open(() -> {
+            ReplayBackend b = new ReplayBackend(RECORDED, SIZE, CLASSES, OVERHEAD_NANOS, PER_IMAGE_NANOS);
+            b.batchable = batchable;
+            backends.add(b);
+            return b;
+        }, CLASSES, batch, workers);
+
+        int[] results = {0};
+        BatchRecognizer.Stats stats = r.run(new BatchRecognizer.Frames() {
+            @Override
+            public int count() {
+                return IMAGES;
+            }
+
+            @Override
+            public void pack(int index, ByteBuffer input, TensorSpec spec, Letterbox letterbox) {
+                ReplayBackend.tag(input, index);
+                letterbox.stretch(1280, 960, SIZE);
+            }
+        }, new BatchRecognizer.Listener() {
+            @Override
+            public void onResult(BatchRecognizer.Result result) {
+                results[0]++;
+            }
+
+            @Override
+            public void onError(int index, Exception e) {
+                fail(index + ": " + e);
+            }
+        });
+        r.close();
+
+        assertEquals(IMAGES, results[0]);
+        Outcome o = new Outcome();
+        for (ReplayBackend b : backends) {
+            o.runs += b.runs.get();
+            o.totalBusyNanos += b.busyNanos.get();
+            o.spanNanos = Math.max(o.spanNanos, b.busyNanos.get());
+        }
+        System.out.println(String.format(Locale.US, "[bench] %-32s %12.1f images/s (%s)",
+                "batch/" + name, stats.imagesPerSecond(), r.describe()));
+        return o;
+    }
+
+    @Test
+    public void throughput_singleBatchedPipelined() throws Exception {
+        Outcome single = run("single", false, 1, 1);
+        Outcome batched = run("batched-4", true, 4, 1);
+        Outcome pipelined = run("pipelined-4", false, 4, 4);
+
+        long perImage = OVERHEAD_NANOS + PER_IMAGE_NANOS;
+        long perBatch = OVERHEAD_NANOS + 4 * PER_IMAGE_NANOS;
+
+        // 12 ms/image alone
+        assertEquals(IMAGES, single.runs);
+        assertEquals(IMAGES * perImage, single.spanNanos);
+
+        // a quarter of the calls, the fixed part paid once per four: 6 ms/image
+        assertEquals(IMAGES / 4, batched.runs);
+        assertEquals(IMAGES / 4 * perBatch, batched.spanNanos);
+        assertEquals(2.0, single.spanNanos / (double) batched.spanNanos, 1e-9);
+
+        // same work as single, spread over the backends
+        assertEquals(IMAGES, pipelined.runs);
+        assertEquals(single.totalBusyNanos, pipelined.totalBusyNanos);
+        assertTrue("one backend did everything", pipelined.spanNanos < pipelined.totalBusyNanos);
+
+        System.out.println(String.format(Locale.US,
+                "[bench] modelled batch speedup x%.2f, pipelined x%.2f",
+                single.spanNanos / (double) batched.spanNanos,
+                single.spanNanos / (double) pipelined.spanNanos));
+    }
+}
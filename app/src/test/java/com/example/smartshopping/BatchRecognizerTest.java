@@ -0,0 +1,196 @@
+package com.example.smartshopping;
+
+import org.junit.Test;
+
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.Assert.*;
+
+public class BatchRecognizerTest {
+
+    private static final int SIZE = 64;
+    private static final int CLASSES = 15;
+    private static final int ANCHORS = 84;      // 64 px at strides 8/16/32
+
+    private static final float[][] RECORDED = ReplayBackend.record(6, CLASSES, ANCHORS);
+
+    private final List<ReplayBackend> opened = new ArrayList<>();
+
+    private BatchRecognizer open(boolean batchable, int batch, int workers) throws Exception {
+        return BatchRecognizer.open(() -> {
+            ReplayBackend b = new ReplayBackend(RECORDED, SIZE, CLASSES, 200_000, 100_000);
+            b.batchable = batchable;
+            opened.add(b);
+            return b;
+        }, CLASSES, batch, workers);
+    }
+
+    /** Frame i plays back recording i; letterbox maps onto a 640x480 still. */
+    private static BatchRecognizer.Frames frames(int count) {
+        return new BatchRecognizer.Frames() {
+            @Override
+            public int count() {
+                return count;
+            }
+
+            @Override
+            public void pack(int index, ByteBuffer input, TensorSpec spec, Letterbox letterbox) {
+                assertEquals(1, spec.dim(0));
+                ReplayBackend.tag(input, index);
+                letterbox.stretch(640, 480, SIZE);
+            }
+        };
+    }
+
+    /** Collects copies of every callback. */
+    private static class Collector implements BatchRecognizer.Listener {
+        final List<Integer> order = new ArrayList<>();
+        final List<float[]> firstBoxes = new ArrayList<>();
+        final List<Integer> errors = new ArrayList<>();
+
+        @Override
+        public void onResult(BatchRecognizer.Result r) {
+            order.add(r.index);
+            firstBoxes.add(r.isEmpty() ? null
+                    : new float[]{r.left[0], r.top[0], r.right[0], r.bottom[0], r.score[0], r.classId[0]});
+        }
+
+        @Override
+        public void onError(int index, Exception e) {
+            errors.add(index);
+        }
+
+        float[] boxOf(int index) {
+            return firstBoxes.get(order.indexOf(index));
+        }
+    }
+
+    /** What the single-image path makes of recording {@code id}. */
+    private static float[] expected(int id) {
+        ReplayBackend b = new ReplayBackend(RECORDED, SIZE, CLASSES, 0, 0);
+        DetectorHead head = new DetectorHead(b, CLASSES);
+        ByteBuffer in = ByteBuffer.allocateDirect(head.getInputSpec().bytes());
+        ReplayBackend.tag(in, id);
+        Letterbox lb = new Letterbox();
+        lb.stretch(640, 480, SIZE);
+
+        head.infer(in);
+        int kept = head.suppress(head.decode(0.4f, lb));
+        if (kept == 0) return null;
+        YoloDecoder d = head.getDecoder();
+        int i = head.getKeep()[0];
+        return new float[]{d.left[i], d.top[i], d.right[i], d.bottom[i], d.score[i], d.classId[i]};
+    }
+
+    private static void assertEveryFrameOnce(Collector c, int count) {
+        assertEquals(count, c.order.size());
+        for (int i = 0; i < count; i++) {
+            assertTrue("frame " + i, c.order.contains(i));
+            assertArrayEquals(expected(i % RECORDED.length), c.boxOf(i), 1e-5f);
+        }
+    }
+
+    // ===== MODES =====
+
+    @Test
+    public void batchableModel_packsFramesIntoOneTensor() throws Exception {
+        BatchRecognizer r = open(true, 4, 3);
+        assertTrue(r.isBatched());
+        assertEquals(1, opened.size());
+
+        Collector c = new Collector();
+        BatchRecognizer.Stats stats = r.run(frames(10), c);   // last batch only half full
+
+        assertEveryFrameOnce(c, 10);
+        assertEquals(3, opened.get(0).runs.get());
+        assertEquals(10, stats.images);
+        assertEquals(0, stats.failed);
+    }
+
+    @Test
+    public void fixedBatchModel_pipelinesAcrossBackends() throws Exception {
+        BatchRecognizer r = open(false, 4, 3);
+        assertFalse(r.isBatched());
+        assertEquals(3, r.getParallelism());
+        assertTrue(opened.get(0).closed);       // the one that refused batch 4
+
+        Collector c = new Collector();
+        r.run(frames(25), c);
+        assertEveryFrameOnce(c, 25);
+
+        int runs = 0;
+        for (ReplayBackend b : opened) runs += b.runs.get();
+        assertEquals(25, runs);
+
+        r.close();
+        for (ReplayBackend b : opened) assertTrue(b.closed);
+    }
+
+    @Test
+    public void backendsThatWontOpen_runWithWhatOpened() throws Exception {
+        int[] calls = {0};
+        BatchRecognizer r = BatchRecognizer.open(() -> {
+            if (++calls[0] > 2) throw new IllegalStateException("no more delegates");
+            return new ReplayBackend(RECORDED, SIZE, CLASSES, 0, 0);
+        }, CLASSES, 1, 4);
+
+        assertEquals(2, r.getParallelism());
+    }
+
+    // ===== STREAMING =====
+
+    @Test
+    public void results_streamBeforeTheRunEnds() throws Exception {
+        BatchRecognizer r = open(false, 1, 2);
+        int[] runsAtFirstResult = {-1};
+        Collector c = new Collector() {
+            @Override
+            public void onResult(BatchRecognizer.Result result) {
+                if (order.isEmpty()) runsAtFirstResult[0] = totalRuns();
+                super.onResult(result);
+            }
+        };
+
+        r.run(frames(40), c);
+
+        // counted in backend calls, not wall time, so a busy host can't fail it
+        assertEquals(40, totalRuns());
+        assertTrue("first result after " + runsAtFirstResult[0] + " runs",
+                runsAtFirstResult[0] >= 1 && runsAtFirstResult[0] < 40 / 2);
+    }
+
+    private int totalRuns() {
+        int runs = 0;
+        for (ReplayBackend b : opened) runs += b.runs.get();
+        return runs;
+    }
+
+    @Test
+    public void packFailure_reported_othersStillRun() throws Exception {
+        BatchRecognizer r = open(true, 4, 1);
+        BatchRecognizer.Frames broken = new BatchRecognizer.Frames() {
+            @Override
+            public int count() {
+                return 8;
+            }
+
+            @Override
+            public void pack(int index, ByteBuffer input, TensorSpec spec, Letterbox letterbox)
+                    throws Exception {
+                if (index == 5) throw new java.io.IOException("corrupt jpeg");
+                frames(8).pack(index, input, spec, letterbox);
+            }
+        };
+
+        Collector c = new Collector();
+        BatchRecognizer.Stats stats = r.run(broken, c);
+
+        assertEquals(7, c.order.size());
+        assertFalse(c.order.contains(5));
+        assertEquals(1, c.errors.size());
+        assertEquals(5, (int) c.errors.get(0));
+        assertEquals(1, stats.failed);
+    }
+}
@@ -0,0 +1,169 @@
+package com.example.smartshopping;
+
+import org.junit.Test;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.Assert.*;
+
+public class CartTest {
+
+    /** Records events as "+2", "~0", "-1". */
+    private static class Events implements Cart.Listener {
+        final List<String> log = new ArrayList<>();
+
+        @Override
+        public void onItemInserted(int position) {
+            log.add("+" + position);
+        }
+
+        @Override
+        public void onItemChanged(int position) {
+            log.add("~" + position);
+        }
+
+        @Override
+        public void onItemRemoved(int position) {
+            log.add("-" + position);
+        }
+    }
+
+    private static Product product(int classId, String price) {
+        return product(classId, Money.parse(price));
+    }
+
+    private static Product product(int classId, Money price) {
+        return new Product(classId, "sku" + classId, "SKU " + classId, "sku " + classId, price);
+    }
+
+    private static Cart cart(Events events) {
+        Cart cart = new Cart();
+        cart.setListener(events);
+        return cart;
+    }
+
+    // ===== EVENTS =====
+
+    @Test
+    public void add_insertsThenMerges() {
+        Events e = new Events();
+        Cart cart = cart(e);
+
+        Product milo = product(5, "12.5");
+        assertEquals(0, cart.add(milo, 1));
+        assertEquals(1, cart.add(product(2, "4.2"), 2));
+        assertEquals(0, cart.add(milo, 3));
+
+        assertEquals(2, cart.size());
+        assertEquals(4, cart.find(5).getQty());
+        assertSame(milo, cart.get(0).getProduct());
+        assertEquals("[+0, +1, ~0]", e.log.toString());
+    }
+
+    @Test
+    public void remove_partialChangesFullRemoves() {
+        Events e = new Events();
+        Cart cart = cart(e);
+        cart.add(product(0, "1"), 2);
+        cart.add(product(1, "1"), 2);
+        cart.add(product(2, "1"), 2);
+        e.log.clear();
+
+        assertTrue(cart.remove(1, 1));
+        assertTrue(cart.remove(1, 1));
+        assertFalse(cart.remove(1, 1));
+
+        assertEquals("[~1, -1]", e.log.toString());
+        assertEquals(1, cart.indexOf(2));       // moved up
+        assertEquals("SKU 2", cart.get(1).getName());
+        assertEquals(-1, cart.indexOf(1));
+        assertFalse(cart.remove(99, 1));
+        assertEquals(-1, cart.indexOf(-1));
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void remove_moreThanHeld_throws() {
+        Cart cart = new Cart();
+        cart.add(product(0, "1"), 2);
+        cart.remove(0, 3);
+    }
+
+    @Test
+    public void clear_removesEveryRow() {
+        Events e = new Events();
+        Cart cart = cart(e);
+        cart.add(product(0, "1"), 1);
+        cart.add(product(1, "2"), 1);
+        e.log.clear();
+
+        cart.clear();
+
+        assertEquals("[-1, -0]", e.log.toString());
+        assertTrue(cart.isEmpty());
+        assertEquals(0, cart.getTotalSen());
+        assertNull(cart.find(0));
+    }
+
+    // ===== TOTALS =====
+
+    @Test
+    public void runningTotal_isExactInSen() {
+        Cart cart = new Cart();
+        for (int i = 0; i < 1000; i++) cart.add(product(i % 37, "0.1"), 1);
+        // float accumulation drifts here: 1000 * 0.1f != 100.00
+        assertEquals(10_000, cart.getTotalSen());
+        assertEquals("100.00", cart.getTotal().toString());
+        assertEquals(1000, cart.getTotalQty());
+    }
+
+    @Test
+    public void randomOps_indexAndTotalMatchRescan() {
+        Random rnd = new Random(42);
+        Cart cart = new Cart();
+        Product[] products = new Product[300];
+        for (int i = 0; i < products.length; i++) products[i] = product(i, Money.ofSen(rnd.nextInt(100_00)));
+
+        for (int step = 0; step < 5000; step++) {
+            int p = rnd.nextInt(products.length);
+            CartItem line = cart.find(p);
+            if (line != null && rnd.nextBoolean()) {
+                cart.remove(p, 1 + rnd.nextInt(line.getQty()));
+            } else {
+                cart.add(products[p], 1 + rnd.nextInt(5));
+            }
+        }
+
+        BigDecimal expected = BigDecimal.ZERO;
+        int qty = 0;
+        for (int i = 0; i < cart.size(); i++) {
+            CartItem c = cart.get(i);
+            assertEquals(i, cart.indexOf(c.getProduct().getClassId()));
+            expected = expected.add(new BigDecimal(c.getPrice().toString())
+                    .multiply(BigDecimal.valueOf(c.getQty())));
+            qty += c.getQty();
+        }
+        assertEquals(expected.movePointRight(2).longValueExact(), cart.getTotalSen());
+        assertEquals(qty, cart.getTotalQty());
+    }
+
+    @Test
+    public void hundredsOfLines_lookupStaysConstant() {
+        Cart cart = new Cart();
+        Product[] products = new Product[500];
+        for (int i = 0; i < 500; i++) products[i] = product(i, "1.99");
+        for (int i = 0; i < 500; i++) cart.add(products[i], 1);
+
+        long start = System.nanoTime();
+        for (int round = 0; round < 200; round++) {
+            for (int i = 0; i < 500; i++) cart.add(products[i], 1);
+        }
+        long nanosPerAdd = (System.nanoTime() - start) / (200 * 500);
+
+        assertEquals(500, cart.size());
+        assertEquals(201 * 500 * 199L, cart.getTotalSen());
+        assertTrue(nanosPerAdd + " ns per add", nanosPerAdd < 20_000);
+    }
+}
@@ -0,0 +1,221 @@
+package com.example.smartshopping;
+
+import org.junit.Test;
+
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.io.StringReader;
+import java.nio.ByteBuffer;
+import java.util.HashMap;
+import java.util.Map;
+
+import static org.junit.Assert.*;
+
+public class CatalogFileTest {
+
+    private static byte[] compile(PriceCatalog prices, String... labels) throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        CatalogCompiler.write(prices, labels, out);
+        return out.toByteArray();
+    }
+
+    private static PriceCatalog json(String text) throws IOException {
+        return PriceCatalog.parse(new StringReader(text));
+    }
+
+    private static CatalogFile open(byte[] bytes) throws IOException {
+        return CatalogFile.wrap(ByteBuffer.wrap(bytes));
+    }
+
+    // ===== ROUND TRIP =====
+
+    @Test
+    public void roundTrip_matchesParsedJson() throws IOException {
+        Map<String, Long> expected = new HashMap<>();
+        PriceCatalog prices = json(PriceCatalogTest.catalogJson(20_000, 7, expected));
+        CatalogFile file = open(compile(prices));
+        file.validate();
+
+        assertEquals(prices.size(), file.size());
+        for (int i = 0; i < prices.size(); i++) {
+            int id = file.idOf(prices.getKey(i));
+            assertEquals(prices.getKey(i), file.getKey(id));
+            assertEquals(prices.getName(i), file.getName(id));
+            assertEquals(prices.getPriceSen(i), file.getPriceSen(id));
+        }
+        assertEquals(CatalogFile.NOT_FOUND, file.idOf("sku_20000"));
+        assertEquals(CatalogFile.NOT_FOUND, file.idOf("sku_"));
+        assertEquals(CatalogFile.NOT_FOUND, file.idOf(""));
+    }
+
+    @Test
+    public void nonAsciiKeys_inStringOrder() throws IOException {
+        PriceCatalog prices = json("{\"éclair\": {\"price\": 3}, \"zz\": {\"price\": 1},"
+                + " \"🍎\": {\"price\": 2}, \"Z\": {\"price\": 4}, \"\": {\"price\": 5}}");
+        CatalogFile file = open(compile(prices));
+        file.validate();
+
+        assertEquals(0, file.idOf(""));
+        assertEquals("Z", file.getKey(1));
+        assertEquals(300, file.getPriceSen(file.idOf("éclair")));
+        assertEquals(200, file.getPriceSen(file.idOf(new StringBuilder("🍎"))));
+        assertEquals(CatalogFile.NOT_FOUND, file.idOf("\ud83c"));
+    }
+
+    @Test
+    public void labels_resolveToKeys() throws IOException {
+        PriceCatalog prices = json("{\"apple\": {\"name\": \"Red Apple\", \"price\": 2.50},"
+                + " \"mineral_water\": {\"price\": 2}, \"Mineral Water\": {\"price\": 3}}");
+        CatalogFile file = open(compile(prices, "mineral water", "apple", "apple", "sardin", "Mineral Water"));
+
+        assertEquals(5, file.getLabelCount());
+        assertEquals("mineral water", file.getLabel(0));
+        assertEquals(file.idOf("mineral_water"), file.productOfLabel(0));
+        assertEquals(file.idOf("apple"), file.productOfLabel(1));
+        assertEquals("Red Apple", file.getName(file.productOfLabel(2)));
+        assertEquals(CatalogFile.NOT_FOUND, file.productOfLabel(3));
+        assertEquals(file.idOf("Mineral Water"), file.productOfLabel(4));     // exact key first
+    }
+
+    @Test
+    public void productKey_matchesPriceFileStyle() {
+        assertEquals("mineral_water", CatalogFile.productKey("mineral water"));
+        assertEquals("mineral_water", CatalogFile.productKey(" Mineral  Water\n"));
+        assertEquals("coca_cola", CatalogFile.productKey("Coca-Cola"));
+        assertEquals("milo", CatalogFile.productKey("milo"));
+    }
+
+    @Test
+    public void empty() throws IOException {
+        CatalogFile file = open(compile(json("{}")));
+        file.validate();
+        assertEquals(0, file.size());
+        assertEquals(CatalogFile.NOT_FOUND, file.idOf("x"));
+    }
+
+    @Test
+    public void mapped_fromFile() throws IOException {
+        PriceCatalog prices = json(PriceCatalogTest.catalogJson(1000, 8, new HashMap<>()));
+        File f = File.createTempFile("catalog", ".bin");
+        f.deleteOnExit();
+        // behind some other bytes, as an asset sits inside the APK
+        try (FileOutputStream out = new FileOutputStream(f)) {
+            out.write(new byte[100]);
+            out.write(compile(prices));
+        }
+
+        try (RandomAccessFile raf = new RandomAccessFile(f, "r")) {
+            CatalogFile file = CatalogFile.map(raf.getChannel(), 100, raf.length() - 100);
+            file.validate();
+            assertEquals(prices.getPriceSen(prices.idOf("sku_999")), file.getPriceSen(file.idOf("sku_999")));
+        }
+    }
+
+    @Test
+    public void shippedAssets_compile() throws IOException {
+        File assets = new File("src/main/assets");
+        if (!new File(assets, "prices_4.json").exists()) return;    // not run from the module
+
+        PriceCatalog prices = PriceCatalog.load(new FileInputStream(new File(assets, "prices_4.json")));
+        String[] labels = CatalogCompiler.readLabels(new FileInputStream(new File(assets, "label_4.txt")));
+        CatalogFile file = open(compile(prices, labels));
+        file.validate();
+
+        assertEquals(prices.size(), file.size());
+        assertEquals(labels.length, file.getLabelCount());
+    }
+
+    // ===== VALIDATION =====
+
+    @Test
+    public void header_rejectsOtherFiles() {
+        byte[] good;
+        try {
+            good = compile(json("{\"a\": {\"price\": 1}}"), "a");
+        } catch (IOException e) {
+            throw new AssertionError(e);
+        }
+
+        byte[][] bad = {
+                new byte[0],
+                new byte[CatalogFile.HEADER_BYTES],
+                patch(good, 7, 2),                      // version
+                patch(good, 11, 2),                     // count
+                patch(good, 31, good[31] + 1),          // length
+                java.util.Arrays.copyOf(good, good.length - 1),
+        };
+        for (byte[] b : bad) {
+            try {
+                open(b);
+                fail();
+            } catch (IOException expected) {
+            }
+        }
+    }
+
+    @Test
+    public void validate_catchesBrokenBody() throws IOException {
+        byte[] good = compile(json("{\"a\": {\"price\": 1}, \"b\": {\"price\": 2}}"), "b");
+        int records = CatalogFile.HEADER_BYTES;
+        int labels = records + 2 * CatalogFile.RECORD_BYTES;
+
+        byte[][] bad = {
+                patch(good, records + 3, 100),                              // key out of bounds
+                swapInts(good, records, records + CatalogFile.RECORD_BYTES), // keys out of order
+                patch(good, labels + 7, 2),                                 // label product
+        };
+        for (byte[] b : bad) {
+            CatalogFile file = open(b);     // header is fine
+            try {
+                file.validate();
+                fail();
+            } catch (IOException expected) {
+            }
+        }
+    }
+
+    private static byte[] patch(byte[] bytes, int at, int value) {
+        byte[] copy = bytes.clone();
+        copy[at] = (byte) value;
+        return copy;
+    }
+
+    private static byte[] swapInts(byte[] bytes, int a, int b) {
+        byte[] copy = bytes.clone();
+        for (int i = 0; i < 4; i++) {
+            copy[a + i] = bytes[b + i];
+            copy[b + i] = bytes[a + i];
+        }
+        return copy;
+    }
+
+    // ===== STARTUP =====
+
+    @Test
+    public void open_doesNotScaleWithSize() throws IOException {
+        byte[] small = compile(json(PriceCatalogTest.catalogJson(10, 9, new HashMap<>())));
+        byte[] large = compile(json(PriceCatalogTest.catalogJson(100_000, 9, new HashMap<>())));
+
+        long smallNs = timeOpen(small);
+        long largeNs = timeOpen(large);
+        assertTrue("10: " + smallNs + " ns, 100k: " + largeNs + " ns", largeNs < smallNs * 10 + 50_000);
+    }
+
+    private static long timeOpen(byte[] bytes) throws IOException {
+        ByteBuffer buffer = ByteBuffer.wrap(bytes);
+        long products = 0;
+        for (int i = 0; i < 20_000; i++) products += CatalogFile.wrap(buffer).size();
+        long best = Long.MAX_VALUE;
+        for (int round = 0; round < 5; round++) {
+            long start = System.nanoTime();
+            for (int i = 0; i < 1000; i++) products += CatalogFile.wrap(buffer).size();
+            best = Math.min(best, (System.nanoTime() - start) / 1000);
+        }
+        assertTrue(products > 0);
+        return best;
+    }
+}
@@ -0,0 +1,204 @@
+package com.example.smartshopping;
+
+import org.junit.Test;
+
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.Assert.*;
+
+public class DetectionBufferTest {
+
+    private static final int CLASSES = 15;
+    private static final int BOXES = 5376;
+    private static final String[] LABELS = new String[CLASSES];
+
+    static {
+        for (int c = 0; c < CLASSES; c++) LABELS[c] = "item" + c;
+    }
+
+    // ===== FIXTURES =====
+
+    /** What parseOutput used to hand out per detection, minus the RectF. */
+    private static final class Legacy {
+        float left, top, right, bottom, score;
+        int classId;
+        String label;
+    }
+
+    private static Letterbox letterbox() {
+        Letterbox lb = new Letterbox();
+        lb.fit(480, 640, 640);
+        return lb;
+    }
+
+    /** The object path: legacy decode, NMS, one Legacy per kept box. */
+    private static List<Legacy> legacyDetect(float[][] t, int max) {
+        float[] l = new float[BOXES], tp = new float[BOXES], r = new float[BOXES],
+                b = new float[BOXES], s = new float[BOXES];
+        int[] c = new int[BOXES];
+        int count = YoloDecoderTest.legacyDecode(new float[][][]{t}, CLASSES, 0.4f, letterbox(),
+                l, tp, r, b, s, c);
+
+        NonMaxSuppression nms = new NonMaxSuppression(BOXES);
+        nms.setMaxDetections(max);
+        int[] keep = new int[max];
+        int kept = nms.run(l, tp, r, b, s, c, count, keep);
+
+        List<Legacy> out = new ArrayList<>();
+        for (int k = 0; k < kept; k++) {
+            int i = keep[k];
+            Legacy d = new Legacy();
+            d.left = l[i];
+            d.top = tp[i];
+            d.right = r[i];
+            d.bottom = b[i];
+            d.score = s[i];
+            d.classId = c[i];
+            d.label = LABELS[c[i]];
+            out.add(d);
+        }
+        return out;
+    }
+
+    private static DetectorHead head(float[] output, boolean transposed) {
+        int[] shape = transposed ? new int[]{1, BOXES, 4 + CLASSES} : new int[]{1, 4 + CLASSES, BOXES};
+        return new DetectorHead(new FakeBackend("fake", new int[]{1, 640, 640, 3}, shape,
+                output, 0), CLASSES);
+    }
+
+    private static void detect(DetectorHead head, DetectionBuffer out) {
+        head.infer(ByteBuffer.allocateDirect(head.getInputSpec().bytes()));
+        head.collect(head.suppress(head.decode(0.4f, letterbox())), out);
+    }
+
+    private static void assertSame(List<Legacy> expected, DetectionBuffer actual) {
+        assertEquals(expected.size(), actual.size());
+        DetectionBuffer.View v = new DetectionBuffer.View();
+        for (int i = 0; i < expected.size(); i++) {
+            Legacy e = expected.get(i);
+            v.moveTo(actual, i);
+            assertEquals(e.classId, v.classId());
+            assertEquals(e.label, v.label());
+            assertEquals(e.score, v.score(), 0f);
+            assertEquals(e.left, v.left(), 1e-3f);
+            assertEquals(e.top, v.top(), 1e-3f);
+            assertEquals(e.right, v.right(), 1e-3f);
+            assertEquals(e.bottom, v.bottom(), 1e-3f);
+        }
+    }
+
+    // ===== EQUIVALENCE =====
+
+    @Test
+    public void matchesObjectPath_channelsFirst() {
+        DetectionBuffer buf = new DetectionBuffer(NonMaxSuppression.DEFAULT_MAX_DETECTIONS, LABELS);
+        for (long seed = 1; seed <= 20; seed++) {
+            float[][] t = YoloDecoderTest.tensor(seed, CLASSES, BOXES);
+            detect(head(YoloDecoderTest.channelsFirst(t), false), buf);
+
+            assertFalse(buf.isEmpty());
+            assertSame(legacyDetect(t, NonMaxSuppression.DEFAULT_MAX_DETECTIONS), buf);
+        }
+    }
+
+    @Test
+    public void matchesObjectPath_transposed() {
+        DetectionBuffer buf = new DetectionBuffer(NonMaxSuppression.DEFAULT_MAX_DETECTIONS, LABELS);
+        float[][] t = YoloDecoderTest.tensor(7, CLASSES, BOXES);
+        detect(head(YoloDecoderTest.transposed(t), true), buf);
+
+        assertSame(legacyDetect(t, NonMaxSuppression.DEFAULT_MAX_DETECTIONS), buf);
+    }
+
+    @Test
+    public void reusedAcrossFrames_holdsOnlyTheLatest() {
+        DetectionBuffer buf = new DetectionBuffer(NonMaxSuppression.DEFAULT_MAX_DETECTIONS, LABELS);
+        float[][] busy = YoloDecoderTest.tensor(3, CLASSES, BOXES);
+        detect(head(YoloDecoderTest.channelsFirst(busy), false), buf);
+        assertTrue(buf.size() > 1);
+
+        detect(head(new float[(4 + CLASSES) * BOXES], false), buf);
+        assertTrue(buf.isEmpty());
+    }
+
+    @Test
+    public void smallBuffer_keepsTheBest() {
+        float[][] t = YoloDecoderTest.tensor(5, CLASSES, BOXES);
+        DetectionBuffer buf = new DetectionBuffer(3, LABELS);
+
+        detect(head(YoloDecoderTest.channelsFirst(t), false), buf);
+
+        assertSame(legacyDetect(t, 3), buf);
+    }
+
+    @Test
+    public void tracker_sameAsArrays() {
+        float[][] t = YoloDecoderTest.tensor(9, CLASSES, BOXES);
+        DetectionBuffer buf = new DetectionBuffer(NonMaxSuppression.DEFAULT_MAX_DETECTIONS, LABELS);
+        detect(head(YoloDecoderTest.channelsFirst(t), false), buf);
+
+        ObjectTracker a = new ObjectTracker(16);
+        ObjectTracker b = new ObjectTracker(16);
+        a.update(buf, 0);
+        b.update(buf.left, buf.top, buf.right, buf.bottom, buf.score, buf.classId, buf.size(), 0);
+
+        assertEquals(b.best().getClassId(), a.best().getClassId());
+        assertEquals(b.best().left(), a.best().left(), 0f);
+        assertEquals(b.best().getScore(), a.best().getScore(), 0f);
+    }
+
+    // ===== BUFFER =====
+
+    @Test
+    public void add_refusesWhenFull() {
+        DetectionBuffer buf = new DetectionBuffer(2, LABELS);
+        assertTrue(buf.add(0, 0, 1, 1, 0.9f, 1));
+        assertTrue(buf.add(0, 0, 1, 1, 0.8f, 2));
+        assertFalse(buf.add(0, 0, 1, 1, 0.7f, 3));
+
+        assertEquals(2, buf.size());
+        assertEquals("item2", buf.label(1));
+    }
+
+    @Test
+    public void copyFrom_truncatesToCapacity() {
+        DetectionBuffer src = new DetectionBuffer(4, LABELS);
+        for (int i = 0; i < 4; i++) src.add(i, i, i + 1, i + 1, 1f - i / 10f, i);
+        DetectionBuffer dst = new DetectionBuffer(3, LABELS);
+
+        dst.copyFrom(src);
+
+        assertEquals(3, dst.size());
+        assertEquals(2f, dst.left[2], 0f);
+        assertEquals(2, dst.classId[2]);
+    }
+
+    @Test
+    public void view_readsThrough() {
+        DetectionBuffer buf = new DetectionBuffer(2, LABELS);
+        buf.add(1, 2, 3, 4, 0.5f, 7);
+        DetectionBuffer.View v = buf.get(0);
+
+        buf.clear();
+        buf.add(5, 6, 7, 8, 0.6f, 8);
+
+        assertEquals(5f, v.left(), 0f);
+        assertEquals("item8", v.label());
+    }
+
+    @Test(expected = IndexOutOfBoundsException.class)
+    public void view_pastSize_throws() {
+        DetectionBuffer buf = new DetectionBuffer(4, LABELS);
+        buf.add(0, 0, 1, 1, 0.9f, 1);
+        buf.get(1);
+    }
+
+    @Test
+    public void noLabels_labelIsNull() {
+        DetectionBuffer buf = new DetectionBuffer(1, null);
+        buf.add(0, 0, 1, 1, 0.9f, 1);
+        assertNull(buf.label(0));
+    }
+}
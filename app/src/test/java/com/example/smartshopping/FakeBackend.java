@@ -0,0 +1,98 @@
+package com.example.smartshopping;
+
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.FloatBuffer;
+
+/**
+ * Stand-in for the TFLite interpreter in JVM tests: copies a canned
+ * output tensor into the caller's buffer, optionally taking a fixed
+ * amount of wall time per run.
+ */
+class FakeBackend implements InferenceBackend {
+
+    final String name;
+    TensorSpec inputSpec;
+    TensorSpec outputSpec;
+    float[] cannedOutput;
+    final long runNanos;
+
+    /** When false, {@link #resizeInput} fails like a fixed-shape graph. */
+    boolean resizable = true;
+
+    int runs = 0;
+    int resizes = 0;
+    boolean closed = false;
+
+    // float view of the caller's output, kept so a run allocates nothing
+    private ByteBuffer viewed;
+    private FloatBuffer view;
+
+    FakeBackend(String name, int[] inputShape, int[] outputShape,
+                float[] cannedOutput, long runNanos) {
+        this.name = name;
+        this.inputSpec = TensorSpec.float32(inputShape);
+        this.outputSpec = TensorSpec.float32(outputShape);
+        this.cannedOutput = cannedOutput;
+        this.runNanos = runNanos;
+    }
+
+    /** 640x640 input, 15-class / 5376-anchor head with no detections. */
+    static FakeBackend empty(String name) {
+        return new FakeBackend(name, new int[]{1, 640, 640, 3}, new int[]{1, 19, 5376},
+                new float[19 * 5376], 0);
+    }
+
+    @Override
+    public String getName() {
+        return name;
+    }
+
+    @Override
+    public TensorSpec getInputSpec() {
+        return inputSpec;
+    }
+
+    @Override
+    public TensorSpec getOutputSpec() {
+        return outputSpec;
+    }
+
+    /** YOLOv8 anchor count for an input: one per cell at strides 8, 16 and 32. */
+    static int anchors(int height, int width) {
+        int n = 0;
+        for (int stride = 8; stride <= 32; stride *= 2) n += (height / stride) * (width / stride);
+        return n;
+    }
+
+    /** Channels-first head re-planned for the new shape, with no detections. */
+    @Override
+    public void resizeInput(int batch, int height, int width) {
+        if (!resizable) throw new IllegalArgumentException("fixed input shape");
+        resizes++;
+        int channels = outputSpec.dim(1);
+        inputSpec = TensorSpec.float32(batch, height, width, 3);
+        outputSpec = TensorSpec.float32(batch, channels, anchors(height, width));
+        cannedOutput = new float[outputSpec.elements()];
+    }
+
+    @Override
+    public void run(ByteBuffer input, ByteBuffer output) {
+        runs++;
+        if (runNanos > 0) {
+            long end = System.nanoTime() + runNanos;
+            while (System.nanoTime() < end) Thread.yield();
+        }
+        if (output != viewed) {
+            viewed = output;
+            view = output.order(ByteOrder.nativeOrder()).asFloatBuffer();
+        }
+        view.clear();
+        view.put(cannedOutput);
+    }
+
+    @Override
+    public void close() {
+        closed = true;
+    }
+}
@@ -0,0 +1,125 @@
+package com.example.smartshopping;
+
+import org.junit.Test;
+
+import java.nio.ByteBuffer;
+
+import static org.junit.Assert.*;
+
+public class FrameGovernorTest {
+
+    private static final long MS = 1_000_000L;
+    private static final long FRAME = 33 * MS;   // 30 fps camera
+    private static final int MILO = 5;
+    private static final int SARDINE = 10;
+
+    /** Frames let through while the camera runs for {@code ms} at 30 fps. */
+    private static int run(FrameGovernor g, long[] clock, long ms, int classId) {
+        int processed = 0;
+        long end = clock[0] + ms * MS;
+        while (clock[0] < end) {
+            g.onFrameDifference(0f, clock[0]);
+            if (g.shouldProcess(clock[0])) {
+                processed++;
+                g.onClass(classId, clock[0]);
+            }
+            clock[0] += FRAME;
+        }
+        return processed;
+    }
+
+    // ===== RATE =====
+
+    @Test
+    public void stableLabel_rampsDownToMinFps() {
+        FrameGovernor g = new FrameGovernor(2f, 15f);
+        long[] clock = {0};
+
+        int first = run(g, clock, 1000, MILO);
+        assertEquals(15, first, 2);
+
+        run(g, clock, 4000, MILO);
+        assertEquals(2f, g.getTargetFps(clock[0]), 1e-3f);
+
+        int settled = run(g, clock, 2000, MILO);
+        assertEquals(4, settled, 1);
+    }
+
+    @Test
+    public void sceneChange_restoresFullRateImmediately() {
+        FrameGovernor g = new FrameGovernor(2f, 15f);
+        long[] clock = {0};
+        run(g, clock, 6000, MILO);
+
+        g.onFrameDifference(0.5f, clock[0]);
+        assertTrue(g.shouldProcess(clock[0]));
+        assertEquals(15f, g.getTargetFps(clock[0]), 1e-3f);
+        assertEquals(1, g.getSceneChanges());
+    }
+
+    @Test
+    public void labelChange_resetsStability() {
+        FrameGovernor g = new FrameGovernor(2f, 15f);
+        long[] clock = {0};
+        run(g, clock, 6000, MILO);
+
+        g.onClass(SARDINE, clock[0]);
+        assertEquals(15f, g.getTargetFps(clock[0]), 1e-3f);
+    }
+
+    @Test
+    public void noLabel_staysAtMaxRate() {
+        FrameGovernor g = new FrameGovernor(2f, 15f);
+        long[] clock = {0};
+        run(g, clock, 6000, FrameGovernor.NO_CLASS);
+        assertEquals(15f, g.getTargetFps(clock[0]), 1e-3f);
+    }
+
+    // ===== CAPS =====
+
+    @Test
+    public void thermalStatus_capsRate() {
+        FrameGovernor g = new FrameGovernor(2f, 16f);
+        g.onThermalStatus(FrameGovernor.THERMAL_LIGHT);
+        assertEquals(12f, g.getTargetFps(0), 1e-3f);
+        g.onThermalStatus(FrameGovernor.THERMAL_MODERATE);
+        assertEquals(8f, g.getTargetFps(0), 1e-3f);
+        g.onThermalStatus(FrameGovernor.THERMAL_SEVERE);
+        assertEquals(2f, g.getTargetFps(0), 1e-3f);
+    }
+
+    @Test
+    public void slowInference_capsDutyCycle() {
+        FrameGovernor g = new FrameGovernor(2f, 30f);
+        g.setMaxDutyCycle(0.5f);
+        for (int i = 0; i < 50; i++) g.onInferenceNanos(100 * MS);
+
+        // 100 ms per frame at 50% duty -> 5 fps
+        assertEquals(5f, g.getTargetFps(0), 0.05f);
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void invertedRange_rejected() {
+        new FrameGovernor(10f, 5f);
+    }
+
+    // ===== DIFFERENCE =====
+
+    @Test
+    public void frameDifference_detectsChangeAndRespectsStride() {
+        int w = 64, h = 48, stride = 80;
+        ByteBuffer y = ByteBuffer.allocateDirect(stride * h);
+        FrameDifference diff = new FrameDifference();
+
+        assertEquals(1f, diff.update(y, stride, 1, w, h), 0f);
+        assertEquals(0f, diff.update(y, stride, 1, w, h), 0f);
+
+        for (int i = 0; i < stride * h; i++) y.put(i, (byte) 255);
+        assertEquals(1f, diff.update(y, stride, 1, w, h), 1e-6f);
+
+        // padding bytes past the row width are never sampled
+        for (int r = 0; r < h; r++)
+            for (int c = w; c < stride; c++) y.put(r * stride + c, (byte) 0);
+        assertEquals(0f, diff.update(y, stride, 1, w, h), 0f);
+    }
+}
@@ -0,0 +1,103 @@
+package com.example.smartshopping;
+
+import org.junit.Test;
+
+import java.util.Arrays;
+import java.util.Random;
+
+import static org.junit.Assert.*;
+
+public class FrameMetricsTest {
+
+    // ===== HISTOGRAM =====
+
+    @Test
+    public void buckets_coverEveryValueOnce() {
+        int last = -1;
+        for (long v = 0; v < 200_000; v++) {
+            int b = LatencyHistogram.bucket(v);
+            assertTrue(b == last || b == last + 1);
+            assertTrue(v <= LatencyHistogram.upperBound(b));
+            if (b > 0) assertTrue(v > LatencyHistogram.upperBound(b - 1));
+            last = b;
+        }
+        assertEquals(LatencyHistogram.BUCKETS - 1, LatencyHistogram.bucket(Long.MAX_VALUE));
+    }
+
+    @Test
+    public void percentiles_withinBucketPrecision() {
+        Random r = new Random(7);
+        long[] values = new long[10_000];
+        LatencyHistogram h = new LatencyHistogram();
+
+        for (int i = 0; i < values.length; i++) {
+            // log-normal-ish: mostly ~20 ms with a long tail
+            values[i] = (long) (20_000 * Math.exp(r.nextGaussian() * 0.6));
+            h.recordMicros(values[i]);
+        }
+        Arrays.sort(values);
+
+        for (double p : new double[]{50, 95, 99}) {
+            long exact = values[(int) Math.ceil(p / 100 * values.length) - 1];
+            long reported = h.percentileMicros(p);
+            assertTrue(p + ": " + reported + " vs " + exact, reported >= exact);
+            assertTrue(p + ": " + reported + " vs " + exact, reported <= exact * 1.0625 + 1);
+        }
+        assertEquals(values[values.length - 1], h.getMaxMicros());
+        assertEquals(values.length, h.getCount());
+    }
+
+    @Test
+    public void emptyAndReset() {
+        LatencyHistogram h = new LatencyHistogram();
+        assertEquals(0, h.percentileMicros(99));
+
+        h.record(5_000_000L);
+        assertEquals(5000, h.percentileMicros(50));
+
+        h.reset();
+        assertEquals(0, h.getCount());
+        assertEquals(0, h.getMaxMicros());
+    }
+
+    // ===== METRICS =====
+
+    @Test
+    public void dump_listsRecordedStagesAndCounters() {
+        FrameMetrics m = new FrameMetrics();
+        m.record(FrameMetrics.Stage.INFER, 30_000_000L);
+        m.record(FrameMetrics.Stage.NMS, 200_000L);
+        m.count(FrameMetrics.Counter.ANALYZED);
+        m.count(FrameMetrics.Counter.SKIPPED_SPEAKING);
+
+        String dump = m.dump();
+        assertTrue(dump, dump.contains("infer"));
+        assertTrue(dump, dump.contains("30.00"));
+        assertTrue(dump, dump.contains("nms"));
+        assertFalse(dump, dump.contains("decode"));
+        assertTrue(dump, dump.contains("skipped_speaking=1"));
+        assertEquals(1, m.get(FrameMetrics.Counter.ANALYZED));
+    }
+
+    @Test
+    public void record_allocatesNothing() {
+        java.lang.management.ThreadMXBean base =
+                java.lang.management.ManagementFactory.getThreadMXBean();
+        if (!(base instanceof com.sun.management.ThreadMXBean)) return;
+        com.sun.management.ThreadMXBean bean = (com.sun.management.ThreadMXBean) base;
+        if (!bean.isThreadAllocatedMemorySupported()) return;
+
+        FrameMetrics m = new FrameMetrics();
+        long id = Thread.currentThread().getId();
+        for (int i = 0; i < 10_000; i++) m.record(FrameMetrics.Stage.INFER, i * 1000L);
+
+        long before = bean.getThreadAllocatedBytes(id);
+        for (int i = 0; i < 10_000; i++) {
+            m.record(FrameMetrics.Stage.INFER, i * 1000L);
+            m.count(FrameMetrics.Counter.PROCESSED);
+        }
+        long allocated = bean.getThreadAllocatedBytes(id) - before;
+
+        assertTrue("allocated " + allocated + " B", allocated < 1024);
+    }
+}
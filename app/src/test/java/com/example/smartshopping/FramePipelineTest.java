@@ -0,0 +1,167 @@
+package com.example.smartshopping;
+
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.Assert.*;
+
+public class FramePipelineTest {
+
+    private static class Frame extends FramePipeline.Item {
+        int payload;
+    }
+
+    private static void sleepMs(long ms) {
+        try {
+            Thread.sleep(ms);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    /** Feeds {@code frames} synthetic frames at a fixed camera interval. */
+    private static void feed(FramePipeline<Frame> p, int frames, long intervalMs) {
+        for (int i = 0; i < frames; i++) {
+            final int n = i;
+            p.submit(f -> f.payload = n);
+            sleepMs(intervalMs);
+        }
+    }
+
+    private static void drain(FramePipeline<Frame> p) {
+        long deadline = System.currentTimeMillis() + 2000;
+        while (p.getCompleted() + p.getDroppedBeforeInfer()
+                + p.getFailed() < p.getSubmitted()
+                && System.currentTimeMillis() < deadline) {
+            sleepMs(5);
+        }
+    }
+
+    // ===== PIPELINE =====
+
+    @Test
+    public void postprocess_seesIncreasingSequences() {
+        List<Long> seen = new ArrayList<>();
+        FramePipeline<Frame> p = new FramePipeline<>(4, Frame::new,
+                f -> sleepMs(8),
+                f -> seen.add(f.getSequence()));
+
+        p.start();
+        feed(p, 60, 2);
+        drain(p);
+        p.stop();
+
+        assertFalse(seen.isEmpty());
+        for (int i = 1; i < seen.size(); i++)
+            assertTrue(seen.get(i) > seen.get(i - 1));
+    }
+
+    @Test
+    public void slowInference_dropsOldFramesInsteadOfQueueing() {
+        AtomicInteger inferred = new AtomicInteger();
+        FramePipeline<Frame> p = new FramePipeline<>(3, Frame::new,
+                f -> {
+                    sleepMs(20);
+                    inferred.incrementAndGet();
+                },
+                f -> { });
+
+        p.start();
+        feed(p, 50, 2);
+        drain(p);
+        p.stop();
+
+        long dropped = p.getDroppedAtSource() + p.getDroppedBeforeInfer();
+        assertTrue("expected drops, got " + p.describe(), dropped > 0);
+        assertEquals(p.getCompleted(), inferred.get());
+        assertTrue(p.getCompleted() < 50);
+        assertEquals(50, p.getSubmitted() + p.getDroppedAtSource());
+    }
+
+    @Test
+    public void stagesOverlap_fasterThanSerial() {
+        final int frames = 20;
+        final long stageMs = 10;
+        FramePipeline<Frame> p = new FramePipeline<>(4, Frame::new,
+                f -> sleepMs(stageMs),
+                f -> sleepMs(stageMs));
+
+        p.start();
+        long t0 = System.nanoTime();
+        // camera paced at one stage time, preprocessing costs one stage too
+        for (int i = 0; i < frames; i++) {
+            p.submit(f -> sleepMs(stageMs));
+        }
+        drain(p);
+        long elapsedMs = (System.nanoTime() - t0) / 1_000_000L;
+        p.stop();
+
+        long serialMs = frames * 3 * stageMs;
+        assertTrue("pipelined " + elapsedMs + " ms vs serial " + serialMs + " ms",
+                elapsedMs < serialMs * 0.75);
+        assertTrue(p.getCompleted() > frames / 2);
+    }
+
+    @Test
+    public void failingStage_recyclesItem() {
+        AtomicInteger calls = new AtomicInteger();
+        FramePipeline<Frame> p = new FramePipeline<>(1, Frame::new,
+                f -> {
+                    if (calls.getAndIncrement() % 2 == 0) throw new IllegalStateException("boom");
+                },
+                f -> { });
+
+        p.start();
+        feed(p, 10, 5);
+        drain(p);
+        p.stop();
+
+        // a single item: it must keep coming back or every later frame drops at source
+        assertTrue(p.getFailed() > 0);
+        assertTrue(p.getCompleted() > 0);
+    }
+
+    @Test
+    public void inferenceOutlivingStop_isNotDeliveredAfterRestart() {
+        CountDownLatch release = new CountDownLatch(1);
+        List<Integer> seen = Collections.synchronizedList(new ArrayList<>());
+        FramePipeline<Frame> p = new FramePipeline<>(3, Frame::new,
+                f -> {
+                    if (f.payload == 0) release.await(5, TimeUnit.SECONDS);
+                },
+                f -> seen.add(f.payload));
+
+        p.start();
+        p.submit(f -> f.payload = 0);
+        sleepMs(20);
+        p.stop();               // gives up waiting on frame 0 after a second
+        p.start();
+        release.countDown();    // frame 0 finishes in the new session
+
+        for (int i = 1; i <= 10; i++) {
+            final int n = i;
+            p.submit(f -> f.payload = n);
+            sleepMs(5);
+        }
+        long deadline = System.currentTimeMillis() + 2000;
+        while (!seen.contains(10) && System.currentTimeMillis() < deadline) sleepMs(5);
+        p.stop();
+
+        assertFalse("stale frame delivered: " + seen, seen.contains(0));
+        assertTrue(seen.contains(10));
+        for (int i = 1; i < seen.size(); i++) assertTrue(seen.get(i) > seen.get(i - 1));
+    }
+
+    @Test
+    public void notRunning_rejectsFrames() {
+        FramePipeline<Frame> p = new FramePipeline<>(2, Frame::new, f -> { }, f -> { });
+        assertFalse(p.submit(f -> { }));
+        assertEquals(0, p.getSubmitted());
+    }
+}
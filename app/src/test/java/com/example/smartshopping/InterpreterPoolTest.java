@@ -0,0 +1,226 @@
+package com.example.smartshopping;
+
+import org.junit.Test;
+
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.locks.LockSupport;
+
+import static org.junit.Assert.*;
+
+public class InterpreterPoolTest {
+
+    private static final int CLASSES = 15;
+
+    /**
+     * Fake interpreter: takes a random 5-25 ms per run and flags any
+     * overlapping call, since a real interpreter is not thread-safe.
+     */
+    private static class GuardedBackend extends FakeBackend {
+        final AtomicInteger busy = new AtomicInteger();
+        final Random rnd;
+        volatile boolean overlapped;
+
+        GuardedBackend(long seed) {
+            super("guarded", new int[]{1, 64, 64, 3}, new int[]{1, 4 + CLASSES, 84},
+                    new float[(4 + CLASSES) * 84], 0);
+            rnd = new Random(seed);
+        }
+
+        @Override
+        public void run(ByteBuffer input, ByteBuffer output) {
+            if (busy.incrementAndGet() > 1) overlapped = true;
+            long ms;
+            synchronized (rnd) {
+                ms = 5 + rnd.nextInt(21);
+            }
+            LockSupport.parkNanos(ms * 1_000_000L);
+            super.run(input, output);
+            busy.decrementAndGet();
+        }
+    }
+
+    private static class Frame extends FramePipeline.Item {
+        final ByteBuffer input = ByteBuffer.allocateDirect(64 * 64 * 3 * 4);
+    }
+
+    private final List<GuardedBackend> backends = new ArrayList<>();
+
+    private InterpreterPool pool(int lanes) throws Exception {
+        InterpreterPool p = new InterpreterPool(() -> {
+            GuardedBackend b = new GuardedBackend(backends.size());
+            backends.add(b);
+            return b;
+        }, CLASSES);
+        assertEquals(lanes, p.grow(lanes));
+        return p;
+    }
+
+    private static void sleepMs(long ms) {
+        try {
+            Thread.sleep(ms);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private static void drain(FramePipeline<?> p) {
+        long deadline = System.currentTimeMillis() + 3000;
+        while (p.getCompleted() + p.getDroppedBeforeInfer() + p.getFailed() < p.getSubmitted()
+                && System.currentTimeMillis() < deadline) {
+            sleepMs(5);
+        }
+    }
+
+    /** Runs {@code frames} camera frames every {@code intervalMs} through {@code workers} lanes. */
+    private FramePipeline<Frame> run(InterpreterPool pool, int workers, int frames,
+                                     long intervalMs, List<Long> postOrder) {
+        FramePipeline<Frame> p = new FramePipeline<>(workers + 3, Frame::new, workers,
+                (worker, f) -> pool.lane(worker).head(64).infer(f.input),
+                f -> postOrder.add(f.getSequence()));
+        p.start();
+        for (int i = 0; i < frames; i++) {
+            p.submit(f -> { });
+            sleepMs(intervalMs);
+        }
+        drain(p);
+        p.stop();
+        return p;
+    }
+
+    // ===== ORDERING =====
+
+    @Test
+    public void outOfOrderCompletions_reachPostInSequence() throws Exception {
+        InterpreterPool pool = pool(4);
+        List<Long> seen = new ArrayList<>();
+
+        // frame 0 holds worker 0 until three later frames have finished
+        CountDownLatch overtaken = new CountDownLatch(3);
+        FramePipeline<Frame> p = new FramePipeline<>(7, Frame::new, 4,
+                (worker, f) -> {
+                    if (f.getSequence() == 0) {
+                        overtaken.await(2, TimeUnit.SECONDS);
+                        sleepMs(20);
+                    }
+                    pool.lane(worker).head(64).infer(f.input);
+                    if (f.getSequence() != 0) overtaken.countDown();
+                },
+                f -> seen.add(f.getSequence()));
+        p.start();
+        for (int i = 0; i < 120; i++) {
+            p.submit(f -> { });
+            sleepMs(4);
+        }
+        drain(p);
+        p.stop();
+
+        assertTrue(p.describe(), p.getReordered() > 0);
+        assertEquals(0L, (long) seen.get(0));
+        for (int i = 1; i < seen.size(); i++) {
+            assertTrue(seen.get(i - 1) + " then " + seen.get(i), seen.get(i) > seen.get(i - 1));
+        }
+        for (GuardedBackend b : backends) assertFalse(b.overlapped);
+    }
+
+    // ===== BACK-PRESSURE =====
+
+    @Test
+    public void overload_dropsInsteadOfQueueing() throws Exception {
+        InterpreterPool pool = pool(2);
+        List<Long> seen = new ArrayList<>();
+
+        // camera every 1 ms, two workers at ~15 ms each
+        FramePipeline<Frame> p = run(pool, 2, 200, 1, seen);
+
+        assertTrue(p.getDroppedAtSource() + p.getDroppedBeforeInfer() > 100);
+        assertEquals(200, p.getSubmitted() + p.getDroppedAtSource());
+        assertEquals(p.getSubmitted(), p.getCompleted() + p.getDroppedBeforeInfer() + p.getFailed());
+        assertEquals(p.getCompleted(), seen.size());
+        for (GuardedBackend b : backends) assertFalse(b.overlapped);
+    }
+
+    @Test
+    public void workers_scaleThroughput() throws Exception {
+        List<Long> one = new ArrayList<>(), four = new ArrayList<>();
+        run(pool(1), 1, 150, 2, one);
+        run(pool(4), 4, 150, 2, four);
+
+        // ~4x in theory; only the direction is checked, wall-clock ratios flake
+        assertTrue(one.size() + " vs " + four.size(), four.size() > one.size());
+    }
+
+    @Test
+    public void pauseAndResume_itemsAllComeBack() throws Exception {
+        InterpreterPool pool = pool(3);
+        List<Long> seen = new ArrayList<>();
+        FramePipeline<Frame> p = new FramePipeline<>(6, Frame::new, 3,
+                (worker, f) -> pool.lane(worker).head(64).infer(f.input),
+                f -> seen.add(f.getSequence()));
+
+        for (int round = 0; round < 3; round++) {
+            p.start();
+            for (int i = 0; i < 30; i++) {
+                p.submit(f -> { });
+                if (i == 15) p.discardPending();
+                sleepMs(2);
+            }
+            p.stop();
+        }
+
+        // all six items are free again: a burst of six submits is accepted
+        p.start();
+        for (int i = 0; i < 6; i++) assertTrue(p.submit(f -> sleepMs(1)));
+        p.stop();
+    }
+
+    // ===== POOL =====
+
+    @Test
+    public void grow_stopsWhenNoMoreInterpreters() throws Exception {
+        int[] opened = {0};
+        InterpreterPool p = new InterpreterPool(() -> {
+            if (++opened[0] > 3) throw new IllegalStateException("out of memory");
+            return new GuardedBackend(0);
+        }, CLASSES);
+
+        assertEquals(3, p.grow(8));
+        assertEquals(3, p.size());
+    }
+
+    @Test
+    public void coarse_allLanesOrNone() throws Exception {
+        InterpreterPool ok = pool(3);
+        assertTrue(ok.enableCoarse(32));
+        for (int i = 0; i < 3; i++) assertEquals(32, ok.lane(i).getCoarse().getInputSize());
+
+        // a later lane gets a coarse head too
+        assertEquals(4, ok.grow(4));
+        assertNotNull(ok.lane(3).getCoarse());
+
+        int[] opened = {0};
+        InterpreterPool fixed = new InterpreterPool(() -> {
+            GuardedBackend b = new GuardedBackend(0);
+            b.resizable = ++opened[0] <= 3;     // both fine heads and one coarse open, the next refuses
+            return b;
+        }, CLASSES);
+        fixed.grow(2);
+        assertFalse(fixed.enableCoarse(32));
+        assertNull(fixed.lane(0).getCoarse());
+        assertEquals(0, fixed.getCoarseSize());
+    }
+
+    @Test
+    public void suggestedWorkers() {
+        assertEquals(2, InterpreterPool.suggestedWorkers(8, 4, false, 4));
+        assertEquals(4, InterpreterPool.suggestedWorkers(8, 2, false, 4));
+        assertEquals(4, InterpreterPool.suggestedWorkers(8, 1, false, 4));
+        assertEquals(1, InterpreterPool.suggestedWorkers(2, 4, false, 4));
+        assertEquals(1, InterpreterPool.suggestedWorkers(8, 2, true, 4));
+    }
+}
@@ -0,0 +1,89 @@
+package com.example.smartshopping;
+
+import org.junit.Test;
+
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.io.StringReader;
+import java.nio.ByteBuffer;
+
+import static org.junit.Assert.*;
+
+public class LabelResolverTest {
+
+    private static final String PRICES = "{"
+            + "\"apple\": {\"name\": \"Red Apple\", \"price\": 2.50},"
+            + "\"mineral_water\": {\"name\": \"Mineral Water 1.5L\", \"price\": 2.00},"
+            + "\"milo\": {\"name\": \"Milo 1kg\", \"price\": 25.90}}";
+
+    private static CatalogFile catalog(String... labels) throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        CatalogCompiler.write(PriceCatalog.parse(new StringReader(PRICES)), labels, out);
+        return CatalogFile.wrap(ByteBuffer.wrap(out.toByteArray()));
+    }
+
+    @Test
+    public void resolvesEveryClass_toItsRecord() throws IOException {
+        String[] labels = {"apple", "mineral water", "milo"};
+        LabelResolver r = LabelResolver.resolve(labels, catalog(labels));
+
+        assertTrue(r.getMismatches().toString(), r.getMismatches().isEmpty());
+        assertEquals(3, r.size());
+
+        Product water = r.get(1);
+        assertEquals(1, water.getClassId());
+        assertEquals("mineral_water", water.getSku());
+        assertEquals("Mineral Water 1.5L", water.getDisplayName());
+        assertEquals("mineral water", water.getSpokenName());
+        assertEquals(200, water.getPrice().getSen());
+        assertEquals("25.90", r.get(2).getPrice().toString());
+    }
+
+    @Test
+    public void unknownLabel_reportedAndUnsellable() throws IOException {
+        String[] labels = {"apple", "sardin"};
+        LabelResolver r = LabelResolver.resolve(labels, catalog(labels));
+
+        assertTrue(r.isSellable(0));
+        assertFalse(r.isSellable(1));
+        assertNull(r.get(1));
+        assertNull(r.get(-1));
+        assertNull(r.get(2));
+        assertEquals(1, r.getMismatches().size());
+        assertTrue(r.getMismatches().get(0), r.getMismatches().get(0).contains("sardin"));
+    }
+
+    @Test
+    public void staleCatalog_reportedAndLookedUpAgain() throws IOException {
+        // catalog compiled for an older label file
+        CatalogFile catalog = catalog("apple", "milo");
+        LabelResolver r = LabelResolver.resolve(new String[]{"milo", "apple", "Mineral Water"}, catalog);
+
+        assertEquals("milo", r.get(0).getSku());
+        assertEquals("apple", r.get(1).getSku());
+        assertEquals("mineral_water", r.get(2).getSku());
+        // class count, then classes 0 and 1
+        assertEquals(r.getMismatches().toString(), 3, r.getMismatches().size());
+    }
+
+    @Test
+    public void shippedAssets_reportTheirMismatches() throws IOException {
+        File assets = new File("src/main/assets");
+        if (!new File(assets, "prices_4.json").exists()) return;    // not run from the module
+
+        String[] labels = CatalogCompiler.readLabels(
+                new FileInputStream(new File(assets, "label_4.txt")));
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        CatalogCompiler.write(PriceCatalog.load(
+                new FileInputStream(new File(assets, "prices_4.json"))), labels, out);
+        LabelResolver r = LabelResolver.resolve(labels,
+                CatalogFile.wrap(ByteBuffer.wrap(out.toByteArray())));
+
+        for (int i = 0; i < labels.length; i++) {
+            if (labels[i].equals("mineral water")) assertEquals("mineral_water", r.get(i).getSku());
+            if (!r.isSellable(i)) assertTrue(r.getMismatches().toString().contains(labels[i]));
+        }
+    }
+}
@@ -0,0 +1,32 @@
+package com.example.smartshopping;
+
+import java.util.Locale;
+
+/**
+ * Minimal warm-up-then-measure harness for the JVM benchmark tests.
+ * Not JMH, but enough to compare two implementations on the same data.
+ */
+final class Microbench {
+
+    interface Body {
+        void run();
+    }
+
+    /** Keeps results alive so the JIT can't drop the work. */
+    static volatile long sink;
+
+    private Microbench() {}
+
+    /** @return mean nanoseconds per call of {@code body} */
+    static double measure(String name, int warmup, int iterations, Body body) {
+        for (int i = 0; i < warmup; i++) body.run();
+
+        long start = System.nanoTime();
+        for (int i = 0; i < iterations; i++) body.run();
+        double nsPerOp = (System.nanoTime() - start) / (double) iterations;
+
+        System.out.println(String.format(Locale.US,
+                "[bench] %-32s %12.1f ns/op", name, nsPerOp));
+        return nsPerOp;
+    }
+}
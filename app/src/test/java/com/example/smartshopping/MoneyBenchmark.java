@@ -0,0 +1,52 @@
+package com.example.smartshopping;
+
+import org.junit.Test;
+
+import java.lang.management.ManagementFactory;
+import java.util.Locale;
+
+import static org.junit.Assert.*;
+
+/**
+ * A cart row's price text: String.format, as the adapter used to, against
+ * Money.formatRinggit into the view holder's char buffer. Timings are
+ * printed only; the assertion is on allocation, which is exact.
+ */
+public class MoneyBenchmark {
+
+    private static final int ROWS = 500;
+
+    private static long allocatedBytes() {
+        com.sun.management.ThreadMXBean bean =
+                (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+        return bean.getThreadAllocatedBytes(Thread.currentThread().getId());
+    }
+
+    @Test
+    public void bindPath_formatting() {
+        long[] totals = new long[ROWS];
+        for (int i = 0; i < ROWS; i++) totals[i] = 99 + i * 1_237L;
+        char[] buf = new char[Money.RINGGIT_CHARS];
+
+        double formatter = Microbench.measure("money/String.format x" + ROWS, 20, 200, () -> {
+            for (long sen : totals) {
+                Microbench.sink += ("RM " + String.format(Locale.US, "%.2f", sen / 100.0)).length();
+            }
+        });
+        double buffer = Microbench.measure("money/formatRinggit x" + ROWS, 200, 2000, () -> {
+            for (long sen : totals) Microbench.sink += Money.formatRinggit(sen, buf);
+        });
+
+        long before = allocatedBytes();
+        for (int round = 0; round < 100; round++) {
+            for (long sen : totals) Microbench.sink += Money.formatRinggit(sen, buf);
+        }
+        long perRow = (allocatedBytes() - before) / (100 * ROWS);
+        System.out.println(String.format(Locale.US, "[bench] %-32s %12d B/row",
+                "money/formatRinggit alloc", perRow));
+
+        System.out.println(String.format(Locale.US, "[bench] formatRinggit speedup x%.1f",
+                formatter / buffer));
+        assertEquals(0, perRow);
+    }
+}
@@ -0,0 +1,145 @@
+package com.example.smartshopping;
+
+import org.junit.Test;
+
+import java.math.BigDecimal;
+import java.util.Random;
+
+import static org.junit.Assert.*;
+
+/** Property checks over random amounts, against BigDecimal as the reference. */
+public class MoneyTest {
+
+    private static final int CASES = 20_000;
+
+    private static BigDecimal exact(long sen) {
+        return BigDecimal.valueOf(sen, 2);
+    }
+
+    private static String formatted(long sen) {
+        char[] buf = new char[Money.MAX_CHARS + 4];
+        int n = Money.format(sen, buf, 4);
+        return new String(buf, 4, n);
+    }
+
+    /** Mostly shelf prices, sometimes anything a long can hold. */
+    private static long randomSen(Random rnd) {
+        switch (rnd.nextInt(4)) {
+            case 0:
+                return rnd.nextLong();
+            case 1:
+                return -rnd.nextInt(10_000);
+            default:
+                return rnd.nextInt(1_000_000);
+        }
+    }
+
+    // ===== FORMAT / PARSE =====
+
+    @Test
+    public void format_matchesBigDecimal() {
+        Random rnd = new Random(1);
+        for (int i = 0; i < CASES; i++) {
+            long sen = randomSen(rnd);
+            String expected = exact(sen).toPlainString();
+            assertEquals(expected, formatted(sen));
+            assertEquals(expected, Money.append(sen, new StringBuilder()).toString());
+            assertEquals(expected.length(), Money.length(sen));
+        }
+    }
+
+    @Test
+    public void format_edges() {
+        assertEquals("0.00", formatted(0));
+        assertEquals("0.05", formatted(5));
+        assertEquals("-0.05", formatted(-5));
+        assertEquals("1.00", formatted(100));
+        assertEquals("-92233720368547758.08", formatted(Long.MIN_VALUE));
+        assertEquals("92233720368547758.07", formatted(Long.MAX_VALUE));
+        assertEquals(Money.MAX_CHARS, Money.length(Long.MIN_VALUE));
+
+        char[] buf = new char[Money.RINGGIT_CHARS];
+        assertEquals("RM 12.50", new String(buf, 0, Money.formatRinggit(1250, buf)));
+    }
+
+    @Test
+    public void parse_roundTripsFormat() {
+        Random rnd = new Random(2);
+        for (int i = 0; i < CASES; i++) {
+            long sen = randomSen(rnd);
+            if (sen == Long.MIN_VALUE) continue;     // its magnitude has no positive long
+            assertEquals(sen, Money.parseSen(formatted(sen)));
+        }
+    }
+
+    @Test
+    public void parse_acceptsPriceFileForms() {
+        assertEquals(250, Money.parseSen("2.50"));
+        assertEquals(250, Money.parseSen("2.5"));
+        assertEquals(200, Money.parseSen("2"));
+        assertEquals(200, Money.parseSen("2."));
+        assertEquals(50, Money.parseSen(".5"));
+        assertEquals(-698, Money.parseSen("-6.98"));
+        assertEquals(110, Money.parseSen("1.1"));   // 1.1f * 100 is 110.00000238...
+    }
+
+    @Test
+    public void parse_rejectsNonAmounts() {
+        String[] bad = {"", "-", ".", "1.234", "1,50", "RM 2", "1e3", "12a", "99999999999999999999"};
+        for (String s : bad) {
+            try {
+                Money.parseSen(s);
+                fail(s);
+            } catch (NumberFormatException | ArithmeticException expected) {
+                // ok
+            }
+        }
+    }
+
+    // ===== ARITHMETIC =====
+
+    @Test
+    public void sums_areExact() {
+        Random rnd = new Random(3);
+        for (int cart = 0; cart < 200; cart++) {
+            Money total = Money.ZERO;
+            BigDecimal reference = BigDecimal.ZERO;
+            for (int line = 0; line < 300; line++) {
+                long price = rnd.nextInt(100_00);
+                int qty = 1 + rnd.nextInt(20);
+                total = total.plus(Money.ofSen(price).times(qty));
+                reference = reference.add(exact(price).multiply(BigDecimal.valueOf(qty)));
+            }
+            assertEquals(reference, exact(total.getSen()));
+            assertEquals(reference.toPlainString(), total.toString());
+        }
+    }
+
+    @Test
+    public void plusMinus_inverse() {
+        Random rnd = new Random(4);
+        for (int i = 0; i < CASES; i++) {
+            Money a = Money.ofSen(rnd.nextInt()), b = Money.ofSen(rnd.nextInt());
+            assertEquals(a, a.plus(b).minus(b));
+            assertEquals(Long.signum(a.getSen() - b.getSen()), Integer.signum(a.compareTo(b)));
+        }
+    }
+
+    @Test(expected = ArithmeticException.class)
+    public void overflow_throws() {
+        Money.ofSen(Long.MAX_VALUE / 2).times(3);
+    }
+
+    @Test
+    public void floatDrift_isWhatThisAvoids() {
+        float f = 0f;
+        Money m = Money.ZERO;
+        Money tenSen = Money.parse("0.10");
+        for (int i = 0; i < 1000; i++) {
+            f += 0.10f;
+            m = m.plus(tenSen);
+        }
+        assertTrue(f != 100f);
+        assertEquals("100.00", m.toString());
+    }
+}
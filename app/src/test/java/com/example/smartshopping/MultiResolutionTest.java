@@ -0,0 +1,162 @@
+package com.example.smartshopping;
+
+import org.junit.Test;
+
+import java.nio.ByteBuffer;
+
+import static org.junit.Assert.*;
+
+public class MultiResolutionTest {
+
+    private static final int CLASSES = 15;
+
+    private static FakeBackend backend(int size) {
+        int n = FakeBackend.anchors(size, size);
+        return new FakeBackend("fake", new int[]{1, size, size, 3},
+                new int[]{1, 4 + CLASSES, n}, new float[(4 + CLASSES) * n], 0);
+    }
+
+    /** Puts one channels-first candidate at anchor {@code i}. */
+    private static void put(FakeBackend b, int i, float cx, float cy, float w, float h,
+                            int cls, float score) {
+        int n = b.outputSpec.dim(2);
+        b.cannedOutput[i] = cx;
+        b.cannedOutput[n + i] = cy;
+        b.cannedOutput[2 * n + i] = w;
+        b.cannedOutput[3 * n + i] = h;
+        b.cannedOutput[(4 + cls) * n + i] = score;
+    }
+
+    // ===== DIMENSIONS FROM TENSORS =====
+
+    @Test
+    public void head_derivesEverythingFromTheTensors() {
+        DetectorHead at512 = new DetectorHead(backend(512), CLASSES);
+        assertEquals(512, at512.getInputSize());
+        assertEquals(5376, at512.getNumBoxes());
+        assertFalse(at512.getDecoder().isTransposed());
+
+        DetectorHead at640 = new DetectorHead(backend(640), CLASSES);
+        assertEquals(8400, at640.getNumBoxes());
+
+        FakeBackend transposed = new FakeBackend("t", new int[]{1, 416, 416, 3},
+                new int[]{1, 3549, 4 + CLASSES}, new float[3549 * (4 + CLASSES)], 0);
+        DetectorHead t = new DetectorHead(transposed, CLASSES);
+        assertTrue(t.getDecoder().isTransposed());
+        assertEquals(3549, t.getNumBoxes());
+    }
+
+    @Test(expected = IllegalStateException.class)
+    public void head_rejectsLabelCountMismatch() {
+        new DetectorHead(backend(640), CLASSES - 3);
+    }
+
+    @Test
+    public void resizedBackend_getsAHeadSizedForIt() {
+        FakeBackend b = backend(640);
+        b.resizeInput(1, 320, 320);
+        DetectorHead coarse = new DetectorHead(b, CLASSES);
+
+        assertEquals(320, coarse.getInputSize());
+        assertEquals(2100, coarse.getNumBoxes());
+
+        // normalised boxes map back to the same frame pixels at any size
+        put(b, 7, 0.5f, 0.5f, 0.25f, 0.25f, 3, 0.9f);
+        Letterbox lb = new Letterbox();
+        lb.fit(1280, 1280, 320);
+
+        coarse.infer(ByteBuffer.allocateDirect(coarse.getInputSpec().bytes()));
+        int kept = coarse.suppress(coarse.decode(0.4f, lb));
+
+        assertEquals(1, kept);
+        int i = coarse.getKeep()[0];
+        assertEquals(3, coarse.getDecoder().classId[i]);
+        assertEquals(480f, coarse.getDecoder().left[i], 1e-3f);
+        assertEquals(800f, coarse.getDecoder().right[i], 1e-3f);
+    }
+
+    @Test
+    public void topScore_seesBelowTheThreshold() {
+        FakeBackend b = backend(320);
+        put(b, 11, 0.5f, 0.5f, 0.2f, 0.2f, 0, 0.3f);
+        DetectorHead head = new DetectorHead(b, CLASSES);
+        Letterbox lb = new Letterbox();
+        lb.fit(320, 320, 320);
+
+        head.infer(ByteBuffer.allocateDirect(head.getInputSpec().bytes()));
+        assertEquals(0, head.decode(0.4f, lb));
+        assertEquals(0.3f, head.getDecoder().getTopScore(), 1e-6f);
+    }
+
+    // ===== POLICY =====
+
+    @Test
+    public void clearResults_stayCoarse() {
+        ResolutionPolicy p = new ResolutionPolicy(320, 640);
+        for (int k = 0; k < 10; k++) {
+            assertEquals(320, p.next());
+            p.onResult(320, k % 2 == 0 ? 0.05f : 0.85f);   // empty shelf, then an obvious item
+        }
+        assertEquals(0, p.getEscalations());
+    }
+
+    @Test
+    public void ambiguousCoarse_escalatesForAFewKeyframes() {
+        ResolutionPolicy p = new ResolutionPolicy(320, 640);
+        p.setHoldKeyframes(2);
+
+        p.onResult(p.next(), 0.4f);
+        assertEquals(640, p.next());
+        p.onResult(640, 0.8f);
+        assertEquals(640, p.next());
+        p.onResult(640, 0.8f);
+        assertEquals(320, p.next());
+        assertEquals(1, p.getEscalations());
+    }
+
+    @Test
+    public void fineSeesNothing_dropsBackAtOnce() {
+        ResolutionPolicy p = new ResolutionPolicy(320, 640);
+        p.onResult(p.next(), 0.3f);
+        assertEquals(640, p.next());
+        p.onResult(640, 0.1f);
+        assertEquals(320, p.next());
+    }
+
+    @Test
+    public void noCoarsePass_alwaysFine() {
+        ResolutionPolicy p = new ResolutionPolicy(0, 640);
+        p.onResult(p.next(), 0.4f);
+        assertEquals(640, p.next());
+        assertEquals(0, p.getCoarseRuns());
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void invertedBand_rejected() {
+        new ResolutionPolicy(320, 640).setAmbiguousBand(0.6f, 0.25f);
+    }
+
+    /**
+     * Low-end phone, 640 taking 420 ms: a scan session where one coarse
+     * pass in five is unclear. Inference cost scales with pixels, so 320
+     * runs at a quarter of that.
+     */
+    @Test
+    public void lowEndPhone_averageInferenceWellUnderFullResolution() {
+        ResolutionPolicy p = new ResolutionPolicy(320, 640);
+        double fineMs = 420, coarseMs = fineMs / 4;
+        double totalMs = 0;
+        int keyframes = 200, coarse = 0;
+
+        for (int k = 0; k < keyframes; k++) {
+            int size = p.next();
+            totalMs += size == 640 ? fineMs : coarseMs;
+            float top = size == 640 ? 0.8f : (coarse++ % 5 == 0 ? 0.45f : 0.85f);
+            p.onResult(size, top);
+        }
+
+        double meanMs = totalMs / keyframes;
+        assertTrue("mean " + meanMs + " ms", meanMs < 0.6 * fineMs);
+        assertTrue(p.getFineRuns() > 0);
+    }
+}
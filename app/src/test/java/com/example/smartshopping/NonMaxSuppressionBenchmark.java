@@ -0,0 +1,26 @@
+package com.example.smartshopping;
+
+import org.junit.Test;
+
+import static org.junit.Assert.*;
+
+/** Heap-based NMS against the sort-everything reference on a 5376-anchor frame. */
+public class NonMaxSuppressionBenchmark {
+
+    @Test
+    public void heapNms_vsReference() {
+        NonMaxSuppressionTest.Boxes x = NonMaxSuppressionTest.Boxes.random(7, 5376, 15);
+        NonMaxSuppression nms = new NonMaxSuppression(x.n);
+        int[] keep = new int[nms.getMaxDetections()];
+
+        double heap = Microbench.measure("nms/heap-topk", 200, 500, () ->
+                Microbench.sink += nms.run(x.l, x.t, x.r, x.b, x.s, x.c, x.n, keep));
+
+        double ref = Microbench.measure("nms/reference", 5, 20, () ->
+                Microbench.sink += NonMaxSuppressionTest.reference(
+                        x, NonMaxSuppression.DEFAULT_IOU,
+                        NonMaxSuppression.DEFAULT_MAX_DETECTIONS).length);
+
+        assertTrue(heap > 0 && ref > 0);
+    }
+}
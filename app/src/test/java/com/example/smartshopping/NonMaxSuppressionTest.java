@@ -0,0 +1,146 @@
+package com.example.smartshopping;
+
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.Assert.*;
+
+public class NonMaxSuppressionTest {
+
+    // ===== CANDIDATE SET =====
+
+    static final class Boxes {
+        final float[] l, t, r, b, s;
+        final int[] c;
+        final int n;
+
+        Boxes(int n) {
+            this.n = n;
+            l = new float[n];
+            t = new float[n];
+            r = new float[n];
+            b = new float[n];
+            s = new float[n];
+            c = new int[n];
+        }
+
+        void set(int i, float left, float top, float right, float bottom, float score, int cls) {
+            l[i] = left;
+            t[i] = top;
+            r[i] = right;
+            b[i] = bottom;
+            s[i] = score;
+            c[i] = cls;
+        }
+
+        /** Clusters of jittered boxes, like a YOLO head firing on a few objects. */
+        static Boxes random(long seed, int n, int classes) {
+            Random rnd = new Random(seed);
+            Boxes boxes = new Boxes(n);
+            float[][] centres = new float[6][2];
+            for (float[] c : centres) {
+                c[0] = 50 + rnd.nextFloat() * 400;
+                c[1] = 50 + rnd.nextFloat() * 400;
+            }
+            for (int i = 0; i < n; i++) {
+                float[] c = centres[rnd.nextInt(centres.length)];
+                float cx = c[0] + (float) rnd.nextGaussian() * 15;
+                float cy = c[1] + (float) rnd.nextGaussian() * 15;
+                float w = 40 + rnd.nextFloat() * 40;
+                float h = 40 + rnd.nextFloat() * 40;
+                boxes.set(i, cx - w / 2, cy - h / 2, cx + w / 2, cy + h / 2,
+                        0.4f + rnd.nextFloat() * 0.6f, rnd.nextInt(classes));
+            }
+            return boxes;
+        }
+    }
+
+    // ===== REFERENCE: full sort + O(n^2) greedy =====
+
+    static int[] reference(Boxes x, float iou, int max) {
+        List<Integer> order = new ArrayList<>();
+        for (int i = 0; i < x.n; i++) order.add(i);
+        Collections.sort(order, (a, b) -> Float.compare(x.s[b], x.s[a]));
+
+        boolean[] dead = new boolean[x.n];
+        List<Integer> kept = new ArrayList<>();
+        for (int oi = 0; oi < order.size() && kept.size() < max; oi++) {
+            int i = order.get(oi);
+            if (dead[i]) continue;
+            kept.add(i);
+            for (int oj = oi + 1; oj < order.size(); oj++) {
+                int j = order.get(oj);
+                if (x.c[i] == x.c[j]
+                        && NonMaxSuppression.iou(x.l, x.t, x.r, x.b, i, j) > iou) {
+                    dead[j] = true;
+                }
+            }
+        }
+
+        int[] out = new int[kept.size()];
+        for (int i = 0; i < out.length; i++) out[i] = kept.get(i);
+        return out;
+    }
+
+    static int[] run(NonMaxSuppression nms, Boxes x) {
+        int[] keep = new int[nms.getMaxDetections()];
+        int n = nms.run(x.l, x.t, x.r, x.b, x.s, x.c, x.n, keep);
+        return java.util.Arrays.copyOf(keep, n);
+    }
+
+    // ===== TESTS =====
+
+    @Test
+    public void overlappingSameClass_keepsBestOnly() {
+        Boxes x = new Boxes(3);
+        x.set(0, 0, 0, 100, 100, 0.6f, 1);
+        x.set(1, 5, 5, 105, 105, 0.9f, 1);
+        x.set(2, 10, 0, 110, 100, 0.7f, 1);
+
+        assertArrayEquals(new int[]{1}, run(new NonMaxSuppression(3), x));
+    }
+
+    @Test
+    public void overlappingDifferentClass_keepsBoth() {
+        Boxes x = new Boxes(2);
+        x.set(0, 0, 0, 100, 100, 0.6f, 1);
+        x.set(1, 0, 0, 100, 100, 0.9f, 2);
+
+        assertArrayEquals(new int[]{1, 0}, run(new NonMaxSuppression(2), x));
+    }
+
+    @Test
+    public void topK_returnsBestScoresInOrder() {
+        Boxes x = new Boxes(5);
+        for (int i = 0; i < 5; i++) {
+            x.set(i, i * 200, 0, i * 200 + 100, 100, 0.5f + i * 0.1f, 0);
+        }
+
+        NonMaxSuppression nms = new NonMaxSuppression(5);
+        nms.setMaxDetections(3);
+
+        assertArrayEquals(new int[]{4, 3, 2}, run(nms, x));
+    }
+
+    @Test
+    public void empty_returnsNothing() {
+        assertEquals(0, run(new NonMaxSuppression(4), new Boxes(0)).length);
+    }
+
+    @Test
+    public void matchesReference_onRandomClusters() {
+        for (long seed = 1; seed <= 40; seed++) {
+            Boxes x = Boxes.random(seed, 300, 3);
+
+            NonMaxSuppression nms = new NonMaxSuppression(x.n);
+            nms.setIouThreshold(0.5f);
+            nms.setMaxDetections(20);
+
+            assertArrayEquals(reference(x, 0.5f, 20), run(nms, x));
+        }
+    }
+}
@@ -0,0 +1,212 @@
+package com.example.smartshopping;
+
+import org.junit.Test;
+
+import static org.junit.Assert.*;
+
+public class ObjectTrackerTest {
+
+    private static final long MS = 1_000_000L;
+
+    /** One keyframe's worth of detections. */
+    private static class Dets {
+        final float[] l = new float[8], t = new float[8], r = new float[8], b = new float[8];
+        final float[] s = new float[8];
+        final int[] c = new int[8];
+        int n;
+
+        Dets add(float cx, float cy, float size, int cls, float score) {
+            l[n] = cx - size / 2;
+            t[n] = cy - size / 2;
+            r[n] = cx + size / 2;
+            b[n] = cy + size / 2;
+            c[n] = cls;
+            s[n] = score;
+            n++;
+            return this;
+        }
+
+        void feed(ObjectTracker tracker, long nanos) {
+            tracker.update(l, t, r, b, s, c, n, nanos);
+        }
+    }
+
+    // ===== ASSOCIATION =====
+
+    @Test
+    public void movingObject_keepsItsId() {
+        ObjectTracker tracker = new ObjectTracker(8);
+
+        // 40 px boxes moving 12 px per 100 ms keyframe
+        for (int k = 0; k < 20; k++) {
+            new Dets().add(100 + 12 * k, 200, 40, 3, 0.9f).feed(tracker, k * 100 * MS);
+        }
+
+        assertEquals(1, tracker.getTrackCount());
+        assertEquals(1, tracker.best().getId());
+        assertEquals(20, tracker.best().getHits());
+
+        // velocity learnt: prediction lands where the next box will be
+        float[] box = new float[4];
+        tracker.best().predict(20 * 100 * MS, box);
+        assertEquals(100 + 12 * 20 - 20, box[0], 1.5f);
+    }
+
+    @Test
+    public void predict_carriesMatchedBoxesBetweenKeyframes() {
+        ObjectTracker tracker = new ObjectTracker(8);
+        for (int k = 0; k < 5; k++) {
+            new Dets().add(100 + 12 * k, 200, 40, 3, 0.9f)
+                    .add(400, 300, 40, 5, 0.7f)
+                    .feed(tracker, k * 100 * MS);
+        }
+        // the class-5 item is gone on the last keyframe: it coasts, unshown
+        new Dets().add(100 + 12 * 5, 200, 40, 3, 0.9f).feed(tracker, 500 * MS);
+
+        DetectionBuffer out = new DetectionBuffer(4, null);
+        assertEquals(1, tracker.predict(550 * MS, out));
+        assertEquals(3, out.classId[0]);
+        assertEquals(0.9f, out.score[0], 1e-6f);
+        // half a keyframe on at 0.12 px/ms
+        assertEquals(100 + 12 * 5 + 6 - 20, out.left[0], 1.5f);
+
+        // reading ahead leaves the track itself where the keyframe put it
+        assertEquals(100 + 12 * 5 - 20, tracker.best().left(), 1e-3f);
+    }
+
+    @Test
+    public void fastMover_followedThanksToPrediction() {
+        ObjectTracker tracker = new ObjectTracker(8);
+
+        // 0.3 px/ms, first seen on closely spaced keyframes
+        for (int ms = 0; ms <= 40; ms += 20) {
+            new Dets().add(100 + 0.3f * ms, 200, 40, 0, 0.9f).feed(tracker, ms * MS);
+        }
+        // then 30 px per keyframe on a 40 px box: raw IoU of consecutive boxes ~0.14
+        for (int ms = 140; ms <= 1040; ms += 100) {
+            new Dets().add(100 + 0.3f * ms, 200, 40, 0, 0.9f).feed(tracker, ms * MS);
+        }
+
+        assertEquals(1, tracker.getTrackCount());
+        assertEquals(1, tracker.best().getId());
+    }
+
+    @Test
+    public void twoObjects_sameClass_stayApart() {
+        ObjectTracker tracker = new ObjectTracker(8);
+        for (int k = 0; k < 5; k++) {
+            new Dets()
+                    .add(100, 100, 50, 1, 0.8f)
+                    .add(300, 100, 50, 1, 0.9f)
+                    .feed(tracker, k * 100 * MS);
+        }
+        assertEquals(2, tracker.getTrackCount());
+        assertEquals(2, tracker.best().getId());
+    }
+
+    @Test
+    public void classChange_startsNewTrack() {
+        ObjectTracker tracker = new ObjectTracker(8);
+        new Dets().add(100, 100, 50, 1, 0.9f).feed(tracker, 0);
+        new Dets().add(100, 100, 50, 2, 0.9f).feed(tracker, 100 * MS);
+
+        assertEquals(2, tracker.getTrackCount());
+    }
+
+    // ===== COASTING =====
+
+    @Test
+    public void briefMiss_bridged_longMiss_dropped() {
+        ObjectTracker tracker = new ObjectTracker(8);
+        tracker.setMaxMisses(2);
+
+        for (int k = 0; k < 3; k++) new Dets().add(100, 100, 50, 0, 0.9f).feed(tracker, k * 100 * MS);
+        new Dets().feed(tracker, 300 * MS);
+        new Dets().add(100, 100, 50, 0, 0.9f).feed(tracker, 400 * MS);
+
+        assertEquals(1, tracker.best().getId());
+        assertEquals(0, tracker.best().getMisses());
+
+        for (int k = 5; k < 8; k++) new Dets().feed(tracker, k * 100 * MS);
+        assertEquals(0, tracker.getTrackCount());
+        assertNull(tracker.best());
+    }
+
+    @Test
+    public void confidence_growsWithHits_fallsWithMisses() {
+        ObjectTracker tracker = new ObjectTracker(8);
+        new Dets().add(100, 100, 50, 0, 0.9f).feed(tracker, 0);
+        float young = tracker.best().getConfidence(3);
+
+        new Dets().add(100, 100, 50, 0, 0.9f).feed(tracker, 100 * MS);
+        new Dets().add(100, 100, 50, 0, 0.9f).feed(tracker, 200 * MS);
+        float established = tracker.best().getConfidence(3);
+
+        new Dets().feed(tracker, 300 * MS);
+        float coasting = tracker.best().getConfidence(3);
+
+        assertEquals(0.3f, young, 1e-6f);
+        assertEquals(0.9f, established, 1e-6f);
+        assertEquals(0.45f, coasting, 1e-6f);
+    }
+
+    @Test
+    public void longPause_holdsBoxInsteadOfExtrapolating() {
+        ObjectTracker tracker = new ObjectTracker(8);
+        for (int k = 0; k < 5; k++) new Dets().add(100 + 10 * k, 100, 50, 0, 0.9f).feed(tracker, k * 100 * MS);
+
+        // 4.5 s of speech later, the item is where it stopped
+        new Dets().add(140, 100, 50, 0, 0.9f).feed(tracker, 4900 * MS);
+        assertEquals(1, tracker.best().getId());
+    }
+
+    // ===== KEYFRAMES + STABILITY =====
+
+    @Test
+    public void verifyWindow_runsDetectorOnAFractionOfFrames() {
+        ObjectTracker tracker = new ObjectTracker(8);
+        KeyframePolicy policy = new KeyframePolicy(4, 0.5f);
+        StabilityTracker stability = new StabilityTracker(8, 5000);
+        stability.setEarlyAccept(2f, 0);
+
+        int frames = 0, inferences = 0;
+        boolean confirmed = false;
+
+        // 15 fps camera, item held still
+        for (long ms = 0; ms <= 6000 && !confirmed; ms += 66) {
+            frames++;
+            if (policy.isKeyframe()) {
+                inferences++;
+                new Dets().add(320, 240, 120, 5, 0.85f).feed(tracker, ms * MS);
+                ObjectTracker.Track best = tracker.best();
+                policy.onTracked(best.getConfidence(tracker.getConfirmHits()));
+            }
+            ObjectTracker.Track best = tracker.best();
+            confirmed = stability.observe(best.getClassId(), best.getScore(),
+                    best.left(), best.top(), best.right(), best.bottom(), ms)
+                    == StabilityTracker.Event.CONFIRMED;
+        }
+
+        assertTrue(confirmed);
+        assertTrue(inferences + " of " + frames, inferences * 3 < frames);
+    }
+
+    @Test
+    public void dialogReset_dropsTracksAndForcesKeyframe() {
+        ObjectTracker tracker = new ObjectTracker(8);
+        KeyframePolicy policy = new KeyframePolicy(4, 0.5f);
+        for (int k = 0; k < 10; k++) {
+            new Dets().add(320, 240, 120, 5, 0.9f).feed(tracker, k * 100 * MS);
+        }
+        policy.onTracked(tracker.best().getConfidence(tracker.getConfirmHits()));
+        policy.isKeyframe();
+        assertFalse("confident track skips the detector", policy.isKeyframe());
+
+        tracker.clear();
+        policy.reset();
+
+        assertNull(tracker.best());
+        assertEquals(0, tracker.getTrackCount());
+        assertTrue(policy.isKeyframe());
+    }
+}
@@ -0,0 +1,123 @@
+package com.example.smartshopping;
+
+import org.junit.Test;
+
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.junit.Assert.*;
+
+public class OverlayBoxesTest {
+
+    private static final String[] LABELS = {"milo", "maggi", "dettol"};
+
+    private static DetectionBuffer one(float l, float t, float r, float b, int cls) {
+        DetectionBuffer d = new DetectionBuffer(10, LABELS);
+        d.add(l, t, r, b, 0.8f, cls);
+        return d;
+    }
+
+    // ===== CHANGE DETECTION =====
+
+    @Test
+    public void unchangedBoxes_needNoRedraw() {
+        OverlayBoxes boxes = new OverlayBoxes(10, LABELS);
+
+        assertTrue(boxes.publish(one(10, 10, 50, 50, 1), 640, 480));
+        assertFalse(boxes.publish(one(10.5f, 10, 50, 50.5f, 1), 640, 480));   // jitter
+        assertTrue(boxes.publish(one(20, 10, 60, 50, 1), 640, 480));          // moved
+        assertTrue(boxes.publish(one(20, 10, 60, 50, 2), 640, 480));          // other class
+        assertTrue(boxes.publish(one(20, 10, 60, 50, 2), 480, 640));          // rotated frame
+        assertEquals(4, boxes.getPublished());
+    }
+
+    @Test
+    public void emptyAfterEmpty_needsNoRedraw() {
+        OverlayBoxes boxes = new OverlayBoxes(10, LABELS);
+        DetectionBuffer none = new DetectionBuffer(10, LABELS);
+
+        assertTrue(boxes.publish(none, 640, 480));      // first frame always shown
+        assertFalse(boxes.publish(none, 640, 480));
+        assertTrue(boxes.publish(one(0, 0, 1, 1, 0), 640, 480));
+        assertTrue(boxes.publish(none, 640, 480));      // boxes gone: erase them
+    }
+
+    // ===== MAPPING =====
+
+    @Test
+    public void latch_mapsFillCenter() {
+        OverlayBoxes boxes = new OverlayBoxes(10, LABELS);
+        boxes.publish(one(0, 0, 480, 640, 0), 480, 640);
+
+        // 480x640 frame in a 1080x720 view: scale 2.25 to fill width, top and bottom cropped
+        boxes.latch(1080, 720);
+
+        assertEquals(1, boxes.getFront().size());
+        assertEquals(0f, boxes.left[0], 1e-3f);
+        assertEquals(1080f, boxes.right[0], 1e-3f);
+        assertEquals((720 - 640 * 2.25f) / 2, boxes.top[0], 1e-3f);
+        assertEquals(720 - (720 - 640 * 2.25f) / 2, boxes.bottom[0], 1e-3f);
+    }
+
+    @Test
+    public void latch_remapsOnResize_keepsFrameWhenNothingNew() {
+        OverlayBoxes boxes = new OverlayBoxes(10, LABELS);
+        boxes.publish(one(100, 100, 200, 200, 0), 400, 400);
+
+        boxes.latch(400, 400);
+        assertEquals(100f, boxes.left[0], 0f);
+
+        boxes.latch(800, 800);
+        assertEquals(200f, boxes.left[0], 0f);
+        assertEquals("milo", boxes.getFront().label(0));
+    }
+
+    @Test
+    public void latch_takesNewestOnly() {
+        OverlayBoxes boxes = new OverlayBoxes(10, LABELS);
+        for (int i = 0; i < 5; i++) boxes.publish(one(10 * i, 0, 10 * i + 5, 5, 0), 100, 100);
+
+        boxes.latch(100, 100);
+        assertEquals(40f, boxes.left[0], 0f);
+    }
+
+    // ===== THREADS =====
+
+    @Test
+    public void concurrentPublish_neverShowsTornFrame() throws Exception {
+        OverlayBoxes boxes = new OverlayBoxes(10, LABELS);
+        AtomicBoolean done = new AtomicBoolean();
+        AtomicReference<String> torn = new AtomicReference<>();
+
+        // every box of frame n sits at x = n; a mix of n and m means a half-written frame
+        Thread producer = new Thread(() -> {
+            DetectionBuffer d = new DetectionBuffer(10, LABELS);
+            for (int n = 1; n <= 200_000; n++) {
+                d.clear();
+                for (int k = 0; k < 1 + n % 10; k++) d.add(n, k, n + 10, k + 10, 0.5f, k % 3);
+                boxes.publish(d, 1_000_000, 100);
+            }
+            done.set(true);
+        });
+        producer.start();
+
+        float lastSeen = 0;
+        while (!done.get()) {
+            boxes.latch(1_000_000, 100);
+            DetectionBuffer front = boxes.getFront();
+            if (front.isEmpty()) continue;
+            float n = front.left[0];
+            if (front.size() != 1 + (int) n % 10) torn.set("size " + front.size() + " at " + n);
+            for (int k = 0; k < front.size(); k++) {
+                if (front.left[k] != n || boxes.left[k] != n) torn.set("x " + front.left[k] + " at " + n);
+            }
+            assertTrue("went back from " + lastSeen + " to " + n, n >= lastSeen);
+            lastSeen = n;
+        }
+        producer.join();
+        boxes.latch(1_000_000, 100);
+
+        assertNull(torn.get());
+        assertEquals(200_000f, boxes.getFront().left[0], 0f);
+    }
+}
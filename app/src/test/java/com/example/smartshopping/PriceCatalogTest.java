@@ -0,0 +1,124 @@
+package com.example.smartshopping;
+
+import org.junit.Test;
+
+import java.io.IOException;
+import java.io.StringReader;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Random;
+
+import static org.junit.Assert.*;
+
+public class PriceCatalogTest {
+
+    private static PriceCatalog parse(String json) throws IOException {
+        return PriceCatalog.parse(new StringReader(json));
+    }
+
+    /** {@code count} products sku0..skuN with random prices, as the asset is laid out. */
+    static String catalogJson(int count, long seed, Map<String, Long> expected) {
+        Random rnd = new Random(seed);
+        StringBuilder sb = new StringBuilder("{\n");
+        for (int i = 0; i < count; i++) {
+            long sen = rnd.nextInt(100_000);
+            String key = "sku_" + i;
+            expected.put(key, sen);
+            if (i > 0) sb.append(",\n");
+            sb.append("  \"").append(key).append("\": {\n")
+                    .append("    \"name\": \"Product ").append(i).append("\",\n")
+                    .append("    \"price\": ");
+            Money.append(sen, sb).append("\n  }");
+        }
+        return sb.append("\n}\n").toString();
+    }
+
+    // ===== PARSING =====
+
+    @Test
+    public void assetLayout_parses() throws IOException {
+        PriceCatalog c = parse("{\n"
+                + "  \"apple\": {\n    \"name\": \"Red Apple\",\n    \"price\": 2.50\n  },\n"
+                + "  \"mineral_water\": {\n    \"name\": \"Mineral Water 1.5L\",\n    \"price\": 2.00\n  }\n"
+                + "}");
+
+        assertEquals(2, c.size());
+        int id = c.idOf("mineral_water");
+        assertEquals(1, id);
+        assertEquals("Mineral Water 1.5L", c.getName(id));
+        assertEquals(200, c.getPriceSen(id));
+        assertEquals("2.50", c.getPrice(c.idOf("apple")).toString());
+        assertEquals(PriceCatalog.NOT_FOUND, c.idOf("mineral water"));
+    }
+
+    @Test
+    public void unknownFields_nestedValuesAndEscapes() throws IOException {
+        PriceCatalog c = parse("{\"t\\u00e9h \\\"tarik\\\"\": {\"tags\": [\"hot\", {\"a\": [1, 2]}],"
+                + " \"stock\": null, \"halal\": true, \"price\": \"1.8\", \"w\": -1.5e2}}");
+
+        int id = c.idOf("téh \"tarik\"");
+        assertTrue(id >= 0);
+        assertEquals(180, c.getPriceSen(id));
+        assertEquals("téh \"tarik\"", c.getName(id));    // no name: the key
+    }
+
+    @Test
+    public void duplicateKey_lastEntryWinsFirstId() throws IOException {
+        PriceCatalog c = parse("{\"a\": {\"price\": 1}, \"b\": {\"price\": 2}, \"a\": {\"price\": 3}}");
+
+        assertEquals(2, c.size());
+        assertEquals(0, c.idOf("a"));
+        assertEquals(300, c.getPriceSen(0));
+        assertEquals(1, c.idOf("b"));
+    }
+
+    @Test
+    public void empty() throws IOException {
+        PriceCatalog c = parse(" { } ");
+        assertEquals(0, c.size());
+        assertEquals(PriceCatalog.NOT_FOUND, c.idOf("x"));
+    }
+
+    @Test
+    public void malformed_reportsWhere() {
+        String[] bad = {
+                "", "[]", "{\"a\": {\"price\": 1}", "{\"a\": {\"name\": \"x\"}}",
+                "{\"a\": {\"price\": 1.234}}", "{\"a\": {\"price\": 1}} x", "{\"a\" {\"price\": 1}}",
+                "{\"a\": {\"price\": 1,}}", "{\"a\": {\"name\": \"x}}",
+        };
+        for (String json : bad) {
+            try {
+                parse(json);
+                fail(json);
+            } catch (IOException e) {
+                assertTrue(e.getMessage(), e.getMessage().contains(" at char "));
+            }
+        }
+    }
+
+    // ===== LOOKUP =====
+
+    @Test
+    public void largeCatalog_everyKeyFound() throws IOException {
+        Map<String, Long> expected = new HashMap<>();
+        PriceCatalog c = parse(catalogJson(50_000, 1, expected));
+
+        assertEquals(50_000, c.size());
+        for (Map.Entry<String, Long> e : expected.entrySet()) {
+            int id = c.idOf(e.getKey());
+            assertEquals(e.getKey(), c.getKey(id));
+            assertEquals((long) e.getValue(), c.getPriceSen(id));
+        }
+        assertEquals(PriceCatalog.NOT_FOUND, c.idOf("sku_50000"));
+        assertEquals(PriceCatalog.NOT_FOUND, c.idOf(""));
+    }
+
+    @Test
+    public void lookup_byAnyCharSequence() throws IOException {
+        PriceCatalog c = parse(catalogJson(100, 2, new HashMap<>()));
+        StringBuilder key = new StringBuilder("sku_4");
+        key.append('2');
+
+        assertEquals(c.idOf("sku_42"), c.idOf(key));
+    }
+}
@@ -0,0 +1,115 @@
+package com.example.smartshopping;
+
+import org.junit.Test;
+
+import java.nio.ByteBuffer;
+import java.nio.FloatBuffer;
+
+import static org.junit.Assert.*;
+
+/** The uint8/int8 path must agree with the float path it replaces. */
+public class QuantizedParityTest {
+
+    private static final TensorSpec UINT8_IN =
+            new TensorSpec(new int[]{1, 16, 16, 3}, TensorSpec.Type.UINT8, 1 / 255f, 0);
+    private static final TensorSpec INT8_IN =
+            new TensorSpec(new int[]{1, 16, 16, 3}, TensorSpec.Type.INT8, 1 / 255f, -128);
+
+    private static void convert(YuvConverter c, int w, int h) {
+        ByteBuffer y = ByteBuffer.allocateDirect(w * h);
+        ByteBuffer u = ByteBuffer.allocateDirect(w * h / 4);
+        ByteBuffer v = ByteBuffer.allocateDirect(w * h / 4);
+        for (int i = 0; i < w * h; i++) y.put(i, (byte) (i * 7));
+        for (int i = 0; i < w * h / 4; i++) {
+            u.put(i, (byte) (100 + i % 50));
+            v.put(i, (byte) (90 + i % 70));
+        }
+        c.convert(y, w, 1, u, v, w / 2, 1, w, h, 90);
+    }
+
+    // ===== INPUT PACKING =====
+
+    @Test
+    public void uint8Input_matchesFloatInput() {
+        YuvConverter f = new YuvConverter(16);
+        YuvConverter q = new YuvConverter(UINT8_IN);
+        convert(f, 24, 16);
+        convert(q, 24, 16);
+
+        FloatBuffer floats = f.getInput().asFloatBuffer();
+        ByteBuffer bytes = q.getInput();
+        assertEquals(16 * 16 * 3, bytes.capacity());
+
+        for (int i = 0; i < bytes.capacity(); i++) {
+            assertEquals(Math.round(floats.get(i) * 255f), bytes.get(i) & 0xFF);
+        }
+    }
+
+    @Test
+    public void int8Input_isShiftedUint8() {
+        YuvConverter u = new YuvConverter(UINT8_IN);
+        YuvConverter s = new YuvConverter(INT8_IN);
+        convert(u, 24, 16);
+        convert(s, 24, 16);
+
+        for (int i = 0; i < u.getInput().capacity(); i++) {
+            assertEquals((u.getInput().get(i) & 0xFF) - 128, s.getInput().get(i));
+        }
+    }
+
+    // ===== OUTPUT DECODE =====
+
+    private static byte[] quantize(float[] values, TensorSpec spec) {
+        byte[] out = new byte[values.length];
+        for (int i = 0; i < values.length; i++) out[i] = (byte) spec.quantize(values[i]);
+        return out;
+    }
+
+    private static float[] dequantize(byte[] raw, TensorSpec spec) {
+        float[] out = new float[raw.length];
+        for (int i = 0; i < raw.length; i++) out[i] = spec.dequantize(spec.raw(raw[i]));
+        return out;
+    }
+
+    private static void assertParity(TensorSpec spec, boolean transposed) {
+        float[][] t = YoloDecoderTest.tensor(21, 15, 5376);
+        float[] flat = transposed ? YoloDecoderTest.transposed(t) : YoloDecoderTest.channelsFirst(t);
+        byte[] raw = quantize(flat, spec);
+
+        Letterbox lb = new Letterbox();
+        lb.fit(480, 640, 640);
+
+        YoloDecoder q = new YoloDecoder(5376, 15, transposed);
+        YoloDecoder f = new YoloDecoder(5376, 15, transposed);
+        int nq = q.decode(raw, spec, 0.4f, lb);
+        int nf = f.decode(dequantize(raw, spec), 0.4f, lb);
+
+        assertTrue(nq > 0);
+        assertEquals(nf, nq);
+        for (int i = 0; i < nq; i++) {
+            assertEquals(f.classId[i], q.classId[i]);
+            assertEquals(f.score[i], q.score[i], 1e-6f);
+            assertEquals(f.left[i], q.left[i], 1e-3f);
+            assertEquals(f.bottom[i], q.bottom[i], 1e-3f);
+        }
+    }
+
+    @Test
+    public void uint8Head_matchesFloatDecode() {
+        assertParity(new TensorSpec(new int[]{1, 19, 5376}, TensorSpec.Type.UINT8, 1 / 255f, 0), false);
+    }
+
+    @Test
+    public void int8TransposedHead_matchesFloatDecode() {
+        assertParity(new TensorSpec(new int[]{1, 5376, 19}, TensorSpec.Type.INT8, 1 / 255f, -128), true);
+    }
+
+    @Test
+    public void rawThreshold_isTightLowerBound() {
+        TensorSpec spec = new TensorSpec(new int[]{1}, TensorSpec.Type.INT8, 0.0039f, -128);
+        int r = YoloDecoder.rawThreshold(spec, 0.4f);
+
+        assertTrue(spec.dequantize(r) >= 0.4f);
+        assertTrue(spec.dequantize(r - 1) < 0.4f);
+    }
+}
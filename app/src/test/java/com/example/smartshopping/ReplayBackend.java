@@ -0,0 +1,102 @@
+package com.example.smartshopping;
+
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.FloatBuffer;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Batch-aware stand-in for the interpreter that replays recorded output
+ * tensors. Each image's first input float names the recording to play
+ * back, so results can be checked against the frame they came from.
+ * A run parks for {@code overhead + perImage * batch} nanoseconds, the
+ * way the calling thread waits on an accelerator, and adds that modelled
+ * time to {@link #busyNanos}, which unlike the wall clock is exact.
+ */
+class ReplayBackend implements InferenceBackend {
+
+    final float[][] recordings;     // channels-first, one per frame id
+    final int size;
+    final int channels;
+    final int anchors;
+    final long overheadNanos;
+    final long perImageNanos;
+
+    boolean batchable = true;
+    int batch = 1;
+
+    final AtomicInteger runs = new AtomicInteger();
+    final AtomicInteger images = new AtomicInteger();
+    final AtomicLong busyNanos = new AtomicLong();
+    volatile boolean closed;
+
+    ReplayBackend(float[][] recordings, int size, int classes,
+                  long overheadNanos, long perImageNanos) {
+        this.recordings = recordings;
+        this.size = size;
+        this.channels = 4 + classes;
+        this.anchors = recordings[0].length / channels;
+        this.overheadNanos = overheadNanos;
+        this.perImageNanos = perImageNanos;
+    }
+
+    /** {@code count} seeded tensors in the shape of {@link YoloDecoderTest#tensor}. */
+    static float[][] record(int count, int classes, int anchors) {
+        float[][] r = new float[count][];
+        for (int i = 0; i < count; i++) {
+            r[i] = YoloDecoderTest.channelsFirst(YoloDecoderTest.tensor(100 + i, classes, anchors));
+        }
+        return r;
+    }
+
+    /** Frame {@code id}'s input: the id in the first float, the rest left as is. */
+    static void tag(ByteBuffer input, int id) {
+        input.order(ByteOrder.nativeOrder()).putFloat(0, id);
+    }
+
+    @Override
+    public String getName() {
+        return "replay x" + batch;
+    }
+
+    @Override
+    public TensorSpec getInputSpec() {
+        return TensorSpec.float32(batch, size, size, 3);
+    }
+
+    @Override
+    public TensorSpec getOutputSpec() {
+        return TensorSpec.float32(batch, channels, anchors);
+    }
+
+    @Override
+    public void resizeInput(int batch, int height, int width) {
+        if (height != size || width != size) throw new IllegalArgumentException("size fixed");
+        if (batch != 1 && !batchable) throw new IllegalArgumentException("batch fixed at 1");
+        this.batch = batch;
+    }
+
+    @Override
+    public void run(ByteBuffer input, ByteBuffer output) {
+        runs.incrementAndGet();
+        images.addAndGet(batch);
+        long nanos = overheadNanos + perImageNanos * batch;
+        busyNanos.addAndGet(nanos);
+        LockSupport.parkNanos(nanos);
+
+        int imageBytes = size * size * 3 * 4;
+        FloatBuffer out = output.order(ByteOrder.nativeOrder()).asFloatBuffer();
+        ByteBuffer in = input.duplicate().order(ByteOrder.nativeOrder());
+        for (int b = 0; b < batch; b++) {
+            int id = (int) in.getFloat(b * imageBytes);
+            out.put(recordings[id % recordings.length]);
+        }
+    }
+
+    @Override
+    public void close() {
+        closed = true;
+    }
+}
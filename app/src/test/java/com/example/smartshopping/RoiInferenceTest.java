@@ -0,0 +1,184 @@
+package com.example.smartshopping;
+
+import org.junit.Test;
+
+import java.nio.ByteBuffer;
+import java.nio.FloatBuffer;
+
+import static org.junit.Assert.*;
+
+public class RoiInferenceTest {
+
+    private static final int W = 640, H = 480;
+    private static final int INPUT = 128;
+
+    // ===== SYNTHETIC FRAME =====
+
+    /** Grey sensor frame with one bright product-sized square. */
+    private static ByteBuffer lumaWithSquare(int x, int y, int size) {
+        ByteBuffer buf = ByteBuffer.allocateDirect(W * H);
+        for (int r = 0; r < H; r++)
+            for (int c = 0; c < W; c++) {
+                boolean inside = c >= x && c < x + size && r >= y && r < y + size;
+                buf.put(r * W + c, (byte) (inside ? 230 : 40));
+            }
+        return buf;
+    }
+
+    private static ByteBuffer neutralChroma() {
+        ByteBuffer buf = ByteBuffer.allocateDirect(W * H / 4);
+        for (int i = 0; i < W * H / 4; i++) buf.put(i, (byte) 128);
+        return buf;
+    }
+
+    private static void convert(YuvConverter c, ByteBuffer y, int rotation, int[] crop) {
+        ByteBuffer uv = neutralChroma();
+        c.convert(y, W, 1, uv, uv, W / 2, 1, W, H, rotation,
+                crop[0], crop[1], crop[2], crop[3]);
+    }
+
+    // ===== FAKE DETECTOR =====
+
+    /**
+     * Finds the bright square in the model input, the way a real model
+     * would report it: normalised centre/size, mapped back through the
+     * letterbox. @return {l, t, r, b, inputPixelsCovered}
+     */
+    private static float[] detect(YuvConverter c) {
+        FloatBuffer f = c.getInput().asFloatBuffer();
+        int minX = INPUT, minY = INPUT, maxX = -1, maxY = -1, covered = 0;
+
+        for (int y = 0; y < INPUT; y++)
+            for (int x = 0; x < INPUT; x++) {
+                if (f.get((y * INPUT + x) * 3) < 0.6f) continue;
+                minX = Math.min(minX, x);
+                maxX = Math.max(maxX, x);
+                minY = Math.min(minY, y);
+                maxY = Math.max(maxY, y);
+                covered++;
+            }
+        if (maxX < 0) return null;
+
+        Letterbox lb = c.getLetterbox();
+        return new float[]{
+                lb.toFrameX(minX / (float) INPUT), lb.toFrameY(minY / (float) INPUT),
+                lb.toFrameX((maxX + 1) / (float) INPUT), lb.toFrameY((maxY + 1) / (float) INPUT),
+                covered};
+    }
+
+    // ===== MAPPING =====
+
+    @Test
+    public void cropInference_mapsBackToFramePixels_withMoreDetail() {
+        ByteBuffer y = lumaWithSquare(400, 300, 40);
+        YuvConverter c = new YuvConverter(INPUT);
+        RoiController roi = new RoiController();
+        int[] rect = new int[4];
+
+        assertFalse(roi.next(W, H, rect));
+        convert(c, y, 0, rect);
+        float[] full = detect(c);
+        assertNotNull(full);
+        assertFalse(c.getLetterbox().isCropped());
+
+        roi.onResult(full[0], full[1], full[2], full[3]);
+        assertTrue(roi.next(W, H, rect));
+        convert(c, y, 0, rect);
+        float[] crop = detect(c);
+
+        assertTrue(c.getLetterbox().isCropped());
+        assertEquals(W, c.getLetterbox().getFrameWidth());
+
+        // both land on the true box; the crop more tightly
+        float fullTol = W / (float) INPUT + 1;
+        float cropTol = rect[2] / (float) INPUT + 1;
+        assertTrue(cropTol < fullTol);
+        assertBox(400, 300, 440, 340, full, fullTol);
+        assertBox(400, 300, 440, 340, crop, cropTol);
+
+        // and the item fills several times more of the model input
+        assertTrue(crop[4] > 4 * full[4]);
+    }
+
+    @Test
+    public void cropInference_withRotation() {
+        // sensor square at (400, 300) -> upright (rotated 90 cw) at x = H - 340, y = 400
+        ByteBuffer y = lumaWithSquare(400, 300, 40);
+        YuvConverter c = new YuvConverter(INPUT);
+        RoiController roi = new RoiController();
+        int[] rect = new int[4];
+
+        roi.next(H, W, rect);
+        convert(c, y, 90, rect);
+        float[] full = detect(c);
+
+        roi.onResult(full[0], full[1], full[2], full[3]);
+        assertTrue(roi.next(H, W, rect));
+        convert(c, y, 90, rect);
+        float[] crop = detect(c);
+
+        assertBox(H - 340, 400, H - 300, 440, crop, rect[2] / (float) INPUT + 1);
+    }
+
+    private static void assertBox(float l, float t, float r, float b, float[] box, float tol) {
+        assertEquals(l, box[0], tol);
+        assertEquals(t, box[1], tol);
+        assertEquals(r, box[2], tol);
+        assertEquals(b, box[3], tol);
+    }
+
+    // ===== CONTROLLER =====
+
+    @Test
+    public void crop_isSquare_withMargin_andInsideFrame() {
+        RoiController roi = new RoiController();
+        roi.setMargin(0.5f);
+        roi.setCropLimits(0.1f, 0.9f);
+        int[] rect = new int[4];
+
+        roi.onResult(600, 20, 640, 60);        // 40 px box in the top-right corner
+        assertTrue(roi.next(W, H, rect));
+        assertEquals(80, rect[2]);
+        assertEquals(80, rect[3]);
+        assertEquals(W - 80, rect[0]);
+        assertEquals(0, rect[1]);
+    }
+
+    @Test
+    public void crop_neverSmallerThanMinFraction() {
+        RoiController roi = new RoiController();
+        roi.setCropLimits(0.35f, 0.85f);
+        int[] rect = new int[4];
+
+        roi.onResult(300, 200, 310, 210);
+        assertTrue(roi.next(W, H, rect));
+        assertEquals(Math.round(0.35f * H), rect[2]);
+    }
+
+    @Test
+    public void bigItem_usesFullFrame() {
+        RoiController roi = new RoiController();
+        int[] rect = new int[4];
+
+        roi.onResult(100, 50, 500, 430);
+        assertFalse(roi.next(W, H, rect));
+        assertEquals(W, rect[2]);
+        assertEquals(H, rect[3]);
+    }
+
+    @Test
+    public void lostItem_fallsBackToFullFrame() {
+        RoiController roi = new RoiController();
+        roi.setMaxMisses(1);
+        int[] rect = new int[4];
+
+        roi.onResult(300, 200, 340, 240);
+        roi.onMiss();
+        assertTrue(roi.next(W, H, rect));       // one miss is tolerated
+
+        roi.onMiss();
+        assertFalse(roi.next(W, H, rect));
+        assertEquals(1, roi.getFallbacks());
+        assertFalse(roi.hasRoi());
+    }
+}
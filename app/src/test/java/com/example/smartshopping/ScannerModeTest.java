@@ -0,0 +1,93 @@
+package com.example.smartshopping;
+
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.Assert.*;
+
+public class ScannerModeTest {
+
+    /** Hand-cranked clocks: advance() moves wall, CPU and charge together. */
+    private static class FakeProbe implements ScannerMode.Probe {
+        long wall, cpu, charge = 3_000_000;
+
+        void advance(long wallMs, long cpuMs, long drawnUah) {
+            wall += wallMs;
+            cpu += cpuMs;
+            charge -= drawnUah;
+        }
+
+        @Override
+        public long elapsedMillis() {
+            return wall;
+        }
+
+        @Override
+        public long cpuMillis() {
+            return cpu;
+        }
+
+        @Override
+        public long chargeMicroAmpHours() {
+            return charge;
+        }
+    }
+
+    @Test
+    public void followsBlockedState_andNotifiesOnlyOnChange() {
+        ScannerMode mode = new ScannerMode(new FakeProbe());
+        List<ScannerMode.Mode> seen = new ArrayList<>();
+        mode.setListener(seen::add);
+
+        assertTrue(mode.isActive());
+        assertFalse(mode.setBlocked(false));
+        assertTrue(mode.setBlocked(true));
+        assertFalse(mode.setBlocked(true));
+        assertTrue(mode.setBlocked(false));
+
+        assertEquals(2, seen.size());
+        assertEquals(ScannerMode.Mode.PAUSED, seen.get(0));
+        assertEquals(ScannerMode.Mode.ACTIVE, seen.get(1));
+        assertEquals(2, mode.getEntries(ScannerMode.Mode.ACTIVE));
+        assertEquals(1, mode.getEntries(ScannerMode.Mode.PAUSED));
+    }
+
+    @Test
+    public void booksTimeCpuAndChargeAgainstEachMode() {
+        FakeProbe probe = new FakeProbe();
+        ScannerMode mode = new ScannerMode(probe);
+
+        probe.advance(10_000, 6_000, 500);   // scanning
+        mode.setBlocked(true);
+        probe.advance(4_500, 200, 40);       // speaking / waiting for yes
+        mode.setBlocked(false);
+        probe.advance(1_000, 600, 50);       // still scanning, not yet booked
+
+        assertEquals(11_000, mode.getWallMillis(ScannerMode.Mode.ACTIVE));
+        assertEquals(6_600, mode.getCpuMillis(ScannerMode.Mode.ACTIVE));
+        assertEquals(550, mode.getChargeMicroAmpHours(ScannerMode.Mode.ACTIVE));
+
+        assertEquals(4_500, mode.getWallMillis(ScannerMode.Mode.PAUSED));
+        assertEquals(200, mode.getCpuMillis(ScannerMode.Mode.PAUSED));
+        assertEquals(40, mode.getChargeMicroAmpHours(ScannerMode.Mode.PAUSED));
+
+        String d = mode.describe();
+        assertTrue(d, d.contains("paused 4.5 s"));
+        assertTrue(d, d.contains("cpu 4%"));
+    }
+
+    @Test
+    public void missingChargeCounter_readsZero() {
+        FakeProbe probe = new FakeProbe();
+        probe.charge = Long.MIN_VALUE;
+        ScannerMode mode = new ScannerMode(probe);
+
+        probe.wall += 1000;
+        mode.setBlocked(true);
+
+        assertEquals(0, mode.getChargeMicroAmpHours(ScannerMode.Mode.ACTIVE));
+        assertEquals(1000, mode.getWallMillis(ScannerMode.Mode.ACTIVE));
+    }
+}
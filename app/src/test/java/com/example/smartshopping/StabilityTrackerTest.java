@@ -0,0 +1,279 @@
+package com.example.smartshopping;
+
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import static org.junit.Assert.*;
+
+/**
+ * Replays recorded detection sequences through {@link StabilityTracker}.
+ * Each recording line is {@code "<ms> <label> <score>"} for the frame's
+ * best detection or {@code "<ms> -"} for an empty frame.
+ */
+public class StabilityTrackerTest {
+
+    private static final List<String> LABELS = Arrays.asList("milo", "sardine", "mineral_water");
+
+    /** What came out of a replay: first STARTED/CONFIRMED times and labels. */
+    private static class Outcome {
+        long startedMs = -1, confirmedMs = -1;
+        int starts;
+        String confirmed;
+    }
+
+    private static StabilityTracker tracker() {
+        StabilityTracker s = new StabilityTracker(LABELS.size(), 5000);
+        s.setEarlyAccept(2f, 0);   // off unless a test turns it on
+        return s;
+    }
+
+    private static Outcome replay(StabilityTracker s, List<String> recording) {
+        Outcome o = new Outcome();
+        for (String line : recording) {
+            String[] f = line.trim().split("\\s+");
+            long ms = Long.parseLong(f[0]);
+
+            StabilityTracker.Event e = f[1].equals("-")
+                    ? s.observeNothing(ms)
+                    : s.observe(LABELS.indexOf(f[1]), Float.parseFloat(f[2]), 10, 10, 50, 50, ms);
+
+            if (e == StabilityTracker.Event.STARTED) {
+                o.starts++;
+                o.startedMs = ms;
+            } else if (e == StabilityTracker.Event.CONFIRMED && o.confirmedMs < 0) {
+                o.confirmedMs = ms;
+                o.confirmed = LABELS.get(s.getCandidate());
+            }
+        }
+        return o;
+    }
+
+    /** The pre-voting logic: any different label restarts the 5 s clock. */
+    private static long legacyConfirmMs(List<String> recording) {
+        String lastLabel = null;
+        long stableStart = 0;
+        for (String line : recording) {
+            String[] f = line.trim().split("\\s+");
+            if (f[1].equals("-")) continue;
+            long now = Long.parseLong(f[0]);
+
+            if (f[1].equals(lastLabel)) {
+                if (stableStart == 0) stableStart = now;
+                if (now - stableStart >= 5000) return now;
+            } else {
+                lastLabel = f[1];
+                stableStart = 0;
+            }
+        }
+        return -1;
+    }
+
+    // ===== RECORDINGS =====
+
+    /** {@code label} every {@code stepMs} from {@code fromMs} to {@code toMs}. */
+    private static List<String> steady(String label, float score, long fromMs, long toMs, long stepMs) {
+        List<String> r = new ArrayList<>();
+        for (long ms = fromMs; ms <= toMs; ms += stepMs) r.add(ms + " " + label + " " + score);
+        return r;
+    }
+
+    /** Steady milo at ~15 fps with one sardine misdetection every second. */
+    private static List<String> flickering() {
+        List<String> r = new ArrayList<>();
+        for (long ms = 0; ms <= 8000; ms += 66) {
+            boolean flicker = ms % 1000 < 66 && ms > 0;
+            r.add(ms + (flicker ? " sardine 0.55" : " milo 0.8"));
+        }
+        return r;
+    }
+
+    // ===== TESTS =====
+
+    @Test
+    public void steadyItem_confirmsAfterVerifyWindow() {
+        Outcome o = replay(tracker(), steady("milo", 0.8f, 0, 8000, 66));
+
+        assertEquals(66, o.startedMs);
+        assertEquals(1, o.starts);
+        assertEquals("milo", o.confirmed);
+        assertTrue(o.confirmedMs >= 66 + 5000);
+        assertTrue(o.confirmedMs < 66 + 5000 + 66);
+    }
+
+    @Test
+    public void singleFrameFlicker_doesNotRestartTheClock() {
+        List<String> recording = flickering();
+        Outcome o = replay(tracker(), recording);
+
+        assertEquals(1, o.starts);
+        assertEquals("milo", o.confirmed);
+        assertTrue(o.confirmedMs < 5200);
+
+        // the old string comparison restarts on every flicker and never gets there
+        assertEquals(-1, legacyConfirmMs(recording));
+    }
+
+    @Test
+    public void emptyFrames_bridgedWhenBrief() {
+        List<String> r = new ArrayList<>(steady("milo", 0.8f, 0, 2000, 66));
+        r.add("2066 -");
+        r.add("2132 -");
+        r.addAll(steady("milo", 0.8f, 2198, 6000, 66));
+
+        Outcome o = replay(tracker(), r);
+        assertEquals(1, o.starts);
+        assertEquals("milo", o.confirmed);
+    }
+
+    @Test
+    public void itemTakenAway_dropsCandidate() {
+        StabilityTracker s = tracker();
+        List<String> r = new ArrayList<>(steady("milo", 0.8f, 0, 2000, 66));
+        for (long ms = 2066; ms <= 6000; ms += 66) r.add(ms + " -");
+
+        Outcome o = replay(s, r);
+        assertEquals(-1, o.confirmedMs);
+        assertFalse(s.isVerifying());
+        assertEquals(StabilityTracker.NOTHING, s.getCandidate());
+    }
+
+    @Test
+    public void switchedItem_restartsForTheNewOne() {
+        List<String> r = new ArrayList<>(steady("milo", 0.8f, 0, 2000, 66));
+        r.addAll(steady("sardine", 0.8f, 2066, 9000, 66));
+
+        Outcome o = replay(tracker(), r);
+        assertEquals(2, o.starts);
+        assertEquals("sardine", o.confirmed);
+        assertTrue(o.startedMs > 2066);
+        assertTrue(o.confirmedMs >= o.startedMs + 5000);
+    }
+
+    @Test
+    public void earlyAccept_confirmsHighConfidenceSooner() {
+        StabilityTracker s = tracker();
+        s.setEarlyAccept(0.9f, 1500);
+
+        Outcome o = replay(s, steady("mineral_water", 0.95f, 0, 8000, 66));
+        assertEquals("mineral_water", o.confirmed);
+        assertTrue(o.confirmedMs >= 1500);
+        assertTrue(o.confirmedMs < 2000);
+
+        // every third frame reads as sardine: milo leads but never reaches the early share
+        List<String> contested = new ArrayList<>();
+        for (long ms = 0, i = 0; ms <= 8000; ms += 66, i++) {
+            contested.add(ms + (i % 3 == 2 ? " sardine 0.6" : " milo 0.8"));
+        }
+        StabilityTracker c = tracker();
+        c.setEarlyAccept(0.9f, 1500);
+        Outcome co = replay(c, contested);
+        assertEquals("milo", co.confirmed);
+        assertTrue(co.confirmedMs >= 5000);
+    }
+
+    @Test
+    public void hysteresis_holdsBetweenExitAndEnter() {
+        StabilityTracker s = tracker();
+        s.setHalfLifeMs(100000);            // no decay: shares are plain counts
+        s.setThresholds(0.6f, 0.4f);
+        s.setNothingWeight(1f);
+
+        replay(s, Arrays.asList("0 milo 1", "10 milo 1", "20 milo 1"));
+        assertEquals(0, s.getCandidate());
+
+        // milo down to 50%: below enter, above exit, still verifying
+        replay(s, Arrays.asList("30 sardine 1", "40 sardine 1", "50 sardine 1"));
+        assertEquals(0, s.getCandidate());
+        assertEquals(0.5f, s.getConfidence(), 1e-3f);
+
+        // two empty frames: milo 3 of 8 = 37.5% is below exit, sardine too weak to enter
+        replay(s, Arrays.asList("60 -", "70 -"));
+        assertEquals(StabilityTracker.NOTHING, s.getCandidate());
+    }
+
+    @Test
+    public void afterConfirm_quietUntilReset() {
+        StabilityTracker s = tracker();
+        Outcome o = replay(s, steady("milo", 0.8f, 0, 5200, 100));
+        assertEquals("milo", o.confirmed);
+
+        Outcome after = replay(s, steady("sardine", 0.8f, 5300, 12000, 100));
+        assertEquals(0, after.starts);
+        assertEquals(-1, after.confirmedMs);
+
+        s.reset();
+        Outcome fresh = replay(s, steady("sardine", 0.8f, 12100, 18000, 100));
+        assertEquals("sardine", fresh.confirmed);
+    }
+
+    @Test
+    public void trackIdChange_startsFreshWindow() {
+        StabilityTracker s = tracker();
+        int starts = 0;
+        long confirmedMs = -1;
+
+        // one milo held 3 s, swapped for another milo held until 9 s
+        for (long ms = 0; ms <= 9000; ms += 100) {
+            int track = ms < 3000 ? 1 : 2;
+            StabilityTracker.Event e = s.observe(track, 0, 0.8f, 10, 10, 50, 50, ms);
+            if (e == StabilityTracker.Event.STARTED) starts++;
+            if (e == StabilityTracker.Event.CONFIRMED && confirmedMs < 0) confirmedMs = ms;
+        }
+
+        assertEquals(2, starts);
+        assertTrue("confirmed at " + confirmedMs, confirmedMs >= 3000 + 5000);
+    }
+
+    @Test
+    public void oneFrameTrackBlip_doesNotRestartTheClock() {
+        StabilityTracker s = tracker();
+        int starts = 0;
+        long confirmedMs = -1;
+
+        // milo on track 1, a spurious sardine box leading for one frame every 2 s
+        for (long ms = 0; ms <= 8000 && confirmedMs < 0; ms += 100) {
+            boolean blip = ms > 0 && ms % 2000 == 0;
+            StabilityTracker.Event e = blip
+                    ? s.observe(9, 1, 0.9f, 60, 60, 90, 90, ms)
+                    : s.observe(1, 0, 0.8f, 10, 10, 50, 50, ms);
+            if (e == StabilityTracker.Event.STARTED) starts++;
+            if (e == StabilityTracker.Event.CONFIRMED) confirmedMs = ms;
+        }
+
+        assertEquals(1, starts);
+        assertTrue("confirmed at " + confirmedMs, confirmedMs >= 5000 && confirmedMs < 5200);
+    }
+
+    @Test
+    public void sameTrack_throughEmptyFrames_keepsWindow() {
+        StabilityTracker s = tracker();
+        long confirmedMs = -1;
+        for (long ms = 0; ms <= 6000 && confirmedMs < 0; ms += 100) {
+            StabilityTracker.Event e = ms % 1000 == 500
+                    ? s.observeNothing(ms)
+                    : s.observe(7, 0, 0.8f, 10, 10, 50, 50, ms);
+            if (e == StabilityTracker.Event.CONFIRMED) confirmedMs = ms;
+        }
+        assertTrue("confirmed at " + confirmedMs, confirmedMs >= 5000 && confirmedMs < 5500);
+    }
+
+    @Test
+    public void candidateBox_isScoreWeightedMean() {
+        StabilityTracker s = tracker();
+        s.observe(0, 1f, 0, 0, 10, 10, 0);
+        s.observe(0, 3f, 4, 4, 14, 14, 10);
+
+        float[] box = new float[4];
+        assertTrue(s.getCandidateBox(box));
+        assertEquals(3f, box[0], 1e-5f);
+        assertEquals(13f, box[2], 1e-5f);
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void exitAboveEnter_rejected() {
+        tracker().setThresholds(0.4f, 0.6f);
+    }
+}
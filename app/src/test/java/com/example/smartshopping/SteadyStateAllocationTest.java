@@ -0,0 +1,206 @@
+package com.example.smartshopping;
+
+import org.junit.Test;
+
+import java.lang.management.ManagementFactory;
+import java.nio.ByteBuffer;
+
+import static org.junit.Assert.*;
+
+/**
+ * Once warmed up, the per-frame hot path must not allocate. Measured with
+ * HotSpot's per-thread allocation counter.
+ */
+public class SteadyStateAllocationTest {
+
+    private static final int FRAMES = 50;
+    // slack for the counter itself and JIT noise, far below one frame's worth
+    private static final long BUDGET_PER_FRAME = 64;
+
+    private static long allocatedBytes() {
+        com.sun.management.ThreadMXBean bean =
+                (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+        return bean.getThreadAllocatedBytes(Thread.currentThread().getId());
+    }
+
+    private static boolean supported() {
+        java.lang.management.ThreadMXBean bean = ManagementFactory.getThreadMXBean();
+        return bean instanceof com.sun.management.ThreadMXBean
+                && ((com.sun.management.ThreadMXBean) bean).isThreadAllocatedMemorySupported();
+    }
+
+    @Test
+    public void yuvConversion_allocatesNothingPerFrame() {
+        if (!supported()) return;
+
+        int w = 64, h = 48;
+        ByteBuffer y = ByteBuffer.allocateDirect(w * h);
+        ByteBuffer u = ByteBuffer.allocateDirect(w * h / 2);
+        ByteBuffer v = ByteBuffer.allocateDirect(w * h / 2);
+        YuvConverter converter = new YuvConverter(32);
+
+        for (int i = 0; i < FRAMES; i++) {
+            converter.convert(y, w, 1, u, v, w, 2, w, h, 90);
+        }
+
+        long before = allocatedBytes();
+        for (int i = 0; i < FRAMES; i++) {
+            converter.convert(y, w, 1, u, v, w, 2, w, h, 90);
+        }
+        long perFrame = (allocatedBytes() - before) / FRAMES;
+
+        assertTrue("allocated " + perFrame + " B/frame", perFrame <= BUDGET_PER_FRAME);
+    }
+
+    /** {@code YoloV8Detector.detect(worker, ..., DetectionBuffer)}: infer, decode, NMS, collect. */
+    private static int detect(DetectorHead head, ByteBuffer input, Letterbox letterbox,
+                              DetectionBuffer out) {
+        head.infer(input);
+        int count = head.decode(0.4f, letterbox);
+        return head.collect(head.suppress(count), out);
+    }
+
+    @Test
+    public void detectorPath_allocatesNothingPerFrame() {
+        if (!supported()) return;
+
+        int size = 64, classes = 15, anchors = FakeBackend.anchors(size, size);
+        FakeBackend backend = new FakeBackend("fake", new int[]{1, size, size, 3},
+                new int[]{1, 4 + classes, anchors},
+                YoloDecoderTest.channelsFirst(YoloDecoderTest.tensor(7, classes, anchors)), 0);
+        DetectorHead head = new DetectorHead(backend, classes);
+        ByteBuffer input = ByteBuffer.allocateDirect(head.getInputSpec().bytes());
+        Letterbox letterbox = new Letterbox();
+        letterbox.stretch(640, 480, size);
+        DetectionBuffer detections = new DetectionBuffer(head.getMaxDetections(), null);
+
+        for (int i = 0; i < FRAMES; i++) detect(head, input, letterbox, detections);
+
+        long before = allocatedBytes();
+        int found = 0;
+        for (int i = 0; i < FRAMES; i++) found += detect(head, input, letterbox, detections);
+        long perFrame = (allocatedBytes() - before) / FRAMES;
+
+        assertTrue("nothing detected", found > 0);
+        assertTrue("allocated " + perFrame + " B/frame", perFrame <= BUDGET_PER_FRAME);
+    }
+
+    @Test
+    public void objectPool_reusesInstancesAcrossFrames() {
+        if (!supported()) return;
+
+        ObjectPool<float[]> pool = new ObjectPool<>(() -> new float[4]);
+
+        for (int i = 0; i < FRAMES; i++) {
+            pool.recycleAll();
+            for (int k = 0; k < 20; k++) pool.obtain()[0] = k;
+        }
+        assertEquals(20, pool.capacity());
+
+        long before = allocatedBytes();
+        for (int i = 0; i < FRAMES; i++) {
+            pool.recycleAll();
+            for (int k = 0; k < 20; k++) pool.obtain()[0] = k;
+        }
+        long perFrame = (allocatedBytes() - before) / FRAMES;
+
+        assertEquals(20, pool.capacity());
+        assertTrue("allocated " + perFrame + " B/frame", perFrame <= BUDGET_PER_FRAME);
+    }
+
+    @Test
+    public void overlayHandoff_allocatesNothingPerFrame() {
+        if (!supported()) return;
+
+        OverlayBoxes boxes = new OverlayBoxes(10, new String[]{"a", "b"});
+        DetectionBuffer d = new DetectionBuffer(10, boxes.getFront().getLabels());
+        for (int i = 0; i < FRAMES; i++) {
+            d.clear();
+            d.add(i, i, i + 50, i + 50, 0.9f, i & 1);
+            boxes.publish(d, 640, 480);
+            boxes.latch(1080, 720);
+        }
+
+        long before = allocatedBytes();
+        for (int i = 0; i < FRAMES; i++) {
+            d.clear();
+            d.add(i, i, i + 50, i + 50, 0.9f, i & 1);
+            boxes.publish(d, 640, 480);
+            boxes.latch(1080, 720);
+        }
+        long perFrame = (allocatedBytes() - before) / FRAMES;
+
+        assertTrue("allocated " + perFrame + " B/frame", perFrame <= BUDGET_PER_FRAME);
+    }
+
+    @Test
+    public void catalogLookup_allocatesNothing() throws Exception {
+        if (!supported()) return;
+
+        PriceCatalog catalog = PriceCatalog.parse(new java.io.StringReader(
+                PriceCatalogTest.catalogJson(5000, 3, new java.util.HashMap<>())));
+        StringBuilder key = new StringBuilder();
+        for (int i = 0; i < FRAMES; i++) {
+            key.setLength(0);
+            key.append("sku_").append(i * 97);
+            catalog.getPriceSen(catalog.idOf(key));
+        }
+
+        long before = allocatedBytes();
+        long sum = 0;
+        for (int i = 0; i < FRAMES; i++) {
+            key.setLength(0);
+            key.append("sku_").append(i * 97);
+            sum += catalog.getPriceSen(catalog.idOf(key));
+        }
+        long perLookup = (allocatedBytes() - before) / FRAMES;
+
+        assertTrue(sum > 0);
+        assertTrue("allocated " + perLookup + " B/lookup", perLookup <= BUDGET_PER_FRAME);
+    }
+
+    @Test
+    public void mappedCatalogLookup_allocatesNothing() throws Exception {
+        if (!supported()) return;
+
+        java.io.ByteArrayOutputStream bytes = new java.io.ByteArrayOutputStream();
+        CatalogCompiler.write(PriceCatalog.parse(new java.io.StringReader(
+                PriceCatalogTest.catalogJson(5000, 4, new java.util.HashMap<>()))), new String[0], bytes);
+        CatalogFile catalog = CatalogFile.wrap(java.nio.ByteBuffer.wrap(bytes.toByteArray()));
+        StringBuilder key = new StringBuilder();
+        for (int i = 0; i < FRAMES; i++) {
+            key.setLength(0);
+            key.append("sku_").append(i * 97);
+            catalog.getPriceSen(catalog.idOf(key));
+        }
+
+        long before = allocatedBytes();
+        long sum = 0;
+        for (int i = 0; i < FRAMES; i++) {
+            key.setLength(0);
+            key.append("sku_").append(i * 97);
+            sum += catalog.getPriceSen(catalog.idOf(key));
+        }
+        long perLookup = (allocatedBytes() - before) / FRAMES;
+
+        assertTrue(sum > 0);
+        assertTrue("allocated " + perLookup + " B/lookup", perLookup <= BUDGET_PER_FRAME);
+    }
+
+    @Test
+    public void objectPool_growsOnlyPastHighWaterMark() {
+        ObjectPool<Object> pool = new ObjectPool<>(Object::new);
+
+        Object first = pool.obtain();
+        pool.obtain();
+        pool.recycleAll();
+
+        assertSame(first, pool.obtain());
+        assertEquals(1, pool.inUse());
+        assertEquals(2, pool.capacity());
+
+        pool.obtain();
+        pool.obtain();
+        assertEquals(3, pool.capacity());
+    }
+}
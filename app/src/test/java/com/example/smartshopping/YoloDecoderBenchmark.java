@@ -0,0 +1,46 @@
+package com.example.smartshopping;
+
+import org.junit.Test;
+
+import static org.junit.Assert.*;
+
+/** Legacy nested-array parse vs the flat decoder, for both anchor counts we ship. */
+public class YoloDecoderBenchmark {
+
+    private static void compare(int boxes, int classes) {
+        float[][] t = YoloDecoderTest.tensor(11, classes, boxes);
+        float[][][] nested = new float[][][]{t};
+        float[] cf = YoloDecoderTest.channelsFirst(t);
+        float[] tr = YoloDecoderTest.transposed(t);
+
+        Letterbox lb = new Letterbox();
+        lb.fit(480, 640, 640);
+
+        float[] l = new float[boxes], tp = new float[boxes], r = new float[boxes];
+        float[] b = new float[boxes], s = new float[boxes];
+        int[] c = new int[boxes];
+
+        YoloDecoder first = new YoloDecoder(boxes, classes, false);
+        YoloDecoder trans = new YoloDecoder(boxes, classes, true);
+
+        double legacy = Microbench.measure("decode/legacy/" + boxes, 50, 200, () ->
+                Microbench.sink += YoloDecoderTest.legacyDecode(
+                        nested, classes, 0.4f, lb, l, tp, r, b, s, c));
+        double flat = Microbench.measure("decode/channels-first/" + boxes, 50, 200, () ->
+                Microbench.sink += first.decode(cf, 0.4f, lb));
+        double flatT = Microbench.measure("decode/transposed/" + boxes, 50, 200, () ->
+                Microbench.sink += trans.decode(tr, 0.4f, lb));
+
+        assertTrue(legacy > 0 && flat > 0 && flatT > 0);
+    }
+
+    @Test
+    public void decode_5376anchors() {
+        compare(5376, 15);
+    }
+
+    @Test
+    public void decode_8400anchors() {
+        compare(8400, 15);
+    }
+}
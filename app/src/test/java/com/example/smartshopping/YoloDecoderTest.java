@@ -0,0 +1,152 @@
+package com.example.smartshopping;
+
+import org.junit.Test;
+
+import java.util.Random;
+
+import static org.junit.Assert.*;
+
+public class YoloDecoderTest {
+
+    // ===== FIXTURES =====
+
+    /**
+     * Head output shaped like the real model: normalised boxes, near-zero
+     * class scores everywhere except a handful of anchors per object.
+     */
+    static float[][] tensor(long seed, int classes, int boxes) {
+        Random rnd = new Random(seed);
+        float[][] out = new float[4 + classes][boxes];
+        for (int i = 0; i < boxes; i++) {
+            out[0][i] = rnd.nextFloat();
+            out[1][i] = rnd.nextFloat();
+            out[2][i] = 0.05f + rnd.nextFloat() * 0.3f;
+            out[3][i] = 0.05f + rnd.nextFloat() * 0.3f;
+            for (int c = 0; c < classes; c++) out[4 + c][i] = rnd.nextFloat() * 0.05f;
+            if (rnd.nextInt(50) == 0) out[4 + rnd.nextInt(classes)][i] = 0.3f + rnd.nextFloat() * 0.7f;
+        }
+        return out;
+    }
+
+    static float[] channelsFirst(float[][] t) {
+        int rows = t.length, n = t[0].length;
+        float[] flat = new float[rows * n];
+        for (int r = 0; r < rows; r++) System.arraycopy(t[r], 0, flat, r * n, n);
+        return flat;
+    }
+
+    static float[] transposed(float[][] t) {
+        int rows = t.length, n = t[0].length;
+        float[] flat = new float[rows * n];
+        for (int i = 0; i < n; i++)
+            for (int r = 0; r < rows; r++) flat[i * rows + r] = t[r][i];
+        return flat;
+    }
+
+    /** The pre-decoder parseOutput loop: column-strided walk of [1][4+C][N]. */
+    static int legacyDecode(float[][][] out, int classes, float thresh, Letterbox lb,
+                            float[] l, float[] t, float[] r, float[] b, float[] s, int[] cls) {
+        int boxes = out[0][0].length;
+        int count = 0;
+        for (int i = 0; i < boxes; i++) {
+            float cx = out[0][0][i];
+            float cy = out[0][1][i];
+            float w  = out[0][2][i];
+            float h  = out[0][3][i];
+
+            int bestClass = -1;
+            float bestScore = 0f;
+            for (int c = 0; c < classes; c++) {
+                float score = out[0][4 + c][i];
+                if (score > bestScore) {
+                    bestScore = score;
+                    bestClass = c;
+                }
+            }
+            if (bestScore < thresh) continue;
+
+            l[count] = lb.toFrameX(cx - w / 2f);
+            t[count] = lb.toFrameY(cy - h / 2f);
+            r[count] = lb.toFrameX(cx + w / 2f);
+            b[count] = lb.toFrameY(cy + h / 2f);
+            s[count] = bestScore;
+            cls[count] = bestClass;
+            count++;
+        }
+        return count;
+    }
+
+    private static Letterbox letterbox() {
+        Letterbox lb = new Letterbox();
+        lb.fit(480, 640, 640);
+        return lb;
+    }
+
+    private static void assertSameAsLegacy(YoloDecoder d, float[][] t, int classes) {
+        int n = t[0].length;
+        float[] l = new float[n], tp = new float[n], r = new float[n], b = new float[n], s = new float[n];
+        int[] c = new int[n];
+        int expected = legacyDecode(new float[][][]{t}, classes, 0.4f, letterbox(), l, tp, r, b, s, c);
+
+        assertEquals(expected, d.getCount());
+        for (int i = 0; i < expected; i++) {
+            assertEquals(c[i], d.classId[i]);
+            assertEquals(s[i], d.score[i], 0f);
+            assertEquals(l[i], d.left[i], 1e-3f);
+            assertEquals(tp[i], d.top[i], 1e-3f);
+            assertEquals(r[i], d.right[i], 1e-3f);
+            assertEquals(b[i], d.bottom[i], 1e-3f);
+        }
+    }
+
+    // ===== TESTS =====
+
+    @Test
+    public void channelsFirst_matchesLegacyDecode() {
+        float[][] t = tensor(3, 15, 5376);
+        YoloDecoder d = new YoloDecoder(5376, 15, false);
+        d.decode(channelsFirst(t), 0.4f, letterbox());
+
+        assertTrue(d.getCount() > 0);
+        assertSameAsLegacy(d, t, 15);
+    }
+
+    @Test
+    public void transposed_matchesLegacyDecode() {
+        float[][] t = tensor(4, 15, 8400);
+        YoloDecoder d = new YoloDecoder(8400, 15, true);
+        d.decode(transposed(t), 0.4f, letterbox());
+
+        assertTrue(d.getCount() > 0);
+        assertSameAsLegacy(d, t, 15);
+    }
+
+    @Test
+    public void belowThreshold_emitsNothing() {
+        float[][] t = new float[4 + 3][10];
+        YoloDecoder d = new YoloDecoder(10, 3, false);
+
+        assertEquals(0, d.decode(channelsFirst(t), 0.4f, letterbox()));
+    }
+
+    @Test
+    public void box_mapsThroughLetterbox() {
+        float[][] t = new float[4 + 2][1];
+        t[0][0] = 0.5f;
+        t[1][0] = 0.5f;
+        t[2][0] = 0.25f;
+        t[3][0] = 0.5f;
+        t[5][0] = 0.9f;
+
+        Letterbox lb = new Letterbox();
+        lb.stretch(200, 100, 640);
+
+        YoloDecoder d = new YoloDecoder(1, 2, false);
+        assertEquals(1, d.decode(channelsFirst(t), 0.4f, lb));
+        assertEquals(1, d.classId[0]);
+        assertEquals(75f, d.left[0], 1e-3f);
+        assertEquals(125f, d.right[0], 1e-3f);
+        assertEquals(25f, d.top[0], 1e-3f);
+        assertEquals(75f, d.bottom[0], 1e-3f);
+    }
+}
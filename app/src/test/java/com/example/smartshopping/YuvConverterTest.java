@@ -0,0 +1,161 @@
+package com.example.smartshopping;
+
+import org.junit.Test;
+
+import java.nio.ByteBuffer;
+import java.nio.FloatBuffer;
+
+import static org.junit.Assert.*;
+
+public class YuvConverterTest {
+
+    private static final float EPS = 1.5f / 255f;
+
+    // ===== SYNTHETIC PLANES =====
+
+    /** Y plane with a padded row stride. */
+    private static ByteBuffer yPlane(int w, int h, int rowStride, int[][] luma) {
+        ByteBuffer buf = ByteBuffer.allocateDirect(rowStride * h);
+        for (int y = 0; y < h; y++)
+            for (int x = 0; x < w; x++)
+                buf.put(y * rowStride + x, (byte) luma[y][x]);
+        return buf;
+    }
+
+    /** Chroma plane filled with one value; pixelStride 2 mimics NV21/NV12 layouts. */
+    private static ByteBuffer chromaPlane(int w, int h, int rowStride, int pixelStride, int value) {
+        ByteBuffer buf = ByteBuffer.allocateDirect(rowStride * (h / 2));
+        for (int y = 0; y < h / 2; y++)
+            for (int x = 0; x < w / 2; x++)
+                buf.put(y * rowStride + x * pixelStride, (byte) value);
+        return buf;
+    }
+
+    private static float[] rgbAt(YuvConverter c, int x, int y) {
+        FloatBuffer f = c.getInput().asFloatBuffer();
+        int i = (y * c.getInputSize() + x) * 3;
+        return new float[]{f.get(i), f.get(i + 1), f.get(i + 2)};
+    }
+
+    private static int[][] gradient(int w, int h) {
+        int[][] luma = new int[h][w];
+        for (int y = 0; y < h; y++)
+            for (int x = 0; x < w; x++)
+                luma[y][x] = x * 16 + y;
+        return luma;
+    }
+
+    // ===== TESTS =====
+
+    @Test
+    public void greyFrame_fillsSquareInput() {
+        int[][] luma = new int[8][8];
+        for (int[] row : luma) java.util.Arrays.fill(row, 200);
+
+        YuvConverter c = new YuvConverter(8);
+        c.convert(yPlane(8, 8, 8, luma), 8, 1,
+                chromaPlane(8, 8, 8, 2, 128), chromaPlane(8, 8, 8, 2, 128), 8, 2,
+                8, 8, 0);
+
+        float[] px = rgbAt(c, 3, 5);
+        assertEquals(200 / 255f, px[0], EPS);
+        assertEquals(200 / 255f, px[1], EPS);
+        assertEquals(200 / 255f, px[2], EPS);
+    }
+
+    @Test
+    public void respectsRowStrideAndPixelStride() {
+        int[][] luma = gradient(8, 8);
+
+        YuvConverter c = new YuvConverter(8);
+        // 16-byte rows, interleaved chroma
+        c.convert(yPlane(8, 8, 16, luma), 16, 1,
+                chromaPlane(8, 8, 16, 2, 128), chromaPlane(8, 8, 16, 2, 128), 16, 2,
+                8, 8, 0);
+
+        for (int y = 0; y < 8; y++)
+            for (int x = 0; x < 8; x++)
+                assertEquals(luma[y][x] / 255f, rgbAt(c, x, y)[1], EPS);
+    }
+
+    @Test
+    public void chroma_convertsToColour() {
+        int[][] luma = new int[4][4];
+        for (int[] row : luma) java.util.Arrays.fill(row, 128);
+
+        YuvConverter c = new YuvConverter(4);
+        // V high -> red dominant
+        c.convert(yPlane(4, 4, 4, luma), 4, 1,
+                chromaPlane(4, 4, 2, 1, 128), chromaPlane(4, 4, 2, 1, 228), 2, 1,
+                4, 4, 0);
+
+        float[] px = rgbAt(c, 1, 1);
+        assertTrue(px[0] > px[1]);
+        assertTrue(px[0] > px[2]);
+    }
+
+    @Test
+    public void rotation90_matchesClockwiseRotate() {
+        int w = 8, h = 4;
+        int[][] luma = gradient(w, h);
+
+        YuvConverter c = new YuvConverter(8);
+        c.convert(yPlane(w, h, w, luma), w, 1,
+                chromaPlane(w, h, w / 2, 1, 128), chromaPlane(w, h, w / 2, 1, 128), w / 2, 1,
+                w, h, 90);
+
+        // upright frame is 4 wide x 8 tall, letterboxed to x in [2, 6)
+        Letterbox lb = c.getLetterbox();
+        assertEquals(4, lb.getSrcWidth());
+        assertEquals(8, lb.getSrcHeight());
+        assertEquals(2f, lb.getPadX(), 0f);
+
+        for (int ry = 0; ry < 8; ry++)
+            for (int rx = 0; rx < 4; rx++) {
+                // clockwise: upright (rx, ry) comes from sensor (ry, h - 1 - rx)
+                int expected = luma[h - 1 - rx][ry];
+                assertEquals(expected / 255f, rgbAt(c, rx + 2, ry)[1], EPS);
+            }
+    }
+
+    @Test
+    public void rotation180_and270() {
+        int w = 4, h = 4;
+        int[][] luma = gradient(w, h);
+
+        YuvConverter c = new YuvConverter(4);
+        c.convert(yPlane(w, h, w, luma), w, 1,
+                chromaPlane(w, h, 2, 1, 128), chromaPlane(w, h, 2, 1, 128), 2, 1,
+                w, h, 180);
+        assertEquals(luma[3][3] / 255f, rgbAt(c, 0, 0)[1], EPS);
+        assertEquals(luma[0][3] / 255f, rgbAt(c, 0, 3)[1], EPS);
+
+        c.convert(yPlane(w, h, w, luma), w, 1,
+                chromaPlane(w, h, 2, 1, 128), chromaPlane(w, h, 2, 1, 128), 2, 1,
+                w, h, 270);
+        // counter-clockwise: upright (rx, ry) comes from sensor (w - 1 - ry, rx)
+        assertEquals(luma[0][3] / 255f, rgbAt(c, 0, 0)[1], EPS);
+        assertEquals(luma[2][3] / 255f, rgbAt(c, 2, 0)[1], EPS);
+    }
+
+    @Test
+    public void letterbox_padsAndMapsBack() {
+        int w = 16, h = 8;
+        int[][] luma = gradient(w, h);
+
+        YuvConverter c = new YuvConverter(8);
+        c.convert(yPlane(w, h, w, luma), w, 1,
+                chromaPlane(w, h, w / 2, 1, 128), chromaPlane(w, h, w / 2, 1, 128), w / 2, 1,
+                w, h, 0);
+
+        // 16x8 fits as 8x4, padded by 2 rows top and bottom
+        assertEquals(114 / 255f, rgbAt(c, 4, 0)[0], EPS);
+        assertEquals(114 / 255f, rgbAt(c, 4, 7)[0], EPS);
+
+        Letterbox lb = c.getLetterbox();
+        assertEquals(0f, lb.toFrameX(0f), 1e-4f);
+        assertEquals(16f, lb.toFrameX(1f), 1e-4f);
+        assertEquals(0f, lb.toFrameY(2f / 8f), 1e-4f);
+        assertEquals(8f, lb.toFrameY(6f / 8f), 1e-4f);
+    }
+}